@@ -0,0 +1,111 @@
+package bacheca;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generatore degli id degli annunci, corretto anche con più thread.
+ *
+ * Ogni thread riceve dal contatore globale (AtomicInteger) un blocco di
+ * id consecutivi e li assegna senza ulteriore sincronizzazione: i thread
+ * che creano annunci non si contendono un unico contatore. Con un solo
+ * thread gli id restano consecutivi.
+ *
+ * Il reset del contatore incrementa un'epoca che invalida i blocchi già
+ * distribuiti, così nessun thread assegna id "vecchi". Lo stesso fa la
+ * registrazione di un id ripristinato da file, ma solo se l'id cade nella
+ * parte non ancora assegnata di un blocco: un id già assegnato (ad esempio
+ * ricaricando un file con gli id in uso) non tocca i blocchi dei thread.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class AllocatoreId {
+
+    private static final int DIMENSIONE_BLOCCO = 64;
+
+    /**
+     * Blocco di id riservato a un thread: [prossimo, fine) sono gli id non
+     * ancora assegnati. Solo il thread proprietario lo modifica; prossimo e
+     * fine sono volatili perché registraIdUsato li legge da altri thread.
+     */
+    private static final class Blocco {
+        int epoca = -1;
+        volatile int prossimo;
+        volatile int fine;
+
+        boolean contiene(int id) {
+            int da = prossimo;  // Letto prima di 'fine', scritto dopo
+            return id >= da && id < fine;
+        }
+    }
+
+    // Primo id non ancora riservato a nessun blocco
+    private final AtomicInteger prossimoLibero = new AtomicInteger(1);
+    private final AtomicInteger epoca = new AtomicInteger();
+    // Blocchi di tutti i thread che hanno chiesto un id (uno per thread)
+    private final Queue<Blocco> tuttiIBlocchi = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Blocco> blocchi = ThreadLocal.withInitial(() -> {
+        Blocco blocco = new Blocco();
+        tuttiIBlocchi.add(blocco);
+        return blocco;
+    });
+
+    /**
+     * Restituisce un nuovo id, mai restituito prima nell'epoca corrente.
+     */
+    int prossimoId() {
+        Blocco blocco = blocchi.get();
+        while (true) {
+            int corrente = epoca.get();
+            if (blocco.epoca != corrente || blocco.prossimo == blocco.fine) {
+                // Finché il nuovo intervallo non è scritto il blocco contiene
+                // ogni id: una registrazione concorrente invalida i blocchi
+                blocco.fine = Integer.MAX_VALUE;
+                blocco.prossimo = Integer.MIN_VALUE;
+                int inizio = prossimoLibero.getAndAdd(DIMENSIONE_BLOCCO);
+                blocco.epoca = corrente;
+                blocco.fine = inizio + DIMENSIONE_BLOCCO;
+                blocco.prossimo = inizio;
+            }
+            int id = blocco.prossimo;
+            blocco.prossimo = id + 1;
+            // Un reset avvenuto nel frattempo rende il blocco non più valido
+            if (epoca.get() == corrente) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Registra un id assegnato dall'esterno (ad esempio letto da file),
+     * così che non venga più restituito da prossimoId().
+     */
+    void registraIdUsato(int id) {
+        int corrente = prossimoLibero.get();
+        while (id >= corrente) {
+            // Caso comune (caricamento in ordine): basta avanzare il contatore
+            if (prossimoLibero.compareAndSet(corrente, id + 1)) {
+                return;
+            }
+            corrente = prossimoLibero.get();
+        }
+        // Se l'id cade nella parte non assegnata di un blocco, i blocchi
+        // vengono invalidati tutti; altrimenti è già stato assegnato e
+        // nessun blocco lo restituirà
+        for (Blocco blocco : tuttiIBlocchi) {
+            if (blocco.contiene(id)) {
+                epoca.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Riparte dal valore indicato; i blocchi già distribuiti non sono più usati.
+     */
+    void reimposta(int prossimoId) {
+        prossimoLibero.set(prossimoId);
+        epoca.incrementAndGet();
+    }
+}
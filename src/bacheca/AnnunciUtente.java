@@ -0,0 +1,74 @@
+package bacheca;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Voce dell'indice per proprietario della Bacheca: raccoglie gli annunci
+ * pubblicati da un singolo utente e ne tiene i conteggi per tipo.
+ *
+ * I conteggi sono aggiornati dalla Bacheca a ogni aggiunta e rimozione,
+ * quindi leggerli non richiede di scorrere gli annunci.
+ * Dall'esterno l'oggetto è in sola lettura.
+ */
+public class AnnunciUtente {
+
+    /** Voce condivisa restituita per gli utenti senza annunci. */
+    static final AnnunciUtente VUOTA = new AnnunciUtente();
+
+    private final Set<Annuncio> annunci;
+    private int numeroVendite;
+    private int numeroAcquisti;
+
+    AnnunciUtente() {
+        this.annunci = new LinkedHashSet<>();
+    }
+
+    // =================== GETTERS ===================
+
+    /**
+     * Restituisce gli annunci dell'utente (vista non modificabile).
+     */
+    public Set<Annuncio> getAnnunci() {
+        return Collections.unmodifiableSet(annunci);
+    }
+
+    public int getNumeroVendite() {
+        return numeroVendite;
+    }
+
+    public int getNumeroAcquisti() {
+        return numeroAcquisti;
+    }
+
+    public int getNumeroAnnunci() {
+        return annunci.size();
+    }
+
+    // =================== AGGIORNAMENTO (solo Bacheca) ===================
+
+    void aggiungi(Annuncio annuncio) {
+        if (annunci.add(annuncio)) {
+            if (annuncio instanceof AnnuncioVendita) {
+                numeroVendite++;
+            } else if (annuncio instanceof AnnuncioAcquisto) {
+                numeroAcquisti++;
+            }
+        }
+    }
+
+    void rimuovi(Annuncio annuncio) {
+        if (annunci.remove(annuncio)) {
+            if (annuncio instanceof AnnuncioVendita) {
+                numeroVendite--;
+            } else if (annuncio instanceof AnnuncioAcquisto) {
+                numeroAcquisti--;
+            }
+        }
+    }
+
+    boolean isVuota() {
+        return annunci.isEmpty();
+    }
+}
@@ -1,6 +1,9 @@
 package bacheca;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
 import eccezioni.DatiNonValidiException;
 
 /**
@@ -9,8 +12,8 @@ import eccezioni.DatiNonValidiException;
  */
 public abstract class Annuncio {
 
-    // Contatore statico per generare ID univoci per ogni annuncio
-    private static int idCounter = 1;
+    // Generatore statico di ID univoci per ogni annuncio (thread-safe)
+    private static final AllocatoreId ALLOCATORE_ID = new AllocatoreId();
 
     // Attributi comuni a tutti gli annunci
     private int id;
@@ -18,14 +21,38 @@ public abstract class Annuncio {
     private String descrizione;
     private double prezzo;
     private final Utente utente;  // Utente che ha creato l'annuncio (non può essere modificato)
-    private List<String> paroleChiave;
+    // Parole chiave come codici del dizionario globale (array mai modificato:
+    // ogni setParoleChiave ne assegna uno nuovo)
+    private int[] paroleChiave;
 
-    // Regex per la validazione delle parole chiave (solo lettere, numeri e spazi)
-    private static final String PAROLA_CHIAVE_REGEX = "^[a-zA-Z0-9\\s]+$";
+    // Bacheche che contengono l'annuncio e vanno avvisate quando cambiano
+    // i campi indicizzati (copy-on-write: le bacheche possono registrarsi
+    // da thread diversi mentre un setter scorre la lista)
+    private final List<OsservatoreAnnuncio> osservatori = new CopyOnWriteArrayList<>();
+
+    // Regex per la validazione delle parole chiave normalizzate (solo lettere, numeri e spazi)
+    private static final Pattern PAROLA_CHIAVE_REGEX = Pattern.compile("^[a-zA-Z0-9\\s]+$");
 
     // Metodo per ottenere il prossimo ID
     public static int getNextId() {
-        return idCounter++;
+        return ALLOCATORE_ID.prossimoId();
+    }
+
+    /**
+     * Restituisce la parola chiave nella forma normalizzata con cui viene
+     * memorizzata negli annunci (minuscolo, senza accenti né spazi agli
+     * estremi), per confrontarla con quelle restituite da getParoleChiave().
+     */
+    public static String normalizzaParolaChiave(String parola) {
+        return DizionarioParole.normalizza(parola);
+    }
+
+    /**
+     * Verifica una parola chiave già normalizzata con la stessa regola usata
+     * da setParoleChiave (solo lettere, cifre e spazi).
+     */
+    public static boolean isParolaChiaveValida(String normalizzata) {
+        return PAROLA_CHIAVE_REGEX.matcher(normalizzata).matches();
     }
 
     /**
@@ -50,14 +77,23 @@ public abstract class Annuncio {
 
     /**
      * Costruttore per il ripristino di un annuncio da file (mantiene l'ID originale).
-     * Se l'ID ripristinato è maggiore del contatore corrente, il contatore viene aggiornato.
+     * L'ID ripristinato viene registrato, così non sarà assegnato ai nuovi annunci.
      */
     public Annuncio(int id, String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave) {
+        this(id, titolo, descrizione, prezzo, utente, paroleChiave, true);
+    }
+
+    /**
+     * Costruttore interno al package: con registraId = false l'ID non viene
+     * registrato (usato dall'ArchivioAnnunci, che ricostruisce annunci il cui
+     * ID è già stato assegnato).
+     */
+    Annuncio(int id, String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave, boolean registraId) {
         this.id = id;
 
-        // Aggiorna il contatore ID se l'annuncio ripristinato ha un ID più alto
-        if (id >= idCounter) {
-            idCounter = id + 1;
+        // L'ID ripristinato non verrà più assegnato ai nuovi annunci
+        if (registraId) {
+            ALLOCATORE_ID.registraIdUsato(id);
         }
 
         // Validazioni tramite setter
@@ -94,10 +130,30 @@ public abstract class Annuncio {
         return prezzo;
     }
 
+    /**
+     * Restituisce le parole chiave (lista non modificabile, decodificata
+     * dal dizionario globale senza copie).
+     */
     public List<String> getParoleChiave() {
+        return new ListaParole(paroleChiave);
+    }
+
+    // Codici delle parole chiave nel DizionarioParole (da non modificare)
+    int[] getCodiciParole() {
         return paroleChiave;
     }
 
+    /**
+     * Restituisce una copia dei codici delle parole chiave nel dizionario
+     * globale, senza duplicati e nell'ordine di getParoleChiave(). Parole
+     * uguali hanno lo stesso codice in tutti gli annunci, quindi le parole
+     * di annunci diversi si confrontano come interi; i codici sono compatti
+     * (assegnati da 0 in su) e possono indicizzare un array.
+     */
+    public int[] getCodiciParoleChiave() {
+        return paroleChiave.clone();
+    }
+
     // =================== SETTERS CON VALIDAZIONI ===================
 
     /**
@@ -108,6 +164,11 @@ public abstract class Annuncio {
             throw new DatiNonValidiException("Il titolo non può essere vuoto o nullo.");
         }
         this.titolo = titolo;
+
+        // Avvisa le bacheche che contengono l'annuncio (indice full-text)
+        for (OsservatoreAnnuncio osservatore : osservatori) {
+            osservatore.testoModificato(this);
+        }
     }
 
     /**
@@ -115,6 +176,11 @@ public abstract class Annuncio {
      */
     public void setDescrizione(String descrizione) {
         this.descrizione = (descrizione != null && !descrizione.isBlank()) ? descrizione : "Nessuna descrizione disponibile.";
+
+        // Avvisa le bacheche che contengono l'annuncio (indice full-text)
+        for (OsservatoreAnnuncio osservatore : osservatori) {
+            osservatore.testoModificato(this);
+        }
     }
 
     /**
@@ -124,39 +190,94 @@ public abstract class Annuncio {
         if (prezzo < 0) {
             throw new DatiNonValidiException("Il prezzo non può essere negativo.");
         }
+        double vecchioPrezzo = this.prezzo;
         this.prezzo = prezzo;
+
+        // Avvisa le bacheche che contengono l'annuncio (indice dei prezzi)
+        if (Double.compare(vecchioPrezzo, prezzo) != 0) {
+            for (OsservatoreAnnuncio osservatore : osservatori) {
+                osservatore.prezzoModificato(this, vecchioPrezzo);
+            }
+        }
     }
 
     /**
-     * Valida la lista di parole chiave:
+     * Normalizza e valida la lista di parole chiave:
      * - Deve contenere almeno un elemento.
-     * - Ogni parola deve rispettare il formato definito da una regex.
+     * - Ogni parola viene normalizzata (spazi agli estremi rimossi, accenti
+     *   tolti, minuscolo) e deve rispettare il formato definito da una regex.
+     * - Le parole che dopo la normalizzazione risultano uguali sono tenute una volta.
      */
     public void setParoleChiave(List<String> paroleChiave) {
         if (paroleChiave == null || paroleChiave.isEmpty()) {
             throw new DatiNonValidiException("La lista di parole chiave non può essere vuota o nulla.");
         }
 
-        for (String parola : paroleChiave) {
-            if (!parola.matches(PAROLA_CHIAVE_REGEX)) {
-                throw new DatiNonValidiException("Parola chiave non valida: " + parola);
+        int[] codici;
+        if (paroleChiave instanceof ListaParole lista) {
+            // Parole di un altro annuncio: già normalizzate e validate
+            codici = lista.codici();
+        } else {
+            List<String> normalizzate = new ArrayList<>(paroleChiave.size());
+            for (String parola : paroleChiave) {
+                if (parola == null) {
+                    throw new DatiNonValidiException("Parola chiave non valida: null");
+                }
+                String normalizzata = DizionarioParole.normalizza(parola);
+                if (!isParolaChiaveValida(normalizzata)) {
+                    throw new DatiNonValidiException("Parola chiave non valida: " + parola);
+                }
+                normalizzate.add(normalizzata);
             }
+            codici = DizionarioParole.codifica(normalizzate);
+        }
+        int[] vecchieParole = this.paroleChiave;
+        this.paroleChiave = codici;
+
+        // Avvisa le bacheche che contengono l'annuncio (indice delle parole chiave)
+        for (OsservatoreAnnuncio osservatore : osservatori) {
+            osservatore.paroleChiaveModificate(this, vecchieParole);
         }
-        this.paroleChiave = paroleChiave;
     }
 
     // =================== METODI UTILI ===================
 
     /**
-     * Verifica se l'annuncio contiene una determinata parola chiave.
+     * Verifica se l'annuncio contiene una determinata parola chiave
+     * (confrontando le forme normalizzate).
      */
     public boolean contieneParolaChiave(String parola) {
-        return paroleChiave.contains(parola);
+        // Una parola assente dal dizionario non può essere in nessun annuncio
+        int codice = DizionarioParole.cerca(parola);
+        if (codice == DizionarioParole.ASSENTE) {
+            return false;
+        }
+        for (int c : paroleChiave) {
+            if (c == codice) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // =================== OSSERVATORI (uso interno al package) ===================
+
+    void aggiungiOsservatore(OsservatoreAnnuncio osservatore) {
+        osservatori.add(osservatore);
+    }
+
+    void rimuoviOsservatore(OsservatoreAnnuncio osservatore) {
+        osservatori.remove(osservatore);
+    }
+
+    // Usato dalle sottoclassi per notificare le modifiche dei propri campi
+    List<OsservatoreAnnuncio> getOsservatori() {
+        return osservatori;
     }
 
     // Metodo per resettare il contatore ID al valore specificato
     public static void resetIdCounter(int nextId) {
-        idCounter = nextId;
+        ALLOCATORE_ID.reimposta(nextId);
     }
 
     /**
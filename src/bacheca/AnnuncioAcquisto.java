@@ -4,7 +4,7 @@ import java.util.List;
 public class AnnuncioAcquisto extends Annuncio{
     //Costruttore SENZA ID (usato dalla CLI per creare nuovi annunci)
     public AnnuncioAcquisto(String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave) {
-        super(Annuncio.getNextId(), titolo, descrizione, prezzo, utente, paroleChiave);
+        super(titolo, descrizione, prezzo, utente, paroleChiave);
     }
 
     //Costruttore CON ID (usato per leggere dal file)
@@ -12,6 +12,11 @@ public class AnnuncioAcquisto extends Annuncio{
         super(id, titolo, descrizione, prezzo, utente, paroleChiave);
     }
 
+    //Costruttore interno (usato dall'ArchivioAnnunci per ricostruire un annuncio)
+    AnnuncioAcquisto(int id, String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave, boolean registraId) {
+        super(id, titolo, descrizione, prezzo, utente, paroleChiave, registraId);
+    }
+
 	@Override
 	public String toString() {
 		return super.toString() + '}';
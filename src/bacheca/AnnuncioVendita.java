@@ -12,7 +12,7 @@ public class AnnuncioVendita extends Annuncio {
     // Costruttore migliorato: rimosso il controllo su 'venduto'
     //Costruttore SENZA ID (usato per creare nuovi annunci)
     public AnnuncioVendita(String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave, boolean venduto, LocalDate dataScadenza) {
-        super(Annuncio.getNextId(), titolo, descrizione, prezzo, utente, paroleChiave);
+        super(titolo, descrizione, prezzo, utente, paroleChiave);
 
         if (dataScadenza == null || dataScadenza.isBefore(LocalDate.now())) {
             throw new DatiNonValidiException("La data di scadenza non può essere nulla o nel passato.");
@@ -37,7 +37,12 @@ public class AnnuncioVendita extends Annuncio {
 
     // Costruttore CON bypassValidazione (usato per leggere annunci scaduti dal file)
     public AnnuncioVendita(int id, String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave, boolean venduto, LocalDate dataScadenza, boolean bypassValidazione) {
-        super(id, titolo, descrizione, prezzo, utente, paroleChiave);
+        this(id, titolo, descrizione, prezzo, utente, paroleChiave, venduto, dataScadenza, bypassValidazione, true);
+    }
+
+    // Costruttore interno (usato dall'ArchivioAnnunci per ricostruire un annuncio)
+    AnnuncioVendita(int id, String titolo, String descrizione, double prezzo, Utente utente, List<String> paroleChiave, boolean venduto, LocalDate dataScadenza, boolean bypassValidazione, boolean registraId) {
+        super(id, titolo, descrizione, prezzo, utente, paroleChiave, registraId);
 
         // Validazione della data solo se bypassValidazione è false
         if (!bypassValidazione && (dataScadenza == null || dataScadenza.isBefore(LocalDate.now()))) {
@@ -57,7 +62,15 @@ public class AnnuncioVendita extends Annuncio {
         if (dataScadenza == null || dataScadenza.isBefore(LocalDate.now())) {
             throw new DatiNonValidiException("La data di scadenza non può essere nel passato.");
         }
+        LocalDate vecchiaScadenza = this.dataScadenza;
         this.dataScadenza = dataScadenza;
+
+        // Avvisa le bacheche che contengono l'annuncio (indice delle scadenze)
+        if (!dataScadenza.equals(vecchiaScadenza)) {
+            for (OsservatoreAnnuncio osservatore : getOsservatori()) {
+                osservatore.scadenzaModificata(this, vecchiaScadenza);
+            }
+        }
     }
 
     // Gestione dello stato di vendita
@@ -66,7 +79,15 @@ public class AnnuncioVendita extends Annuncio {
     }
 
     public void setVenduto(boolean venduto) {
+        boolean cambiato = this.venduto != venduto;
         this.venduto = venduto;
+
+        // Avvisa le bacheche che contengono l'annuncio (colonna "venduto")
+        if (cambiato) {
+            for (OsservatoreAnnuncio osservatore : getOsservatori()) {
+                osservatore.vendutoModificato(this);
+            }
+        }
     }
 
     // Verifica se l'annuncio è scaduto
@@ -0,0 +1,338 @@
+package bacheca;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import eccezioni.BachecaException;
+
+/**
+ * Archivio di annunci memorizzati fuori dallo heap.
+ *
+ * Ogni annuncio archiviato viene codificato in un record binario (campi
+ * numerici e stringhe UTF-8) scritto in "slab" di memoria diretta
+ * (ByteBuffer.allocateDirect): nello heap restano solo gli indici
+ * primitivi id -> record, quindi gli annunci archiviati non pesano sulla
+ * old generation né sulle pause del garbage collector.
+ *
+ * Gli annunci vengono ricostruiti solo quando vengono letti (ricerca per
+ * id o iterazione): ogni lettura restituisce un nuovo oggetto, scollegato
+ * dall'archivio, per cui modificarlo non cambia il record archiviato.
+ *
+ * Lo spazio dei record rimossi o sostituiti viene recuperato compattando
+ * gli slab quando supera quello occupato dai record validi.
+ *
+ * La classe non è thread-safe.
+ */
+public class ArchivioAnnunci implements Iterable<Annuncio> {
+
+    private static final int DIMENSIONE_SLAB_PREDEFINITA = 1 << 20;
+    private static final int DIMENSIONE_SLAB_MINIMA = 256;
+
+    private static final byte TIPO_VENDITA = 1;
+    private static final byte TIPO_ACQUISTO = 2;
+    private static final long NESSUNA_DATA = Long.MIN_VALUE;
+
+    private final int dimensioneSlab;
+    private final List<ByteBuffer> slab = new ArrayList<>();
+    private int scrittura;  // prima posizione libera nell'ultimo slab
+
+    // id -> numero del record; per ogni record: posizione (slab << 32 | offset) e id
+    private final IndiceId record = new IndiceId();
+    private long[] posizioni = new long[16];
+    private int[] idRecord = new int[16];
+    private int numeroRecord;
+
+    private long byteValidi;
+    private long byteLiberi;
+
+    public ArchivioAnnunci() {
+        this(DIMENSIONE_SLAB_PREDEFINITA);
+    }
+
+    /**
+     * @param dimensioneSlab dimensione in byte di ogni slab di memoria diretta
+     * @throws BachecaException se la dimensione è troppo piccola
+     */
+    public ArchivioAnnunci(int dimensioneSlab) {
+        if (dimensioneSlab < DIMENSIONE_SLAB_MINIMA) {
+            throw new BachecaException("Dimensione dello slab non valida: " + dimensioneSlab);
+        }
+        this.dimensioneSlab = dimensioneSlab;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: scrittura
+    // ------------------------------------------------------------------
+    /**
+     * Archivia l'annuncio; se esiste già un record con lo stesso id viene
+     * sostituito.
+     *
+     * @throws BachecaException se l'annuncio è nullo o di un tipo non supportato
+     */
+    public void archivia(Annuncio annuncio) {
+        if (annuncio == null) {
+            throw new BachecaException("Annuncio non può essere nullo");
+        }
+        byte[] codificato = codifica(annuncio);
+        rimuovi(annuncio.getId());
+
+        long posizione = scrivi(codificato);
+        if (numeroRecord == posizioni.length) {
+            posizioni = Arrays.copyOf(posizioni, numeroRecord << 1);
+            idRecord = Arrays.copyOf(idRecord, numeroRecord << 1);
+        }
+        posizioni[numeroRecord] = posizione;
+        idRecord[numeroRecord] = annuncio.getId();
+        record.put(annuncio.getId(), numeroRecord++);
+        byteValidi += codificato.length;
+    }
+
+    /**
+     * Archivia tutti gli annunci indicati.
+     */
+    public void archiviaTutti(Collection<? extends Annuncio> annunci) {
+        for (Annuncio annuncio : annunci) {
+            archivia(annuncio);
+        }
+    }
+
+    /**
+     * Rimuove dall'archivio il record con l'id indicato.
+     *
+     * @return true se il record era presente
+     */
+    public boolean rimuovi(int id) {
+        int numero = record.remove(id);
+        if (numero == IndiceId.ASSENTE) {
+            return false;
+        }
+        int lunghezza = slabDi(posizioni[numero]).getInt(offsetDi(posizioni[numero]));
+        byteValidi -= lunghezza;
+        byteLiberi += lunghezza;
+        if (byteLiberi > byteValidi && byteLiberi > dimensioneSlab) {
+            compatta();
+        }
+        return true;
+    }
+
+    public void svuota() {
+        slab.clear();
+        scrittura = 0;
+        record.clear();
+        posizioni = new long[16];
+        idRecord = new int[16];
+        numeroRecord = 0;
+        byteValidi = 0;
+        byteLiberi = 0;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: lettura (con ricostruzione dell'annuncio)
+    // ------------------------------------------------------------------
+    /**
+     * Ricostruisce l'annuncio archiviato con l'id indicato.
+     *
+     * @return un nuovo oggetto Annuncio oppure null se non archiviato
+     */
+    public Annuncio cerca(int id) {
+        int numero = record.get(id);
+        return numero == IndiceId.ASSENTE ? null : decodifica(posizioni[numero]);
+    }
+
+    public boolean contiene(int id) {
+        return record.contiene(id);
+    }
+
+    public int size() {
+        return record.size();
+    }
+
+    /**
+     * Byte di memoria diretta occupati dai record validi.
+     */
+    public long getByteOccupati() {
+        return byteValidi;
+    }
+
+    /**
+     * Scorre gli annunci archiviati in ordine di archiviazione,
+     * ricostruendoli uno per volta.
+     */
+    @Override
+    public Iterator<Annuncio> iterator() {
+        return new Iterator<Annuncio>() {
+            private int prossimo = avanza(0);
+
+            @Override
+            public boolean hasNext() {
+                return prossimo < numeroRecord;
+            }
+
+            @Override
+            public Annuncio next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Annuncio annuncio = decodifica(posizioni[prossimo]);
+                prossimo = avanza(prossimo + 1);
+                return annuncio;
+            }
+
+            // Salta i record rimossi o sostituiti
+            private int avanza(int numero) {
+                while (numero < numeroRecord && !valido(numero)) {
+                    numero++;
+                }
+                return numero;
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: codifica del record
+    //   [int lunghezza][byte tipo][int id][double prezzo][long scadenza]
+    //   [byte venduto][email][nome][titolo][descrizione][int n][n codici]
+    //   ogni stringa è [int numero di byte][byte UTF-8]; le parole chiave
+    //   sono i codici del DizionarioParole (l'archivio vive nel processo)
+    // ------------------------------------------------------------------
+
+    private static byte[] codifica(Annuncio annuncio) {
+        byte tipo;
+        long scadenza = NESSUNA_DATA;
+        boolean venduto = false;
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            tipo = TIPO_VENDITA;
+            if (vendita.getDataScadenza() != null) {
+                scadenza = vendita.getDataScadenza().toEpochDay();
+            }
+            venduto = vendita.isVenduto();
+        } else if (annuncio instanceof AnnuncioAcquisto) {
+            tipo = TIPO_ACQUISTO;
+        } else {
+            throw new BachecaException("Tipo di annuncio non supportato");
+        }
+
+        int[] parole = annuncio.getCodiciParole();
+        byte[][] stringhe = new byte[4][];
+        stringhe[0] = annuncio.getUtente().getEmail().getBytes(StandardCharsets.UTF_8);
+        stringhe[1] = annuncio.getUtente().getNome().getBytes(StandardCharsets.UTF_8);
+        stringhe[2] = annuncio.getTitolo().getBytes(StandardCharsets.UTF_8);
+        stringhe[3] = annuncio.getDescrizione().getBytes(StandardCharsets.UTF_8);
+
+        int lunghezza = 4 + 1 + 4 + 8 + 8 + 1 + 4 + 4 * parole.length;
+        for (byte[] stringa : stringhe) {
+            lunghezza += 4 + stringa.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(lunghezza);
+        buffer.putInt(lunghezza).put(tipo).putInt(annuncio.getId()).putDouble(annuncio.getPrezzo())
+            .putLong(scadenza).put(venduto ? (byte) 1 : (byte) 0);
+        for (int i = 0; i < 4; i++) {
+            buffer.putInt(stringhe[i].length).put(stringhe[i]);
+        }
+        buffer.putInt(parole.length);
+        for (int codice : parole) {
+            buffer.putInt(codice);
+        }
+        return buffer.array();
+    }
+
+    private Annuncio decodifica(long posizione) {
+        ByteBuffer buffer = slabDi(posizione).duplicate();
+        buffer.position(offsetDi(posizione) + 4);
+        byte tipo = buffer.get();
+        int id = buffer.getInt();
+        double prezzo = buffer.getDouble();
+        long scadenza = buffer.getLong();
+        boolean venduto = buffer.get() == 1;
+        Utente utente = new Utente(leggiStringa(buffer), leggiStringa(buffer));
+        String titolo = leggiStringa(buffer);
+        String descrizione = leggiStringa(buffer);
+        int[] codici = new int[buffer.getInt()];
+        for (int i = 0; i < codici.length; i++) {
+            codici[i] = buffer.getInt();
+        }
+        List<String> parole = new ListaParole(codici);
+
+        // L'id è già stato assegnato: non va registrato di nuovo
+        if (tipo == TIPO_VENDITA) {
+            LocalDate data = scadenza == NESSUNA_DATA ? null : LocalDate.ofEpochDay(scadenza);
+            return new AnnuncioVendita(id, titolo, descrizione, prezzo, utente, parole, venduto, data, true, false);
+        }
+        return new AnnuncioAcquisto(id, titolo, descrizione, prezzo, utente, parole, false);
+    }
+
+    private static String leggiStringa(ByteBuffer buffer) {
+        byte[] byteStringa = new byte[buffer.getInt()];
+        buffer.get(byteStringa);
+        return new String(byteStringa, StandardCharsets.UTF_8);
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: gestione degli slab
+    // ------------------------------------------------------------------
+
+    /**
+     * Copia il record nello slab corrente (o in uno nuovo se non c'è
+     * spazio) e ne restituisce la posizione.
+     */
+    private long scrivi(byte[] codificato) {
+        if (slab.isEmpty() || scrittura + codificato.length > slab.get(slab.size() - 1).capacity()) {
+            // Un record più grande di uno slab ottiene uno slab dedicato
+            slab.add(ByteBuffer.allocateDirect(Math.max(dimensioneSlab, codificato.length)));
+            scrittura = 0;
+        }
+        int indiceSlab = slab.size() - 1;
+        slab.get(indiceSlab).put(scrittura, codificato);
+        long posizione = ((long) indiceSlab << 32) | scrittura;
+        scrittura += codificato.length;
+        return posizione;
+    }
+
+    private boolean valido(int numero) {
+        return record.get(idRecord[numero]) == numero;
+    }
+
+    /**
+     * Riscrive i soli record validi in nuovi slab, liberando quelli vecchi.
+     */
+    private void compatta() {
+        List<ByteBuffer> vecchi = new ArrayList<>(slab);
+        long[] vecchiePosizioni = posizioni;
+        int[] vecchiId = idRecord;
+        int vecchioNumero = numeroRecord;
+
+        slab.clear();
+        scrittura = 0;
+        posizioni = new long[Math.max(16, record.size())];
+        idRecord = new int[posizioni.length];
+        numeroRecord = 0;
+        for (int numero = 0; numero < vecchioNumero; numero++) {
+            if (record.get(vecchiId[numero]) != numero) {
+                continue;
+            }
+            ByteBuffer sorgente = vecchi.get((int) (vecchiePosizioni[numero] >>> 32));
+            int offset = offsetDi(vecchiePosizioni[numero]);
+            byte[] codificato = new byte[sorgente.getInt(offset)];
+            sorgente.get(offset, codificato);
+            posizioni[numeroRecord] = scrivi(codificato);
+            idRecord[numeroRecord] = vecchiId[numero];
+            record.put(vecchiId[numero], numeroRecord++);
+        }
+        byteLiberi = 0;
+    }
+
+    private ByteBuffer slabDi(long posizione) {
+        return slab.get((int) (posizione >>> 32));
+    }
+
+    private static int offsetDi(long posizione) {
+        return (int) posizione;
+    }
+}
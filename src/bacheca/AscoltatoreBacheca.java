@@ -0,0 +1,40 @@
+package bacheca;
+
+/**
+ * Ascoltatore notificato dalla Bacheca quando un annuncio entra, esce o
+ * viene modificato mentre è in bacheca.
+ *
+ * Permette a strutture esterne (ad esempio il motore degli abbinamenti
+ * del controller) di restare aggiornate in modo incrementale, senza
+ * riscorrere la bacheca a ogni lettura. Le notifiche arrivano dopo che
+ * gli indici della bacheca sono stati aggiornati, sul thread che ha
+ * eseguito la modifica. Nella BachecaConcorrente arrivano dopo lo sblocco
+ * del segmento, nell'ordine delle modifiche, eventualmente sul thread di
+ * un'altra modifica concorrente dello stesso segmento: l'ascoltatore può
+ * quindi leggere o modificare la bacheca, ma deve essere thread-safe.
+ */
+public interface AscoltatoreBacheca {
+
+    /**
+     * Un annuncio è stato aggiunto alla bacheca.
+     *
+     * @param annuncio l'annuncio aggiunto
+     */
+    void annuncioAggiunto(Annuncio annuncio);
+
+    /**
+     * Un annuncio è stato rimosso dalla bacheca (anche per scadenza o
+     * svuotamento della bacheca).
+     *
+     * @param annuncio l'annuncio rimosso
+     */
+    void annuncioRimosso(Annuncio annuncio);
+
+    /**
+     * Un campo di un annuncio in bacheca è cambiato (prezzo, parole
+     * chiave, testo, scadenza o stato "venduto").
+     *
+     * @param annuncio l'annuncio modificato (con i nuovi valori già assegnati)
+     */
+    void annuncioModificato(Annuncio annuncio);
+}
@@ -1,10 +1,14 @@
 package bacheca;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import eccezioni.BachecaException;
 
@@ -13,52 +17,296 @@ import eccezioni.BachecaException;
  * Gestisce la raccolta di Annuncio, consentendo aggiunta, ricerca
  * e rimozione degli stessi.
  *
- * Implementa l'interfaccia Iterable<Annuncio> per permettere
- * il for-each sugli annunci.
+ * Implementa l'interfaccia BachecaAnnunci (e quindi Iterable<Annuncio>,
+ * per permettere il for-each sugli annunci).
  */
-public class Bacheca implements Iterable<Annuncio> {
+public class Bacheca implements BachecaAnnunci {
 
     // ------------------------------------------------------------------
-    // CAMPO: una lista di Annuncio che rappresenta
-    //        tutti gli annunci contenuti in questa bacheca.
+    // CAMPI: gli annunci contenuti in questa bacheca, memorizzati in due
+    //        partizioni separate per tipo. Ogni partizione ha il proprio
+    //        indice id -> posizione (chiavi int primitive), quindi
+    //        ricerca, controllo del proprietario e rimozione per id
+    //        avvengono in tempo costante, e l'accesso per tipo non deve
+    //        filtrare gli annunci dell'altro tipo.
     // ------------------------------------------------------------------
-    private final ArrayList<Annuncio> annunci;
+    private final Partizione<AnnuncioVendita> vendite;
+    private final Partizione<AnnuncioAcquisto> acquisti;
 
     // ------------------------------------------------------------------
-    // COSTRUTTORE: inizializza la lista degli annunci vuota.
+    // CAMPO: indice invertito parola chiave -> id degli annunci che la
+    //        contengono (posting list come bitmap compressa). Permette di
+    //        rispondere alle ricerche per parole chiave senza scorrere
+    //        tutta la bacheca, combinando le parole (AND/OR/NOT) 64 annunci
+    //        alla volta. La posizione nella lista è il codice della parola
+    //        nel DizionarioParole (null se nessun annuncio la contiene).
+    // ------------------------------------------------------------------
+    private final ArrayList<BitmapCompressa> indiceParole;
+
+    // ------------------------------------------------------------------
+    // CAMPO: trie delle parole chiave con il numero di annunci che le
+    //        usano, per completare i prefissi (autocompletamento).
+    //        Condiviso tra i segmenti di una BachecaConcorrente.
+    // ------------------------------------------------------------------
+    private final IndicePrefissi prefissi;
+
+    // ------------------------------------------------------------------
+    // CAMPO: indice full-text di titolo e descrizione, per le ricerche
+    //        testuali ordinate per rilevanza (BM25).
+    // ------------------------------------------------------------------
+    private final IndiceTesto indiceTesto;
+
+    // ------------------------------------------------------------------
+    // CAMPO: indice per proprietario, email dell'utente -> annunci
+    //        pubblicati e relativi conteggi per tipo.
+    // ------------------------------------------------------------------
+    private final Map<String, AnnunciUtente> indiceUtenti;
+
+    // ------------------------------------------------------------------
+    // CAMPI: indici ordinati per prezzo (chiave double primitiva), uno per
+    //        partizione, per interrogazioni per fascia di prezzo, minimo,
+    //        massimo e "N più economici".
+    // ------------------------------------------------------------------
+    private final IndiceOrdinato<AnnuncioVendita> prezziVendite;
+    private final IndiceOrdinato<AnnuncioAcquisto> prezziAcquisti;
+
+    // ------------------------------------------------------------------
+    // CAMPO: indice delle vendite ordinato per data di scadenza (giorno
+    //        epoch come chiave primitiva): gli annunci scaduti sono sempre
+    //        in testa, quindi trovarli non richiede di scorrere la bacheca.
+    // ------------------------------------------------------------------
+    private final IndiceOrdinato<AnnuncioVendita> scadenzeVendite;
+
+    // ------------------------------------------------------------------
+    // CAMPO: per ogni parola chiave (indicizzato per codice del
+    //        DizionarioParole), le vendite non vendute ordinate per prezzo:
+    //        la più economica con una parola è in testa al suo indice.
+    // ------------------------------------------------------------------
+    private final ArrayList<IndiceOrdinato<AnnuncioVendita>> prezziPerParola;
+
+    // ------------------------------------------------------------------
+    // CAMPO: per ogni parola chiave (indicizzato per codice), gli acquisti
+    //        ordinati per budget: gli acquisti che possono permettersi una
+    //        nuova vendita sono la coda dell'indice da quel prezzo in su.
+    // ------------------------------------------------------------------
+    private final ArrayList<IndiceOrdinato<AnnuncioAcquisto>> budgetPerParola;
+
+    // ------------------------------------------------------------------
+    // CAMPO: dizionario email -> ordinale, usato dalla colonna dei
+    //        proprietari delle partizioni.
+    // ------------------------------------------------------------------
+    private final Dizionario proprietari;
+
+    // ------------------------------------------------------------------
+    // CAMPI: versione della bacheca (incrementata a ogni inserimento o
+    //        rimozione) e ultima fotografia immutabile costruita, riusata
+    //        finché la versione non cambia.
+    // ------------------------------------------------------------------
+    private long versione;
+    private FotografiaBacheca fotografia = FotografiaBacheca.VUOTA;
+
+    // ------------------------------------------------------------------
+    // CAMPO: osservatore registrato sugli annunci in bacheca, per
+    //        aggiornare gli indici quando un setter ne modifica i campi.
+    // ------------------------------------------------------------------
+    private final OsservatoreAnnuncio osservatore;
+
+    // ------------------------------------------------------------------
+    // CAMPO: ascoltatori esterni, notificati a ogni inserimento, rimozione
+    //        o modifica di un annuncio in bacheca.
+    // ------------------------------------------------------------------
+    private final List<AscoltatoreBacheca> ascoltatori = new CopyOnWriteArrayList<>();
+
+    // ------------------------------------------------------------------
+    // COSTRUTTORE: inizializza le partizioni degli annunci vuote.
     // ------------------------------------------------------------------
     public Bacheca() {
-        // 1. Inizializza la lista ArrayList per memorizzare gli annunci.
-        this.annunci = new ArrayList<>();
+        this(new IndicePrefissi());
+    }
+
+    // Costruttore usato dai segmenti della BachecaConcorrente, che
+    // condividono il trie delle parole chiave
+    Bacheca(IndicePrefissi prefissi) {
+        // 1. Inizializza le partizioni per annunci di vendita e di acquisto.
+        this.vendite = new Partizione<>();
+        this.acquisti = new Partizione<>();
+        // 2. Inizializza l'indice delle parole chiave (vuoto).
+        this.indiceParole = new ArrayList<>();
+        this.prefissi = prefissi;
+        this.indiceTesto = new IndiceTesto();
+        // 3. Inizializza l'indice per proprietario (vuoto).
+        this.indiceUtenti = new HashMap<>();
+        // 4. Inizializza gli indici dei prezzi (vuoti).
+        this.prezziVendite = new IndiceOrdinato<>();
+        this.prezziAcquisti = new IndiceOrdinato<>();
+        // 5. Inizializza l'indice delle scadenze e il dizionario dei proprietari (vuoti).
+        this.scadenzeVendite = new IndiceOrdinato<>();
+        this.prezziPerParola = new ArrayList<>();
+        this.budgetPerParola = new ArrayList<>();
+        this.proprietari = new Dizionario();
+        // 6. Collega le modifiche degli annunci agli indici. La voce vecchia
+        //    viene sempre tolta, quella nuova aggiunta solo se l'annuncio è
+        //    ancora in bacheca (con accesso concorrente potrebbe essere stato
+        //    rimosso tra la modifica e la notifica).
+        this.osservatore = new OsservatoreAnnuncio() {
+            @Override
+            public void prezzoModificato(Annuncio annuncio, double vecchioPrezzo) {
+                aggiornaIndici(() -> {
+                    rimuoviDaIndicePrezzi(annuncio, vecchioPrezzo);
+                    rimuoviDaPrezziPerParola(annuncio, annuncio.getCodiciParole(), vecchioPrezzo);
+                    if (contiene(annuncio)) {
+                        aggiungiAIndicePrezzi(annuncio);
+                        aggiungiAPrezziPerParola(annuncio);
+                        partizione(annuncio).aggiornaPrezzo(annuncio.getId(), annuncio.getPrezzo());
+                        notificaModifica(annuncio);
+                    }
+                });
+            }
+
+            @Override
+            public void paroleChiaveModificate(Annuncio annuncio, int[] vecchieParole) {
+                aggiornaIndici(() -> {
+                    deindicizzaParole(annuncio, vecchieParole);
+                    rimuoviDaPrezziPerParola(annuncio, vecchieParole, annuncio.getPrezzo());
+                    if (contiene(annuncio)) {
+                        indicizzaParole(annuncio);
+                        aggiungiAPrezziPerParola(annuncio);
+                        notificaModifica(annuncio);
+                    }
+                });
+            }
+
+            @Override
+            public void testoModificato(Annuncio annuncio) {
+                aggiornaIndici(() -> {
+                    indiceTesto.rimuovi(annuncio.getId());
+                    if (contiene(annuncio)) {
+                        indiceTesto.aggiungi(annuncio);
+                        notificaModifica(annuncio);
+                    }
+                });
+            }
+
+            @Override
+            public void scadenzaModificata(AnnuncioVendita vendita, LocalDate vecchiaScadenza) {
+                aggiornaIndici(() -> {
+                    rimuoviDaIndiceScadenze(vendita, vecchiaScadenza);
+                    if (contiene(vendita)) {
+                        aggiungiAIndiceScadenze(vendita);
+                        vendite.aggiornaScadenza(vendita.getId(), vendita.getDataScadenza());
+                        notificaModifica(vendita);
+                    }
+                });
+            }
+
+            @Override
+            public void vendutoModificato(AnnuncioVendita vendita) {
+                aggiornaIndici(() -> {
+                    if (contiene(vendita)) {
+                        vendite.aggiornaVenduto(vendita.getId(), vendita.isVenduto());
+                        // Solo le vendite non vendute sono negli indici per parola
+                        if (vendita.isVenduto()) {
+                            rimuoviDaPrezziPerParola(vendita, vendita.getCodiciParole(), vendita.getPrezzo());
+                        } else {
+                            aggiungiAPrezziPerParola(vendita);
+                        }
+                        notificaModifica(vendita);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Esegue un aggiornamento degli indici richiesto dall'osservatore
+     * (cioè da un setter chiamato direttamente sull'annuncio).
+     * Le sottoclassi concorrenti lo ridefiniscono per eseguirlo sotto
+     * il proprio lock.
+     */
+    void aggiornaIndici(Runnable aggiornamento) {
+        aggiornamento.run();
+    }
+
+    /**
+     * Consegna agli ascoltatori esterni una notifica (inserimento,
+     * rimozione o modifica di un annuncio). Qui viene consegnata subito;
+     * i segmenti della BachecaConcorrente lo ridefiniscono per accodarla
+     * e consegnarla solo dopo aver rilasciato il proprio lock.
+     */
+    void pubblica(Runnable notifica) {
+        notifica.run();
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: registrazione degli ascoltatori esterni
+    // ------------------------------------------------------------------
+    /**
+     * Registra un ascoltatore che verrà notificato a ogni inserimento,
+     * rimozione o modifica di un annuncio in bacheca. Gli annunci già
+     * presenti non vengono notificati.
+     *
+     * @throws BachecaException se l'ascoltatore è nullo
+     */
+    @Override
+    public void aggiungiAscoltatore(AscoltatoreBacheca ascoltatore) {
+        if (ascoltatore == null) {
+            throw new BachecaException("L'ascoltatore non può essere nullo");
+        }
+        ascoltatori.add(ascoltatore);
+    }
+
+    /**
+     * Rimuove un ascoltatore registrato (nessun effetto se non presente).
+     */
+    @Override
+    public void rimuoviAscoltatore(AscoltatoreBacheca ascoltatore) {
+        ascoltatori.remove(ascoltatore);
     }
 
     // ------------------------------------------------------------------
     // METODO: aggiunge un Annuncio alla bacheca
     // ------------------------------------------------------------------
     /**
-     * Aggiunge un nuovo Annuncio se non già presente,
-     * incrementando il contatore statico idCounter nella classe Annuncio.
+     * Aggiunge un nuovo Annuncio se non già presente (cioè se in bacheca
+     * non c'è già un annuncio con lo stesso id). L'id è assegnato alla
+     * creazione dell'annuncio: la bacheca non consuma altri id.
      *
      * @param annuncio l'Annuncio da aggiungere
-     * @throws BachecaException se l'Annuncio è nullo o già presente
+     * @throws BachecaException se l'Annuncio è nullo, già presente
+     *         o di un tipo non supportato
      */
+    @Override
     public void aggiungiAnnuncio(Annuncio annuncio) {
         // 1. Controllo che l'annuncio non sia nullo.
         if (annuncio == null) {
             throw new BachecaException("Annuncio non può essere nullo");
         }
 
-        // 2. Incremento del contatore statico idCounter nella classe Annuncio.
-        //    (Nota: dipende dalla logica in Annuncio, se lo gestisci qui o nel costruttore di Annuncio)
-        Annuncio.getNextId(); // gestito in gestore bacheca,  (temporaneo)
+        // 2. Verifica tramite l'indice degli id (tempo costante) se un annuncio
+        //    con lo stesso id è già presente: in questo modo il caricamento
+        //    di N annunci resta lineare. Se non è presente lo aggiunge,
+        //    altrimenti lancia un'eccezione.
+        if (contieneId(annuncio.getId())) {
+            throw new BachecaException("Annuncio già presente in bacheca");
+        }
 
-        // 3. Verifica se l'annuncio è già presente (equals).
-        //    Se non è presente, lo aggiunge, altrimenti lancia un'eccezione.
-        if (!annunci.contains(annuncio)) {
-            annunci.add(annuncio);
+        // 3. Inserisce l'annuncio nella partizione del suo tipo.
+        //    (insieme alle sue colonne primitive).
+        int proprietario = proprietari.ordinale(annuncio.getUtente().getEmail());
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            vendite.aggiungi(vendita, proprietario);
+        } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            acquisti.aggiungi(acquisto, proprietario);
         } else {
-            throw new BachecaException("Annuncio già presente in bacheca");
+            throw new BachecaException("Tipo di annuncio non supportato");
         }
+
+        // 4. Aggiorna gli indici secondari e la versione.
+        indicizza(annuncio);
+        versione++;
+
+        // 5. Avvisa gli ascoltatori esterni.
+        notificaAggiunta(annuncio);
     }
 
     // ------------------------------------------------------------------
@@ -66,36 +314,381 @@ public class Bacheca implements Iterable<Annuncio> {
     // ------------------------------------------------------------------
     /**
      * Cerca gli annunci che contengono almeno una delle parole chiave fornite.
-     * La ricerca è case-sensitive (distingue maiuscole/minuscole).
+     * La ricerca non distingue maiuscole/minuscole né lettere accentate:
+     * le parole cercate vengono confrontate in forma normalizzata.
      *
      * @param paroleChiave lista di parole chiave da ricercare
      * @return lista di annunci che contengono almeno una parola chiave
      * @throws BachecaException se la lista di parole chiave è nulla o vuota
      */
+    @Override
     public ArrayList<Annuncio> cercaPerParoleChiave(ArrayList<String> paroleChiave) {
         // 1. Verifica che la lista di parole chiave non sia nulla o vuota.
         if (paroleChiave == null || paroleChiave.isEmpty()) {
             throw new BachecaException("Lista parole chiave non può essere nulla o vuota");
         }
 
-        // 2. Utilizza un Set per evitare di aggiungere due volte
-        //    lo stesso Annuncio (in caso contenga più parole chiave).
-        Set<Annuncio> risultati = new HashSet<>();
+        // 2. Unisce (OR) le posting list delle parole chiave: un annuncio
+        //    con più parole cercate compare una sola volta. Il costo dipende
+        //    dalle posting list e non dalla dimensione della bacheca.
+        BitmapCompressa risultati = almenoUna(paroleChiave);
+
+        // 3. Restituisce gli annunci in ordine crescente di id.
+        return annunci(risultati);
+    }
+
+    // ------------------------------------------------------------------
+    // METODO: ricerca paginata per parole chiave
+    // ------------------------------------------------------------------
+    /**
+     * Cerca gli annunci che contengono almeno una delle parole chiave e
+     * restituisce una pagina di al più 'limite' annunci nell'ordinamento
+     * indicato, a partire dal cursore della pagina precedente (null per la
+     * prima pagina).
+     *
+     * I risultati non vengono mai costruiti tutti: in ordine di id la
+     * posting list viene scorsa fino a riempire la pagina; per prezzo e
+     * scadenza, se le parole sono frequenti si scorre l'indice ordinato
+     * fermandosi a pagina piena, altrimenti si tengono i primi 'limite' in
+     * un heap limitato leggendo le chiavi dalle colonne delle partizioni.
+     *
+     * @param cursore cursore restituito dalla pagina precedente, oppure null
+     * @throws BachecaException se la lista è nulla o vuota, l'ordinamento è
+     *                          nullo, il limite non è positivo o il cursore non è valido
+     */
+    @Override
+    public PaginaAnnunci cercaPaginaPerParoleChiave(List<String> paroleChiave, OrdinamentoAnnunci ordinamento,
+                                                    int limite, String cursore) {
+        controllaPagina(paroleChiave, ordinamento, limite);
+        CursoreRicerca dopo = CursoreRicerca.decodifica(cursore, ordinamento);
+        BitmapCompressa trovati = almenoUna(paroleChiave);
+
+        // Un annuncio oltre il limite indica che esiste una pagina successiva
+        int richiesti = limite == Integer.MAX_VALUE ? limite : limite + 1;
+        return PaginaAnnunci.di(primiDopo(trovati, ordinamento, dopo, richiesti), ordinamento, limite, false);
+    }
+
+    static void controllaPagina(List<String> paroleChiave, OrdinamentoAnnunci ordinamento, int limite) {
+        if (paroleChiave == null || paroleChiave.isEmpty()) {
+            throw new BachecaException("Lista parole chiave non può essere nulla o vuota");
+        }
+        if (ordinamento == null) {
+            throw new BachecaException("L'ordinamento non può essere nullo");
+        }
+        if (limite <= 0) {
+            throw new BachecaException("Il numero di annunci per pagina deve essere positivo");
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODO: ricerca di Annuncio con parole chiave approssimate
+    // ------------------------------------------------------------------
+    /**
+     * Cerca gli annunci che contengono almeno una parola chiave simile a
+     * una di quelle fornite, tollerando errori di battitura: "chitara"
+     * trova anche gli annunci con "chitarra". Sono simili le parole in uso
+     * a distanza di modifica al più 'distanzaMassima' (lettere inserite,
+     * tolte, sostituite o scambiate); la distanza è ridotta per le parole
+     * corte (nessun errore fino a 2 lettere, uno fino a 5).
+     *
+     * Le parole simili vengono trovate visitando il trie delle parole
+     * chiave, senza confrontare la parola cercata con tutte le altre.
+     *
+     * @param distanzaMassima numero massimo di modifiche, da 0 a 2
+     * @return lista degli annunci trovati, in ordine crescente di id
+     * @throws BachecaException se la lista è nulla o vuota o la distanza non è valida
+     */
+    @Override
+    public List<Annuncio> cercaPerParoleChiaveSimili(List<String> paroleChiave, int distanzaMassima) {
+        controllaRicercaSimili(paroleChiave, distanzaMassima);
+        return annunci(almenoUna(prefissi.espandi(paroleChiave, distanzaMassima)));
+    }
+
+    static void controllaRicercaSimili(List<String> paroleChiave, int distanzaMassima) {
+        if (paroleChiave == null || paroleChiave.isEmpty()) {
+            throw new BachecaException("Lista parole chiave non può essere nulla o vuota");
+        }
+        if (distanzaMassima < 0 || distanzaMassima > IndicePrefissi.DISTANZA_MASSIMA) {
+            throw new BachecaException("La distanza deve essere compresa tra 0 e " + IndicePrefissi.DISTANZA_MASSIMA);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODO: ricerca di Annuncio con combinazioni di parole chiave
+    // ------------------------------------------------------------------
+    /**
+     * Cerca gli annunci che contengono tutte le parole di 'tutte' (AND),
+     * almeno una delle parole di 'almenoUna' (OR) e nessuna delle parole di
+     * 'escluse' (NOT). Una lista nulla o vuota non pone vincoli, ma almeno
+     * una tra 'tutte' e 'almenoUna' deve contenere una parola.
+     * Come per la ricerca semplice, le parole sono confrontate in forma normalizzata.
+     *
+     * @return lista degli annunci trovati, in ordine crescente di id
+     * @throws BachecaException se non è indicata nessuna parola da cercare
+     */
+    @Override
+    public List<Annuncio> cercaPerParoleChiave(List<String> tutte, List<String> almenoUna,
+                                              List<String> escluse) {
+        boolean conTutte = tutte != null && !tutte.isEmpty();
+        boolean conAlmenoUna = almenoUna != null && !almenoUna.isEmpty();
+        if (!conTutte && !conAlmenoUna) {
+            throw new BachecaException("Serve almeno una parola chiave da cercare");
+        }
+
+        // 1. Intersezione delle parole obbligatorie, partendo dalla posting
+        //    list più corta: il risultato parziale resta il più piccolo possibile.
+        BitmapCompressa risultati = null;
+        if (conTutte) {
+            List<BitmapCompressa> postings = new ArrayList<>(tutte.size());
+            for (String parola : tutte) {
+                BitmapCompressa posting = posting(DizionarioParole.cerca(parola));
+                if (posting == null) {
+                    return new ArrayList<>();  // Parola mai usata: nessun risultato
+                }
+                postings.add(posting);
+            }
+            postings.sort((a, b) -> Integer.compare(a.cardinalita(), b.cardinalita()));
+            risultati = postings.get(0);
+            for (int i = 1; i < postings.size() && !risultati.isVuota(); i++) {
+                risultati = risultati.and(postings.get(i));
+            }
+        }
 
-        // 3. Per ogni annuncio nella bacheca...
-        for (Annuncio annuncio : annunci) {
-            // 4. ...controlla ogni parola chiave.
-            for (String parola : paroleChiave) {
-                // 5. Se la parola chiave è presente tra le parole dell'annuncio,
-                //    aggiunge l'annuncio ai risultati.
-                if (annuncio.getParoleChiave().contains(parola)) {
-                    risultati.add(annuncio);
+        // 2. Unione delle parole alternative, intersecata con il risultato.
+        if (conAlmenoUna) {
+            BitmapCompressa unione = almenoUna(almenoUna);
+            risultati = risultati == null ? unione : risultati.and(unione);
+        }
+
+        // 3. Sottrae gli annunci con parole escluse.
+        if (escluse != null) {
+            for (String parola : escluse) {
+                BitmapCompressa posting = posting(DizionarioParole.cerca(parola));
+                if (posting != null && !risultati.isVuota()) {
+                    risultati = risultati.andNot(posting);
                 }
             }
         }
+        return annunci(risultati);
+    }
+
+    // ------------------------------------------------------------------
+    // METODO: ricerca full-text su titolo e descrizione
+    // ------------------------------------------------------------------
+    /**
+     * Cerca gli annunci il cui titolo o descrizione contengono i termini
+     * del testo, ordinati per rilevanza (BM25; i termini del titolo contano
+     * di più). Maiuscole, accenti, parole vuote e desinenze singolare/plurale
+     * non contano.
+     *
+     * @param testo   il testo da cercare
+     * @param massimo numero massimo di risultati
+     * @return i primi 'massimo' annunci, dal più rilevante
+     * @throws BachecaException se il testo è vuoto o il massimo non è positivo
+     */
+    @Override
+    public List<Annuncio> cercaTesto(String testo, int massimo) {
+        controllaRicercaTesto(testo, massimo);
+        List<IndiceTesto.Risultato> risultati = indiceTesto.cerca(Tokenizzatore.terminiDistinti(testo), massimo);
+        List<Annuncio> annunci = new ArrayList<>(risultati.size());
+        for (IndiceTesto.Risultato risultato : risultati) {
+            annunci.add(cercaAnnuncioPerId(risultato.id));
+        }
+        return annunci;
+    }
+
+    /**
+     * Completa un prefisso con le parole chiave usate in bacheca, dalla
+     * più usata (a parità di annunci in ordine alfabetico). Il prefisso è
+     * normalizzato come le parole chiave; il prefisso vuoto restituisce
+     * le parole più usate in assoluto.
+     *
+     * @param massimo numero massimo di completamenti
+     * @return parole e numero di annunci che le usano
+     * @throws BachecaException se il prefisso è nullo o il massimo non è positivo
+     */
+    @Override
+    public List<SuggerimentoParola> completaParolaChiave(String prefisso, int massimo) {
+        controllaCompletamento(prefisso, massimo);
+        return prefissi.completa(prefisso, massimo);
+    }
+
+    static void controllaCompletamento(String prefisso, int massimo) {
+        if (prefisso == null) {
+            throw new BachecaException("Il prefisso non può essere nullo");
+        }
+        if (massimo <= 0) {
+            throw new BachecaException("Il numero di completamenti deve essere positivo");
+        }
+    }
+
+    static void controllaRicercaTesto(String testo, int massimo) {
+        if (testo == null || testo.isBlank()) {
+            throw new BachecaException("Il testo da cercare non può essere vuoto");
+        }
+        if (massimo <= 0) {
+            throw new BachecaException("Il numero di risultati deve essere positivo");
+        }
+    }
 
-        // 6. Restituisce la lista degli annunci (convertendo il Set in ArrayList).
-        return new ArrayList<>(risultati);
+    // Indice full-text (la BachecaConcorrente combina quelli dei segmenti)
+    IndiceTesto getIndiceTesto() {
+        return indiceTesto;
+    }
+
+    // Unione (OR) delle posting list delle parole indicate
+    private BitmapCompressa almenoUna(List<String> parole) {
+        BitmapCompressa unione = new BitmapCompressa();
+        for (String parola : parole) {
+            // Le parole assenti dal dizionario non compaiono in nessun annuncio
+            BitmapCompressa posting = posting(DizionarioParole.cerca(parola));
+            if (posting != null) {
+                unione = unione.or(posting);
+            }
+        }
+        return unione;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: primi n annunci trovati dopo il cursore
+    // ------------------------------------------------------------------
+    private List<Annuncio> primiDopo(BitmapCompressa trovati, OrdinamentoAnnunci ordinamento,
+                                     CursoreRicerca dopo, int n) {
+        if (ordinamento == OrdinamentoAnnunci.ID) {
+            List<Annuncio> risultati = new ArrayList<>();
+            scorriPerId(trovati, dopo.id, n, false, risultati);
+            return risultati;
+        }
+        // Scorrendo l'indice ordinato si trovano n risultati dopo circa
+        // n * annunci / trovati voci, mentre l'heap legge tutti i trovati:
+        // conviene l'indice quando trovati^2 > n * annunci
+        if ((long) trovati.cardinalita() * trovati.cardinalita() > (long) n * getNumeroAnnunci()) {
+            return ordinamento == OrdinamentoAnnunci.PREZZO
+                ? dagliIndiciPrezzi(trovati, dopo, n)
+                : dallIndiceScadenze(trovati, dopo, n);
+        }
+        return conHeap(trovati, ordinamento, dopo, n);
+    }
+
+    /**
+     * Aggiunge ai risultati, in ordine di id e fino ad averne n, gli
+     * annunci trovati con id maggiore di 'dopoId' (solo quelli senza
+     * scadenza se richiesto).
+     */
+    private void scorriPerId(BitmapCompressa trovati, int dopoId, int n, boolean soloSenzaScadenza,
+                             List<Annuncio> risultati) {
+        int id = dopoId == Integer.MAX_VALUE ? -1 : trovati.successivo(dopoId + 1);
+        while (id >= 0 && risultati.size() < n) {
+            if (!soloSenzaScadenza || chiave(id, OrdinamentoAnnunci.SCADENZA) == Partizione.NESSUNA_SCADENZA) {
+                risultati.add(cercaAnnuncioPerId(id));
+            }
+            id = id == Integer.MAX_VALUE ? -1 : trovati.successivo(id + 1);
+        }
+    }
+
+    // Gli indici dei prezzi sono due (vendite e acquisti): si fondono i primi n di ciascuno
+    private List<Annuncio> dagliIndiciPrezzi(BitmapCompressa trovati, CursoreRicerca dopo, int n) {
+        List<Annuncio> risultati = new ArrayList<>(prezziVendite.dopo(dopo.chiave, dopo.id, trovati, n));
+        risultati.addAll(prezziAcquisti.dopo(dopo.chiave, dopo.id, trovati, n));
+        risultati.sort(OrdinamentoAnnunci.PREZZO.comparatore());
+        return risultati.size() > n ? risultati.subList(0, n) : risultati;
+    }
+
+    // Prima le vendite con scadenza (dall'indice), poi gli annunci senza scadenza per id
+    private List<Annuncio> dallIndiceScadenze(BitmapCompressa trovati, CursoreRicerca dopo, int n) {
+        List<Annuncio> risultati = new ArrayList<>(scadenzeVendite.dopo(dopo.chiave, dopo.id, trovati, n));
+        if (risultati.size() < n) {
+            int dopoId = dopo.chiave == Partizione.NESSUNA_SCADENZA ? dopo.id : -1;
+            scorriPerId(trovati, dopoId, n, true, risultati);
+        }
+        return risultati;
+    }
+
+    // Heap limitato ai migliori n (in cima il peggiore); le chiavi sono
+    // lette dalle colonne e gli annunci solo per i risultati
+    private List<Annuncio> conHeap(BitmapCompressa trovati, OrdinamentoAnnunci ordinamento,
+                                   CursoreRicerca dopo, int n) {
+        PriorityQueue<CursoreRicerca> migliori = new PriorityQueue<>(Math.min(n, 1024) + 1, Comparator.reverseOrder());
+        for (int id = trovati.successivo(0); id >= 0; id = id == Integer.MAX_VALUE ? -1 : trovati.successivo(id + 1)) {
+            double chiave = chiave(id, ordinamento);
+            if (!dopo.precede(chiave, id)) {
+                continue;
+            }
+            if (migliori.size() < n) {
+                migliori.add(new CursoreRicerca(chiave, id));
+            } else if (!migliori.peek().precede(chiave, id)) {
+                migliori.poll();
+                migliori.add(new CursoreRicerca(chiave, id));
+            }
+        }
+        List<CursoreRicerca> ordinati = new ArrayList<>(migliori);
+        ordinati.sort(null);
+        List<Annuncio> risultati = new ArrayList<>(ordinati.size());
+        for (CursoreRicerca voce : ordinati) {
+            risultati.add(cercaAnnuncioPerId(voce.id));
+        }
+        return risultati;
+    }
+
+    // Chiave di ordinamento dalle colonne della partizione che contiene l'annuncio
+    private double chiave(int id, OrdinamentoAnnunci ordinamento) {
+        return vendite.contiene(id) ? vendite.chiave(id, ordinamento) : acquisti.chiave(id, ordinamento);
+    }
+
+    // Annunci della bacheca con gli id contenuti nella bitmap
+    private ArrayList<Annuncio> annunci(BitmapCompressa id) {
+        int[] valori = id.valori();
+        ArrayList<Annuncio> annunci = new ArrayList<>(valori.length);
+        for (int valore : valori) {
+            annunci.add(cercaAnnuncioPerId(valore));
+        }
+        return annunci;
+    }
+
+    // ------------------------------------------------------------------
+    // METODO: ricerca di Annuncio per id
+    // ------------------------------------------------------------------
+    /**
+     * Restituisce l'Annuncio con l'id specificato, usando l'indice degli id
+     * (tempo costante, nessuna copia della lista).
+     *
+     * @param id l'id dell'annuncio da cercare
+     * @return l'annuncio trovato oppure null se non presente
+     */
+    @Override
+    public Annuncio cercaAnnuncioPerId(int id) {
+        Annuncio annuncio = vendite.get(id);
+        return annuncio != null ? annuncio : acquisti.get(id);
+    }
+
+    private Partizione<? extends Annuncio> partizione(Annuncio annuncio) {
+        return annuncio instanceof AnnuncioVendita ? vendite : acquisti;
+    }
+
+    private boolean contieneId(int id) {
+        return vendite.contiene(id) || acquisti.contiene(id);
+    }
+
+    // Vero se proprio questa istanza (non solo il suo id) è in bacheca
+    private boolean contiene(Annuncio annuncio) {
+        return cercaAnnuncioPerId(annuncio.getId()) == annuncio;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ricerca di Annuncio per proprietario
+    // ------------------------------------------------------------------
+    /**
+     * Restituisce la voce dell'indice per proprietario associata all'email:
+     * gli annunci pubblicati dall'utente e i conteggi per tipo, sempre
+     * aggiornati. Per un utente senza annunci restituisce una voce vuota.
+     *
+     * @param email l'email del proprietario
+     * @return gli annunci dell'utente (mai null)
+     */
+    @Override
+    public AnnunciUtente getAnnunciUtente(String email) {
+        AnnunciUtente voce = indiceUtenti.get(email);
+        return voce != null ? voce : AnnunciUtente.VUOTA;
     }
 
     // ------------------------------------------------------------------
@@ -109,11 +702,20 @@ public class Bacheca implements Iterable<Annuncio> {
      * @param utente l'utente proprietario che richiede la rimozione
      * @return true se la rimozione è avvenuta, false altrimenti
      */
+    @Override
     public boolean rimuoviAnnuncio(int id, Utente utente) {
-        // Rimuove l'annuncio se corrisponde sia per id che per proprietario (Utente).
-        return annunci.removeIf(
-            annuncio -> annuncio.getId() == id && annuncio.getUtente().equals(utente)
-        );
+        // 1. Recupera l'annuncio tramite l'indice degli id.
+        Annuncio annuncio = cercaAnnuncioPerId(id);
+        if (annuncio == null) {
+            return false;
+        }
+
+        // 2. Rimuove l'annuncio solo se l'utente ne è il proprietario.
+        if (!annuncio.getUtente().equals(utente)) {
+            return false;
+        }
+        rimuovi(annuncio);
+        return true;
     }
 
     /**
@@ -124,31 +726,636 @@ public class Bacheca implements Iterable<Annuncio> {
      * @return true se almeno un annuncio è stato effettivamente rimosso,
      *         false in caso contrario
      */
+    @Override
     public boolean rimuoviAnnuncio(List<Annuncio> rimossi) {
         // 1. Se la lista è nulla o vuota, non rimuoviamo nulla e restituiamo false.
         if (rimossi == null || rimossi.isEmpty()) {
             return false;
         }
-        // 2. Rimuove tutti gli annunci contenuti nella lista 'rimossi'.
-        return annunci.removeAll(rimossi);
+        // 2. Rimuove tutti gli annunci contenuti nella lista 'rimossi',
+        //    localizzandoli tramite l'indice degli id. Si rimuove l'istanza
+        //    presente in bacheca (uguale per id e tipo, come in equals), non
+        //    quella della lista: gli indici vanno puliti con i suoi valori.
+        boolean modificata = false;
+        for (Annuncio annuncio : rimossi) {
+            if (annuncio == null) {
+                continue;
+            }
+            Annuncio presente = cercaAnnuncioPerId(annuncio.getId());
+            if (annuncio.equals(presente)) {
+                rimuovi(presente);
+                modificata = true;
+            }
+        }
+        return modificata;
+    }
+
+    /**
+     * Rimuove un annuncio presente in bacheca dalla sua partizione
+     * (in tempo costante ammortizzato, mantenendo l'ordine di
+     * inserimento degli altri annunci) e dagli indici secondari.
+     */
+    private void rimuovi(Annuncio annuncio) {
+        partizione(annuncio).rimuovi(annuncio.getId());
+        deindicizza(annuncio);
+        versione++;
+        notificaRimozione(annuncio);
+    }
+
+    private void notificaAggiunta(Annuncio annuncio) {
+        if (!ascoltatori.isEmpty()) {
+            pubblica(() -> {
+                for (AscoltatoreBacheca ascoltatore : ascoltatori) {
+                    ascoltatore.annuncioAggiunto(annuncio);
+                }
+            });
+        }
+    }
+
+    private void notificaRimozione(Annuncio annuncio) {
+        if (!ascoltatori.isEmpty()) {
+            pubblica(() -> {
+                for (AscoltatoreBacheca ascoltatore : ascoltatori) {
+                    ascoltatore.annuncioRimosso(annuncio);
+                }
+            });
+        }
+    }
+
+    private void notificaModifica(Annuncio annuncio) {
+        if (!ascoltatori.isEmpty()) {
+            pubblica(() -> {
+                for (AscoltatoreBacheca ascoltatore : ascoltatori) {
+                    ascoltatore.annuncioModificato(annuncio);
+                }
+            });
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ricerca di Annuncio per prezzo
+    // ------------------------------------------------------------------
+    /**
+     * Restituisce gli annunci (vendita e acquisto) con prezzo compreso
+     * tra min e max, estremi inclusi, in ordine crescente di prezzo.
+     *
+     * @param min prezzo minimo
+     * @param max prezzo massimo
+     * @return lista ordinata per prezzo
+     * @throws BachecaException se l'intervallo non è valido
+     */
+    @Override
+    public List<Annuncio> cercaPerPrezzo(double min, double max) {
+        controllaIntervallo(min, max);
+
+        // Fonde i risultati (già ordinati) dei due indici
+        List<AnnuncioVendita> v = prezziVendite.intervallo(min, max, Integer.MAX_VALUE);
+        List<AnnuncioAcquisto> a = prezziAcquisti.intervallo(min, max, Integer.MAX_VALUE);
+        List<Annuncio> risultati = new ArrayList<>(v.size() + a.size());
+        int i = 0;
+        int j = 0;
+        while (i < v.size() || j < a.size()) {
+            if (j == a.size() || (i < v.size() && v.get(i).getPrezzo() <= a.get(j).getPrezzo())) {
+                risultati.add(v.get(i++));
+            } else {
+                risultati.add(a.get(j++));
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Restituisce gli annunci di vendita con prezzo compreso tra min e max,
+     * estremi inclusi, in ordine crescente di prezzo.
+     *
+     * @throws BachecaException se l'intervallo non è valido
+     */
+    @Override
+    public List<AnnuncioVendita> cercaVenditePerPrezzo(double min, double max) {
+        controllaIntervallo(min, max);
+        return prezziVendite.intervallo(min, max, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Restituisce gli annunci di acquisto con prezzo (budget) compreso
+     * tra min e max, estremi inclusi, in ordine crescente di prezzo.
+     *
+     * @throws BachecaException se l'intervallo non è valido
+     */
+    @Override
+    public List<AnnuncioAcquisto> cercaAcquistiPerPrezzo(double min, double max) {
+        controllaIntervallo(min, max);
+        return prezziAcquisti.intervallo(min, max, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Restituisce gli n annunci di vendita più economici, in ordine
+     * crescente di prezzo.
+     *
+     * @param n numero massimo di annunci da restituire
+     * @throws BachecaException se n è negativo
+     */
+    @Override
+    public List<AnnuncioVendita> getVenditePiuEconomiche(int n) {
+        if (n < 0) {
+            throw new BachecaException("Il numero di annunci richiesti non può essere negativo");
+        }
+        return prezziVendite.primi(n);
+    }
+
+    /**
+     * Restituisce l'annuncio di vendita con il prezzo più basso, oppure null.
+     */
+    @Override
+    public AnnuncioVendita getVenditaPiuEconomica() {
+        return prezziVendite.primo();
+    }
+
+    /**
+     * Restituisce la vendita non venduta più economica con la parola chiave
+     * indicata e prezzo non superiore al budget, oppure null se non c'è.
+     * La parola viene confrontata in forma normalizzata; la risposta è in
+     * tempo logaritmico (testa dell'indice dei prezzi della parola).
+     *
+     * @param parolaChiave la parola chiave cercata
+     * @param budget       prezzo massimo accettato
+     * @throws BachecaException se la parola è nulla
+     */
+    @Override
+    public AnnuncioVendita getVenditaPiuEconomica(String parolaChiave, double budget) {
+        List<AnnuncioVendita> trovate = getVenditePiuEconomiche(parolaChiave, budget, 1);
+        return trovate.isEmpty() ? null : trovate.get(0);
+    }
+
+    /**
+     * Restituisce al più n vendite non vendute con la parola chiave indicata
+     * e prezzo non superiore al budget, in ordine crescente di prezzo.
+     * Costa O(log k + n), con k vendite con quella parola.
+     *
+     * @throws BachecaException se la parola è nulla o n è negativo
+     */
+    @Override
+    public List<AnnuncioVendita> getVenditePiuEconomiche(String parolaChiave, double budget, int n) {
+        controllaParolaEconomiche(parolaChiave, n);
+        IndiceOrdinato<AnnuncioVendita> indice = prezziPerParola(DizionarioParole.cerca(parolaChiave));
+        return indice == null ? new ArrayList<>() : indice.intervallo(Double.NEGATIVE_INFINITY, budget, n);
+    }
+
+    /**
+     * Restituisce, senza ripetizioni e in ordine di id, gli annunci di
+     * acquisto con almeno una parola chiave in comune con la vendita e
+     * budget (prezzo) non inferiore al suo prezzo. La vendita non deve
+     * essere necessariamente in bacheca: serve ad avvisare gli acquirenti
+     * quando ne arriva una nuova.
+     * Per ogni parola della vendita si legge solo la coda dell'indice dei
+     * budget: O(k log n + r log r), con k parole e r acquisti trovati.
+     *
+     * @throws BachecaException se la vendita è nulla
+     */
+    @Override
+    public List<AnnuncioAcquisto> cercaAcquistiConBudget(AnnuncioVendita vendita) {
+        if (vendita == null) {
+            throw new BachecaException("L'annuncio di vendita non può essere nullo");
+        }
+        Map<Integer, AnnuncioAcquisto> trovati = new HashMap<>();
+        for (String parola : vendita.getParoleChiave()) {
+            IndiceOrdinato<AnnuncioAcquisto> indice = budgetPerParola(DizionarioParole.cerca(parola));
+            if (indice != null) {
+                for (AnnuncioAcquisto acquisto : indice.intervallo(vendita.getPrezzo(), Double.POSITIVE_INFINITY, Integer.MAX_VALUE)) {
+                    trovati.putIfAbsent(acquisto.getId(), acquisto);
+                }
+            }
+        }
+        List<AnnuncioAcquisto> risultato = new ArrayList<>(trovati.values());
+        risultato.sort(Comparator.comparingInt(Annuncio::getId));
+        return risultato;
+    }
+
+    static void controllaParolaEconomiche(String parolaChiave, int n) {
+        if (parolaChiave == null) {
+            throw new BachecaException("La parola chiave non può essere nulla");
+        }
+        if (n < 0) {
+            throw new BachecaException("Il numero di annunci richiesti non può essere negativo");
+        }
+    }
+
+    /**
+     * Restituisce l'annuncio di vendita con il prezzo più alto, oppure null.
+     */
+    @Override
+    public AnnuncioVendita getVenditaPiuCostosa() {
+        return prezziVendite.ultimo();
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: annunci di vendita scaduti
+    // ------------------------------------------------------------------
+    /**
+     * Restituisce gli annunci di vendita scaduti alla data indicata
+     * (cioè con data di scadenza precedente a 'oggi'), dal più vecchio.
+     * Legge solo la testa dell'indice delle scadenze.
+     *
+     * @param oggi la data di riferimento
+     * @return lista degli annunci scaduti
+     * @throws BachecaException se la data è nulla
+     */
+    @Override
+    public List<AnnuncioVendita> getVenditeScadute(LocalDate oggi) {
+        if (oggi == null) {
+            throw new BachecaException("La data di riferimento non può essere nulla");
+        }
+        return scadenzeVendite.intervallo(Double.NEGATIVE_INFINITY, oggi.toEpochDay() - 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rimuove dalla bacheca gli annunci di vendita scaduti alla data
+     * indicata. Il costo dipende dal numero di annunci scaduti e non
+     * dalla dimensione della bacheca.
+     *
+     * @param oggi la data di riferimento
+     * @return gli annunci rimossi (ad esempio per archiviarli)
+     * @throws BachecaException se la data è nulla
+     */
+    @Override
+    public List<AnnuncioVendita> rimuoviAnnunciScaduti(LocalDate oggi) {
+        List<AnnuncioVendita> scaduti = getVenditeScadute(oggi);
+        for (AnnuncioVendita vendita : scaduti) {
+            rimuovi(vendita);
+        }
+        return scaduti;
+    }
+
+    /**
+     * Restituisce la data di scadenza più vicina tra gli annunci di
+     * vendita in bacheca, oppure null se non ce ne sono.
+     */
+    @Override
+    public LocalDate getProssimaScadenza() {
+        AnnuncioVendita prima = scadenzeVendite.primo();
+        return prima != null ? prima.getDataScadenza() : null;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: filtri e aggregati sulle colonne primitive delle vendite
+    // ------------------------------------------------------------------
+    /**
+     * Restituisce gli annunci di vendita disponibili (non venduti e non
+     * scaduti alla data indicata) con prezzo tra min e max, estremi inclusi.
+     * Il filtro scorre solo le colonne primitive della partizione.
+     *
+     * @param min  prezzo minimo
+     * @param max  prezzo massimo
+     * @param oggi la data di riferimento
+     * @return gli annunci disponibili (ordine non garantito)
+     * @throws BachecaException se l'intervallo o la data non sono validi
+     */
+    @Override
+    public List<AnnuncioVendita> cercaVenditeDisponibili(double min, double max, LocalDate oggi) {
+        controllaIntervallo(min, max);
+        if (oggi == null) {
+            throw new BachecaException("La data di riferimento non può essere nulla");
+        }
+        return vendite.filtraDisponibili(min, max, Partizione.giornoEpoca(oggi));
+    }
+
+    /**
+     * Calcola con una sola scansione delle colonne primitive le statistiche
+     * degli annunci di vendita alla data indicata.
+     *
+     * @param oggi la data di riferimento
+     * @return le statistiche (mai null)
+     * @throws BachecaException se la data è nulla
+     */
+    @Override
+    public StatisticheVendite getStatisticheVendite(LocalDate oggi) {
+        if (oggi == null) {
+            throw new BachecaException("La data di riferimento non può essere nulla");
+        }
+        return vendite.statistiche(Partizione.giornoEpoca(oggi), Partizione.QUALSIASI_PROPRIETARIO);
+    }
+
+    /**
+     * Come {@link #getStatisticheVendite(LocalDate)}, limitato agli annunci
+     * del proprietario indicato (filtrati tramite la colonna dei proprietari).
+     *
+     * @param email l'email del proprietario
+     * @param oggi  la data di riferimento
+     * @return le statistiche (vuote se l'utente non ha annunci)
+     * @throws BachecaException se la data è nulla
+     */
+    @Override
+    public StatisticheVendite getStatisticheVendite(String email, LocalDate oggi) {
+        if (oggi == null) {
+            throw new BachecaException("La data di riferimento non può essere nulla");
+        }
+        int proprietario = proprietari.cerca(email);
+        if (proprietario == Dizionario.ASSENTE) {
+            return new StatisticheVendite();
+        }
+        return vendite.statistiche(Partizione.giornoEpoca(oggi), proprietario);
+    }
+
+    private static void controllaIntervallo(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new BachecaException("Intervallo di prezzo non valido");
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: aggiornamento di tutti gli indici secondari
+    // ------------------------------------------------------------------
+    private void indicizza(Annuncio annuncio) {
+        indicizzaParole(annuncio);
+        aggiungiAPrezziPerParola(annuncio);
+        indiceTesto.aggiungi(annuncio);
+        indiceUtenti.computeIfAbsent(annuncio.getUtente().getEmail(), k -> new AnnunciUtente())
+                    .aggiungi(annuncio);
+        aggiungiAIndicePrezzi(annuncio);
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            aggiungiAIndiceScadenze(vendita);
+        }
+        annuncio.aggiungiOsservatore(osservatore);
+    }
+
+    private void deindicizza(Annuncio annuncio) {
+        annuncio.rimuoviOsservatore(osservatore);
+        deindicizzaParole(annuncio);
+        rimuoviDaPrezziPerParola(annuncio, annuncio.getCodiciParole(), annuncio.getPrezzo());
+        indiceTesto.rimuovi(annuncio.getId());
+        deindicizzaUtente(annuncio);
+        rimuoviDaIndicePrezzi(annuncio, annuncio.getPrezzo());
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            rimuoviDaIndiceScadenze(vendita, vendita.getDataScadenza());
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: gestione dell'indice delle scadenze
+    // (gli annunci senza data di scadenza non scadono e non sono indicizzati)
+    // ------------------------------------------------------------------
+    private void aggiungiAIndiceScadenze(AnnuncioVendita vendita) {
+        if (vendita.getDataScadenza() != null) {
+            scadenzeVendite.inserisci(vendita.getDataScadenza().toEpochDay(), vendita);
+        }
+    }
+
+    private void rimuoviDaIndiceScadenze(AnnuncioVendita vendita, LocalDate scadenza) {
+        if (scadenza != null) {
+            scadenzeVendite.rimuovi(scadenza.toEpochDay(), vendita);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: gestione degli indici dei prezzi
+    // ------------------------------------------------------------------
+    private void aggiungiAIndicePrezzi(Annuncio annuncio) {
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            prezziVendite.inserisci(vendita.getPrezzo(), vendita);
+        } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            prezziAcquisti.inserisci(acquisto.getPrezzo(), acquisto);
+        }
+    }
+
+    private void rimuoviDaIndicePrezzi(Annuncio annuncio, double prezzo) {
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            prezziVendite.rimuovi(prezzo, vendita);
+        } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            prezziAcquisti.rimuovi(prezzo, acquisto);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: gestione degli indici dei prezzi per parola chiave
+    // (vendite non vendute per prezzo, acquisti per budget; gli indici
+    // vuoti vengono liberati)
+    // ------------------------------------------------------------------
+    private void aggiungiAPrezziPerParola(Annuncio annuncio) {
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            if (!vendita.isVenduto()) {
+                inserisciPerParola(prezziPerParola, vendita);
+            }
+        } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            inserisciPerParola(budgetPerParola, acquisto);
+        }
+    }
+
+    private void rimuoviDaPrezziPerParola(Annuncio annuncio, int[] codici, double prezzo) {
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            rimuoviPerParola(prezziPerParola, vendita, codici, prezzo);
+        } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            rimuoviPerParola(budgetPerParola, acquisto, codici, prezzo);
+        }
+    }
+
+    private static <T extends Annuncio> void inserisciPerParola(ArrayList<IndiceOrdinato<T>> indici, T annuncio) {
+        for (int codice : annuncio.getCodiciParole()) {
+            while (indici.size() <= codice) {
+                indici.add(null);
+            }
+            IndiceOrdinato<T> indice = indici.get(codice);
+            if (indice == null) {
+                indice = new IndiceOrdinato<>();
+                indici.set(codice, indice);
+            }
+            indice.inserisci(annuncio.getPrezzo(), annuncio);
+        }
+    }
+
+    private static <T extends Annuncio> void rimuoviPerParola(ArrayList<IndiceOrdinato<T>> indici, T annuncio,
+                                                              int[] codici, double prezzo) {
+        for (int codice : codici) {
+            IndiceOrdinato<T> indice = perCodice(indici, codice);
+            if (indice != null && indice.rimuovi(prezzo, annuncio) && indice.size() == 0) {
+                indici.set(codice, null);
+            }
+        }
+    }
+
+    // Indice dei prezzi della parola con il codice indicato, oppure null
+    private IndiceOrdinato<AnnuncioVendita> prezziPerParola(int codice) {
+        return perCodice(prezziPerParola, codice);
+    }
+
+    // Indice dei budget della parola con il codice indicato, oppure null
+    private IndiceOrdinato<AnnuncioAcquisto> budgetPerParola(int codice) {
+        return perCodice(budgetPerParola, codice);
+    }
+
+    private static <T> T perCodice(ArrayList<T> indici, int codice) {
+        return codice >= 0 && codice < indici.size() ? indici.get(codice) : null;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: gestione dell'indice per proprietario
+    // ------------------------------------------------------------------
+    private void deindicizzaUtente(Annuncio annuncio) {
+        String email = annuncio.getUtente().getEmail();
+        AnnunciUtente voce = indiceUtenti.get(email);
+        if (voce != null) {
+            voce.rimuovi(annuncio);
+            if (voce.isVuota()) {
+                indiceUtenti.remove(email);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI: gestione dell'indice delle parole chiave
+    // ------------------------------------------------------------------
+    private void indicizzaParole(Annuncio annuncio) {
+        for (int codice : annuncio.getCodiciParole()) {
+            while (indiceParole.size() <= codice) {
+                indiceParole.add(null);
+            }
+            BitmapCompressa posting = indiceParole.get(codice);
+            if (posting == null) {
+                posting = new BitmapCompressa();
+                indiceParole.set(codice, posting);
+            }
+            if (posting.aggiungi(annuncio.getId())) {
+                prefissi.aggiorna(codice, 1);
+            }
+        }
+    }
+
+    private void deindicizzaParole(Annuncio annuncio) {
+        deindicizzaParole(annuncio, annuncio.getCodiciParole());
+    }
+
+    private void deindicizzaParole(Annuncio annuncio, int[] codici) {
+        for (int codice : codici) {
+            BitmapCompressa posting = posting(codice);
+            if (posting != null && posting.rimuovi(annuncio.getId())) {
+                prefissi.aggiorna(codice, -1);
+                // Le posting list vuote vengono liberate
+                if (posting.isVuota()) {
+                    indiceParole.set(codice, null);
+                }
+            }
+        }
+    }
+
+    // Posting list della parola con il codice indicato, oppure null
+    private BitmapCompressa posting(int codice) {
+        return codice >= 0 && codice < indiceParole.size() ? indiceParole.get(codice) : null;
     }
 
     // ------------------------------------------------------------------
     // METODI: supporto per lettura degli annunci
     // ------------------------------------------------------------------
     /**
-     * Restituisce un array di tutti gli Annuncio presenti in bacheca.
+     * Restituisce un array di tutti gli Annuncio presenti in bacheca:
+     * prima gli annunci di vendita, poi quelli di acquisto.
+     * L'array viene creato una sola volta per versione e conservato nella
+     * fotografia: è condiviso tra i chiamanti e non va modificato.
      *
      * @return array di Annuncio
      */
+    @Override
     public Annuncio[] getAnnunci() {
-        // 1. Converte la lista in un array di Annuncio (comodo se servono array "puri").
-        return annunci.toArray(new Annuncio[0]);
+        return getFotografia().comeArray();
     }
 
+    /**
+     * Restituisce una fotografia immutabile e coerente degli annunci in
+     * bacheca. Se la bacheca non è cambiata dall'ultima chiamata viene
+     * restituita la stessa istanza (nessuna copia); altrimenti la nuova
+     * fotografia viene costruita una sola volta e condivisa da tutti i
+     * lettori successivi. La nuova fotografia condivide con la precedente
+     * i blocchi delle partizioni non modificati nel frattempo: costa
+     * O(numero di blocchi), non O(numero di annunci).
+     *
+     * @return la fotografia della versione corrente
+     */
+    @Override
+    public FotografiaBacheca getFotografia() {
+        FotografiaBacheca f = fotografia;
+        if (f.getVersione() != versione) {
+            f = new FotografiaBacheca(versione, vendite.fotografia(), acquisti.fotografia());
+            fotografia = f;
+        }
+        return f;
+    }
+
+    /**
+     * Restituisce l'ultima fotografia costruita se è ancora della versione
+     * corrente, altrimenti null. A differenza di getFotografia() non
+     * modifica la bacheca: i segmenti della BachecaConcorrente la usano
+     * con il solo lock in lettura.
+     */
+    FotografiaBacheca getFotografiaCorrente() {
+        FotografiaBacheca f = fotografia;
+        return f.getVersione() == versione ? f : null;
+    }
+
+    /**
+     * Numero di versione della bacheca: cresce a ogni inserimento o
+     * rimozione di annunci.
+     */
+    @Override
+    public long getVersione() {
+        return versione;
+    }
+
+    /**
+     * Restituisce gli annunci di vendita, leggendo direttamente la loro
+     * partizione (vista non modificabile, senza copie né filtri).
+     *
+     * @return lista degli annunci di vendita
+     */
+    @Override
+    public List<AnnuncioVendita> getAnnunciVendita() {
+        return vendite.vista();
+    }
+
+    /**
+     * Restituisce gli annunci di acquisto, leggendo direttamente la loro
+     * partizione (vista non modificabile, senza copie né filtri).
+     *
+     * @return lista degli annunci di acquisto
+     */
+    @Override
+    public List<AnnuncioAcquisto> getAnnunciAcquisto() {
+        return acquisti.vista();
+    }
+
+    /**
+     * Restituisce il numero totale di annunci presenti in bacheca.
+     */
+    @Override
+    public int getNumeroAnnunci() {
+        return vendite.size() + acquisti.size();
+    }
+
+    @Override
     public void svuotaBacheca() {
-        annunci.clear();  // Rimuove tutti gli annunci dalla lista
+        List<Annuncio> rimossi = ascoltatori.isEmpty() ? List.of() : getFotografia().getAnnunci();
+        for (Annuncio annuncio : this) {
+            annuncio.rimuoviOsservatore(osservatore);  // La bacheca smette di osservare gli annunci
+        }
+        vendite.svuota();  // Rimuove tutti gli annunci dalle partizioni
+        acquisti.svuota();
+        for (int codice = 0; codice < indiceParole.size(); codice++) {
+            // Toglie dal trie (eventualmente condiviso) i soli annunci di questa bacheca
+            if (indiceParole.get(codice) != null) {
+                prefissi.aggiorna(codice, -indiceParole.get(codice).cardinalita());
+            }
+        }
+        indiceParole.clear();  // Svuota anche l'indice delle parole chiave
+        indiceTesto.svuota();  // ...e l'indice full-text
+        indiceUtenti.clear();  // ...e l'indice per proprietario
+        prezziVendite.svuota();  // ...e gli indici dei prezzi
+        prezziAcquisti.svuota();
+        scadenzeVendite.svuota();  // ...e l'indice delle scadenze
+        prezziPerParola.clear();  // ...e gli indici dei prezzi per parola
+        budgetPerParola.clear();
+        proprietari.svuota();  // ...e il dizionario dei proprietari
+        versione++;  // Le fotografie precedenti restano valide per chi le possiede
         Annuncio.resetIdCounter(1);  // Resetta il contatore ID a 1 (opzionale)
+        for (Annuncio annuncio : rimossi) {
+            notificaRimozione(annuncio);  // Avvisa gli ascoltatori esterni, annuncio per annuncio
+        }
     }
 
     // ------------------------------------------------------------------
@@ -156,8 +1363,28 @@ public class Bacheca implements Iterable<Annuncio> {
     // ------------------------------------------------------------------
     @Override
     public Iterator<Annuncio> iterator() {
-        // Restituisce l'iteratore su annunci
-        return annunci.iterator();
+        // Scorre in sola lettura prima la partizione delle vendite e poi
+        // quella degli acquisti: una remove() dall'iteratore lascerebbe
+        // disallineati gli indici
+        return new Iterator<Annuncio>() {
+            private Iterator<? extends Annuncio> corrente = vendite.iterator();
+            private boolean suAcquisti = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!corrente.hasNext() && !suAcquisti) {
+                    corrente = acquisti.iterator();
+                    suAcquisti = true;
+                }
+                return corrente.hasNext();
+            }
+
+            @Override
+            public Annuncio next() {
+                hasNext();
+                return corrente.next();
+            }
+        };
     }
 
 }
@@ -0,0 +1,197 @@
+package bacheca;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import eccezioni.BachecaException;
+
+/**
+ * Interfaccia comune alle bacheche di annunci: la Bacheca (per l'uso da
+ * un solo thread) e la BachecaConcorrente (thread-safe, a segmenti).
+ * Il controller e le interfacce utente lavorano su questo tipo, così
+ * possono usare indifferentemente l'una o l'altra.
+ *
+ * Il comportamento dei singoli metodi (validazioni, ordinamenti, costi)
+ * è documentato nella Bacheca; la BachecaConcorrente lo rispetta, salvo
+ * l'ordine degli annunci restituiti dalle liste non ordinate.
+ */
+public interface BachecaAnnunci extends Iterable<Annuncio> {
+
+    // ------------------------------------------------------------------
+    // METODI: ascoltatori esterni
+    // ------------------------------------------------------------------
+    /**
+     * Registra un ascoltatore notificato a ogni inserimento, rimozione o
+     * modifica di un annuncio in bacheca.
+     * @throws BachecaException se l'ascoltatore è nullo
+     */
+    void aggiungiAscoltatore(AscoltatoreBacheca ascoltatore);
+
+    // Rimuove un ascoltatore registrato (nessun effetto se non presente)
+    void rimuoviAscoltatore(AscoltatoreBacheca ascoltatore);
+
+    // ------------------------------------------------------------------
+    // METODI: inserimento, modifica e rimozione
+    // ------------------------------------------------------------------
+    /**
+     * Aggiunge un Annuncio se in bacheca non c'è già un annuncio con lo
+     * stesso id.
+     * @throws BachecaException se l'Annuncio è nullo, già presente
+     *         o di un tipo non supportato
+     */
+    void aggiungiAnnuncio(Annuncio annuncio);
+
+    /**
+     * Rimuove l'annuncio con l'id indicato, solo se l'utente ne è il proprietario.
+     * @return true se la rimozione è avvenuta, false altrimenti
+     */
+    boolean rimuoviAnnuncio(int id, Utente utente);
+
+    /**
+     * Rimuove in blocco gli annunci della lista presenti in bacheca.
+     * @return true se almeno un annuncio è stato rimosso
+     */
+    boolean rimuoviAnnuncio(List<Annuncio> rimossi);
+
+    /**
+     * Rimuove gli annunci di vendita scaduti alla data indicata.
+     * @return gli annunci rimossi, dal più vecchio
+     * @throws BachecaException se la data è nulla
+     */
+    List<AnnuncioVendita> rimuoviAnnunciScaduti(LocalDate oggi);
+
+    // Rimuove tutti gli annunci dalla bacheca
+    void svuotaBacheca();
+
+    /**
+     * Sostituisce le parole chiave di un Annuncio mantenendo allineato
+     * l'indice delle parole chiave della bacheca.
+     * Se l'annuncio non è presente in bacheca vengono solo aggiornate
+     * le sue parole chiave.
+     *
+     * @param annuncio    l'annuncio da modificare
+     * @param nuoveParole la nuova lista di parole chiave
+     * @throws BachecaException se l'annuncio è nullo
+     */
+    default void aggiornaParoleChiave(Annuncio annuncio, List<String> nuoveParole) {
+        if (annuncio == null) {
+            throw new BachecaException("Annuncio non può essere nullo");
+        }
+
+        // Il setter valida le nuove parole (lasciando l'indice invariato se
+        // non valide) e avvisa le bacheche che contengono l'annuncio, che
+        // riallineano così il proprio indice.
+        annuncio.setParoleChiave(nuoveParole);
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ricerche per parole chiave e per testo
+    // ------------------------------------------------------------------
+    // Annunci con almeno una delle parole chiave (in forma normalizzata)
+    ArrayList<Annuncio> cercaPerParoleChiave(ArrayList<String> paroleChiave);
+
+    // Annunci con tutte le parole di 'tutte', almeno una di 'almenoUna' e nessuna di 'escluse'
+    List<Annuncio> cercaPerParoleChiave(List<String> tutte, List<String> almenoUna, List<String> escluse);
+
+    // Annunci con almeno una parola chiave a distanza di modifica al più 'distanzaMassima'
+    List<Annuncio> cercaPerParoleChiaveSimili(List<String> paroleChiave, int distanzaMassima);
+
+    // Pagina di al più 'limite' annunci con almeno una parola chiave, dopo il cursore
+    PaginaAnnunci cercaPaginaPerParoleChiave(List<String> paroleChiave, OrdinamentoAnnunci ordinamento,
+                                             int limite, String cursore);
+
+    // Al più 'massimo' annunci per rilevanza rispetto al testo (titolo e descrizione)
+    List<Annuncio> cercaTesto(String testo, int massimo);
+
+    // Al più 'massimo' parole chiave in uso che iniziano con il prefisso, dalla più usata
+    List<SuggerimentoParola> completaParolaChiave(String prefisso, int massimo);
+
+    // ------------------------------------------------------------------
+    // METODI: ricerche per id e per proprietario
+    // ------------------------------------------------------------------
+    // L'annuncio con l'id indicato, oppure null
+    Annuncio cercaAnnuncioPerId(int id);
+
+    /**
+     * Restituisce gli annunci pubblicati dall'utente con l'email indicata
+     * e i conteggi per tipo.
+     * @return gli annunci dell'utente (mai null)
+     */
+    AnnunciUtente getAnnunciUtente(String email);
+
+    /**
+     * Variante di {@link #getAnnunciUtente(String)} che accetta l'Utente.
+     *
+     * @param utente il proprietario
+     * @return gli annunci dell'utente (mai null)
+     */
+    default AnnunciUtente getAnnunciUtente(Utente utente) {
+        return utente == null ? AnnunciUtente.VUOTA : getAnnunciUtente(utente.getEmail());
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ricerche per prezzo e per budget
+    // ------------------------------------------------------------------
+    // Annunci con prezzo tra min e max (estremi inclusi), in ordine crescente di prezzo
+    List<Annuncio> cercaPerPrezzo(double min, double max);
+
+    List<AnnuncioVendita> cercaVenditePerPrezzo(double min, double max);
+
+    List<AnnuncioAcquisto> cercaAcquistiPerPrezzo(double min, double max);
+
+    // Gli n annunci di vendita più economici, in ordine crescente di prezzo
+    List<AnnuncioVendita> getVenditePiuEconomiche(int n);
+
+    // L'annuncio di vendita con il prezzo più basso, oppure null
+    AnnuncioVendita getVenditaPiuEconomica();
+
+    // La vendita non venduta più economica con la parola chiave ed entro il budget, oppure null
+    AnnuncioVendita getVenditaPiuEconomica(String parolaChiave, double budget);
+
+    // Al più n vendite non vendute con la parola chiave ed entro il budget, per prezzo
+    List<AnnuncioVendita> getVenditePiuEconomiche(String parolaChiave, double budget, int n);
+
+    // Acquisti con una parola chiave in comune con la vendita e budget sufficiente, per id
+    List<AnnuncioAcquisto> cercaAcquistiConBudget(AnnuncioVendita vendita);
+
+    // L'annuncio di vendita con il prezzo più alto, oppure null
+    AnnuncioVendita getVenditaPiuCostosa();
+
+    // ------------------------------------------------------------------
+    // METODI: scadenze e statistiche delle vendite
+    // ------------------------------------------------------------------
+    // Annunci di vendita scaduti alla data indicata, dal più vecchio
+    List<AnnuncioVendita> getVenditeScadute(LocalDate oggi);
+
+    // La data di scadenza più vicina tra le vendite in bacheca, oppure null
+    LocalDate getProssimaScadenza();
+
+    // Vendite non vendute e non scadute alla data indicata, con prezzo tra min e max
+    List<AnnuncioVendita> cercaVenditeDisponibili(double min, double max, LocalDate oggi);
+
+    StatisticheVendite getStatisticheVendite(LocalDate oggi);
+
+    StatisticheVendite getStatisticheVendite(String email, LocalDate oggi);
+
+    // ------------------------------------------------------------------
+    // METODI: contenuto della bacheca
+    // ------------------------------------------------------------------
+    /**
+     * Restituisce tutti gli annunci, prima le vendite e poi gli acquisti.
+     * L'array è condiviso tra i chiamanti e non va modificato.
+     */
+    Annuncio[] getAnnunci();
+
+    // Fotografia immutabile degli annunci, riusata finché la bacheca non cambia
+    FotografiaBacheca getFotografia();
+
+    // Cresce a ogni inserimento o rimozione di annunci
+    long getVersione();
+
+    List<AnnuncioVendita> getAnnunciVendita();
+
+    List<AnnuncioAcquisto> getAnnunciAcquisto();
+
+    int getNumeroAnnunci();
+}
@@ -0,0 +1,681 @@
+package bacheca;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import eccezioni.BachecaException;
+
+/**
+ * Variante thread-safe della Bacheca, utilizzabile ovunque sia richiesta
+ * una BachecaAnnunci (ad esempio da GestoreBachecaImpl).
+ *
+ * Gli annunci sono distribuiti, in base all'id, su più segmenti: ogni
+ * segmento è una Bacheca con i propri indici, protetta da un
+ * ReentrantReadWriteLock. Le operazioni su un singolo annuncio bloccano
+ * solo il suo segmento, quindi letture e scritture su segmenti diversi
+ * procedono in parallelo; le ricerche interrogano tutti i segmenti (in
+ * lettura) e ne fondono i risultati.
+ *
+ * Le liste restituite (getAnnunciVendita, getAnnunci, l'iteratore, ...)
+ * provengono da una fotografia che riusa, senza copiarle, le fotografie
+ * immutabili dei singoli segmenti: ogni segmento è letto in modo coerente
+ * ma segmenti diversi possono essere letti in istanti diversi. Non viene
+ * mai lanciata ConcurrentModificationException. L'ordine degli annunci
+ * non è garantito.
+ *
+ * Gli ascoltatori sono notificati dopo che il segmento modificato è stato
+ * sbloccato, nell'ordine in cui il segmento ha eseguito le modifiche.
+ */
+public class BachecaConcorrente implements BachecaAnnunci {
+
+    private static final int SEGMENTI_PREDEFINITI = 16;
+
+    // Ordine degli indici per prezzo e per scadenza, a parità di chiave per id
+    private static final Comparator<Annuncio> PER_PREZZO =
+        Comparator.comparingDouble(Annuncio::getPrezzo).thenComparingInt(Annuncio::getId);
+    private static final Comparator<AnnuncioVendita> PER_SCADENZA =
+        Comparator.comparing(AnnuncioVendita::getDataScadenza).thenComparingInt(Annuncio::getId);
+
+    /**
+     * Segmento della bacheca: gli aggiornamenti degli indici richiesti
+     * dai setter degli annunci avvengono sotto il lock del segmento.
+     *
+     * Le notifiche agli ascoltatori prodotte sotto il lock in scrittura
+     * vengono accodate (nell'ordine delle modifiche) e consegnate da
+     * consegnaNotifiche() dopo lo sblocco, da un solo thread per volta:
+     * un ascoltatore lento non blocca il segmento e può leggere o
+     * modificare la bacheca senza rischio di stallo.
+     */
+    private static final class Segmento extends Bacheca {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Queue<Runnable> notifiche = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean inConsegna = new AtomicBoolean();
+
+        Segmento(IndicePrefissi prefissi) {
+            super(prefissi);
+        }
+
+        @Override
+        void aggiornaIndici(Runnable aggiornamento) {
+            lock.writeLock().lock();
+            try {
+                aggiornamento.run();
+            } finally {
+                lock.writeLock().unlock();
+                consegnaNotifiche();
+            }
+        }
+
+        // Chiamato con il lock in scrittura acquisito
+        @Override
+        void pubblica(Runnable notifica) {
+            notifiche.add(notifica);
+        }
+
+        /**
+         * Consegna le notifiche accodate, senza lock del segmento. Se un
+         * altro thread le sta già consegnando (o questo stesso, da dentro
+         * un ascoltatore) ritorna subito: le nuove notifiche le consegna
+         * lui, dopo le precedenti. Lo stesso se il lock è ancora tenuto da
+         * questo thread (lock rientrante): le consegnerà lo sblocco esterno.
+         * Se un ascoltatore lancia un'eccezione le notifiche rimaste
+         * vengono consegnate alla modifica successiva.
+         */
+        void consegnaNotifiche() {
+            while (!notifiche.isEmpty() && !lock.isWriteLockedByCurrentThread()
+                    && inConsegna.compareAndSet(false, true)) {
+                try {
+                    Runnable notifica;
+                    while ((notifica = notifiche.poll()) != null) {
+                        notifica.run();
+                    }
+                } finally {
+                    inConsegna.set(false);
+                }
+            }
+        }
+    }
+
+    private final Segmento[] segmenti;
+    private final int maschera;
+
+    // Trie delle parole chiave condiviso dai segmenti (thread-safe): i
+    // conteggi sono già quelli dell'intera bacheca
+    private final IndicePrefissi prefissi = new IndicePrefissi();
+
+    // Ultima fotografia combinata: la sua versione è la somma delle
+    // versioni dei segmenti (che crescono soltanto)
+    private volatile FotografiaBacheca fotografia = FotografiaBacheca.VUOTA;
+
+    public BachecaConcorrente() {
+        this(SEGMENTI_PREDEFINITI);
+    }
+
+    /**
+     * @param numeroSegmenti numero minimo di segmenti (arrotondato alla
+     *                       potenza di due successiva)
+     * @throws BachecaException se il numero non è positivo
+     */
+    public BachecaConcorrente(int numeroSegmenti) {
+        if (numeroSegmenti <= 0 || numeroSegmenti > (1 << 16)) {
+            throw new BachecaException("Numero di segmenti non valido");
+        }
+        int n = Integer.highestOneBit(numeroSegmenti);
+        if (n < numeroSegmenti) {
+            n <<= 1;
+        }
+        this.segmenti = new Segmento[n];
+        for (int i = 0; i < n; i++) {
+            segmenti[i] = new Segmento(prefissi);
+        }
+        this.maschera = n - 1;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ascoltatori (registrati su ogni segmento, che notifica le
+    //         proprie modifiche dopo aver rilasciato il lock)
+    // ------------------------------------------------------------------
+    @Override
+    public void aggiungiAscoltatore(AscoltatoreBacheca ascoltatore) {
+        if (ascoltatore == null) {
+            throw new BachecaException("L'ascoltatore non può essere nullo");
+        }
+        for (Segmento segmento : segmenti) {
+            segmento.aggiungiAscoltatore(ascoltatore);
+        }
+    }
+
+    @Override
+    public void rimuoviAscoltatore(AscoltatoreBacheca ascoltatore) {
+        for (Segmento segmento : segmenti) {
+            segmento.rimuoviAscoltatore(ascoltatore);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: inserimento e rimozione (lock in scrittura su un segmento)
+    // ------------------------------------------------------------------
+    @Override
+    public void aggiungiAnnuncio(Annuncio annuncio) {
+        if (annuncio == null) {
+            throw new BachecaException("Annuncio non può essere nullo");
+        }
+        scrivi(segmento(annuncio.getId()), s -> {
+            s.aggiungiAnnuncio(annuncio);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean rimuoviAnnuncio(int id, Utente utente) {
+        return scrivi(segmento(id), s -> s.rimuoviAnnuncio(id, utente));
+    }
+
+    @Override
+    public boolean rimuoviAnnuncio(List<Annuncio> rimossi) {
+        if (rimossi == null || rimossi.isEmpty()) {
+            return false;
+        }
+        // Raggruppa gli annunci per segmento: un solo lock per segmento
+        List<List<Annuncio>> gruppi = new ArrayList<>(segmenti.length);
+        for (int i = 0; i < segmenti.length; i++) {
+            gruppi.add(new ArrayList<>());
+        }
+        for (Annuncio annuncio : rimossi) {
+            if (annuncio != null) {
+                gruppi.get(indiceSegmento(annuncio.getId())).add(annuncio);
+            }
+        }
+        boolean modificata = false;
+        for (int i = 0; i < segmenti.length; i++) {
+            List<Annuncio> gruppo = gruppi.get(i);
+            if (!gruppo.isEmpty()) {
+                modificata |= scrivi(segmenti[i], s -> s.rimuoviAnnuncio(gruppo));
+            }
+        }
+        return modificata;
+    }
+
+    @Override
+    public List<AnnuncioVendita> rimuoviAnnunciScaduti(LocalDate oggi) {
+        if (oggi == null) {
+            throw new BachecaException("La data di riferimento non può essere nulla");
+        }
+        List<List<AnnuncioVendita>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(scrivi(segmento, s -> s.rimuoviAnnunciScaduti(oggi)));
+        }
+        return fondi(parziali, PER_SCADENZA, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void svuotaBacheca() {
+        // Blocca tutti i segmenti, sempre nello stesso ordine
+        for (Segmento segmento : segmenti) {
+            segmento.lock.writeLock().lock();
+        }
+        try {
+            for (Segmento segmento : segmenti) {
+                segmento.svuotaBacheca();
+            }
+        } finally {
+            for (int i = segmenti.length - 1; i >= 0; i--) {
+                segmenti[i].lock.writeLock().unlock();
+            }
+        }
+        for (Segmento segmento : segmenti) {
+            segmento.consegnaNotifiche();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ricerche (lock in lettura, risultati fusi)
+    // ------------------------------------------------------------------
+    @Override
+    public Annuncio cercaAnnuncioPerId(int id) {
+        return leggi(segmento(id), s -> s.cercaAnnuncioPerId(id));
+    }
+
+    @Override
+    public ArrayList<Annuncio> cercaPerParoleChiave(ArrayList<String> paroleChiave) {
+        if (paroleChiave == null || paroleChiave.isEmpty()) {
+            throw new BachecaException("Lista parole chiave non può essere nulla o vuota");
+        }
+        // I segmenti sono disgiunti: basta concatenare i risultati
+        ArrayList<Annuncio> risultati = new ArrayList<>();
+        for (Segmento segmento : segmenti) {
+            risultati.addAll(leggi(segmento, s -> s.cercaPerParoleChiave(paroleChiave)));
+        }
+        return risultati;
+    }
+
+    @Override
+    public List<Annuncio> cercaPerParoleChiave(List<String> tutte, List<String> almenoUna,
+                                              List<String> escluse) {
+        if ((tutte == null || tutte.isEmpty()) && (almenoUna == null || almenoUna.isEmpty())) {
+            throw new BachecaException("Serve almeno una parola chiave da cercare");
+        }
+        // Ogni annuncio sta in un solo segmento: la combinazione si valuta per segmento
+        List<Annuncio> risultati = new ArrayList<>();
+        for (Segmento segmento : segmenti) {
+            risultati.addAll(leggi(segmento, s -> s.cercaPerParoleChiave(tutte, almenoUna, escluse)));
+        }
+        return risultati;
+    }
+
+    @Override
+    public List<Annuncio> cercaPerParoleChiaveSimili(List<String> paroleChiave, int distanzaMassima) {
+        Bacheca.controllaRicercaSimili(paroleChiave, distanzaMassima);
+        // Le parole simili si cercano una volta sola nel trie condiviso,
+        // poi ogni segmento cerca quelle esatte
+        ArrayList<String> simili = prefissi.espandi(paroleChiave, distanzaMassima);
+        List<Annuncio> risultati = new ArrayList<>();
+        if (simili.isEmpty()) {
+            return risultati;
+        }
+        for (Segmento segmento : segmenti) {
+            risultati.addAll(leggi(segmento, s -> s.cercaPerParoleChiave(simili)));
+        }
+        return risultati;
+    }
+
+    @Override
+    public PaginaAnnunci cercaPaginaPerParoleChiave(List<String> paroleChiave, OrdinamentoAnnunci ordinamento,
+                                                    int limite, String cursore) {
+        Bacheca.controllaPagina(paroleChiave, ordinamento, limite);
+        // Il cursore è una chiave (valore, id) valida per ogni segmento: ognuno
+        // restituisce la propria pagina dopo il cursore e si tengono le prime
+        List<Annuncio> risultati = new ArrayList<>();
+        boolean altri = false;
+        for (Segmento segmento : segmenti) {
+            PaginaAnnunci pagina = leggi(segmento, s -> s.cercaPaginaPerParoleChiave(paroleChiave, ordinamento, limite, cursore));
+            risultati.addAll(pagina.getAnnunci());
+            altri |= !pagina.isUltima();
+        }
+        risultati.sort(ordinamento.comparatore());
+        return PaginaAnnunci.di(risultati, ordinamento, limite, altri);
+    }
+
+    @Override
+    public List<Annuncio> cercaTesto(String testo, int massimo) {
+        Bacheca.controllaRicercaTesto(testo, massimo);
+        List<String> termini = Tokenizzatore.terminiDistinti(testo);
+
+        // Tutti i segmenti bloccati in lettura (sempre nello stesso ordine):
+        // il punteggio usa le statistiche dell'intera bacheca, non del segmento
+        for (Segmento segmento : segmenti) {
+            segmento.lock.readLock().lock();
+        }
+        try {
+            int documenti = 0;
+            long lunghezza = 0;
+            int[] frequenze = new int[termini.size()];
+            for (Segmento segmento : segmenti) {
+                IndiceTesto indice = segmento.getIndiceTesto();
+                documenti += indice.getNumeroDocumenti();
+                lunghezza += indice.getLunghezzaTotale();
+                for (int i = 0; i < frequenze.length; i++) {
+                    frequenze[i] += indice.getFrequenzaDocumenti(termini.get(i));
+                }
+            }
+            double media = documenti == 0 ? 0 : (double) lunghezza / documenti;
+
+            // Primi 'massimo' di ogni segmento, poi i primi 'massimo' complessivi
+            List<IndiceTesto.Risultato> risultati = new ArrayList<>();
+            for (Segmento segmento : segmenti) {
+                risultati.addAll(segmento.getIndiceTesto().cerca(termini, massimo, documenti, media, frequenze));
+            }
+            risultati.sort(IndiceTesto.PER_PUNTEGGIO);
+            List<Annuncio> annunci = new ArrayList<>(Math.min(massimo, risultati.size()));
+            for (IndiceTesto.Risultato risultato : risultati.subList(0, Math.min(massimo, risultati.size()))) {
+                annunci.add(segmento(risultato.id).cercaAnnuncioPerId(risultato.id));
+            }
+            return annunci;
+        } finally {
+            for (int i = segmenti.length - 1; i >= 0; i--) {
+                segmenti[i].lock.readLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<SuggerimentoParola> completaParolaChiave(String prefisso, int massimo) {
+        Bacheca.controllaCompletamento(prefisso, massimo);
+        return prefissi.completa(prefisso, massimo);
+    }
+
+    @Override
+    public AnnunciUtente getAnnunciUtente(String email) {
+        AnnunciUtente unione = new AnnunciUtente();
+        for (Segmento segmento : segmenti) {
+            leggi(segmento, s -> {
+                for (Annuncio annuncio : s.getAnnunciUtente(email).getAnnunci()) {
+                    unione.aggiungi(annuncio);
+                }
+                return null;
+            });
+        }
+        return unione.isVuota() ? AnnunciUtente.VUOTA : unione;
+    }
+
+    @Override
+    public List<Annuncio> cercaPerPrezzo(double min, double max) {
+        List<List<Annuncio>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.cercaPerPrezzo(min, max)));
+        }
+        return fondi(parziali, PER_PREZZO, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AnnuncioVendita> cercaVenditePerPrezzo(double min, double max) {
+        List<List<AnnuncioVendita>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.cercaVenditePerPrezzo(min, max)));
+        }
+        return fondi(parziali, PER_PREZZO, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AnnuncioAcquisto> cercaAcquistiPerPrezzo(double min, double max) {
+        List<List<AnnuncioAcquisto>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.cercaAcquistiPerPrezzo(min, max)));
+        }
+        return fondi(parziali, PER_PREZZO, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AnnuncioVendita> getVenditePiuEconomiche(int n) {
+        // Ogni segmento fornisce i suoi n più economici, poi si fondono
+        List<List<AnnuncioVendita>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.getVenditePiuEconomiche(n)));
+        }
+        return fondi(parziali, PER_PREZZO, n);
+    }
+
+    @Override
+    public AnnuncioVendita getVenditaPiuEconomica() {
+        AnnuncioVendita migliore = null;
+        for (Segmento segmento : segmenti) {
+            AnnuncioVendita candidato = leggi(segmento, Bacheca::getVenditaPiuEconomica);
+            if (candidato != null && (migliore == null || PER_PREZZO.compare(candidato, migliore) < 0)) {
+                migliore = candidato;
+            }
+        }
+        return migliore;
+    }
+
+    @Override
+    public List<AnnuncioVendita> getVenditePiuEconomiche(String parolaChiave, double budget, int n) {
+        Bacheca.controllaParolaEconomiche(parolaChiave, n);
+        List<List<AnnuncioVendita>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.getVenditePiuEconomiche(parolaChiave, budget, n)));
+        }
+        return fondi(parziali, PER_PREZZO, n);
+    }
+
+    @Override
+    public AnnuncioVendita getVenditaPiuEconomica(String parolaChiave, double budget) {
+        Bacheca.controllaParolaEconomiche(parolaChiave, 1);
+        AnnuncioVendita migliore = null;
+        for (Segmento segmento : segmenti) {
+            AnnuncioVendita candidato = leggi(segmento, s -> s.getVenditaPiuEconomica(parolaChiave, budget));
+            if (candidato != null && (migliore == null || PER_PREZZO.compare(candidato, migliore) < 0)) {
+                migliore = candidato;
+            }
+        }
+        return migliore;
+    }
+
+    @Override
+    public List<AnnuncioAcquisto> cercaAcquistiConBudget(AnnuncioVendita vendita) {
+        if (vendita == null) {
+            throw new BachecaException("L'annuncio di vendita non può essere nullo");
+        }
+        // Ogni acquisto è in un solo segmento: basta fondere per id
+        List<List<AnnuncioAcquisto>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.cercaAcquistiConBudget(vendita)));
+        }
+        return fondi(parziali, Comparator.comparingInt(Annuncio::getId), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public AnnuncioVendita getVenditaPiuCostosa() {
+        AnnuncioVendita migliore = null;
+        for (Segmento segmento : segmenti) {
+            AnnuncioVendita candidato = leggi(segmento, Bacheca::getVenditaPiuCostosa);
+            if (candidato != null && (migliore == null || PER_PREZZO.compare(candidato, migliore) > 0)) {
+                migliore = candidato;
+            }
+        }
+        return migliore;
+    }
+
+    @Override
+    public List<AnnuncioVendita> getVenditeScadute(LocalDate oggi) {
+        if (oggi == null) {
+            throw new BachecaException("La data di riferimento non può essere nulla");
+        }
+        List<List<AnnuncioVendita>> parziali = new ArrayList<>(segmenti.length);
+        for (Segmento segmento : segmenti) {
+            parziali.add(leggi(segmento, s -> s.getVenditeScadute(oggi)));
+        }
+        return fondi(parziali, PER_SCADENZA, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AnnuncioVendita> cercaVenditeDisponibili(double min, double max, LocalDate oggi) {
+        List<AnnuncioVendita> risultati = new ArrayList<>();
+        for (Segmento segmento : segmenti) {
+            risultati.addAll(leggi(segmento, s -> s.cercaVenditeDisponibili(min, max, oggi)));
+        }
+        return risultati;
+    }
+
+    @Override
+    public StatisticheVendite getStatisticheVendite(LocalDate oggi) {
+        StatisticheVendite totale = new StatisticheVendite();
+        for (Segmento segmento : segmenti) {
+            totale.unisci(leggi(segmento, s -> s.getStatisticheVendite(oggi)));
+        }
+        return totale;
+    }
+
+    @Override
+    public StatisticheVendite getStatisticheVendite(String email, LocalDate oggi) {
+        StatisticheVendite totale = new StatisticheVendite();
+        for (Segmento segmento : segmenti) {
+            totale.unisci(leggi(segmento, s -> s.getStatisticheVendite(email, oggi)));
+        }
+        return totale;
+    }
+
+    @Override
+    public LocalDate getProssimaScadenza() {
+        LocalDate prossima = null;
+        for (Segmento segmento : segmenti) {
+            LocalDate candidata = leggi(segmento, Bacheca::getProssimaScadenza);
+            if (candidata != null && (prossima == null || candidata.isBefore(prossima))) {
+                prossima = candidata;
+            }
+        }
+        return prossima;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: fotografie degli annunci e iterazione
+    // ------------------------------------------------------------------
+    @Override
+    public Annuncio[] getAnnunci() {
+        return getFotografia().comeArray();
+    }
+
+    /**
+     * Combina le fotografie dei segmenti senza copiarne gli annunci; se
+     * nessun segmento è cambiato restituisce la fotografia precedente.
+     */
+    @Override
+    public FotografiaBacheca getFotografia() {
+        FotografiaBacheca[] parti = new FotografiaBacheca[segmenti.length];
+        long versione = 0;
+        for (int i = 0; i < segmenti.length; i++) {
+            parti[i] = fotografia(segmenti[i]);
+            versione += parti[i].getVersione();
+        }
+        FotografiaBacheca f = fotografia;
+        if (f.getVersione() == versione) {
+            return f;
+        }
+        List<List<? extends AnnuncioVendita>> vendite = new ArrayList<>(parti.length);
+        List<List<? extends AnnuncioAcquisto>> acquisti = new ArrayList<>(parti.length);
+        for (FotografiaBacheca parte : parti) {
+            vendite.add(parte.getVendite());
+            acquisti.add(parte.getAcquisti());
+        }
+        f = new FotografiaBacheca(versione, new ListaConcatenata<>(vendite), new ListaConcatenata<>(acquisti));
+        fotografia = f;
+        return f;
+    }
+
+    @Override
+    public long getVersione() {
+        long versione = 0;
+        for (Segmento segmento : segmenti) {
+            versione += leggi(segmento, Bacheca::getVersione);
+        }
+        return versione;
+    }
+
+    /**
+     * Restituisce gli annunci di vendita dell'ultima fotografia (immutabile).
+     */
+    @Override
+    public List<AnnuncioVendita> getAnnunciVendita() {
+        return getFotografia().getVendite();
+    }
+
+    /**
+     * Restituisce gli annunci di acquisto dell'ultima fotografia (immutabile).
+     */
+    @Override
+    public List<AnnuncioAcquisto> getAnnunciAcquisto() {
+        return getFotografia().getAcquisti();
+    }
+
+    @Override
+    public int getNumeroAnnunci() {
+        int totale = 0;
+        for (Segmento segmento : segmenti) {
+            totale += leggi(segmento, Bacheca::getNumeroAnnunci);
+        }
+        return totale;
+    }
+
+    /**
+     * Iteratore debolmente consistente: legge la fotografia di un segmento
+     * per volta (senza copie) solo quando lo raggiunge.
+     */
+    @Override
+    public Iterator<Annuncio> iterator() {
+        return new Iterator<Annuncio>() {
+            private int prossimoSegmento = 0;
+            private Iterator<Annuncio> corrente = FotografiaBacheca.VUOTA.iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!corrente.hasNext() && prossimoSegmento < segmenti.length) {
+                    corrente = fotografia(segmenti[prossimoSegmento++]).iterator();
+                }
+                return corrente.hasNext();
+            }
+
+            @Override
+            public Annuncio next() {
+                hasNext();
+                return corrente.next();
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    private Segmento segmento(int id) {
+        return segmenti[indiceSegmento(id)];
+    }
+
+    // Gli id sono spesso consecutivi: vengono mescolati prima della maschera
+    private int indiceSegmento(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & maschera;
+    }
+
+    /**
+     * Fotografia di un segmento: se è già stata costruita per la versione
+     * corrente basta il lock in lettura; altrimenti viene costruita con il
+     * lock in scrittura, perché la costruzione segna come condivisi i
+     * blocchi delle partizioni e aggiorna la fotografia del segmento.
+     */
+    private static FotografiaBacheca fotografia(Segmento segmento) {
+        FotografiaBacheca f = leggi(segmento, Bacheca::getFotografiaCorrente);
+        return f != null ? f : scrivi(segmento, Bacheca::getFotografia);
+    }
+
+    private static <R> R leggi(Segmento segmento, Function<Bacheca, R> operazione) {
+        segmento.lock.readLock().lock();
+        try {
+            return operazione.apply(segmento);
+        } finally {
+            segmento.lock.readLock().unlock();
+        }
+    }
+
+    private static <R> R scrivi(Segmento segmento, Function<Bacheca, R> operazione) {
+        segmento.lock.writeLock().lock();
+        try {
+            return operazione.apply(segmento);
+        } finally {
+            segmento.lock.writeLock().unlock();
+            segmento.consegnaNotifiche();
+        }
+    }
+
+    /**
+     * Fonde liste già ordinate secondo 'ordine', restituendo al più
+     * 'limite' elementi.
+     */
+    private static <T> List<T> fondi(List<List<T>> liste, Comparator<? super T> ordine, int limite) {
+        // Coda di priorità di cursori: {indice della lista, posizione}
+        PriorityQueue<int[]> coda = new PriorityQueue<>(Math.max(1, liste.size()),
+            (a, b) -> ordine.compare(liste.get(a[0]).get(a[1]), liste.get(b[0]).get(b[1])));
+        for (int i = 0; i < liste.size(); i++) {
+            if (!liste.get(i).isEmpty()) {
+                coda.add(new int[] {i, 0});
+            }
+        }
+        List<T> risultati = new ArrayList<>();
+        while (!coda.isEmpty() && risultati.size() < limite) {
+            int[] cursore = coda.poll();
+            List<T> lista = liste.get(cursore[0]);
+            risultati.add(lista.get(cursore[1]));
+            if (++cursore[1] < lista.size()) {
+                coda.add(cursore);
+            }
+        }
+        return risultati;
+    }
+}
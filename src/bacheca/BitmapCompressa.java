@@ -0,0 +1,224 @@
+package bacheca;
+
+import java.util.Arrays;
+
+/**
+ * Insieme di interi non negativi (gli id degli annunci) memorizzato come
+ * bitmap compressa, usato come posting list dell'indice delle parole chiave.
+ *
+ * Gli interi sono divisi in blocchi di 65536 valori (i 16 bit alti sono
+ * la chiave del blocco); i blocchi vuoti non esistono. Ogni blocco usa il
+ * Contenitore più compatto per i suoi valori: array ordinato se sono
+ * pochi, bitmap se sono molti, sequenze se sono consecutivi. La
+ * rappresentazione cambia da sola quando la cardinalità cambia, quindi
+ * le parole rare occupano pochi byte e quelle frequenti restano bitmap.
+ *
+ * Intersezione, unione e differenza lavorano blocco per blocco, saltano i
+ * blocchi che non possono contribuire al risultato e sfruttano la
+ * rappresentazione (ricerca dei pochi valori di un array, oppure parole
+ * da 64 bit tra bitmap).
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class BitmapCompressa {
+
+    // Blocchi ordinati per chiave
+    private int[] chiavi = new int[1];
+    private Contenitore[] contenitori = new Contenitore[1];
+    private int numeroBlocchi;
+    private int cardinalita;
+
+    // ------------------------------------------------------------------
+    // METODI: modifica
+    // ------------------------------------------------------------------
+
+    /**
+     * @return true se il valore non era già presente
+     */
+    boolean aggiungi(int valore) {
+        int chiave = valore >>> 16;
+        int posizione = cercaBlocco(chiave);
+        if (posizione < 0) {
+            posizione = -posizione - 1;
+            inserisciBlocco(posizione, chiave, new Contenitore.Array(new char[1]));
+        }
+        Contenitore contenitore = contenitori[posizione];
+        int prima = contenitore.cardinalita;
+        contenitori[posizione] = contenitore.aggiungi(valore & 0xFFFF);
+        if (contenitori[posizione].cardinalita == prima) {
+            return false;
+        }
+        cardinalita++;
+        return true;
+    }
+
+    /**
+     * @return true se il valore era presente
+     */
+    boolean rimuovi(int valore) {
+        int posizione = cercaBlocco(valore >>> 16);
+        if (posizione < 0 || !contenitori[posizione].contiene(valore & 0xFFFF)) {
+            return false;
+        }
+        contenitori[posizione] = contenitori[posizione].rimuovi(valore & 0xFFFF);
+        cardinalita--;
+        if (contenitori[posizione] == null) {
+            System.arraycopy(chiavi, posizione + 1, chiavi, posizione, numeroBlocchi - posizione - 1);
+            System.arraycopy(contenitori, posizione + 1, contenitori, posizione, numeroBlocchi - posizione - 1);
+            contenitori[--numeroBlocchi] = null;
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: lettura
+    // ------------------------------------------------------------------
+
+    boolean contiene(int valore) {
+        int posizione = cercaBlocco(valore >>> 16);
+        return posizione >= 0 && contenitori[posizione].contiene(valore & 0xFFFF);
+    }
+
+    int cardinalita() {
+        return cardinalita;
+    }
+
+    boolean isVuota() {
+        return cardinalita == 0;
+    }
+
+    /**
+     * Il più piccolo valore maggiore o uguale a 'da', oppure -1 se non
+     * esiste: permette di scorrere i valori in ordine senza copiarli tutti.
+     */
+    int successivo(int da) {
+        if (da < 0) {
+            da = 0;
+        }
+        int posizione = cercaBlocco(da >>> 16);
+        if (posizione >= 0) {
+            int valore = contenitori[posizione].successivo(da & 0xFFFF);
+            if (valore < Contenitore.VALORI) {
+                return (chiavi[posizione] << 16) | valore;
+            }
+            posizione++;
+        } else {
+            posizione = -posizione - 1;
+        }
+        // Primo valore del blocco successivo (i blocchi non sono mai vuoti)
+        return posizione < numeroBlocchi ? (chiavi[posizione] << 16) | contenitori[posizione].successivo(0) : -1;
+    }
+
+    /**
+     * Restituisce i valori in ordine crescente.
+     */
+    int[] valori() {
+        int[] valori = new int[cardinalita];
+        int n = 0;
+        for (int b = 0; b < numeroBlocchi; b++) {
+            n = contenitori[b].copiaValori(valori, n, chiavi[b] << 16);
+        }
+        return valori;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: operazioni insiemistiche (restituiscono una nuova bitmap)
+    //   Il risultato può condividere contenitori con gli operandi: va letto
+    //   prima di modificare gli operandi, e non va modificato.
+    // ------------------------------------------------------------------
+
+    /**
+     * Intersezione (AND): considera solo i blocchi presenti in entrambe.
+     */
+    BitmapCompressa and(BitmapCompressa altra) {
+        BitmapCompressa risultato = new BitmapCompressa();
+        int i = 0;
+        int j = 0;
+        while (i < numeroBlocchi && j < altra.numeroBlocchi) {
+            if (chiavi[i] < altra.chiavi[j]) {
+                i++;
+            } else if (chiavi[i] > altra.chiavi[j]) {
+                j++;
+            } else {
+                risultato.accoda(chiavi[i], Contenitore.and(contenitori[i], altra.contenitori[j]));
+                i++;
+                j++;
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Unione (OR): i blocchi presenti in una sola bitmap vengono condivisi.
+     */
+    BitmapCompressa or(BitmapCompressa altra) {
+        BitmapCompressa risultato = new BitmapCompressa();
+        int i = 0;
+        int j = 0;
+        while (i < numeroBlocchi || j < altra.numeroBlocchi) {
+            if (j == altra.numeroBlocchi || (i < numeroBlocchi && chiavi[i] < altra.chiavi[j])) {
+                risultato.accoda(chiavi[i], contenitori[i]);
+                i++;
+            } else if (i == numeroBlocchi || altra.chiavi[j] < chiavi[i]) {
+                risultato.accoda(altra.chiavi[j], altra.contenitori[j]);
+                j++;
+            } else {
+                risultato.accoda(chiavi[i], Contenitore.or(contenitori[i], altra.contenitori[j]));
+                i++;
+                j++;
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Differenza (AND NOT): i valori di questa bitmap assenti nell'altra.
+     */
+    BitmapCompressa andNot(BitmapCompressa altra) {
+        BitmapCompressa risultato = new BitmapCompressa();
+        int j = 0;
+        for (int i = 0; i < numeroBlocchi; i++) {
+            while (j < altra.numeroBlocchi && altra.chiavi[j] < chiavi[i]) {
+                j++;
+            }
+            if (j < altra.numeroBlocchi && altra.chiavi[j] == chiavi[i]) {
+                risultato.accoda(chiavi[i], Contenitore.andNot(contenitori[i], altra.contenitori[j]));
+            } else {
+                risultato.accoda(chiavi[i], contenitori[i]);
+            }
+        }
+        return risultato;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    // Ricerca binaria del blocco; se assente restituisce -(punto di inserimento) - 1
+    private int cercaBlocco(int chiave) {
+        return Arrays.binarySearch(chiavi, 0, numeroBlocchi, chiave);
+    }
+
+    private void inserisciBlocco(int posizione, int chiave, Contenitore contenitore) {
+        if (numeroBlocchi == chiavi.length) {
+            chiavi = Arrays.copyOf(chiavi, numeroBlocchi << 1);
+            contenitori = Arrays.copyOf(contenitori, numeroBlocchi << 1);
+        }
+        System.arraycopy(chiavi, posizione, chiavi, posizione + 1, numeroBlocchi - posizione);
+        System.arraycopy(contenitori, posizione, contenitori, posizione + 1, numeroBlocchi - posizione);
+        chiavi[posizione] = chiave;
+        contenitori[posizione] = contenitore;
+        numeroBlocchi++;
+    }
+
+    /**
+     * Aggiunge in coda (chiave maggiore di quelle presenti) un blocco
+     * risultato di un'operazione; i contenitori vuoti (null) sono scartati.
+     */
+    private void accoda(int chiave, Contenitore contenitore) {
+        if (contenitore != null) {
+            inserisciBlocco(numeroBlocchi, chiave, contenitore);
+            cardinalita += contenitore.cardinalita;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package bacheca;
+
+import java.util.Arrays;
+
+/**
+ * Contenitore dei 16 bit bassi dei valori di un blocco di una
+ * BitmapCompressa (al più 65536 valori).
+ *
+ * Esistono tre rappresentazioni, scelte in base al numero di valori
+ * (cardinalità) e al numero di sequenze di valori consecutivi (run):
+ * - array ordinato di char: 2 byte per valore, per i blocchi con pochi valori;
+ * - bitmap di 1024 long: 8 KiB fissi, per i blocchi densi;
+ * - sequenze [inizio, lunghezza]: 4 byte per run, per i valori consecutivi
+ *   (ad esempio annunci inseriti uno dopo l'altro con la stessa parola).
+ *
+ * Cardinalità e numero di run sono aggiornati a ogni modifica in tempo
+ * costante (guardando solo i valori vicini), così dopo ogni modifica il
+ * contenitore può passare alla rappresentazione più compatta. Il cambio
+ * avviene solo quando la rappresentazione attuale è chiaramente più
+ * costosa, per non convertire avanti e indietro al confine.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+abstract class Contenitore {
+
+    static final int VALORI = 1 << 16;
+    private static final int PAROLE = VALORI >>> 6;
+    private static final int COSTO_BITMAP = PAROLE * 8;
+
+    int cardinalita;
+    int numeroRun;
+
+    // ------------------------------------------------------------------
+    // METODI ASTRATTI: specifici della rappresentazione
+    // ------------------------------------------------------------------
+
+    abstract boolean contiene(int valore);
+
+    // Inseriscono/tolgono un valore rispettivamente assente/presente;
+    // cardinalità e numero di run vengono aggiornati dopo la chiamata
+    abstract void inserisci(int valore);
+
+    abstract void togli(int valore);
+
+    /**
+     * Scrive i valori (più 'base') in ordine crescente a partire da 'da'.
+     *
+     * @return la posizione successiva all'ultimo valore scritto
+     */
+    abstract int copiaValori(int[] destinazione, int da, int base);
+
+    /** Il più piccolo valore maggiore o uguale a 'da', oppure VALORI se non esiste. */
+    abstract int successivo(int da);
+
+    /** I valori come bitmap di 1024 long (sempre una copia modificabile). */
+    abstract long[] parole();
+
+    /** Byte occupati dalla rappresentazione. */
+    abstract int costo();
+
+    // ------------------------------------------------------------------
+    // METODI: modifica con scelta automatica della rappresentazione
+    // ------------------------------------------------------------------
+
+    /**
+     * Aggiunge il valore.
+     *
+     * @return il contenitore da usare d'ora in poi (questo o una conversione)
+     */
+    final Contenitore aggiungi(int valore) {
+        if (contiene(valore)) {
+            return this;
+        }
+        int vicini = vicini(valore);
+        inserisci(valore);
+        cardinalita++;
+        numeroRun += vicini == 2 ? -1 : vicini == 0 ? 1 : 0;
+        return adatta();
+    }
+
+    /**
+     * Rimuove il valore.
+     *
+     * @return il contenitore da usare d'ora in poi, oppure null se vuoto
+     */
+    final Contenitore rimuovi(int valore) {
+        if (!contiene(valore)) {
+            return this;
+        }
+        int vicini = vicini(valore);
+        togli(valore);
+        cardinalita--;
+        numeroRun += vicini == 2 ? 1 : vicini == 0 ? -1 : 0;
+        return cardinalita == 0 ? null : adatta();
+    }
+
+    // Quanti tra valore - 1 e valore + 1 sono presenti
+    private int vicini(int valore) {
+        int n = 0;
+        if (valore > 0 && contiene(valore - 1)) {
+            n++;
+        }
+        if (valore < VALORI - 1 && contiene(valore + 1)) {
+            n++;
+        }
+        return n;
+    }
+
+    private Contenitore adatta() {
+        int migliore = Math.min(costoArray(cardinalita), Math.min(COSTO_BITMAP, costoRun(numeroRun)));
+        // Margine del 25% (e di qualche byte) per evitare conversioni continue
+        if (costo() <= migliore + (migliore >> 2) + 16) {
+            return this;
+        }
+        return daParole(parole());
+    }
+
+    private static int costoArray(int cardinalita) {
+        return 2 * cardinalita;
+    }
+
+    private static int costoRun(int numeroRun) {
+        return 4 * numeroRun;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI STATICI: costruzione nella rappresentazione più compatta
+    // ------------------------------------------------------------------
+
+    /**
+     * Crea il contenitore più compatto per i valori della bitmap,
+     * oppure null se è vuota.
+     */
+    static Contenitore daParole(long[] parole) {
+        int cardinalita = 0;
+        int numeroRun = 0;
+        long precedente = 0;
+        for (long parola : parole) {
+            cardinalita += Long.bitCount(parola);
+            // Un run inizia dove un bit è 1 e quello precedente è 0
+            numeroRun += Long.bitCount(parola & ~((parola << 1) | (precedente >>> 63)));
+            precedente = parola;
+        }
+        if (cardinalita == 0) {
+            return null;
+        }
+
+        Contenitore risultato;
+        if (costoRun(numeroRun) < Math.min(costoArray(cardinalita), COSTO_BITMAP)) {
+            risultato = Run.daParole(parole, numeroRun);
+        } else if (costoArray(cardinalita) < COSTO_BITMAP) {
+            risultato = Array.daParole(parole, cardinalita);
+        } else {
+            risultato = new Bitmap(parole);
+        }
+        risultato.cardinalita = cardinalita;
+        risultato.numeroRun = numeroRun;
+        return risultato;
+    }
+
+    /**
+     * Crea il contenitore più compatto per i valori ordinati e distinti
+     * valori[0..n), oppure null se n è zero.
+     */
+    static Contenitore daValori(char[] valori, int n) {
+        if (n == 0) {
+            return null;
+        }
+        int numeroRun = 1;
+        for (int i = 1; i < n; i++) {
+            if (valori[i] != valori[i - 1] + 1) {
+                numeroRun++;
+            }
+        }
+        if (costoArray(n) <= Math.min(costoRun(numeroRun), COSTO_BITMAP)) {
+            Array array = new Array(valori.length == n ? valori : Arrays.copyOf(valori, n));
+            array.cardinalita = n;
+            array.numeroRun = numeroRun;
+            return array;
+        }
+        long[] parole = new long[PAROLE];
+        for (int i = 0; i < n; i++) {
+            parole[valori[i] >>> 6] |= 1L << valori[i];
+        }
+        return daParole(parole);
+    }
+
+    // ------------------------------------------------------------------
+    // METODI STATICI: operazioni insiemistiche (null = contenitore vuoto)
+    // ------------------------------------------------------------------
+
+    static Contenitore and(Contenitore a, Contenitore b) {
+        // Con un array basta controllare i suoi pochi valori nell'altro contenitore
+        if (a instanceof Array || b instanceof Array) {
+            boolean scambia = !(a instanceof Array) || (b instanceof Array && b.cardinalita < a.cardinalita);
+            return scambia ? filtra((Array) b, a, true) : filtra((Array) a, b, true);
+        }
+        long[] parole = a.parole();
+        long[] altre = b.parole();
+        for (int i = 0; i < PAROLE; i++) {
+            parole[i] &= altre[i];
+        }
+        return daParole(parole);
+    }
+
+    static Contenitore or(Contenitore a, Contenitore b) {
+        if (a instanceof Array x && b instanceof Array y && costoArray(x.cardinalita + y.cardinalita) < COSTO_BITMAP) {
+            // Fusione di due array ordinati
+            char[] valori = new char[x.cardinalita + y.cardinalita];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < x.cardinalita || j < y.cardinalita) {
+                if (j == y.cardinalita || (i < x.cardinalita && x.valori[i] < y.valori[j])) {
+                    valori[n++] = x.valori[i++];
+                } else if (i == x.cardinalita || y.valori[j] < x.valori[i]) {
+                    valori[n++] = y.valori[j++];
+                } else {
+                    valori[n++] = x.valori[i++];
+                    j++;
+                }
+            }
+            return daValori(valori, n);
+        }
+        long[] parole = a.parole();
+        long[] altre = b.parole();
+        for (int i = 0; i < PAROLE; i++) {
+            parole[i] |= altre[i];
+        }
+        return daParole(parole);
+    }
+
+    static Contenitore andNot(Contenitore a, Contenitore b) {
+        if (a instanceof Array array) {
+            return filtra(array, b, false);
+        }
+        long[] parole = a.parole();
+        long[] altre = b.parole();
+        for (int i = 0; i < PAROLE; i++) {
+            parole[i] &= ~altre[i];
+        }
+        return daParole(parole);
+    }
+
+    // Valori dell'array presenti (o assenti) nell'altro contenitore
+    private static Contenitore filtra(Array array, Contenitore altro, boolean presenti) {
+        char[] valori = new char[array.cardinalita];
+        int n = 0;
+        for (int i = 0; i < array.cardinalita; i++) {
+            if (altro.contiene(array.valori[i]) == presenti) {
+                valori[n++] = array.valori[i];
+            }
+        }
+        return daValori(valori, n);
+    }
+
+    // ------------------------------------------------------------------
+    // RAPPRESENTAZIONE: array ordinato di valori
+    // ------------------------------------------------------------------
+    static final class Array extends Contenitore {
+
+        char[] valori;
+
+        Array(char[] valori) {
+            this.valori = valori;
+        }
+
+        static Array daParole(long[] parole, int cardinalita) {
+            char[] valori = new char[cardinalita];
+            int n = 0;
+            for (int i = 0; i < PAROLE; i++) {
+                long parola = parole[i];
+                while (parola != 0) {
+                    valori[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(parola));
+                    parola &= parola - 1;
+                }
+            }
+            return new Array(valori);
+        }
+
+        @Override
+        boolean contiene(int valore) {
+            return Arrays.binarySearch(valori, 0, cardinalita, (char) valore) >= 0;
+        }
+
+        @Override
+        void inserisci(int valore) {
+            int posizione = -Arrays.binarySearch(valori, 0, cardinalita, (char) valore) - 1;
+            if (cardinalita == valori.length) {
+                valori = Arrays.copyOf(valori, Math.max(4, cardinalita + (cardinalita >> 1)));
+            }
+            System.arraycopy(valori, posizione, valori, posizione + 1, cardinalita - posizione);
+            valori[posizione] = (char) valore;
+        }
+
+        @Override
+        void togli(int valore) {
+            int posizione = Arrays.binarySearch(valori, 0, cardinalita, (char) valore);
+            System.arraycopy(valori, posizione + 1, valori, posizione, cardinalita - posizione - 1);
+        }
+
+        @Override
+        int copiaValori(int[] destinazione, int da, int base) {
+            for (int i = 0; i < cardinalita; i++) {
+                destinazione[da++] = base + valori[i];
+            }
+            return da;
+        }
+
+        @Override
+        int successivo(int da) {
+            int posizione = Arrays.binarySearch(valori, 0, cardinalita, (char) da);
+            if (posizione < 0) {
+                posizione = -posizione - 1;
+            }
+            return posizione < cardinalita ? valori[posizione] : VALORI;
+        }
+
+        @Override
+        long[] parole() {
+            long[] parole = new long[PAROLE];
+            for (int i = 0; i < cardinalita; i++) {
+                parole[valori[i] >>> 6] |= 1L << valori[i];
+            }
+            return parole;
+        }
+
+        @Override
+        int costo() {
+            return costoArray(cardinalita);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // RAPPRESENTAZIONE: bitmap densa
+    // ------------------------------------------------------------------
+    static final class Bitmap extends Contenitore {
+
+        final long[] bit;
+
+        Bitmap(long[] bit) {
+            this.bit = bit;
+        }
+
+        @Override
+        boolean contiene(int valore) {
+            return (bit[valore >>> 6] & (1L << valore)) != 0;
+        }
+
+        @Override
+        void inserisci(int valore) {
+            bit[valore >>> 6] |= 1L << valore;
+        }
+
+        @Override
+        void togli(int valore) {
+            bit[valore >>> 6] &= ~(1L << valore);
+        }
+
+        @Override
+        int copiaValori(int[] destinazione, int da, int base) {
+            for (int i = 0; i < PAROLE; i++) {
+                long parola = bit[i];
+                while (parola != 0) {
+                    destinazione[da++] = base + (i << 6) + Long.numberOfTrailingZeros(parola);
+                    parola &= parola - 1;  // Toglie il bit meno significativo
+                }
+            }
+            return da;
+        }
+
+        @Override
+        int successivo(int da) {
+            return Run.prossimo(bit, da, true);
+        }
+
+        @Override
+        long[] parole() {
+            return bit.clone();
+        }
+
+        @Override
+        int costo() {
+            return COSTO_BITMAP;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // RAPPRESENTAZIONE: sequenze di valori consecutivi
+    //   run i = [inizi[i], inizi[i] + lunghezze[i]] (lunghezza - 1 memorizzata)
+    // ------------------------------------------------------------------
+    static final class Run extends Contenitore {
+
+        char[] inizi;
+        char[] lunghezze;
+
+        Run(char[] inizi, char[] lunghezze) {
+            this.inizi = inizi;
+            this.lunghezze = lunghezze;
+        }
+
+        static Run daParole(long[] parole, int numeroRun) {
+            char[] inizi = new char[numeroRun];
+            char[] lunghezze = new char[numeroRun];
+            int n = 0;
+            int valore = 0;
+            while (n < numeroRun) {
+                valore = prossimo(parole, valore, true);
+                int fine = prossimo(parole, valore, false);
+                inizi[n] = (char) valore;
+                lunghezze[n++] = (char) (fine - valore - 1);
+                valore = fine;
+            }
+            return new Run(inizi, lunghezze);
+        }
+
+        // Primo valore >= da con il bit uguale a 'uno' (VALORI se non esiste)
+        private static int prossimo(long[] parole, int da, boolean uno) {
+            int i = da >>> 6;
+            if (i >= PAROLE) {
+                return VALORI;
+            }
+            long parola = (uno ? parole[i] : ~parole[i]) & (-1L << da);
+            while (parola == 0) {
+                if (++i == PAROLE) {
+                    return VALORI;
+                }
+                parola = uno ? parole[i] : ~parole[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(parola);
+        }
+
+        private int fine(int run) {
+            return inizi[run] + lunghezze[run];
+        }
+
+        // Indice dell'ultimo run che inizia a valore o prima (-1 se nessuno)
+        private int runPrecedente(int valore) {
+            int basso = 0;
+            int alto = numeroRun - 1;
+            while (basso <= alto) {
+                int medio = (basso + alto) >>> 1;
+                if (inizi[medio] <= valore) {
+                    basso = medio + 1;
+                } else {
+                    alto = medio - 1;
+                }
+            }
+            return alto;
+        }
+
+        @Override
+        boolean contiene(int valore) {
+            int run = runPrecedente(valore);
+            return run >= 0 && valore <= fine(run);
+        }
+
+        @Override
+        void inserisci(int valore) {
+            int n = numeroRun;
+            int run = runPrecedente(valore);
+            boolean allungaPrecedente = run >= 0 && fine(run) + 1 == valore;
+            boolean allungaSuccessivo = run + 1 < n && inizi[run + 1] == valore + 1;
+            if (allungaPrecedente && allungaSuccessivo) {
+                // Il valore unisce due run
+                lunghezze[run] = (char) (fine(run + 1) - inizi[run]);
+                elimina(run + 1, n);
+            } else if (allungaPrecedente) {
+                lunghezze[run]++;
+            } else if (allungaSuccessivo) {
+                inizi[run + 1]--;
+                lunghezze[run + 1]++;
+            } else {
+                inserisciRun(run + 1, n, valore, 0);
+            }
+        }
+
+        @Override
+        void togli(int valore) {
+            int n = numeroRun;
+            int run = runPrecedente(valore);
+            int fine = fine(run);
+            if (lunghezze[run] == 0) {
+                elimina(run, n);
+            } else if (valore == inizi[run]) {
+                inizi[run]++;
+                lunghezze[run]--;
+            } else if (valore == fine) {
+                lunghezze[run]--;
+            } else {
+                // Il valore divide il run in due
+                lunghezze[run] = (char) (valore - 1 - inizi[run]);
+                inserisciRun(run + 1, n, valore + 1, fine - valore - 1);
+            }
+        }
+
+        private void inserisciRun(int posizione, int n, int inizio, int lunghezza) {
+            if (n == inizi.length) {
+                inizi = Arrays.copyOf(inizi, Math.max(4, n << 1));
+                lunghezze = Arrays.copyOf(lunghezze, inizi.length);
+            }
+            System.arraycopy(inizi, posizione, inizi, posizione + 1, n - posizione);
+            System.arraycopy(lunghezze, posizione, lunghezze, posizione + 1, n - posizione);
+            inizi[posizione] = (char) inizio;
+            lunghezze[posizione] = (char) lunghezza;
+        }
+
+        private void elimina(int posizione, int n) {
+            System.arraycopy(inizi, posizione + 1, inizi, posizione, n - posizione - 1);
+            System.arraycopy(lunghezze, posizione + 1, lunghezze, posizione, n - posizione - 1);
+            lunghezze[n - 1] = 0;
+            inizi[n - 1] = 0;
+        }
+
+        @Override
+        int copiaValori(int[] destinazione, int da, int base) {
+            for (int run = 0; run < numeroRun; run++) {
+                for (int valore = inizi[run]; valore <= fine(run); valore++) {
+                    destinazione[da++] = base + valore;
+                }
+            }
+            return da;
+        }
+
+        @Override
+        int successivo(int da) {
+            int run = runPrecedente(da);
+            if (run >= 0 && da <= fine(run)) {
+                return da;
+            }
+            return run + 1 < numeroRun ? inizi[run + 1] : VALORI;
+        }
+
+        @Override
+        long[] parole() {
+            long[] parole = new long[PAROLE];
+            for (int run = 0; run < numeroRun; run++) {
+                int inizio = inizi[run];
+                int fine = fine(run) + 1;  // escluso
+                while (inizio < fine) {
+                    int parola = inizio >>> 6;
+                    int limite = Math.min(fine, (parola + 1) << 6);
+                    long maschera = limite - inizio == 64 ? -1L : ((1L << (limite - inizio)) - 1) << inizio;
+                    parole[parola] |= maschera;
+                    inizio = limite;
+                }
+            }
+            return parole;
+        }
+
+        @Override
+        int costo() {
+            return costoRun(numeroRun);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package bacheca;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import eccezioni.BachecaException;
+
+/**
+ * Posizione in un ordinamento delle ricerche paginate: chiave di
+ * ordinamento e id dell'ultimo annuncio restituito. La pagina successiva
+ * contiene solo gli annunci che vengono dopo, cioè con (chiave, id)
+ * maggiore.
+ *
+ * Verso l'esterno il cursore è una stringa opaca: ordinamento, chiave e
+ * id codificati in Base64 (URL-safe).
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class CursoreRicerca implements Comparable<CursoreRicerca> {
+
+    private static final int BYTE_CODIFICATI = 1 + 8 + 4;
+
+    /** Posizione prima di tutti gli annunci (gli id sono positivi). */
+    static final CursoreRicerca INIZIO = new CursoreRicerca(Double.NEGATIVE_INFINITY, -1);
+
+    final double chiave;
+    final int id;
+
+    CursoreRicerca(double chiave, int id) {
+        this.chiave = chiave;
+        this.id = id;
+    }
+
+    /**
+     * Vero se la voce (chiave, id) viene dopo questa posizione.
+     */
+    boolean precede(double chiave, int id) {
+        int c = Double.compare(this.chiave, chiave);
+        return c < 0 || (c == 0 && this.id < id);
+    }
+
+    @Override
+    public int compareTo(CursoreRicerca altro) {
+        int c = Double.compare(chiave, altro.chiave);
+        return c != 0 ? c : Integer.compare(id, altro.id);
+    }
+
+    static String codifica(OrdinamentoAnnunci ordinamento, double chiave, int id) {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTE_CODIFICATI);
+        buffer.put((byte) ordinamento.ordinal()).putDouble(chiave).putInt(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodifica il cursore; null indica la prima pagina.
+     *
+     * @throws BachecaException se il cursore non è valido o appartiene a
+     *                          un altro ordinamento
+     */
+    static CursoreRicerca decodifica(String cursore, OrdinamentoAnnunci ordinamento) {
+        if (cursore == null) {
+            return INIZIO;
+        }
+        byte[] codificato;
+        try {
+            codificato = Base64.getUrlDecoder().decode(cursore);
+        } catch (IllegalArgumentException e) {
+            throw new BachecaException("Cursore non valido: " + cursore);
+        }
+        if (codificato.length != BYTE_CODIFICATI) {
+            throw new BachecaException("Cursore non valido: " + cursore);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(codificato);
+        if (buffer.get() != ordinamento.ordinal()) {
+            throw new BachecaException("Il cursore appartiene a un altro ordinamento");
+        }
+        return new CursoreRicerca(buffer.getDouble(), buffer.getInt());
+    }
+}
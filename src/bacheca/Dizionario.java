@@ -0,0 +1,59 @@
+package bacheca;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dizionario che associa a ogni stringa distinta (ad esempio l'email di un
+ * proprietario) un ordinale int compatto, assegnato in ordine di arrivo.
+ * Le colonne primitive della bacheca memorizzano l'ordinale invece del
+ * riferimento alla stringa.
+ *
+ * Gli ordinali non vengono riciclati finché il dizionario non è svuotato.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+class Dizionario {
+
+    /** Valore restituito da {@link #cerca(String)} se la stringa non è presente. */
+    static final int ASSENTE = -1;
+
+    private final Map<String, Integer> ordinali = new HashMap<>();
+    private final List<String> valori = new ArrayList<>();
+
+    /**
+     * Restituisce l'ordinale della stringa, assegnandone uno nuovo se assente.
+     */
+    int ordinale(String valore) {
+        Integer ordinale = ordinali.get(valore);
+        if (ordinale == null) {
+            ordinale = valori.size();
+            ordinali.put(valore, ordinale);
+            valori.add(valore);
+        }
+        return ordinale;
+    }
+
+    /**
+     * Restituisce l'ordinale della stringa oppure ASSENTE, senza assegnarlo.
+     */
+    int cerca(String valore) {
+        Integer ordinale = ordinali.get(valore);
+        return ordinale != null ? ordinale : ASSENTE;
+    }
+
+    String valore(int ordinale) {
+        return valori.get(ordinale);
+    }
+
+    int size() {
+        return valori.size();
+    }
+
+    void svuota() {
+        ordinali.clear();
+        valori.clear();
+    }
+}
@@ -0,0 +1,135 @@
+package bacheca;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Dizionario globale delle parole chiave: ogni parola distinta riceve un
+ * codice int compatto, condiviso da tutti gli annunci e da tutte le
+ * bacheche. Gli annunci memorizzano solo i codici, quindi una parola
+ * molto usata (ad esempio "usata") esiste in memoria una sola volta e i
+ * confronti tra parole chiave diventano confronti tra interi.
+ *
+ * Le parole sono memorizzate solo in forma normalizzata (senza spazi
+ * agli estremi, senza accenti, in minuscolo): la normalizzazione avviene
+ * una volta, quando le parole vengono assegnate a un annuncio, e le
+ * ricerche confrontano direttamente i codici delle forme normalizzate.
+ *
+ * I codici non vengono mai riassegnati: il dizionario cresce soltanto.
+ * Può essere usato da più thread: la ricerca di una parola già presente
+ * non richiede lock.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class DizionarioParole {
+
+    /** Valore restituito da {@link #cerca(String)} se la parola non è presente. */
+    static final int ASSENTE = -1;
+
+    private static final Pattern SEGNI_DIACRITICI = Pattern.compile("\\p{M}+");
+
+    private static final ConcurrentHashMap<String, Integer> CODICI = new ConcurrentHashMap<>();
+    private static volatile String[] parole = new String[64];
+    private static int numeroParole;  // protetto dal lock sulla classe
+
+    private DizionarioParole() {
+    }
+
+    /**
+     * Restituisce la forma normalizzata della parola: spazi agli estremi
+     * rimossi, accenti tolti (scomposizione NFD e rimozione dei segni
+     * diacritici) e lettere in minuscolo.
+     */
+    static String normalizza(String parola) {
+        if (isNormalizzata(parola)) {
+            return parola;  // Caso comune: nessuna nuova stringa
+        }
+        String scomposta = Normalizer.normalize(parola.trim(), Normalizer.Form.NFD);
+        return SEGNI_DIACRITICI.matcher(scomposta).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Vero se la parola contiene solo caratteri ASCII non maiuscoli e non
+    // inizia o finisce con uno spazio
+    private static boolean isNormalizzata(String parola) {
+        int n = parola.length();
+        if (n == 0 || parola.charAt(0) <= ' ' || parola.charAt(n - 1) <= ' ') {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = parola.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce il codice della parola (già normalizzata), assegnandone
+     * uno nuovo se assente.
+     */
+    static int codice(String parola) {
+        Integer codice = CODICI.get(parola);
+        if (codice != null) {
+            return codice;
+        }
+        synchronized (DizionarioParole.class) {
+            codice = CODICI.get(parola);
+            if (codice == null) {
+                codice = numeroParole;
+                if (codice == parole.length) {
+                    parole = Arrays.copyOf(parole, codice << 1);
+                }
+                // La parola è scritta nell'array prima di pubblicare il codice
+                parole[codice] = parola;
+                numeroParole++;
+                CODICI.put(parola, codice);
+            }
+            return codice;
+        }
+    }
+
+    /**
+     * Restituisce il codice della forma normalizzata della parola oppure
+     * ASSENTE, senza assegnarlo. Le parole già normalizzate (il caso comune)
+     * vengono trovate senza creare nuove stringhe.
+     */
+    static int cerca(String parola) {
+        Integer codice = CODICI.get(parola);
+        if (codice == null) {
+            codice = CODICI.get(normalizza(parola));
+        }
+        return codice != null ? codice : ASSENTE;
+    }
+
+    /**
+     * Restituisce la parola associata al codice.
+     */
+    static String parola(int codice) {
+        return parole[codice];
+    }
+
+    /**
+     * Codifica una lista di parole chiave già normalizzate nell'array dei
+     * rispettivi codici, senza duplicati e mantenendo l'ordine.
+     */
+    static int[] codifica(List<String> paroleChiave) {
+        int[] codici = new int[paroleChiave.size()];
+        int n = 0;
+        for (String parola : paroleChiave) {
+            int codice = codice(parola);
+            boolean duplicato = false;
+            for (int i = 0; i < n && !duplicato; i++) {
+                duplicato = codici[i] == codice;
+            }
+            if (!duplicato) {
+                codici[n++] = codice;
+            }
+        }
+        return n == codici.length ? codici : Arrays.copyOf(codici, n);
+    }
+}
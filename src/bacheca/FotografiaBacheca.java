@@ -0,0 +1,86 @@
+package bacheca;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Fotografia immutabile del contenuto di una Bacheca in un certo istante,
+ * identificata dal numero di versione della bacheca.
+ *
+ * Finché la bacheca non viene modificata, Bacheca.getFotografia()
+ * restituisce sempre la stessa istanza: i lettori possono conservarla e
+ * scorrerla senza copie e senza rischio di ConcurrentModificationException,
+ * mentre le scritture successive producono una nuova versione.
+ *
+ * La fotografia contiene i riferimenti agli annunci: le modifiche ai campi
+ * di un annuncio (prezzo, parole chiave, ...) restano visibili.
+ */
+public final class FotografiaBacheca implements Iterable<Annuncio> {
+
+    /** Fotografia di una bacheca vuota mai modificata. */
+    static final FotografiaBacheca VUOTA = new FotografiaBacheca(0, List.of(), List.of());
+
+    private final long versione;
+    private final List<AnnuncioVendita> vendite;
+    private final List<AnnuncioAcquisto> acquisti;
+    private final List<Annuncio> annunci;
+    // Array di Bacheca.getAnnunci(), creato alla prima richiesta
+    private volatile Annuncio[] array;
+
+    /**
+     * Le liste devono essere immutabili: vengono condivise, non copiate.
+     */
+    FotografiaBacheca(long versione, List<AnnuncioVendita> vendite, List<AnnuncioAcquisto> acquisti) {
+        this.versione = versione;
+        this.vendite = vendite;
+        this.acquisti = acquisti;
+        this.annunci = new ListaConcatenata<>(List.of(vendite, acquisti));
+    }
+
+    // =================== GETTERS ===================
+
+    public long getVersione() {
+        return versione;
+    }
+
+    /**
+     * Tutti gli annunci: prima quelli di vendita, poi quelli di acquisto.
+     */
+    public List<Annuncio> getAnnunci() {
+        return annunci;
+    }
+
+    public List<AnnuncioVendita> getVendite() {
+        return vendite;
+    }
+
+    public List<AnnuncioAcquisto> getAcquisti() {
+        return acquisti;
+    }
+
+    /**
+     * Gli annunci come array, creato una sola volta per fotografia e
+     * condiviso tra i chiamanti (non va modificato).
+     */
+    Annuncio[] comeArray() {
+        Annuncio[] a = array;
+        if (a == null) {
+            a = annunci.toArray(new Annuncio[0]);
+            array = a;
+        }
+        return a;
+    }
+
+    public int size() {
+        return annunci.size();
+    }
+
+    public boolean isVuota() {
+        return annunci.isEmpty();
+    }
+
+    @Override
+    public Iterator<Annuncio> iterator() {
+        return annunci.iterator();
+    }
+}
@@ -0,0 +1,170 @@
+package bacheca;
+
+import java.util.Arrays;
+
+/**
+ * Tabella hash ad indirizzamento aperto che associa l'id (int) di un
+ * annuncio alla sua posizione (int) nella lista di una Partizione
+ * della Bacheca.
+ *
+ * Chiavi e valori sono memorizzati in array di tipi primitivi, quindi
+ * non vengono creati oggetti Integer per ogni annuncio.
+ * Le collisioni sono risolte con scansione lineare; la rimozione usa
+ * lo spostamento all'indietro (backward shift) per evitare le "lapidi".
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+class IndiceId {
+
+    /** Valore restituito (e memorizzato negli slot liberi) quando la chiave non è presente. */
+    static final int ASSENTE = -1;
+
+    private static final int CAPACITA_INIZIALE = 16;
+
+    private int[] chiavi;
+    private int[] valori;
+    private int dimensione;
+    private int maschera;
+
+    IndiceId() {
+        alloca(CAPACITA_INIZIALE);
+    }
+
+    /**
+     * Restituisce il valore associato all'id, oppure ASSENTE.
+     */
+    int get(int id) {
+        int slot = slot(id);
+        while (valori[slot] != ASSENTE) {
+            if (chiavi[slot] == id) {
+                return valori[slot];
+            }
+            slot = (slot + 1) & maschera;
+        }
+        return ASSENTE;
+    }
+
+    boolean contiene(int id) {
+        return get(id) != ASSENTE;
+    }
+
+    /**
+     * Associa il valore (non negativo) all'id, sostituendo quello precedente.
+     *
+     * @return il valore precedente oppure ASSENTE
+     */
+    int put(int id, int valore) {
+        if (valore < 0) {
+            throw new IllegalArgumentException("Il valore deve essere non negativo");
+        }
+        int slot = slot(id);
+        while (valori[slot] != ASSENTE) {
+            if (chiavi[slot] == id) {
+                int precedente = valori[slot];
+                valori[slot] = valore;
+                return precedente;
+            }
+            slot = (slot + 1) & maschera;
+        }
+        chiavi[slot] = id;
+        valori[slot] = valore;
+        // Fattore di carico massimo 0.5: le sequenze di scansione restano corte
+        if (++dimensione > (maschera + 1) >> 1) {
+            ridimensiona();
+        }
+        return ASSENTE;
+    }
+
+    /**
+     * Rimuove l'id dalla tabella.
+     *
+     * @return il valore che era associato all'id oppure ASSENTE
+     */
+    int remove(int id) {
+        int slot = slot(id);
+        while (valori[slot] != ASSENTE) {
+            if (chiavi[slot] == id) {
+                int precedente = valori[slot];
+                compatta(slot);
+                dimensione--;
+                return precedente;
+            }
+            slot = (slot + 1) & maschera;
+        }
+        return ASSENTE;
+    }
+
+    int size() {
+        return dimensione;
+    }
+
+    void clear() {
+        Arrays.fill(valori, ASSENTE);
+        dimensione = 0;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    /**
+     * Libera lo slot indicato spostando indietro gli elementi successivi
+     * della stessa sequenza di scansione, così che le ricerche successive
+     * non si interrompano su un buco.
+     */
+    private void compatta(int libero) {
+        int corrente = libero;
+        while (true) {
+            corrente = (corrente + 1) & maschera;
+            if (valori[corrente] == ASSENTE) {
+                break;
+            }
+            int ideale = slot(chiavi[corrente]);
+            // L'elemento può essere spostato se il suo slot ideale non cade
+            // (ciclicamente) tra lo slot libero e la posizione corrente
+            if (((corrente - ideale) & maschera) >= ((corrente - libero) & maschera)) {
+                chiavi[libero] = chiavi[corrente];
+                valori[libero] = valori[corrente];
+                libero = corrente;
+            }
+        }
+        valori[libero] = ASSENTE;
+    }
+
+    private void ridimensiona() {
+        int[] vecchieChiavi = chiavi;
+        int[] vecchiValori = valori;
+        alloca(vecchieChiavi.length << 1);
+        for (int i = 0; i < vecchieChiavi.length; i++) {
+            if (vecchiValori[i] != ASSENTE) {
+                int slot = slot(vecchieChiavi[i]);
+                while (valori[slot] != ASSENTE) {
+                    slot = (slot + 1) & maschera;
+                }
+                chiavi[slot] = vecchieChiavi[i];
+                valori[slot] = vecchiValori[i];
+            }
+        }
+    }
+
+    private void alloca(int capacita) {
+        chiavi = new int[capacita];
+        valori = new int[capacita];
+        Arrays.fill(valori, ASSENTE);
+        maschera = capacita - 1;
+    }
+
+    /**
+     * Slot ideale per l'id: gli id sono spesso consecutivi, quindi vengono
+     * mescolati (finalizzatore di MurmurHash3) prima di applicare la maschera.
+     */
+    private int slot(int id) {
+        int h = id;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & maschera;
+    }
+}
@@ -0,0 +1,292 @@
+package bacheca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indice ordinato di annunci su una chiave numerica primitiva (double),
+ * ad esempio il prezzo. A parità di chiave gli annunci sono ordinati per id,
+ * quindi ogni voce (chiave, id) è unica.
+ *
+ * Le voci sono divise in blocchi ordinati di dimensione limitata: la
+ * ricerca del blocco è binaria e l'inserimento/rimozione sposta al più
+ * un blocco, quindi anche i caricamenti in blocco restano rapidi.
+ * Le interrogazioni per intervallo costano O(log n + risultati).
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ *
+ * @param <T> il tipo di annuncio indicizzato
+ */
+class IndiceOrdinato<T extends Annuncio> {
+
+    private static final int DIMENSIONE_BLOCCO = 512;
+    private static final int CAPACITA_INIZIALE = 8;
+
+    /**
+     * Blocco di voci ordinate memorizzate in array paralleli. Gli array
+     * crescono fino a DIMENSIONE_BLOCCO, così gli indici piccoli (ad esempio
+     * uno per parola chiave) occupano poca memoria.
+     */
+    private static final class Blocco {
+        double[] chiavi;
+        int[] id;
+        Annuncio[] valori;
+        int n;
+
+        Blocco(int capacita) {
+            chiavi = new double[capacita];
+            id = new int[capacita];
+            valori = new Annuncio[capacita];
+        }
+
+        void garantisciSpazio() {
+            if (n == chiavi.length) {
+                int capacita = Math.min(chiavi.length * 2, DIMENSIONE_BLOCCO);
+                chiavi = Arrays.copyOf(chiavi, capacita);
+                id = Arrays.copyOf(id, capacita);
+                valori = Arrays.copyOf(valori, capacita);
+            }
+        }
+    }
+
+    private final ArrayList<Blocco> blocchi = new ArrayList<>();
+    private int dimensione;
+
+    /**
+     * Inserisce l'annuncio con la chiave indicata.
+     */
+    void inserisci(double chiave, T annuncio) {
+        if (blocchi.isEmpty()) {
+            blocchi.add(new Blocco(CAPACITA_INIZIALE));
+        }
+        int b = cercaBlocco(chiave, annuncio.getId());
+        Blocco blocco = blocchi.get(b);
+
+        // Blocco pieno: lo divide a metà e sceglie la metà corretta
+        if (blocco.n == DIMENSIONE_BLOCCO) {
+            Blocco nuovo = new Blocco(DIMENSIONE_BLOCCO);
+            int meta = DIMENSIONE_BLOCCO / 2;
+            nuovo.n = DIMENSIONE_BLOCCO - meta;
+            System.arraycopy(blocco.chiavi, meta, nuovo.chiavi, 0, nuovo.n);
+            System.arraycopy(blocco.id, meta, nuovo.id, 0, nuovo.n);
+            System.arraycopy(blocco.valori, meta, nuovo.valori, 0, nuovo.n);
+            Arrays.fill(blocco.valori, meta, DIMENSIONE_BLOCCO, null);
+            blocco.n = meta;
+            blocchi.add(b + 1, nuovo);
+            if (confronta(chiave, annuncio.getId(), nuovo.chiavi[0], nuovo.id[0]) >= 0) {
+                blocco = nuovo;
+            }
+        }
+
+        blocco.garantisciSpazio();
+        int pos = limiteInferiore(blocco, chiave, annuncio.getId());
+        int daSpostare = blocco.n - pos;
+        System.arraycopy(blocco.chiavi, pos, blocco.chiavi, pos + 1, daSpostare);
+        System.arraycopy(blocco.id, pos, blocco.id, pos + 1, daSpostare);
+        System.arraycopy(blocco.valori, pos, blocco.valori, pos + 1, daSpostare);
+        blocco.chiavi[pos] = chiave;
+        blocco.id[pos] = annuncio.getId();
+        blocco.valori[pos] = annuncio;
+        blocco.n++;
+        dimensione++;
+    }
+
+    /**
+     * Rimuove la voce (chiave, id dell'annuncio).
+     *
+     * @return true se la voce era presente
+     */
+    boolean rimuovi(double chiave, T annuncio) {
+        if (blocchi.isEmpty()) {
+            return false;
+        }
+        int b = cercaBlocco(chiave, annuncio.getId());
+        Blocco blocco = blocchi.get(b);
+        int pos = limiteInferiore(blocco, chiave, annuncio.getId());
+        if (pos == blocco.n || confronta(blocco.chiavi[pos], blocco.id[pos], chiave, annuncio.getId()) != 0) {
+            return false;
+        }
+        int daSpostare = blocco.n - pos - 1;
+        System.arraycopy(blocco.chiavi, pos + 1, blocco.chiavi, pos, daSpostare);
+        System.arraycopy(blocco.id, pos + 1, blocco.id, pos, daSpostare);
+        System.arraycopy(blocco.valori, pos + 1, blocco.valori, pos, daSpostare);
+        blocco.valori[--blocco.n] = null;
+        dimensione--;
+        if (blocco.n == 0) {
+            blocchi.remove(b);
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce, in ordine crescente di chiave, al più 'limite' annunci
+     * con chiave compresa tra min e max (estremi inclusi).
+     */
+    @SuppressWarnings("unchecked")
+    List<T> intervallo(double min, double max, int limite) {
+        List<T> risultati = new ArrayList<>();
+        int primoBlocco = primoBloccoConChiave(min);
+        for (int b = primoBlocco; b < blocchi.size() && risultati.size() < limite; b++) {
+            Blocco blocco = blocchi.get(b);
+            // Solo nel primo blocco occorre cercare la posizione di partenza
+            int pos = b == primoBlocco ? limiteInferioreChiave(blocco, min) : 0;
+            for (; pos < blocco.n && risultati.size() < limite; pos++) {
+                if (Double.compare(blocco.chiavi[pos], max) > 0) {
+                    return risultati;
+                }
+                risultati.add((T) blocco.valori[pos]);
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Restituisce, in ordine crescente di (chiave, id), al più 'limite'
+     * annunci che vengono dopo la voce (chiave, id) e il cui id è nel
+     * filtro. La scansione si ferma appena trovati 'limite' annunci.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> dopo(double chiave, int id, BitmapCompressa filtro, int limite) {
+        List<T> risultati = new ArrayList<>();
+        if (blocchi.isEmpty()) {
+            return risultati;
+        }
+        int primoBlocco = cercaBlocco(chiave, id);
+        for (int b = primoBlocco; b < blocchi.size() && risultati.size() < limite; b++) {
+            Blocco blocco = blocchi.get(b);
+            int pos = 0;
+            if (b == primoBlocco) {
+                // Prima voce non minore di (chiave, id), esclusa se uguale
+                pos = limiteInferiore(blocco, chiave, id);
+                if (pos < blocco.n && confronta(blocco.chiavi[pos], blocco.id[pos], chiave, id) == 0) {
+                    pos++;
+                }
+            }
+            for (; pos < blocco.n && risultati.size() < limite; pos++) {
+                if (filtro.contiene(blocco.id[pos])) {
+                    risultati.add((T) blocco.valori[pos]);
+                }
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Restituisce i primi n annunci in ordine crescente di chiave.
+     */
+    List<T> primi(int n) {
+        return intervallo(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, n);
+    }
+
+    /**
+     * Annuncio con la chiave minima, oppure null se l'indice è vuoto.
+     */
+    @SuppressWarnings("unchecked")
+    T primo() {
+        return blocchi.isEmpty() ? null : (T) blocchi.get(0).valori[0];
+    }
+
+    /**
+     * Annuncio con la chiave massima, oppure null se l'indice è vuoto.
+     */
+    @SuppressWarnings("unchecked")
+    T ultimo() {
+        if (blocchi.isEmpty()) {
+            return null;
+        }
+        Blocco blocco = blocchi.get(blocchi.size() - 1);
+        return (T) blocco.valori[blocco.n - 1];
+    }
+
+    /**
+     * Chiave minima presente, oppure NaN se l'indice è vuoto.
+     */
+    double chiaveMinima() {
+        return blocchi.isEmpty() ? Double.NaN : blocchi.get(0).chiavi[0];
+    }
+
+    int size() {
+        return dimensione;
+    }
+
+    void svuota() {
+        blocchi.clear();
+        dimensione = 0;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    private static int confronta(double chiave1, int id1, double chiave2, int id2) {
+        int c = Double.compare(chiave1, chiave2);
+        return c != 0 ? c : Integer.compare(id1, id2);
+    }
+
+    /**
+     * Indice del blocco che deve contenere la voce (chiave, id): il primo
+     * blocco la cui ultima voce non è minore, oppure l'ultimo blocco.
+     */
+    private int cercaBlocco(double chiave, int id) {
+        int lo = 0;
+        int hi = blocchi.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Blocco blocco = blocchi.get(mid);
+            int ultima = blocco.n - 1;
+            if (confronta(blocco.chiavi[ultima], blocco.id[ultima], chiave, id) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Indice del primo blocco che può contenere chiavi maggiori o uguali a min.
+     */
+    private int primoBloccoConChiave(double min) {
+        int lo = 0;
+        int hi = blocchi.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            Blocco blocco = blocchi.get(mid);
+            if (Double.compare(blocco.chiavi[blocco.n - 1], min) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int limiteInferiore(Blocco blocco, double chiave, int id) {
+        int lo = 0;
+        int hi = blocco.n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (confronta(blocco.chiavi[mid], blocco.id[mid], chiave, id) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int limiteInferioreChiave(Blocco blocco, double chiave) {
+        int lo = 0;
+        int hi = blocco.n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Double.compare(blocco.chiavi[mid], chiave) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,364 @@
+package bacheca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Trie delle parole chiave presenti in bacheca, con il numero di annunci
+ * che usano ciascuna parola, per completare un prefisso con le parole
+ * più usate.
+ *
+ * I nodi sono record di interi consecutivi in un unico array (carattere,
+ * primo figlio, fratello successivo, conteggio della parola che termina
+ * nel nodo e conteggio massimo del sottoalbero): nessun oggetto per nodo,
+ * i campi di un nodo stanno nella stessa riga di cache e i prefissi
+ * comuni sono memorizzati una volta sola. Il massimo del
+ * sottoalbero permette di visitare i nodi in ordine di popolarità e di
+ * fermarsi dopo i primi K completamenti, senza scorrere tutte le parole
+ * che iniziano con il prefisso.
+ *
+ * Lo stesso trie risponde alle ricerche approssimate (parole a distanza
+ * di modifica al più 2 da quella cercata): la matrice di Levenshtein
+ * viene calcolata una riga per nodo durante la visita, quindi i prefissi
+ * comuni sono elaborati una volta sola e i sottoalberi in cui la
+ * distanza non può più scendere sotto il limite vengono scartati senza
+ * visitarli. Il costo dipende dai nodi vicini alla parola cercata e non
+ * dal numero totale di parole.
+ *
+ * I conteggi vengono aggiornati dalla bacheca a ogni variazione delle
+ * posting list delle parole chiave. I nodi delle parole non più usate
+ * restano nel trie con conteggio zero (come nel DizionarioParole, che
+ * cresce soltanto) e vengono ignorati dai completamenti.
+ *
+ * Può essere usato da più thread: i segmenti della BachecaConcorrente
+ * condividono lo stesso indice.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class IndicePrefissi {
+
+    /** Distanza di modifica massima delle ricerche approssimate. */
+    static final int DISTANZA_MASSIMA = 2;
+
+    private static final int NESSUNO = -1;
+    private static final int RADICE = 0;
+
+    // Nodi: record di CAMPI interi consecutivi, identificati dalla posizione
+    // del primo; i figli di un nodo sono una lista ordinata per carattere
+    private static final int CARATTERE = 0;
+    private static final int PRIMO_FIGLIO = 1;
+    private static final int FRATELLO = 2;
+    private static final int CONTEGGIO = 3;
+    private static final int MASSIMO = 4;
+    private static final int CAMPI = 5;
+
+    private int[] nodi = new int[64 * CAMPI];
+    private int fineNodi;  // posizione del prossimo nodo
+
+    // Voce della coda dei completamenti: un nodo da espandere oppure una parola
+    private static final class Voce {
+        final int nodo;
+        final int priorita;
+        final String testo;
+        final boolean parola;
+
+        Voce(int nodo, int priorita, String testo, boolean parola) {
+            this.nodo = nodo;
+            this.priorita = priorita;
+            this.testo = testo;
+            this.parola = parola;
+        }
+    }
+
+    // Priorità decrescente, poi ordine alfabetico; la parola di un nodo
+    // precede i suoi discendenti. Nessun discendente precede il proprio
+    // nodo, quindi le parole escono già nell'ordine finale.
+    private static final Comparator<Voce> ORDINE = (a, b) -> {
+        if (a.priorita != b.priorita) {
+            return Integer.compare(b.priorita, a.priorita);
+        }
+        int c = a.testo.compareTo(b.testo);
+        return c != 0 ? c : Boolean.compare(b.parola, a.parola);
+    };
+
+    IndicePrefissi() {
+        fineNodi = CAMPI;  // La radice (prefisso vuoto)
+        nodi[RADICE + PRIMO_FIGLIO] = NESSUNO;
+        nodi[RADICE + FRATELLO] = NESSUNO;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: aggiornamento
+    // ------------------------------------------------------------------
+
+    /**
+     * Somma 'variazione' al numero di annunci che usano la parola con il
+     * codice indicato (del DizionarioParole).
+     */
+    synchronized void aggiorna(int codice, int variazione) {
+        String parola = DizionarioParole.parola(codice);
+
+        // 1. Discesa lungo il percorso della parola (creato solo se si aggiunge).
+        int[] percorso = new int[parola.length() + 1];
+        percorso[0] = RADICE;
+        for (int i = 0; i < parola.length(); i++) {
+            int figlio = figlio(percorso[i], parola.charAt(i), variazione > 0);
+            if (figlio == NESSUNO) {
+                return;  // Parola mai indicizzata: niente da togliere
+            }
+            percorso[i + 1] = figlio;
+        }
+        nodi[percorso[parola.length()] + CONTEGGIO] += variazione;
+
+        // 2. Ricalcolo dei massimi risalendo; ci si ferma al primo nodo invariato.
+        for (int i = parola.length(); i >= 0; i--) {
+            int nodo = percorso[i];
+            int massimo = nodi[nodo + CONTEGGIO];
+            for (int f = nodi[nodo + PRIMO_FIGLIO]; f != NESSUNO; f = nodi[f + FRATELLO]) {
+                massimo = Math.max(massimo, nodi[f + MASSIMO]);
+            }
+            if (massimo == nodi[nodo + MASSIMO]) {
+                break;
+            }
+            nodi[nodo + MASSIMO] = massimo;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: lettura
+    // ------------------------------------------------------------------
+
+    /**
+     * Restituisce al più 'massimo' parole che iniziano con il prefisso
+     * (normalizzato come le parole chiave), dalla più usata; a parità di
+     * annunci in ordine alfabetico.
+     */
+    synchronized List<SuggerimentoParola> completa(String prefisso, int massimo) {
+        List<SuggerimentoParola> suggerimenti = new ArrayList<>();
+        String normalizzato = DizionarioParole.normalizza(prefisso);
+        int nodo = RADICE;
+        for (int i = 0; i < normalizzato.length() && nodo != NESSUNO; i++) {
+            nodo = figlio(nodo, normalizzato.charAt(i), false);
+        }
+        if (nodo == NESSUNO || nodi[nodo + MASSIMO] == 0) {
+            return suggerimenti;
+        }
+
+        // Visita best-first: si espande sempre la voce con priorità maggiore
+        PriorityQueue<Voce> coda = new PriorityQueue<>(ORDINE);
+        coda.add(new Voce(nodo, nodi[nodo + MASSIMO], normalizzato, false));
+        while (!coda.isEmpty() && suggerimenti.size() < massimo) {
+            Voce voce = coda.poll();
+            if (voce.parola) {
+                suggerimenti.add(new SuggerimentoParola(voce.testo, voce.priorita));
+                continue;
+            }
+            if (nodi[voce.nodo + CONTEGGIO] > 0) {
+                coda.add(new Voce(voce.nodo, nodi[voce.nodo + CONTEGGIO], voce.testo, true));
+            }
+            for (int f = nodi[voce.nodo + PRIMO_FIGLIO]; f != NESSUNO; f = nodi[f + FRATELLO]) {
+                if (nodi[f + MASSIMO] > 0) {
+                    coda.add(new Voce(f, nodi[f + MASSIMO], voce.testo + (char) nodi[f + CARATTERE], false));
+                }
+            }
+        }
+        return suggerimenti;
+    }
+
+    /**
+     * Restituisce le parole in uso a distanza di modifica al più
+     * 'distanza' dalla parola indicata (normalizzata come le parole
+     * chiave), dalla più vicina; a parità di distanza dalla più usata e
+     * poi in ordine alfabetico. Inserimento, cancellazione, sostituzione
+     * e scambio di due lettere adiacenti contano come una modifica.
+     */
+    synchronized List<SuggerimentoParola> simili(String parola, int distanza) {
+        String cercata = DizionarioParole.normalizza(parola);
+        RicercaSimili ricerca = new RicercaSimili(cercata, distanza);
+        ricerca.visita(RADICE, 0);
+        ricerca.trovate.sort(Comparator.<ParolaSimile>comparingInt(p -> p.distanza)
+            .thenComparing((a, b) -> Integer.compare(b.numeroAnnunci, a.numeroAnnunci))
+            .thenComparing(p -> p.parola));
+        List<SuggerimentoParola> simili = new ArrayList<>(ricerca.trovate.size());
+        for (ParolaSimile trovata : ricerca.trovate) {
+            simili.add(new SuggerimentoParola(trovata.parola, trovata.numeroAnnunci));
+        }
+        return simili;
+    }
+
+    /**
+     * Sostituisce ogni parola con le parole in uso entro la distanza
+     * adatta alla sua lunghezza (vedi {@link #distanzaPerLunghezza}),
+     * senza ripetizioni; le parole nulle vengono ignorate.
+     */
+    ArrayList<String> espandi(List<String> parole, int distanzaMassima) {
+        LinkedHashSet<String> espanse = new LinkedHashSet<>();
+        for (String parola : parole) {
+            if (parola == null) {
+                continue;
+            }
+            String normalizzata = DizionarioParole.normalizza(parola);
+            int distanza = Math.min(distanzaMassima, distanzaPerLunghezza(normalizzata.length()));
+            for (SuggerimentoParola simile : simili(normalizzata, distanza)) {
+                espanse.add(simile.getParola());
+            }
+        }
+        return new ArrayList<>(espanse);
+    }
+
+    /**
+     * Distanza ammessa per una parola della lunghezza indicata: nessun
+     * errore fino a 2 lettere, uno fino a 5, due oltre (con parole
+     * corte una distanza maggiore troverebbe quasi qualunque parola).
+     */
+    static int distanzaPerLunghezza(int lunghezza) {
+        return lunghezza <= 2 ? 0 : lunghezza <= 5 ? 1 : 2;
+    }
+
+    // ------------------------------------------------------------------
+    // Visita del trie per la ricerca approssimata: la riga 'profondita'
+    // della matrice confronta la parola cercata con il prefisso del nodo
+    // (distanza "optimal string alignment", con gli scambi adiacenti).
+    // ------------------------------------------------------------------
+
+    private static final class ParolaSimile {
+        final String parola;
+        final int numeroAnnunci;
+        final int distanza;
+
+        ParolaSimile(String parola, int numeroAnnunci, int distanza) {
+            this.parola = parola;
+            this.numeroAnnunci = numeroAnnunci;
+            this.distanza = distanza;
+        }
+    }
+
+    private final class RicercaSimili {
+        final String cercata;
+        final int limite;
+        final int fuori;  // valore delle celle oltre il limite
+        final List<ParolaSimile> trovate = new ArrayList<>();
+        final StringBuilder prefisso = new StringBuilder();
+        int[][] righe = new int[16][];
+        int[] minimi = new int[16];  // minimo di ogni riga
+
+        RicercaSimili(String cercata, int limite) {
+            this.cercata = cercata;
+            this.limite = limite;
+            this.fuori = limite + 1;
+            int[] prima = new int[cercata.length() + 1];
+            for (int j = 0; j < prima.length; j++) {
+                prima[j] = Math.min(j, limite + 1);
+            }
+            righe[0] = prima;
+            minimi[0] = 0;
+        }
+
+        void visita(int nodo, int profondita) {
+            int m = cercata.length();
+            if (profondita + 1 == righe.length) {
+                righe = Arrays.copyOf(righe, righe.length << 1);
+                minimi = Arrays.copyOf(minimi, minimi.length << 1);
+            }
+            int[] precedente = righe[profondita];
+            for (int f = nodi[nodo + PRIMO_FIGLIO]; f != NESSUNO; f = nodi[f + FRATELLO]) {
+                if (nodi[f + MASSIMO] == 0) {
+                    continue;  // Nessuna parola in uso nel sottoalbero
+                }
+                char c = (char) nodi[f + CARATTERE];
+                int[] riga = righe[profondita + 1];
+                if (riga == null) {
+                    riga = new int[m + 1];
+                    righe[profondita + 1] = riga;
+                }
+                // Solo le celle vicine alla diagonale possono valere al più
+                // 'limite': le altre valgono 'fuori' e non vengono calcolate
+                int i = profondita + 1;
+                int da = Math.max(1, i - limite);
+                int fino = Math.min(m, i + limite);
+                riga[0] = Math.min(i, fuori);
+                int minimo = riga[0];
+                if (da > fino) {
+                    Arrays.fill(riga, 1, m + 1, fuori);
+                } else {
+                    if (da > 1) {
+                        riga[da - 1] = fuori;
+                    }
+                    if (fino < m) {
+                        riga[fino + 1] = fuori;
+                    }
+                    for (int j = da; j <= fino; j++) {
+                        char atteso = cercata.charAt(j - 1);
+                        int valore = Math.min(Math.min(precedente[j] + 1, riga[j - 1] + 1),
+                                              precedente[j - 1] + (atteso == c ? 0 : 1));
+                        // Scambio di due lettere adiacenti
+                        if (profondita > 0 && j > 1 && atteso == prefisso.charAt(profondita - 1)
+                                && cercata.charAt(j - 2) == c) {
+                            valore = Math.min(valore, righe[profondita - 1][j - 2] + 1);
+                        }
+                        riga[j] = Math.min(valore, fuori);
+                        minimo = Math.min(minimo, riga[j]);
+                    }
+                }
+                minimi[profondita + 1] = minimo;
+                int distanza = m == 0 || (m >= da && m <= fino) ? riga[m] : fuori;
+
+                prefisso.append(c);
+                if (distanza <= limite && nodi[f + CONTEGGIO] > 0) {
+                    trovate.add(new ParolaSimile(prefisso.toString(), nodi[f + CONTEGGIO], distanza));
+                }
+                // Si scende se la riga può ancora portare a una distanza
+                // entro il limite (anche tramite uno scambio dalla riga precedente)
+                if (minimo <= limite || minimi[profondita] < limite) {
+                    visita(f, profondita + 1);
+                }
+                prefisso.setLength(profondita);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    // Figlio del nodo con il carattere indicato; se assente lo crea (nella
+    // posizione che mantiene l'ordine) oppure restituisce NESSUNO
+    private int figlio(int nodo, char carattere, boolean crea) {
+        int precedente = NESSUNO;
+        int f = nodi[nodo + PRIMO_FIGLIO];
+        while (f != NESSUNO && nodi[f + CARATTERE] < carattere) {
+            precedente = f;
+            f = nodi[f + FRATELLO];
+        }
+        if (f != NESSUNO && nodi[f + CARATTERE] == carattere) {
+            return f;
+        }
+        if (!crea) {
+            return NESSUNO;
+        }
+        int nuovo = nuovoNodo(carattere);
+        nodi[nuovo + FRATELLO] = f;
+        if (precedente == NESSUNO) {
+            nodi[nodo + PRIMO_FIGLIO] = nuovo;
+        } else {
+            nodi[precedente + FRATELLO] = nuovo;
+        }
+        return nuovo;
+    }
+
+    private int nuovoNodo(char carattere) {
+        if (fineNodi == nodi.length) {
+            nodi = Arrays.copyOf(nodi, fineNodi << 1);
+        }
+        int nuovo = fineNodi;
+        nodi[nuovo + CARATTERE] = carattere;
+        nodi[nuovo + PRIMO_FIGLIO] = NESSUNO;
+        nodi[nuovo + FRATELLO] = NESSUNO;
+        fineNodi += CAMPI;
+        return nuovo;
+    }
+}
@@ -0,0 +1,395 @@
+package bacheca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Indice full-text del titolo e della descrizione degli annunci, con
+ * ordinamento dei risultati secondo BM25.
+ *
+ * Ogni annuncio indicizzato occupa uno "slot" (numero crescente); per ogni
+ * termine la posting list contiene gli slot degli annunci che lo usano e
+ * la frequenza del termine (i termini del titolo contano il doppio). Gli
+ * slot crescono soltanto, quindi le posting list sono ordinate per slot
+ * e le ricerche possono scorrerle in parallelo (document-at-a-time).
+ *
+ * La rimozione segna lo slot come libero; le posting list vengono
+ * ricompattate quando gli slot liberi superano quelli occupati.
+ *
+ * La ricerca dei primi K risultati usa MaxScore: i termini il cui
+ * contributo massimo, sommato, non basta a entrare tra i primi K vengono
+ * solo "verificati" sugli annunci trovati dagli altri termini, quindi le
+ * posting list dei termini più frequenti (e meno significativi) non
+ * vengono scorse per intero.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class IndiceTesto {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int PESO_TITOLO = 2;
+    private static final int MORTI_MINIMI_COMPATTAZIONE = 1024;
+
+    /** Risultato di una ricerca: id dell'annuncio e punteggio BM25. */
+    static final class Risultato {
+        final int id;
+        final double punteggio;
+
+        Risultato(int id, double punteggio) {
+            this.id = id;
+            this.punteggio = punteggio;
+        }
+    }
+
+    // Ordine dei risultati: punteggio decrescente, a parità id crescente
+    static final Comparator<Risultato> PER_PUNTEGGIO = (a, b) -> {
+        int c = Double.compare(b.punteggio, a.punteggio);
+        return c != 0 ? c : Integer.compare(a.id, b.id);
+    };
+
+    // Termini: codice locale -> posting list (slot e frequenze) e numero di annunci
+    private final Map<String, Integer> codici = new HashMap<>();
+    private int[][] postingSlot = new int[16][];
+    private int[][] postingFrequenze = new int[16][];
+    private int[] lunghezzePosting = new int[16];
+    private int[] frequenzeDocumenti = new int[16];
+    private int numeroTermini;
+
+    // Slot: id dell'annuncio, lunghezza pesata e termini distinti (null se libero)
+    private final IndiceId slotPerId = new IndiceId();
+    private int[] idSlot = new int[16];
+    private int[] lunghezzeSlot = new int[16];
+    private int[][] terminiSlot = new int[16][];
+    private int numeroSlot;
+    private int numeroDocumenti;
+    private long lunghezzaTotale;
+
+    // ------------------------------------------------------------------
+    // METODI: aggiornamento
+    // ------------------------------------------------------------------
+
+    void aggiungi(Annuncio annuncio) {
+        // 1. Termini del titolo (con peso doppio) e della descrizione,
+        //    come codici locali ordinati: i termini uguali diventano adiacenti.
+        List<String> titolo = Tokenizzatore.termini(annuncio.getTitolo());
+        List<String> descrizione = Tokenizzatore.termini(annuncio.getDescrizione());
+        int[] termini = new int[titolo.size() * PESO_TITOLO + descrizione.size()];
+        int n = 0;
+        for (String termine : titolo) {
+            int codice = codice(termine);
+            for (int p = 0; p < PESO_TITOLO; p++) {
+                termini[n++] = codice;
+            }
+        }
+        for (String termine : descrizione) {
+            termini[n++] = codice(termine);
+        }
+        Arrays.sort(termini);
+
+        // 2. Occupa un nuovo slot.
+        int slot = numeroSlot++;
+        if (slot == idSlot.length) {
+            idSlot = Arrays.copyOf(idSlot, slot << 1);
+            lunghezzeSlot = Arrays.copyOf(lunghezzeSlot, slot << 1);
+            terminiSlot = Arrays.copyOf(terminiSlot, slot << 1);
+        }
+
+        // 3. Una voce (slot, frequenza) per ogni termine distinto.
+        int[] distinti = new int[n];
+        int numeroDistinti = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && termini[j] == termini[i]) {
+                j++;
+            }
+            accoda(termini[i], slot, j - i);
+            distinti[numeroDistinti++] = termini[i];
+            i = j;
+        }
+
+        idSlot[slot] = annuncio.getId();
+        lunghezzeSlot[slot] = n;
+        terminiSlot[slot] = Arrays.copyOf(distinti, numeroDistinti);
+        slotPerId.put(annuncio.getId(), slot);
+        numeroDocumenti++;
+        lunghezzaTotale += n;
+    }
+
+    void rimuovi(int id) {
+        int slot = slotPerId.remove(id);
+        if (slot == IndiceId.ASSENTE) {
+            return;
+        }
+        for (int termine : terminiSlot[slot]) {
+            frequenzeDocumenti[termine]--;
+        }
+        terminiSlot[slot] = null;
+        numeroDocumenti--;
+        lunghezzaTotale -= lunghezzeSlot[slot];
+
+        int liberi = numeroSlot - numeroDocumenti;
+        if (liberi > numeroDocumenti && liberi > MORTI_MINIMI_COMPATTAZIONE) {
+            compatta();
+        }
+    }
+
+    void svuota() {
+        codici.clear();
+        postingSlot = new int[16][];
+        postingFrequenze = new int[16][];
+        lunghezzePosting = new int[16];
+        frequenzeDocumenti = new int[16];
+        numeroTermini = 0;
+        slotPerId.clear();
+        idSlot = new int[16];
+        lunghezzeSlot = new int[16];
+        terminiSlot = new int[16][];
+        numeroSlot = 0;
+        numeroDocumenti = 0;
+        lunghezzaTotale = 0;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: statistiche (per combinare più indici, come i segmenti
+    //         della BachecaConcorrente)
+    // ------------------------------------------------------------------
+
+    int getNumeroDocumenti() {
+        return numeroDocumenti;
+    }
+
+    long getLunghezzaTotale() {
+        return lunghezzaTotale;
+    }
+
+    /** Numero di annunci che contengono il termine. */
+    int getFrequenzaDocumenti(String termine) {
+        Integer codice = codici.get(termine);
+        return codice == null ? 0 : frequenzeDocumenti[codice];
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: ricerca
+    // ------------------------------------------------------------------
+
+    /**
+     * Primi k annunci per punteggio BM25 con le statistiche di questo indice.
+     */
+    List<Risultato> cerca(List<String> termini, int k) {
+        int[] frequenze = new int[termini.size()];
+        for (int i = 0; i < frequenze.length; i++) {
+            frequenze[i] = getFrequenzaDocumenti(termini.get(i));
+        }
+        double media = numeroDocumenti == 0 ? 0 : (double) lunghezzaTotale / numeroDocumenti;
+        return cerca(termini, k, numeroDocumenti, media, frequenze);
+    }
+
+    /**
+     * Primi k annunci per punteggio BM25, ordinati per punteggio decrescente.
+     *
+     * @param termini             termini distinti della ricerca
+     * @param numeroDocumenti     numero di annunci su cui calcolare l'idf
+     * @param lunghezzaMedia      lunghezza media (pesata) degli annunci
+     * @param frequenzeDocumenti  per ogni termine, numero di annunci che lo contengono
+     */
+    List<Risultato> cerca(List<String> termini, int k, int numeroDocumenti, double lunghezzaMedia,
+                          int[] frequenzeDocumenti) {
+        // 1. Termini presenti in questo indice, ordinati per contributo massimo crescente.
+        int m = 0;
+        int[] codiciQuery = new int[termini.size()];
+        double[] idf = new double[termini.size()];
+        for (int i = 0; i < termini.size(); i++) {
+            Integer codice = codici.get(termini.get(i));
+            if (codice != null && lunghezzePosting[codice] > 0) {
+                codiciQuery[m] = codice;
+                double df = frequenzeDocumenti[i];
+                idf[m++] = Math.log(1 + (numeroDocumenti - df + 0.5) / (df + 0.5));
+            }
+        }
+        if (m == 0 || k <= 0) {
+            return new ArrayList<>();
+        }
+        Integer[] ordine = new Integer[m];
+        for (int i = 0; i < m; i++) {
+            ordine[i] = i;
+        }
+        double[] idfOrdinati = idf;
+        Arrays.sort(ordine, (a, b) -> Double.compare(idfOrdinati[a], idfOrdinati[b]));
+
+        // Posting list dei termini copiate in variabili locali: il ciclo
+        // principale non rilegge i campi dell'indice
+        int[][] slot = new int[m][];
+        int[][] frequenze = new int[m][];
+        int[] lunghezze = new int[m];
+        double[] pesi = new double[m];
+        double[] massimiCumulati = new double[m + 1];  // somma dei contributi massimi dei termini [0, i)
+        int[] cursori = new int[m];
+        for (int i = 0; i < m; i++) {
+            int t = codiciQuery[ordine[i]];
+            slot[i] = postingSlot[t];
+            frequenze[i] = postingFrequenze[t];
+            lunghezze[i] = lunghezzePosting[t];
+            // Con tf che cresce il contributo BM25 tende a idf * (K1 + 1)
+            pesi[i] = idf[ordine[i]] * (K1 + 1);
+            massimiCumulati[i + 1] = massimiCumulati[i] + pesi[i];
+        }
+        double normalizzazione = lunghezzaMedia > 0 ? B / lunghezzaMedia : 0;
+        double costante = K1 * (1 - B);
+        double variabile = K1 * normalizzazione;
+
+        // 2. Document-at-a-time: i termini [essenziale, m) trovano i candidati,
+        //    gli altri vengono solo verificati sui candidati promettenti.
+        PriorityQueue<Risultato> migliori = new PriorityQueue<>(Math.min(k, 1024) + 1, PER_PUNTEGGIO.reversed());
+        double soglia = 0;
+        int essenziale = 0;
+        while (true) {
+            int candidato = Integer.MAX_VALUE;
+            for (int i = essenziale; i < m; i++) {
+                if (cursori[i] < lunghezze[i] && slot[i][cursori[i]] < candidato) {
+                    candidato = slot[i][cursori[i]];
+                }
+            }
+            if (candidato == Integer.MAX_VALUE) {
+                break;
+            }
+
+            double denominatore = costante + variabile * lunghezzeSlot[candidato];
+            double punteggio = 0;
+            for (int i = essenziale; i < m; i++) {
+                int c = cursori[i];
+                if (c < lunghezze[i] && slot[i][c] == candidato) {
+                    int tf = frequenze[i][c];
+                    punteggio += pesi[i] * tf / (tf + denominatore);
+                    cursori[i] = c + 1;
+                }
+            }
+            if (terminiSlot[candidato] == null) {
+                continue;  // Slot libero in attesa di compattazione
+            }
+            for (int i = essenziale - 1; i >= 0 && punteggio + massimiCumulati[i + 1] >= soglia; i--) {
+                int c = avanza(slot[i], lunghezze[i], cursori[i], candidato);
+                cursori[i] = c;
+                if (c < lunghezze[i] && slot[i][c] == candidato) {
+                    int tf = frequenze[i][c];
+                    punteggio += pesi[i] * tf / (tf + denominatore);
+                }
+            }
+
+            // 3. Aggiorna i primi k e la soglia per entrarvi.
+            if (migliori.size() == k && punteggio < soglia) {
+                continue;
+            }
+            Risultato risultato = new Risultato(idSlot[candidato], punteggio);
+            if (migliori.size() < k || PER_PUNTEGGIO.compare(risultato, migliori.peek()) < 0) {
+                migliori.add(risultato);
+                if (migliori.size() > k) {
+                    migliori.poll();
+                }
+                if (migliori.size() == k) {
+                    soglia = migliori.peek().punteggio;
+                    // A parità di punteggio può ancora entrare un id minore: solo '<'
+                    while (essenziale < m && massimiCumulati[essenziale + 1] < soglia) {
+                        essenziale++;
+                    }
+                }
+            }
+        }
+
+        List<Risultato> risultati = new ArrayList<>(migliori);
+        risultati.sort(PER_PUNTEGGIO);
+        return risultati;
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    private int codice(String termine) {
+        Integer codice = codici.get(termine);
+        if (codice != null) {
+            return codice;
+        }
+        if (numeroTermini == postingSlot.length) {
+            int capacita = numeroTermini << 1;
+            postingSlot = Arrays.copyOf(postingSlot, capacita);
+            postingFrequenze = Arrays.copyOf(postingFrequenze, capacita);
+            lunghezzePosting = Arrays.copyOf(lunghezzePosting, capacita);
+            frequenzeDocumenti = Arrays.copyOf(frequenzeDocumenti, capacita);
+        }
+        postingSlot[numeroTermini] = new int[2];
+        postingFrequenze[numeroTermini] = new int[2];
+        codici.put(termine, numeroTermini);
+        return numeroTermini++;
+    }
+
+    private void accoda(int termine, int slot, int frequenza) {
+        int n = lunghezzePosting[termine];
+        if (n == postingSlot[termine].length) {
+            postingSlot[termine] = Arrays.copyOf(postingSlot[termine], Math.max(2, n << 1));
+            postingFrequenze[termine] = Arrays.copyOf(postingFrequenze[termine], Math.max(2, n << 1));
+        }
+        postingSlot[termine][n] = slot;
+        postingFrequenze[termine][n] = frequenza;
+        lunghezzePosting[termine] = n + 1;
+        frequenzeDocumenti[termine]++;
+    }
+
+    // Prima posizione >= da della posting list con slot >= slot (ricerca esponenziale)
+    private static int avanza(int[] posting, int n, int da, int slot) {
+        int passo = 1;
+        int alto = da;
+        while (alto < n && posting[alto] < slot) {
+            da = alto + 1;
+            alto += passo;
+            passo <<= 1;
+        }
+        int indice = Arrays.binarySearch(posting, da, Math.min(alto + 1, n), slot);
+        return indice >= 0 ? indice : -indice - 1;
+    }
+
+    /**
+     * Rinumera gli slot occupati in modo compatto (mantenendone l'ordine)
+     * e toglie dalle posting list le voci degli slot liberi.
+     */
+    private void compatta() {
+        int[] nuovoSlot = new int[numeroSlot];
+        int occupati = 0;
+        for (int slot = 0; slot < numeroSlot; slot++) {
+            if (terminiSlot[slot] != null) {
+                nuovoSlot[slot] = occupati;
+                idSlot[occupati] = idSlot[slot];
+                lunghezzeSlot[occupati] = lunghezzeSlot[slot];
+                terminiSlot[occupati] = terminiSlot[slot];
+                slotPerId.put(idSlot[occupati], occupati);
+                occupati++;
+            } else {
+                nuovoSlot[slot] = -1;
+            }
+        }
+        Arrays.fill(terminiSlot, occupati, numeroSlot, null);
+
+        for (int t = 0; t < numeroTermini; t++) {
+            int n = 0;
+            for (int i = 0; i < lunghezzePosting[t]; i++) {
+                int slot = nuovoSlot[postingSlot[t][i]];
+                if (slot >= 0) {
+                    postingSlot[t][n] = slot;
+                    postingFrequenze[t][n++] = postingFrequenze[t][i];
+                }
+            }
+            lunghezzePosting[t] = n;
+            // Le posting list rimaste molto più piccole liberano spazio
+            if (postingSlot[t].length > 2 * Math.max(2, n)) {
+                postingSlot[t] = Arrays.copyOf(postingSlot[t], Math.max(2, n));
+                postingFrequenze[t] = Arrays.copyOf(postingFrequenze[t], Math.max(2, n));
+            }
+        }
+        numeroSlot = occupati;
+    }
+}
@@ -0,0 +1,83 @@
+package bacheca;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Vista non modificabile che concatena più liste senza copiarne gli
+ * elementi: le fotografie della bacheca la usano per condividere le
+ * liste (immutabili) da cui sono composte.
+ *
+ * L'accesso per posizione cerca la lista giusta con una ricerca binaria
+ * sugli offset, quindi costa O(log numero di liste); l'iteratore scorre
+ * invece gli iteratori delle parti una dopo l'altra.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ *
+ * @param <T> il tipo degli elementi
+ */
+final class ListaConcatenata<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<List<? extends T>> parti;
+    // inizi[i] = posizione del primo elemento di parti[i]; inizi[n] = dimensione
+    private final int[] inizi;
+
+    ListaConcatenata(List<List<? extends T>> parti) {
+        this.parti = List.copyOf(parti);
+        this.inizi = new int[parti.size() + 1];
+        for (int i = 0; i < parti.size(); i++) {
+            inizi[i + 1] = inizi[i] + this.parti.get(i).size();
+        }
+    }
+
+    @Override
+    public T get(int indice) {
+        if (indice < 0 || indice >= size()) {
+            throw new IndexOutOfBoundsException("Indice: " + indice + ", dimensione: " + size());
+        }
+        // Ultima parte con inizio <= indice (le parti vuote vengono saltate)
+        int lo = 0;
+        int hi = parti.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (inizi[mid] <= indice) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return parti.get(lo).get(indice - inizi[lo]);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int parte = 0;
+            private Iterator<? extends T> corrente = parti.isEmpty() ? null : parti.get(0).iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (corrente != null && !corrente.hasNext()) {
+                    corrente = ++parte < parti.size() ? parti.get(parte).iterator() : null;
+                }
+                return corrente != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return corrente.next();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return inizi[parti.size()];
+    }
+}
@@ -0,0 +1,38 @@
+package bacheca;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Vista non modificabile, come List<String>, di un array di codici del
+ * DizionarioParole. Le parole restituite sono le istanze canoniche del
+ * dizionario: la vista non crea nuove stringhe.
+ *
+ * L'array di codici non viene mai modificato dopo la creazione, quindi
+ * può essere condiviso (ad esempio copiando le parole di un annuncio su
+ * un altro).
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class ListaParole extends AbstractList<String> implements RandomAccess {
+
+    private final int[] codici;
+
+    ListaParole(int[] codici) {
+        this.codici = codici;
+    }
+
+    @Override
+    public String get(int indice) {
+        return DizionarioParole.parola(codici[indice]);
+    }
+
+    @Override
+    public int size() {
+        return codici.length;
+    }
+
+    int[] codici() {
+        return codici;
+    }
+}
@@ -0,0 +1,45 @@
+package bacheca;
+
+import java.util.Comparator;
+
+/**
+ * Ordinamento dei risultati delle ricerche paginate. A parità di chiave
+ * gli annunci sono ordinati per id, quindi l'ordine è totale e stabile:
+ * ogni annuncio ha una posizione precisa, da cui riprende la pagina
+ * successiva.
+ */
+public enum OrdinamentoAnnunci {
+
+    /** Id crescente (ordine di pubblicazione). */
+    ID,
+
+    /** Prezzo crescente. */
+    PREZZO,
+
+    /**
+     * Data di scadenza crescente; gli annunci senza scadenza (acquisti e
+     * vendite che non scadono) vengono dopo tutti gli altri.
+     */
+    SCADENZA;
+
+    private final Comparator<Annuncio> comparatore =
+        Comparator.comparingDouble(this::chiave).thenComparingInt(Annuncio::getId);
+
+    /**
+     * Chiave di ordinamento dell'annuncio (la stessa memorizzata nelle
+     * colonne della Partizione).
+     */
+    double chiave(Annuncio annuncio) {
+        return switch (this) {
+            case ID -> 0;
+            case PREZZO -> annuncio.getPrezzo();
+            case SCADENZA -> annuncio instanceof AnnuncioVendita vendita
+                ? Partizione.giornoEpoca(vendita.getDataScadenza())
+                : Partizione.NESSUNA_SCADENZA;
+        };
+    }
+
+    Comparator<Annuncio> comparatore() {
+        return comparatore;
+    }
+}
@@ -0,0 +1,52 @@
+package bacheca;
+
+import java.time.LocalDate;
+
+/**
+ * Osservatore interno al package, notificato da un Annuncio quando
+ * cambia un campo su cui la Bacheca mantiene degli indici.
+ *
+ * La Bacheca si registra sugli annunci che contiene e si rimuove quando
+ * escono dalla bacheca, così gli indici restano coerenti anche quando
+ * i setter vengono chiamati direttamente sull'annuncio.
+ */
+interface OsservatoreAnnuncio {
+
+    /**
+     * Il prezzo dell'annuncio è cambiato.
+     *
+     * @param annuncio      l'annuncio modificato (con il nuovo prezzo già assegnato)
+     * @param vecchioPrezzo il prezzo precedente
+     */
+    void prezzoModificato(Annuncio annuncio, double vecchioPrezzo);
+
+    /**
+     * Le parole chiave dell'annuncio sono cambiate.
+     *
+     * @param annuncio      l'annuncio modificato (con le nuove parole già assegnate)
+     * @param vecchieParole i codici (DizionarioParole) delle parole chiave precedenti
+     */
+    void paroleChiaveModificate(Annuncio annuncio, int[] vecchieParole);
+
+    /**
+     * Il titolo o la descrizione dell'annuncio sono cambiati.
+     *
+     * @param annuncio l'annuncio modificato (con il nuovo testo già assegnato)
+     */
+    void testoModificato(Annuncio annuncio);
+
+    /**
+     * La data di scadenza di un annuncio di vendita è cambiata.
+     *
+     * @param vendita         l'annuncio modificato (con la nuova data già assegnata)
+     * @param vecchiaScadenza la data di scadenza precedente (può essere null)
+     */
+    void scadenzaModificata(AnnuncioVendita vendita, LocalDate vecchiaScadenza);
+
+    /**
+     * Lo stato "venduto" di un annuncio di vendita è cambiato.
+     *
+     * @param vendita l'annuncio modificato (con il nuovo stato già assegnato)
+     */
+    void vendutoModificato(AnnuncioVendita vendita);
+}
@@ -0,0 +1,58 @@
+package bacheca;
+
+import java.util.List;
+
+/**
+ * Pagina dei risultati di una ricerca paginata: gli annunci della pagina,
+ * nell'ordinamento richiesto, e il cursore da passare alla ricerca per
+ * ottenere la pagina successiva.
+ *
+ * Il cursore è una stringa opaca che identifica l'ultimo annuncio della
+ * pagina (chiave di ordinamento e id): la pagina successiva riparte da
+ * quella posizione, quindi gli annunci aggiunti o rimossi nel frattempo
+ * non fanno saltare né ripetere gli altri risultati.
+ */
+public final class PaginaAnnunci {
+
+    private final List<Annuncio> annunci;
+    private final String cursoreSuccessivo;
+
+    private PaginaAnnunci(List<Annuncio> annunci, String cursoreSuccessivo) {
+        this.annunci = annunci;
+        this.cursoreSuccessivo = cursoreSuccessivo;
+    }
+
+    /**
+     * Crea la pagina con i primi 'limite' annunci (già ordinati).
+     *
+     * @param altri true se esistono altri risultati oltre agli annunci indicati
+     */
+    static PaginaAnnunci di(List<Annuncio> ordinati, OrdinamentoAnnunci ordinamento, int limite, boolean altri) {
+        if (ordinati.size() <= limite && !altri) {
+            return new PaginaAnnunci(List.copyOf(ordinati), null);
+        }
+        List<Annuncio> pagina = List.copyOf(ordinati.subList(0, Math.min(limite, ordinati.size())));
+        Annuncio ultimo = pagina.get(pagina.size() - 1);
+        return new PaginaAnnunci(pagina, CursoreRicerca.codifica(ordinamento, ordinamento.chiave(ultimo), ultimo.getId()));
+    }
+
+    // =================== GETTERS ===================
+
+    /**
+     * Annunci della pagina (lista non modificabile).
+     */
+    public List<Annuncio> getAnnunci() {
+        return annunci;
+    }
+
+    /**
+     * Cursore della pagina successiva, oppure null se questa è l'ultima.
+     */
+    public String getCursoreSuccessivo() {
+        return cursoreSuccessivo;
+    }
+
+    public boolean isUltima() {
+        return cursoreSuccessivo == null;
+    }
+}
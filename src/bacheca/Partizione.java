@@ -0,0 +1,572 @@
+package bacheca;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Partizione della Bacheca che contiene gli annunci di un solo tipo
+ * (AnnuncioVendita oppure AnnuncioAcquisto).
+ *
+ * Gli annunci sono memorizzati in ordine di inserimento in blocchi di
+ * dimensione fissa, affiancati da un IndiceId (id -> posizione):
+ * inserimento, ricerca e rimozione per id avvengono in tempo costante.
+ * La rimozione lascia un buco (null) nella sua posizione, così l'ordine
+ * degli altri annunci non cambia; quando i buchi superano gli annunci
+ * presenti la partizione viene compattata (costo ammortizzato costante).
+ * La partizione conta gli annunci presenti in ogni blocco in un albero di
+ * Fenwick, aggiornato da ogni scrittura in O(log numero di blocchi): la
+ * vista trova l'annuncio in una data posizione senza scorrere i blocchi
+ * precedenti e senza modificare la partizione, quindi le letture (anche
+ * concorrenti, sotto un lock in lettura) non scrivono mai campi condivisi.
+ *
+ * Le fotografie (vedi fotografia()) condividono i blocchi con la
+ * partizione invece di copiarne gli annunci: un blocco condiviso viene
+ * copiato solo quando la partizione lo modifica per la prima volta
+ * (copy-on-write), quindi una nuova fotografia costa O(numero di blocchi)
+ * e ogni scrittura successiva copia al più il blocco che tocca. Poiché
+ * segna i blocchi come condivisi, fotografia() va trattata come una
+ * scrittura.
+ *
+ * Accanto alla lista la partizione mantiene, alla stessa posizione, delle
+ * colonne di tipi primitivi (id, prezzo, giorno di scadenza, venduto,
+ * ordinale del proprietario): filtri e aggregati scorrono solo questi
+ * array contigui e accedono agli oggetti Annuncio soltanto per i risultati.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ *
+ * @param <T> il tipo di annuncio contenuto
+ */
+class Partizione<T extends Annuncio> implements Iterable<T> {
+
+    /** Giorno di scadenza memorizzato per gli annunci che non scadono. */
+    static final int NESSUNA_SCADENZA = Integer.MAX_VALUE;
+
+    /** Ordinale del proprietario che indica "tutti i proprietari". */
+    static final int QUALSIASI_PROPRIETARIO = -1;
+
+    /** Ordinale del proprietario memorizzato nelle posizioni rimosse. */
+    private static final int RIMOSSO = -2;
+
+    // Posizioni per blocco (potenza di due)
+    private static final int BIT_BLOCCO = 8;
+    private static final int BLOCCO = 1 << BIT_BLOCCO;
+    private static final int MASCHERA_BLOCCO = BLOCCO - 1;
+
+    private static final int CAPACITA_INIZIALE = 16;
+
+    // Blocchi delle posizioni: blocchi[p >>> BIT_BLOCCO][p & MASCHERA_BLOCCO]
+    // è l'annuncio in posizione p, oppure null se è stato rimosso
+    private Object[][] blocchi;
+    // Annunci presenti in ogni blocco
+    private int[] presentiPerBlocco;
+    // Albero di Fenwick sui presenti per blocco (indici da 1, tanti nodi
+    // quanti i blocchi allocati): somme dei blocchi precedenti e ricerca
+    // del blocco di una posizione in O(log numero di blocchi)
+    private int[] conteggi;
+    // Blocchi referenziati da una fotografia: vanno copiati prima di scriverci
+    private boolean[] condivisi;
+    // Posizioni occupate (da annunci presenti o rimossi) e annunci presenti
+    private int occupate;
+    private int presenti;
+
+    private final List<T> vista;
+    private final IndiceId posizioni;
+
+    // Colonne primitive, indicizzate per posizione come i blocchi
+    private int[] id;
+    private double[] prezzi;
+    private int[] scadenze;
+    private boolean[] venduti;
+    private int[] proprietari;
+
+    Partizione() {
+        this.vista = new Vista();
+        this.posizioni = new IndiceId();
+        allocaBlocchi();
+        allocaColonne(CAPACITA_INIZIALE);
+    }
+
+    /**
+     * Aggiunge l'annuncio in coda; l'id non deve essere già presente.
+     *
+     * @param proprietario ordinale dell'email del proprietario
+     */
+    void aggiungi(T annuncio, int proprietario) {
+        int posizione = occupate;
+        if (posizione == id.length) {
+            ridimensionaColonne(posizione << 1);
+        }
+        int blocco = posizione >>> BIT_BLOCCO;
+        if (blocco == blocchi.length) {
+            blocchi = Arrays.copyOf(blocchi, blocco << 1);
+            presentiPerBlocco = Arrays.copyOf(presentiPerBlocco, blocco << 1);
+            condivisi = Arrays.copyOf(condivisi, blocco << 1);
+            costruisciConteggi();
+        }
+        if (blocchi[blocco] == null) {
+            blocchi[blocco] = new Object[BLOCCO];
+        }
+        scrivibile(blocco)[posizione & MASCHERA_BLOCCO] = annuncio;
+        presentiPerBlocco[blocco]++;
+        aggiornaConteggi(blocco, 1);
+        occupate++;
+        presenti++;
+        posizioni.put(annuncio.getId(), posizione);
+
+        id[posizione] = annuncio.getId();
+        prezzi[posizione] = annuncio.getPrezzo();
+        proprietari[posizione] = proprietario;
+        if (annuncio instanceof AnnuncioVendita vendita) {
+            scadenze[posizione] = giornoEpoca(vendita.getDataScadenza());
+            venduti[posizione] = vendita.isVenduto();
+        } else {
+            scadenze[posizione] = NESSUNA_SCADENZA;
+            venduti[posizione] = false;
+        }
+    }
+
+    /**
+     * Restituisce l'annuncio con l'id indicato oppure null.
+     */
+    T get(int id) {
+        int posizione = posizioni.get(id);
+        return posizione == IndiceId.ASSENTE ? null : elemento(posizione);
+    }
+
+    boolean contiene(int id) {
+        return posizioni.contiene(id);
+    }
+
+    /**
+     * Rimuove l'annuncio con l'id indicato in tempo costante (ammortizzato),
+     * senza cambiare l'ordine degli altri annunci.
+     *
+     * @return l'annuncio rimosso oppure null se non presente
+     */
+    T rimuovi(int id) {
+        int posizione = posizioni.remove(id);
+        if (posizione == IndiceId.ASSENTE) {
+            return null;
+        }
+        T rimosso = elemento(posizione);
+        int blocco = posizione >>> BIT_BLOCCO;
+        scrivibile(blocco)[posizione & MASCHERA_BLOCCO] = null;
+        presentiPerBlocco[blocco]--;
+        aggiornaConteggi(blocco, -1);
+        presenti--;
+        // La posizione rimossa viene esclusa da filtri e aggregati
+        venduti[posizione] = true;
+        proprietari[posizione] = RIMOSSO;
+        if (occupate - presenti > Math.max(BLOCCO, presenti)) {
+            compatta();
+        }
+        return rimosso;
+    }
+
+    int size() {
+        return presenti;
+    }
+
+    void svuota() {
+        posizioni.clear();
+        allocaBlocchi();
+        allocaColonne(CAPACITA_INIZIALE);
+    }
+
+    /**
+     * Vista non modificabile (senza copia) degli annunci della partizione,
+     * in ordine di inserimento.
+     */
+    List<T> vista() {
+        return vista;
+    }
+
+    /**
+     * Lista immutabile degli annunci presenti ora, in ordine di inserimento.
+     * Copia solo l'elenco dei blocchi e ne calcola gli inizi: i blocchi
+     * vengono condivisi e la partizione li copierà alla prima scrittura.
+     * Segna i blocchi come condivisi: va chiamata con accesso esclusivo.
+     */
+    List<T> fotografia() {
+        if (presenti == 0) {
+            return List.of();
+        }
+        int numeroBlocchi = numeroBlocchi();
+        // inizi[b] = annunci presenti nei blocchi prima di b
+        int[] inizi = new int[numeroBlocchi + 1];
+        for (int b = 0; b < numeroBlocchi; b++) {
+            inizi[b + 1] = inizi[b] + presentiPerBlocco[b];
+        }
+        Arrays.fill(condivisi, 0, numeroBlocchi, true);
+        return new Fotografia<>(Arrays.copyOf(blocchi, numeroBlocchi), inizi, occupate);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return vista.iterator();
+    }
+
+    /**
+     * Vista in sola lettura sulla partizione: l'accesso per posizione
+     * scende l'albero dei conteggi, l'iteratore scorre le posizioni
+     * saltando i buchi.
+     */
+    private final class Vista extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(int indice) {
+            if (indice < 0 || indice >= presenti) {
+                throw new IndexOutOfBoundsException("Indice: " + indice + ", dimensione: " + presenti);
+            }
+            // Discesa dell'albero: ultimo blocco con meno di 'indice + 1'
+            // annunci presenti nei blocchi precedenti
+            int blocco = 0;
+            int resto = indice;
+            for (int passo = Integer.highestOneBit(conteggi.length - 1); passo > 0; passo >>>= 1) {
+                int nodo = blocco + passo;
+                if (nodo < conteggi.length && conteggi[nodo] <= resto) {
+                    blocco = nodo;
+                    resto -= conteggi[nodo];
+                }
+            }
+            @SuppressWarnings("unchecked")
+            T annuncio = (T) nelBlocco(blocchi[blocco], resto, presentiPerBlocco[blocco],
+                occupateNelBlocco(blocco, occupate));
+            return annuncio;
+        }
+
+        @Override
+        public int size() {
+            return presenti;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int posizione = 0;
+
+                @Override
+                public boolean hasNext() {
+                    while (posizione < occupate && elemento(posizione) == null) {
+                        posizione++;
+                    }
+                    return posizione < occupate;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return elemento(posizione++);
+                }
+            };
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // COLONNE: aggiornamento (dagli osservatori della Bacheca)
+    // ------------------------------------------------------------------
+
+    void aggiornaPrezzo(int id, double prezzo) {
+        int posizione = posizioni.get(id);
+        if (posizione != IndiceId.ASSENTE) {
+            prezzi[posizione] = prezzo;
+        }
+    }
+
+    void aggiornaScadenza(int id, LocalDate scadenza) {
+        int posizione = posizioni.get(id);
+        if (posizione != IndiceId.ASSENTE) {
+            scadenze[posizione] = giornoEpoca(scadenza);
+        }
+    }
+
+    void aggiornaVenduto(int id, boolean venduto) {
+        int posizione = posizioni.get(id);
+        if (posizione != IndiceId.ASSENTE) {
+            venduti[posizione] = venduto;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // COLONNE: filtri e aggregati (solo array primitivi)
+    // ------------------------------------------------------------------
+
+    /**
+     * Chiave di ordinamento dell'annuncio con l'id indicato (presente),
+     * letta dalle colonne: vedi OrdinamentoAnnunci.chiave.
+     */
+    double chiave(int id, OrdinamentoAnnunci ordinamento) {
+        int posizione = posizioni.get(id);
+        return switch (ordinamento) {
+            case ID -> 0;
+            case PREZZO -> prezzi[posizione];
+            case SCADENZA -> scadenze[posizione];
+        };
+    }
+
+    /**
+     * Annunci non venduti, non scaduti al giorno indicato e con prezzo
+     * tra min e max (estremi inclusi), nell'ordine della partizione.
+     */
+    List<T> filtraDisponibili(double min, double max, int oggi) {
+        List<T> risultati = new ArrayList<>();
+        int n = occupate;
+        for (int i = 0; i < n; i++) {
+            // Confronti senza salti condizionali annidati sulle sole colonne
+            // (le posizioni rimosse risultano vendute)
+            if (!venduti[i] & scadenze[i] >= oggi & prezzi[i] >= min & prezzi[i] <= max) {
+                risultati.add(elemento(i));
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Statistiche degli annunci al giorno indicato, eventualmente limitate
+     * a un proprietario (QUALSIASI_PROPRIETARIO per tutti).
+     */
+    StatisticheVendite statistiche(int oggi, int proprietario) {
+        int vendute = 0;
+        int scadute = 0;
+        int disponibili = 0;
+        double valore = 0;
+        double minimo = Double.POSITIVE_INFINITY;
+        double massimo = Double.NEGATIVE_INFINITY;
+        boolean tutti = proprietario == QUALSIASI_PROPRIETARIO;
+        int n = occupate;
+        for (int i = 0; i < n; i++) {
+            if (proprietari[i] == RIMOSSO || !tutti && proprietari[i] != proprietario) {
+                continue;
+            }
+            if (venduti[i]) {
+                vendute++;
+            } else if (scadenze[i] < oggi) {
+                scadute++;
+            } else {
+                disponibili++;
+                double prezzo = prezzi[i];
+                valore += prezzo;
+                minimo = Math.min(minimo, prezzo);
+                massimo = Math.max(massimo, prezzo);
+            }
+        }
+        return new StatisticheVendite(vendute, scadute, disponibili, valore, minimo, massimo);
+    }
+
+    /**
+     * Converte una data nel giorno epoch memorizzato nella colonna delle
+     * scadenze (le date oltre il limite di un int non scadono mai).
+     */
+    static int giornoEpoca(LocalDate data) {
+        if (data == null) {
+            return NESSUNA_SCADENZA;
+        }
+        long giorno = data.toEpochDay();
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(NESSUNA_SCADENZA, giorno));
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private T elemento(int posizione) {
+        return (T) blocchi[posizione >>> BIT_BLOCCO][posizione & MASCHERA_BLOCCO];
+    }
+
+    // Blocco da modificare: se è condiviso con una fotografia ne scrive una copia
+    private Object[] scrivibile(int blocco) {
+        if (condivisi[blocco]) {
+            blocchi[blocco] = blocchi[blocco].clone();
+            condivisi[blocco] = false;
+        }
+        return blocchi[blocco];
+    }
+
+    // Aggiunge 'delta' ai presenti del blocco nell'albero dei conteggi
+    private void aggiornaConteggi(int blocco, int delta) {
+        for (int nodo = blocco + 1; nodo < conteggi.length; nodo += nodo & -nodo) {
+            conteggi[nodo] += delta;
+        }
+    }
+
+    // Ricostruisce l'albero dei conteggi (in tempo lineare) dai presenti per blocco
+    private void costruisciConteggi() {
+        conteggi = new int[presentiPerBlocco.length + 1];
+        for (int nodo = 1; nodo < conteggi.length; nodo++) {
+            conteggi[nodo] += presentiPerBlocco[nodo - 1];
+            int padre = nodo + (nodo & -nodo);
+            if (padre < conteggi.length) {
+                conteggi[padre] += conteggi[nodo];
+            }
+        }
+    }
+
+    /**
+     * Annuncio in posizione 'indice' (tra i presenti) dei blocchi di una
+     * fotografia: ricerca binaria del blocco sugli inizi, poi al più un
+     * blocco scorso.
+     */
+    private static Object cerca(Object[][] blocchi, int[] inizi, int numeroBlocchi, int occupate, int indice) {
+        // Ultimo blocco con inizio <= indice (i blocchi vuoti vengono saltati)
+        int lo = 0;
+        int hi = numeroBlocchi - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (inizi[mid] <= indice) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return nelBlocco(blocchi[lo], indice - inizi[lo], inizi[lo + 1] - inizi[lo], occupateNelBlocco(lo, occupate));
+    }
+
+    /**
+     * Annuncio in posizione 'resto' tra i presenti di un blocco: accesso
+     * diretto se il blocco non ha buchi, altrimenti il blocco viene scorso.
+     */
+    private static Object nelBlocco(Object[] blocco, int resto, int presentiNelBlocco, int occupateNelBlocco) {
+        if (presentiNelBlocco == occupateNelBlocco) {
+            return blocco[resto];  // Blocco senza buchi
+        }
+        for (Object annuncio : blocco) {
+            if (annuncio != null && resto-- == 0) {
+                return annuncio;
+            }
+        }
+        throw new IllegalStateException("Conteggi dei blocchi non coerenti");
+    }
+
+    private static int occupateNelBlocco(int blocco, int occupate) {
+        return Math.min(BLOCCO, occupate - (blocco << BIT_BLOCCO));
+    }
+
+    private int numeroBlocchi() {
+        return (occupate + MASCHERA_BLOCCO) >>> BIT_BLOCCO;
+    }
+
+    /**
+     * Sposta gli annunci presenti all'inizio, nello stesso ordine, in
+     * blocchi nuovi e aggiorna colonne e posizioni.
+     */
+    private void compatta() {
+        Object[][] nuovi = new Object[blocchi.length][];
+        int[] nuoviPresenti = new int[blocchi.length];
+        int n = 0;
+        for (int i = 0; i < occupate; i++) {
+            Object annuncio = blocchi[i >>> BIT_BLOCCO][i & MASCHERA_BLOCCO];
+            if (annuncio == null) {
+                continue;
+            }
+            int blocco = n >>> BIT_BLOCCO;
+            if (nuovi[blocco] == null) {
+                nuovi[blocco] = new Object[BLOCCO];
+            }
+            nuovi[blocco][n & MASCHERA_BLOCCO] = annuncio;
+            nuoviPresenti[blocco]++;
+            // Le colonne si spostano sul posto: n <= i
+            id[n] = id[i];
+            prezzi[n] = prezzi[i];
+            scadenze[n] = scadenze[i];
+            venduti[n] = venduti[i];
+            proprietari[n] = proprietari[i];
+            posizioni.put(id[n], n);
+            n++;
+        }
+        blocchi = nuovi;
+        presentiPerBlocco = nuoviPresenti;
+        condivisi = new boolean[nuovi.length];
+        costruisciConteggi();
+        occupate = n;
+    }
+
+    private void allocaBlocchi() {
+        blocchi = new Object[1][];
+        presentiPerBlocco = new int[1];
+        condivisi = new boolean[1];
+        conteggi = new int[2];
+        occupate = 0;
+        presenti = 0;
+    }
+
+    private void allocaColonne(int capacita) {
+        id = new int[capacita];
+        prezzi = new double[capacita];
+        scadenze = new int[capacita];
+        venduti = new boolean[capacita];
+        proprietari = new int[capacita];
+    }
+
+    private void ridimensionaColonne(int capacita) {
+        id = Arrays.copyOf(id, capacita);
+        prezzi = Arrays.copyOf(prezzi, capacita);
+        scadenze = Arrays.copyOf(scadenze, capacita);
+        venduti = Arrays.copyOf(venduti, capacita);
+        proprietari = Arrays.copyOf(proprietari, capacita);
+    }
+
+    /**
+     * Fotografia immutabile di una partizione: blocchi condivisi (mai più
+     * modificati dalla partizione) e inizi propri.
+     */
+    private static final class Fotografia<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] blocchi;
+        private final int[] inizi;
+        private final int occupate;
+
+        Fotografia(Object[][] blocchi, int[] inizi, int occupate) {
+            this.blocchi = blocchi;
+            this.inizi = inizi;
+            this.occupate = occupate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int indice) {
+            if (indice < 0 || indice >= size()) {
+                throw new IndexOutOfBoundsException("Indice: " + indice + ", dimensione: " + size());
+            }
+            return (T) cerca(blocchi, inizi, blocchi.length, occupate, indice);
+        }
+
+        @Override
+        public int size() {
+            return inizi[blocchi.length];
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int posizione = 0;
+
+                @Override
+                public boolean hasNext() {
+                    while (posizione < occupate && blocchi[posizione >>> BIT_BLOCCO][posizione & MASCHERA_BLOCCO] == null) {
+                        posizione++;
+                    }
+                    return posizione < occupate;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    T annuncio = (T) blocchi[posizione >>> BIT_BLOCCO][posizione & MASCHERA_BLOCCO];
+                    posizione++;
+                    return annuncio;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package bacheca;
+
+/**
+ * Statistiche aggregate sugli annunci di vendita di una bacheca, calcolate
+ * a una data di riferimento con una sola scansione delle colonne primitive.
+ *
+ * Un annuncio venduto conta come venduto anche se scaduto; un annuncio è
+ * disponibile se non è venduto e non è scaduto.
+ */
+public final class StatisticheVendite {
+
+    private int numeroVendite;
+    private int numeroVendute;
+    private int numeroScadute;
+    private int numeroDisponibili;
+    private double valoreDisponibili;
+    private double prezzoMinimoDisponibile = Double.POSITIVE_INFINITY;
+    private double prezzoMassimoDisponibile = Double.NEGATIVE_INFINITY;
+
+    StatisticheVendite() {
+    }
+
+    StatisticheVendite(int numeroVendute, int numeroScadute, int numeroDisponibili,
+                       double valoreDisponibili, double prezzoMinimo, double prezzoMassimo) {
+        this.numeroVendite = numeroVendute + numeroScadute + numeroDisponibili;
+        this.numeroVendute = numeroVendute;
+        this.numeroScadute = numeroScadute;
+        this.numeroDisponibili = numeroDisponibili;
+        this.valoreDisponibili = valoreDisponibili;
+        this.prezzoMinimoDisponibile = prezzoMinimo;
+        this.prezzoMassimoDisponibile = prezzoMassimo;
+    }
+
+    // =================== GETTERS ===================
+
+    public int getNumeroVendite() {
+        return numeroVendite;
+    }
+
+    public int getNumeroVendute() {
+        return numeroVendute;
+    }
+
+    public int getNumeroScadute() {
+        return numeroScadute;
+    }
+
+    public int getNumeroDisponibili() {
+        return numeroDisponibili;
+    }
+
+    /**
+     * Somma dei prezzi degli annunci disponibili.
+     */
+    public double getValoreDisponibili() {
+        return valoreDisponibili;
+    }
+
+    /**
+     * Prezzo medio degli annunci disponibili (0 se non ce ne sono).
+     */
+    public double getPrezzoMedioDisponibili() {
+        return numeroDisponibili == 0 ? 0.0 : valoreDisponibili / numeroDisponibili;
+    }
+
+    /**
+     * Prezzo minimo tra gli annunci disponibili (0 se non ce ne sono).
+     */
+    public double getPrezzoMinimoDisponibile() {
+        return numeroDisponibili == 0 ? 0.0 : prezzoMinimoDisponibile;
+    }
+
+    /**
+     * Prezzo massimo tra gli annunci disponibili (0 se non ce ne sono).
+     */
+    public double getPrezzoMassimoDisponibile() {
+        return numeroDisponibili == 0 ? 0.0 : prezzoMassimoDisponibile;
+    }
+
+    // =================== UNIONE (solo package) ===================
+
+    /**
+     * Somma alle statistiche correnti quelle indicate (ad esempio di un
+     * altro segmento della bacheca).
+     */
+    void unisci(StatisticheVendite altre) {
+        numeroVendite += altre.numeroVendite;
+        numeroVendute += altre.numeroVendute;
+        numeroScadute += altre.numeroScadute;
+        numeroDisponibili += altre.numeroDisponibili;
+        valoreDisponibili += altre.valoreDisponibili;
+        prezzoMinimoDisponibile = Math.min(prezzoMinimoDisponibile, altre.prezzoMinimoDisponibile);
+        prezzoMassimoDisponibile = Math.max(prezzoMassimoDisponibile, altre.prezzoMassimoDisponibile);
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticheVendite{vendite=" + numeroVendite + ", vendute=" + numeroVendute
+            + ", scadute=" + numeroScadute + ", disponibili=" + numeroDisponibili
+            + ", prezzoMedio=" + getPrezzoMedioDisponibili() + '}';
+    }
+}
@@ -0,0 +1,34 @@
+package bacheca;
+
+/**
+ * Completamento di un prefisso: una parola chiave presente in bacheca e il
+ * numero di annunci che la usano.
+ */
+public final class SuggerimentoParola {
+
+    private final String parola;
+    private final int numeroAnnunci;
+
+    SuggerimentoParola(String parola, int numeroAnnunci) {
+        this.parola = parola;
+        this.numeroAnnunci = numeroAnnunci;
+    }
+
+    // =================== GETTERS ===================
+
+    /**
+     * Parola chiave in forma normalizzata (minuscolo, senza accenti).
+     */
+    public String getParola() {
+        return parola;
+    }
+
+    public int getNumeroAnnunci() {
+        return numeroAnnunci;
+    }
+
+    @Override
+    public String toString() {
+        return parola + " (" + numeroAnnunci + ")";
+    }
+}
@@ -0,0 +1,105 @@
+package bacheca;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Divide un testo italiano (titolo o descrizione di un annuncio, oppure
+ * il testo di una ricerca) nei termini usati dall'indice full-text.
+ *
+ * Il testo viene normalizzato come le parole chiave (minuscolo, senza
+ * accenti) e diviso su tutto ciò che non è una lettera o una cifra, quindi
+ * anche sugli apostrofi ("l'auto" -> "auto"). Le parole vuote più comuni
+ * (articoli, preposizioni, congiunzioni, ...) vengono scartate e le altre
+ * ridotte a una radice approssimata togliendo la vocale finale, così
+ * singolare e plurale coincidono ("telefono"/"telefoni", "banca"/"banche").
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class Tokenizzatore {
+
+    // Parole vuote, già in forma normalizzata
+    private static final Set<String> PAROLE_VUOTE = Set.of(
+        "ad", "al", "allo", "ai", "agli", "all", "alla", "alle",
+        "con", "col", "coi", "da", "dal", "dallo", "dai", "dagli", "dall", "dalla", "dalle",
+        "di", "del", "dello", "dei", "degli", "dell", "della", "delle",
+        "in", "nel", "nello", "nei", "negli", "nell", "nella", "nelle",
+        "su", "sul", "sullo", "sui", "sugli", "sull", "sulla", "sulle",
+        "per", "tra", "fra", "il", "lo", "la", "gli", "le", "un", "uno", "una",
+        "ed", "od", "ma", "che", "chi", "non", "si", "mi", "ti", "ci", "vi", "ne",
+        "come", "anche", "piu", "molto", "questo", "questa", "questi", "queste",
+        "quello", "quella", "sono", "ha", "ho", "hanno", "era", "essere"
+    );
+
+    // Lunghezza minima per togliere la vocale finale (le parole corte restano intere)
+    private static final int LUNGHEZZA_RADICE = 5;
+
+    private Tokenizzatore() {
+    }
+
+    /**
+     * Restituisce i termini del testo nell'ordine in cui compaiono
+     * (con ripetizioni).
+     */
+    static List<String> termini(String testo) {
+        List<String> termini = new ArrayList<>();
+        if (testo == null) {
+            return termini;
+        }
+        String normalizzato = DizionarioParole.normalizza(testo);
+        int n = normalizzato.length();
+        int inizio = -1;
+        for (int i = 0; i <= n; i++) {
+            boolean carattere = i < n && isLetteraOCifra(normalizzato.charAt(i));
+            if (carattere && inizio < 0) {
+                inizio = i;
+            } else if (!carattere && inizio >= 0) {
+                aggiungi(termini, normalizzato.substring(inizio, i));
+                inizio = -1;
+            }
+        }
+        return termini;
+    }
+
+    /**
+     * Restituisce i termini distinti del testo, nell'ordine della prima
+     * occorrenza (usato per il testo delle ricerche).
+     */
+    static List<String> terminiDistinti(String testo) {
+        return new ArrayList<>(new LinkedHashSet<>(termini(testo)));
+    }
+
+    private static boolean isLetteraOCifra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || (c >= 0x80 && Character.isLetterOrDigit(c));
+    }
+
+    private static void aggiungi(List<String> termini, String parola) {
+        // Le singole lettere sono articoli, congiunzioni o elisioni ("l", "e", "a")
+        if ((parola.length() == 1 && !Character.isDigit(parola.charAt(0))) || PAROLE_VUOTE.contains(parola)) {
+            return;
+        }
+        termini.add(radice(parola));
+    }
+
+    /**
+     * Radice approssimata: toglie la vocale finale e, per i plurali in
+     * -che/-chi/-ghe/-ghi, anche la "h" che li distingue dal singolare.
+     */
+    static String radice(String parola) {
+        int n = parola.length();
+        if (n < LUNGHEZZA_RADICE) {
+            return parola;
+        }
+        char ultima = parola.charAt(n - 1);
+        if (ultima != 'a' && ultima != 'e' && ultima != 'i' && ultima != 'o') {
+            return parola;
+        }
+        if ((ultima == 'e' || ultima == 'i') && parola.charAt(n - 2) == 'h'
+                && (parola.charAt(n - 3) == 'c' || parola.charAt(n - 3) == 'g')) {
+            return parola.substring(0, n - 2);
+        }
+        return parola.substring(0, n - 1);
+    }
+}
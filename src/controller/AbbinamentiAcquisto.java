@@ -0,0 +1,38 @@
+package controller;
+
+import java.util.List;
+
+import bacheca.AnnuncioAcquisto;
+
+/**
+ * Migliori annunci di vendita trovati per un annuncio di acquisto
+ * dall'abbinamento in blocco di tutta la bacheca.
+ */
+public final class AbbinamentiAcquisto {
+
+    private final AnnuncioAcquisto acquisto;
+    private final List<Abbinamento> abbinamenti;
+
+    AbbinamentiAcquisto(AnnuncioAcquisto acquisto, List<Abbinamento> abbinamenti) {
+        this.acquisto = acquisto;
+        this.abbinamenti = abbinamenti;
+    }
+
+    // =================== GETTERS ===================
+
+    public AnnuncioAcquisto getAcquisto() {
+        return acquisto;
+    }
+
+    /**
+     * @return gli abbinamenti dal più rilevante, non modificabili
+     */
+    public List<Abbinamento> getAbbinamenti() {
+        return abbinamenti;
+    }
+
+    @Override
+    public String toString() {
+        return acquisto.getTitolo() + " -> " + abbinamenti;
+    }
+}
@@ -0,0 +1,84 @@
+package controller;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+import bacheca.AnnuncioVendita;
+
+/**
+ * Annuncio di vendita proposto per un annuncio di acquisto dal
+ * MotoreAbbinamenti, con il numero di parole chiave in comune.
+ */
+public final class Abbinamento {
+
+    /**
+     * Ordine di presentazione: prima più parole chiave in comune, poi le
+     * vendite entro il budget dell'acquirente, poi il prezzo più vicino al
+     * budget; a parità l'id più basso.
+     */
+    static final Comparator<Abbinamento> PER_RILEVANZA = (a, b) -> {
+        if (a.paroleComuni != b.paroleComuni) {
+            return Integer.compare(b.paroleComuni, a.paroleComuni);
+        }
+        boolean entroA = a.isEntroBudget();
+        if (entroA != b.isEntroBudget()) {
+            return entroA ? -1 : 1;
+        }
+        int scarto = Double.compare(Math.abs(a.getScartoPrezzo()), Math.abs(b.getScartoPrezzo()));
+        return scarto != 0 ? scarto : Integer.compare(a.vendita.getId(), b.vendita.getId());
+    };
+
+    private final AnnuncioVendita vendita;
+    private final int paroleComuni;
+    private final double budget;
+
+    Abbinamento(AnnuncioVendita vendita, int paroleComuni, double budget) {
+        this.vendita = vendita;
+        this.paroleComuni = paroleComuni;
+        this.budget = budget;
+    }
+
+    // =================== GETTERS ===================
+
+    public AnnuncioVendita getVendita() {
+        return vendita;
+    }
+
+    public int getParoleComuni() {
+        return paroleComuni;
+    }
+
+    /**
+     * Differenza tra il prezzo della vendita e il budget dell'acquirente
+     * (negativa se la vendita costa meno del budget).
+     */
+    public double getScartoPrezzo() {
+        return vendita.getPrezzo() - budget;
+    }
+
+    public boolean isEntroBudget() {
+        return vendita.getPrezzo() <= budget;
+    }
+
+    /**
+     * Due abbinamenti sono uguali se propongono la stessa vendita, con le
+     * stesse parole in comune, per lo stesso budget.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Abbinamento altro)) return false;
+        return vendita.equals(altro.vendita) && paroleComuni == altro.paroleComuni
+            && Double.compare(budget, altro.budget) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vendita, paroleComuni, budget);
+    }
+
+    @Override
+    public String toString() {
+        return vendita.getTitolo() + " (" + paroleComuni + " parole in comune, " + vendita.getPrezzo() + " €)";
+    }
+}
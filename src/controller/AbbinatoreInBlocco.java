@@ -0,0 +1,186 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+import bacheca.AnnuncioAcquisto;
+import bacheca.AnnuncioVendita;
+import bacheca.FotografiaBacheca;
+
+/**
+ * Abbina in blocco tutti gli annunci di acquisto di una fotografia della
+ * bacheca con i loro migliori annunci di vendita (ad esempio per il
+ * riepilogo notturno "abbinamenti per te").
+ *
+ * Le vendite non vendute vengono indicizzate una volta per codice di
+ * parola chiave (un array indicizzato dal codice del dizionario globale);
+ * ogni acquisto interroga l'indice con i codici delle proprie parole e
+ * conta le parole in comune in un array (niente confronti a coppie né
+ * stringhe). Gli acquisti sono
+ * divisi in blocchi eseguiti da un ForkJoinPool: ogni blocco usa il
+ * proprio array dei conteggi e scrive nella propria parte dei risultati,
+ * quindi i thread non condividono nulla di modificabile.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class AbbinatoreInBlocco {
+
+    // Blocchi per thread: abbastanza da bilanciare il carico se alcuni
+    // acquisti hanno molte più vendite candidate di altri
+    private static final int BLOCCHI_PER_THREAD = 8;
+    private static final int BLOCCO_MINIMO = 64;
+
+    private static final Comparator<Abbinamento> MENO_RILEVANTE_PRIMA = Abbinamento.PER_RILEVANZA.reversed();
+
+    private final ForkJoinPool pool;
+
+    AbbinatoreInBlocco(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Calcola, per ogni acquisto della fotografia, al più 'massimo'
+     * abbinamenti ordinati come nel MotoreAbbinamenti.
+     *
+     * @return un elemento per acquisto, nell'ordine della fotografia
+     */
+    Stream<AbbinamentiAcquisto> abbina(FotografiaBacheca fotografia, int massimo) {
+        List<AnnuncioAcquisto> acquisti = fotografia.getAcquisti();
+        if (acquisti.isEmpty()) {
+            return Stream.empty();
+        }
+        // 1. Vendite non vendute e indice codice -> posizioni delle vendite.
+        List<AnnuncioVendita> vendite = new ArrayList<>();
+        for (AnnuncioVendita vendita : fotografia.getVendite()) {
+            if (!vendita.isVenduto()) {
+                vendite.add(vendita);
+            }
+        }
+        int[][] indice = indicizza(vendite);
+
+        // 2. Acquisti divisi in blocchi sul pool, risultati per posizione.
+        AbbinamentiAcquisto[] risultati = new AbbinamentiAcquisto[acquisti.size()];
+        int blocco = Math.max(BLOCCO_MINIMO, acquisti.size() / (pool.getParallelism() * BLOCCHI_PER_THREAD) + 1);
+        pool.invoke(new Blocco(acquisti, vendite, indice, massimo, blocco, 0, acquisti.size(), risultati));
+        return Arrays.stream(risultati);
+    }
+
+    // Codice della parola chiave -> posizioni (crescenti) delle vendite che
+    // la contengono, null se nessuna (i codici di un annuncio sono già
+    // senza duplicati)
+    private static int[][] indicizza(List<AnnuncioVendita> vendite) {
+        // 1. Codici di ogni vendita (letti una volta) e vendite per codice.
+        int[][] codici = new int[vendite.size()][];
+        int[] conteggi = new int[0];
+        for (int i = 0; i < vendite.size(); i++) {
+            codici[i] = vendite.get(i).getCodiciParoleChiave();
+            for (int codice : codici[i]) {
+                if (codice >= conteggi.length) {
+                    conteggi = Arrays.copyOf(conteggi, Math.max(codice + 1, conteggi.length * 2));
+                }
+                conteggi[codice]++;
+            }
+        }
+        // 2. Posizioni per codice, allocate della dimensione esatta; i
+        //    conteggi fanno poi da cursore di riempimento.
+        int[][] indice = new int[conteggi.length][];
+        for (int i = 0; i < codici.length; i++) {
+            for (int codice : codici[i]) {
+                if (indice[codice] == null) {
+                    indice[codice] = new int[conteggi[codice]];
+                    conteggi[codice] = 0;
+                }
+                indice[codice][conteggi[codice]++] = i;
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Intervallo di acquisti [da, a): si divide a metà finché è più grande
+     * di un blocco, poi abbina gli acquisti uno alla volta.
+     */
+    private static final class Blocco extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<AnnuncioAcquisto> acquisti;
+        private final List<AnnuncioVendita> vendite;
+        private final int[][] indice;
+        private final int massimo;
+        private final int dimensione;
+        private final int da;
+        private final int a;
+        private final AbbinamentiAcquisto[] risultati;
+
+        Blocco(List<AnnuncioAcquisto> acquisti, List<AnnuncioVendita> vendite, int[][] indice,
+               int massimo, int dimensione, int da, int a, AbbinamentiAcquisto[] risultati) {
+            this.acquisti = acquisti;
+            this.vendite = vendite;
+            this.indice = indice;
+            this.massimo = massimo;
+            this.dimensione = dimensione;
+            this.da = da;
+            this.a = a;
+            this.risultati = risultati;
+        }
+
+        @Override
+        protected void compute() {
+            if (a - da > dimensione) {
+                int meta = (da + a) >>> 1;
+                invokeAll(new Blocco(acquisti, vendite, indice, massimo, dimensione, da, meta, risultati),
+                          new Blocco(acquisti, vendite, indice, massimo, dimensione, meta, a, risultati));
+                return;
+            }
+            // Conteggi delle parole in comune, azzerati dopo ogni acquisto
+            // scorrendo solo le vendite toccate
+            int[] comuni = new int[vendite.size()];
+            int[] toccate = new int[vendite.size()];
+            for (int i = da; i < a; i++) {
+                risultati[i] = abbina(acquisti.get(i), comuni, toccate);
+            }
+        }
+
+        private AbbinamentiAcquisto abbina(AnnuncioAcquisto acquisto, int[] comuni, int[] toccate) {
+            int numeroToccate = 0;
+            for (int codice : acquisto.getCodiciParoleChiave()) {
+                int[] posizioni = codice < indice.length ? indice[codice] : null;
+                if (posizioni == null) {
+                    continue;
+                }
+                for (int posizione : posizioni) {
+                    if (comuni[posizione]++ == 0) {
+                        toccate[numeroToccate++] = posizione;
+                    }
+                }
+            }
+
+            // Heap dei migliori 'massimo' (in cima il meno rilevante): con
+            // l'heap pieno si inserisce solo chi supera quello in cima
+            PriorityQueue<Abbinamento> migliori = new PriorityQueue<>(MENO_RILEVANTE_PRIMA);
+            for (int t = 0; t < numeroToccate; t++) {
+                int posizione = toccate[t];
+                AnnuncioVendita vendita = vendite.get(posizione);
+                if (!vendita.getUtente().equals(acquisto.getUtente())) {
+                    Abbinamento candidato = new Abbinamento(vendita, comuni[posizione], acquisto.getPrezzo());
+                    if (migliori.size() < massimo) {
+                        migliori.add(candidato);
+                    } else if (Abbinamento.PER_RILEVANZA.compare(candidato, migliori.peek()) < 0) {
+                        migliori.poll();
+                        migliori.add(candidato);
+                    }
+                }
+                comuni[posizione] = 0;
+            }
+            List<Abbinamento> ordinati = new ArrayList<>(migliori);
+            ordinati.sort(Abbinamento.PER_RILEVANZA);
+            return new AbbinamentiAcquisto(acquisto, List.copyOf(ordinati));
+        }
+    }
+}
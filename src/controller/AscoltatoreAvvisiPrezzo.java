@@ -0,0 +1,20 @@
+package controller;
+
+import bacheca.AnnuncioAcquisto;
+import bacheca.AnnuncioVendita;
+
+/**
+ * Ascoltatore avvisato quando una nuova vendita aggiunta tramite il
+ * GestoreBacheca rientra nel budget di un annuncio di acquisto con cui
+ * ha almeno una parola chiave in comune. Il destinatario della notifica
+ * è l'autore dell'acquisto (acquisto.getUtente()).
+ */
+@FunctionalInterface
+public interface AscoltatoreAvvisiPrezzo {
+
+    /**
+     * @param acquisto l'annuncio di acquisto il cui budget copre il prezzo
+     * @param vendita  la nuova vendita
+     */
+    void venditaEntroBudget(AnnuncioAcquisto acquisto, AnnuncioVendita vendita);
+}
@@ -0,0 +1,18 @@
+package controller;
+
+import bacheca.Annuncio;
+
+/**
+ * Ascoltatore avvisato quando un nuovo annuncio aggiunto tramite il
+ * GestoreBacheca soddisfa una ricerca salvata. Il destinatario della
+ * notifica è il proprietario della ricerca (ricerca.getUtente()).
+ */
+@FunctionalInterface
+public interface AscoltatoreRicerche {
+
+    /**
+     * @param ricerca  la ricerca salvata soddisfatta
+     * @param annuncio il nuovo annuncio
+     */
+    void annuncioTrovato(RicercaSalvata ricerca, Annuncio annuncio);
+}
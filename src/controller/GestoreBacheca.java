@@ -2,9 +2,18 @@ package controller;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Stream;
 
 import bacheca.Annuncio;
-import bacheca.Bacheca;
+import bacheca.AnnuncioAcquisto;
+import bacheca.AnnuncioVendita;
+import bacheca.ArchivioAnnunci;
+import bacheca.OrdinamentoAnnunci;
+import bacheca.PaginaAnnunci;
+import bacheca.StatisticheVendite;
+import bacheca.Utente;
+import bacheca.SuggerimentoParola;
+import bacheca.BachecaAnnunci;
 import eccezioni.GestoreBachecaException;
 
 /**
@@ -26,6 +35,19 @@ public abstract interface GestoreBacheca {
      */
     void pulisciBacheca();
 
+    /**
+     * Rimuove gli annunci di vendita già scaduti, usando l'indice delle
+     * scadenze della Bacheca (nessuna scansione completa), e li sposta
+     * nell'archivio fuori heap.
+     * @return gli annunci rimossi
+     */
+    List<AnnuncioVendita> rimuoviAnnunciScaduti();
+
+    /**
+     * Restituisce l'archivio (fuori heap) degli annunci rimossi perché scaduti.
+     */
+    ArchivioAnnunci getArchivio();
+
     /**
     * Stampa (o elenca) tutti gli annunci attualmente presenti in bacheca.
     */
@@ -40,19 +62,23 @@ public abstract interface GestoreBacheca {
     boolean rimuoviAnnuncio(int id, String emailUtente) throws GestoreBachecaException;
 
     /**
-     * Salva gli annunci della Bacheca su file.
+     * Salva gli annunci della Bacheca su file. Gli annunci scaduti
+     * nell'archivio vengono salvati accanto, nel file "-archivio"
+     * (ad esempio annunci-archivio.csv), che viene eliminato se
+     * l'archivio è vuoto.
      * @throws IOException se si verifica un errore di scrittura
      * @throws GestoreBachecaException se la bacheca è in uno stato non salvabile
      */
     void salvaSuFile(String filePath) throws IOException, GestoreBachecaException;
 
     /**
-     * Legge e ricostruisce la Bacheca da un file.
+     * Legge e ricostruisce la Bacheca da un file; se esiste il file
+     * dell'archivio salvato accanto, ricostruisce anche l'archivio.
      * @return l'oggetto Bacheca ricostruito
      * @throws IOException se si verifica un errore di lettura
      * @throws GestoreBachecaException se il file contiene dati invalidi
      */
-    Bacheca leggiDaFile(String filePath) throws IOException, GestoreBachecaException;
+    BachecaAnnunci leggiDaFile(String filePath) throws IOException, GestoreBachecaException;
 
     /**
      * Legge e ricostruisce la Bacheca da un BufferedReader (per risorse interne).
@@ -61,7 +87,7 @@ public abstract interface GestoreBacheca {
      * @throws IOException se si verifica un errore di lettura
      * @throws GestoreBachecaException se il file contiene dati invalidi
      */
-    Bacheca leggiDaReader(java.io.BufferedReader reader) throws IOException, GestoreBachecaException;
+    BachecaAnnunci leggiDaReader(java.io.BufferedReader reader) throws IOException, GestoreBachecaException;
 
     /**
      * Cerca tutti gli annunci contenenti almeno
@@ -70,9 +96,172 @@ public abstract interface GestoreBacheca {
      */
     List<Annuncio> cercaPerParoleChiave(List<String> paroleChiave);
 
+    /**
+     * Cerca gli annunci che contengono tutte le parole di 'tutte' (AND),
+     * almeno una delle parole di 'almenoUna' (OR) e nessuna delle parole
+     * di 'escluse' (NOT). Le liste nulle o vuote non pongono vincoli.
+     * @return lista di annunci che corrispondono ai criteri
+     * @throws IllegalArgumentException se 'tutte' e 'almenoUna' sono entrambe vuote
+     */
+    List<Annuncio> cercaPerParoleChiave(List<String> tutte, List<String> almenoUna, List<String> escluse);
+
+    /**
+     * Cerca gli annunci con almeno una parola chiave simile a quelle
+     * indicate, tollerando errori di battitura.
+     * @param distanzaMassima numero massimo di lettere sbagliate, da 0 a 2
+     * @return lista di annunci trovati, in ordine crescente di id
+     * @throws IllegalArgumentException se la lista è vuota o la distanza non è valida
+     */
+    List<Annuncio> cercaPerParoleChiaveSimili(List<String> paroleChiave, int distanzaMassima);
+
+    /**
+     * Cerca gli annunci con almeno una delle parole chiave, una pagina
+     * alla volta: per la pagina successiva si passa il cursore della
+     * pagina restituita, finché questa non è l'ultima.
+     * @param ordinamento ordine dei risultati (id, prezzo o scadenza)
+     * @param limite numero massimo di annunci nella pagina
+     * @param cursore cursore della pagina precedente, oppure null per la prima
+     * @return pagina di annunci con il cursore della successiva
+     * @throws IllegalArgumentException se i parametri o il cursore non sono validi
+     */
+    PaginaAnnunci cercaPaginaPerParoleChiave(List<String> paroleChiave, OrdinamentoAnnunci ordinamento,
+                                             int limite, String cursore);
+
+    /**
+     * Restituisce gli annunci di vendita non venduti che condividono parole
+     * chiave con l'annuncio di acquisto, dal più rilevante (più parole in
+     * comune, poi prezzo adatto al budget). Gli abbinamenti sono mantenuti
+     * aggiornati a ogni modifica della bacheca, quindi la lettura non la scorre.
+     * @param acquisto l'annuncio di acquisto in bacheca
+     * @return lista di abbinamenti (vuota se l'acquisto non è in bacheca)
+     * @throws IllegalArgumentException se l'annuncio è null
+     */
+    List<Abbinamento> cercaAbbinamenti(AnnuncioAcquisto acquisto);
+
+    /**
+     * Abbina in blocco tutti gli annunci di acquisto della bacheca con le
+     * loro migliori vendite (stesso ordine di cercaAbbinamenti). Lavora su
+     * una fotografia della bacheca e divide gli acquisti tra i thread del
+     * ForkJoinPool comune.
+     * @param massimoPerAcquisto numero massimo di vendite per ogni acquisto
+     * @return un elemento per ogni annuncio di acquisto
+     * @throws IllegalArgumentException se il massimo non è positivo
+     */
+    Stream<AbbinamentiAcquisto> abbinaTuttiGliAcquisti(int massimoPerAcquisto);
+
+    /**
+     * Salva una ricerca per parole chiave: i nuovi annunci aggiunti tramite
+     * aggiungiAnnuncio che hanno almeno una delle parole (e prezzo non
+     * superiore al massimo) vengono segnalati agli AscoltatoreRicerche.
+     * @param prezzoMassimo prezzo massimo, oppure null per nessun limite
+     * @return la ricerca salvata
+     * @throws IllegalArgumentException se l'utente è null, le parole sono
+     *         vuote o il prezzo massimo è negativo
+     */
+    RicercaSalvata salvaRicerca(Utente utente, List<String> paroleChiave, Double prezzoMassimo);
+
+    /**
+     * Elimina una ricerca salvata.
+     * @return true se la ricerca esisteva
+     */
+    boolean rimuoviRicercaSalvata(int id);
+
+    // Ricerche salvate dall'utente, in ordine di creazione
+    List<RicercaSalvata> getRicercheSalvate(Utente utente);
+
+    // Registra un ascoltatore delle ricerche salvate soddisfatte dai nuovi annunci
+    void aggiungiAscoltatoreRicerche(AscoltatoreRicerche ascoltatore);
+
+    void rimuoviAscoltatoreRicerche(AscoltatoreRicerche ascoltatore);
+
+    /**
+     * Restituisce, in ordine di id, gli annunci di acquisto di altri utenti
+     * con almeno una parola chiave in comune con la vendita e budget non
+     * inferiore al suo prezzo.
+     * @throws IllegalArgumentException se la vendita è null
+     */
+    List<AnnuncioAcquisto> cercaAcquirentiPerVendita(AnnuncioVendita vendita);
+
+    // Registra un ascoltatore avvisato quando una nuova vendita (non venduta)
+    // aggiunta tramite aggiungiAnnuncio rientra nel budget di un acquisto
+    void aggiungiAscoltatoreAvvisiPrezzo(AscoltatoreAvvisiPrezzo ascoltatore);
+
+    void rimuoviAscoltatoreAvvisiPrezzo(AscoltatoreAvvisiPrezzo ascoltatore);
+
+    /**
+     * Cerca gli annunci per testo libero nel titolo e nella descrizione,
+     * ordinati per rilevanza (BM25).
+     * @param massimo numero massimo di risultati
+     * @return i risultati più rilevanti, dal primo
+     * @throws IllegalArgumentException se il testo è vuoto o il massimo non è positivo
+     */
+    List<Annuncio> cercaTesto(String testo, int massimo);
+
+    /**
+     * Completa un prefisso con le parole chiave usate in bacheca, dalla
+     * più usata (per l'autocompletamento delle ricerche).
+     * @param massimo numero massimo di completamenti
+     * @return parole e numero di annunci che le usano
+     * @throws IllegalArgumentException se il prefisso è nullo o il massimo non è positivo
+     */
+    List<SuggerimentoParola> completaParolaChiave(String prefisso, int massimo);
+
     // Cerca un annuncio specifico tramite ID
     Annuncio cercaAnnuncioPerId(int id);
 
+    /**
+     * Restituisce tutti gli annunci pubblicati dall'utente con l'email indicata,
+     * usando l'indice per proprietario della Bacheca.
+     * @return lista (eventualmente vuota) degli annunci dell'utente
+     */
+    List<Annuncio> cercaAnnunciPerEmail(String emailUtente);
+
+    /**
+     * Cerca gli annunci (vendita e acquisto) con prezzo compreso tra
+     * min e max, estremi inclusi, ordinati per prezzo crescente.
+     * @throws IllegalArgumentException se l'intervallo non è valido
+     */
+    List<Annuncio> cercaPerPrezzo(double min, double max);
+
+    /**
+     * Cerca gli annunci di vendita con prezzo compreso tra min e max,
+     * estremi inclusi, ordinati per prezzo crescente.
+     * @throws IllegalArgumentException se l'intervallo non è valido
+     */
+    List<AnnuncioVendita> cercaVenditePerPrezzo(double min, double max);
+
+    /**
+     * Cerca gli annunci di vendita disponibili oggi (non venduti e non
+     * scaduti) con prezzo compreso tra min e max, estremi inclusi.
+     * @throws IllegalArgumentException se l'intervallo non è valido
+     */
+    List<AnnuncioVendita> cercaVenditeDisponibili(double min, double max);
+
+    /**
+     * Restituisce le statistiche aggregate degli annunci di vendita
+     * (venduti, scaduti, disponibili e prezzi) alla data odierna.
+     */
+    StatisticheVendite getStatisticheVendite();
+
+    /**
+     * Restituisce gli n annunci di vendita più economici.
+     * @throws IllegalArgumentException se n è negativo
+     */
+    List<AnnuncioVendita> cercaVenditePiuEconomiche(int n);
+
+    // Annuncio di vendita con il prezzo minimo (null se non ce ne sono)
+    AnnuncioVendita cercaVenditaPiuEconomica();
+
+    /**
+     * Restituisce la vendita non venduta più economica con la parola chiave
+     * indicata ed entro il budget, oppure null se non ce ne sono.
+     * @throws IllegalArgumentException se la parola è vuota
+     */
+    AnnuncioVendita cercaVenditaPiuEconomica(String parolaChiave, double budget);
+
+    // Annuncio di vendita con il prezzo massimo (null se non ce ne sono)
+    AnnuncioVendita cercaVenditaPiuCostosa();
+
     // Aggiunge nuove parole chiave a un annuncio esistente
     void aggiungiParoleChiave(int id, List<String> nuoveParole) throws GestoreBachecaException;
 
@@ -81,7 +270,7 @@ public abstract interface GestoreBacheca {
      * Metodi Di accesso per la GUI
      * ---------------------------
      */
-    Bacheca getBacheca();
+    BachecaAnnunci getBacheca();
 
 
 }
@@ -5,16 +5,28 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import bacheca.Annuncio;
 import bacheca.AnnuncioAcquisto;
 import bacheca.AnnuncioVendita;
-import bacheca.Bacheca;
+import bacheca.ArchivioAnnunci;
+import bacheca.BachecaAnnunci;
+import bacheca.FotografiaBacheca;
+import bacheca.OrdinamentoAnnunci;
+import bacheca.PaginaAnnunci;
+import bacheca.StatisticheVendite;
+import bacheca.SuggerimentoParola;
 import bacheca.Utente;
+import eccezioni.BachecaException;
 import eccezioni.DatiNonValidiException;
 import eccezioni.GestoreBachecaException;
 
@@ -26,7 +38,7 @@ import eccezioni.GestoreBachecaException;
 public class GestoreBachecaImpl implements GestoreBacheca {
 
     /** La bacheca su cui operano i metodi di questo gestore. */
-    private final Bacheca bacheca;
+    private final BachecaAnnunci bacheca;
 
     /**
      * Facoltativo: se desideri che parseAnnuncio possa recuperare
@@ -34,12 +46,27 @@ public class GestoreBachecaImpl implements GestoreBacheca {
      */
     private final GestoreUtenti gestoreUtenti;
 
+    /** Archivio fuori heap degli annunci scaduti rimossi dalla bacheca. */
+    private final ArchivioAnnunci archivio;
+
+    /** Abbinamenti acquisto/vendita, creato alla prima richiesta e poi aggiornato dalla bacheca. */
+    private MotoreAbbinamenti abbinamenti;
+
+    /** Ricerche salvate dagli utenti, indicizzate per parola chiave. */
+    private final IndiceRicerche ricerche = new IndiceRicerche();
+
+    /** Ascoltatori avvisati quando un nuovo annuncio soddisfa una ricerca salvata. */
+    private final List<AscoltatoreRicerche> ascoltatoriRicerche = new CopyOnWriteArrayList<>();
+
+    /** Ascoltatori avvisati quando una nuova vendita rientra nel budget di un acquisto. */
+    private final List<AscoltatoreAvvisiPrezzo> ascoltatoriAvvisiPrezzo = new CopyOnWriteArrayList<>();
+
     /**
      * Costruttore principale: riceve la bacheca e il gestore utenti.
      * @param bacheca la bacheca da gestire (non null)
      * @param gestoreUtenti il gestore per cercare/creare utenti (non null)
      */
-    public GestoreBachecaImpl(Bacheca bacheca, GestoreUtenti gestoreUtenti) {
+    public GestoreBachecaImpl(BachecaAnnunci bacheca, GestoreUtenti gestoreUtenti) {
         if (bacheca == null) {
             throw new IllegalArgumentException("Bacheca non può essere null");
         }
@@ -48,6 +75,7 @@ public class GestoreBachecaImpl implements GestoreBacheca {
         }
         this.bacheca = bacheca;
         this.gestoreUtenti = gestoreUtenti;
+        this.archivio = new ArchivioAnnunci();
     }
 
     // ---------------------------------------------------------------
@@ -125,6 +153,24 @@ public class GestoreBachecaImpl implements GestoreBacheca {
         }
         // Deleghiamo la logica di inserimento a Bacheca
         bacheca.aggiungiAnnuncio(annuncio);
+
+        // L'annuncio accettato viene cercato tra le ricerche salvate
+        if (!ascoltatoriRicerche.isEmpty()) {
+            for (RicercaSalvata ricerca : ricerche.corrispondenti(annuncio)) {
+                for (AscoltatoreRicerche ascoltatore : ascoltatoriRicerche) {
+                    ascoltatore.annuncioTrovato(ricerca, annuncio);
+                }
+            }
+        }
+
+        // Una nuova vendita viene cercata negli indici dei budget per parola
+        if (!ascoltatoriAvvisiPrezzo.isEmpty() && annuncio instanceof AnnuncioVendita vendita && !vendita.isVenduto()) {
+            for (AnnuncioAcquisto acquisto : cercaAcquirentiPerVendita(vendita)) {
+                for (AscoltatoreAvvisiPrezzo ascoltatore : ascoltatoriAvvisiPrezzo) {
+                    ascoltatore.venditaEntroBudget(acquisto, vendita);
+                }
+            }
+        }
     }
 
     @Override
@@ -133,12 +179,26 @@ public class GestoreBachecaImpl implements GestoreBacheca {
         bacheca.svuotaBacheca();
     }
 
+    @Override
+    public List<AnnuncioVendita> rimuoviAnnunciScaduti() {
+        // Un solo LocalDate.now() per tutta l'operazione
+        List<AnnuncioVendita> rimossi = bacheca.rimuoviAnnunciScaduti(LocalDate.now());
+        // Gli annunci scaduti escono dallo heap: restano consultabili nell'archivio
+        archivio.archiviaTutti(rimossi);
+        return rimossi;
+    }
+
+    @Override
+    public ArchivioAnnunci getArchivio() {
+        return archivio;
+    }
+
     @Override
     public void stampaTuttiAnnunci() {
-        // Recupera gli annunci in formato array
-        Annuncio[] elenco = bacheca.getAnnunci();
+        // Fotografia immutabile degli annunci (nessuna copia)
+        FotografiaBacheca elenco = bacheca.getFotografia();
 
-        if (elenco.length == 0) {
+        if (elenco.isVuota()) {
             System.out.println("Nessun annuncio presente in bacheca.");
             return;
         }
@@ -152,21 +212,18 @@ public class GestoreBachecaImpl implements GestoreBacheca {
 
     @Override
     public boolean rimuoviAnnuncio(int id, String emailUtente) {
-        // Ricerca l'annuncio con quell'id e controlla la proprietà
-        for (Annuncio annuncio : bacheca.getAnnunci()) {
-            if (annuncio.getId() == id) {
-                if (annuncio.getUtente().getEmail().equals(emailUtente)) {
-                    // Effettiva rimozione delegata a Bacheca
-                    bacheca.rimuoviAnnuncio(id, annuncio.getUtente());
-                    return true;
-                } else {
-                    throw new IllegalArgumentException(
-                        "Utente non autorizzato a rimuovere questo annuncio"
-                    );
-                }
-            }
+        // Ricerca l'annuncio con quell'id (indice della bacheca) e controlla la proprietà
+        Annuncio annuncio = bacheca.cercaAnnuncioPerId(id);
+        if (annuncio == null) {
+            throw new IllegalArgumentException("Annuncio con ID " + id + " non trovato");
         }
-        throw new IllegalArgumentException("Annuncio con ID " + id + " non trovato");
+        if (!annuncio.getUtente().getEmail().equals(emailUtente)) {
+            throw new IllegalArgumentException(
+                "Utente non autorizzato a rimuovere questo annuncio"
+            );
+        }
+        // Effettiva rimozione delegata a Bacheca
+        return bacheca.rimuoviAnnuncio(id, annuncio.getUtente());
     }
 
     // ---------------------------------------------------------------
@@ -178,13 +235,38 @@ public class GestoreBachecaImpl implements GestoreBacheca {
             throw new IllegalArgumentException("Il percorso del file non può essere nullo o vuoto.");
         }
 
+        // Salvo gli annunci da una fotografia coerente della bacheca
+        scriviAnnunci(filePath, bacheca.getFotografia());
+
+        // Gli annunci scaduti archiviati non sono più in bacheca: senza il
+        // file dell'archivio il salvataggio li cancellerebbe per sempre
+        Path fileArchivio = Path.of(fileArchivio(filePath));
+        if (archivio.size() > 0) {
+            scriviAnnunci(fileArchivio.toString(), archivio);
+        } else {
+            Files.deleteIfExists(fileArchivio);
+        }
+    }
+
+    /**
+     * Percorso del file dell'archivio associato a un file della bacheca:
+     * "annunci.csv" -> "annunci-archivio.csv".
+     */
+    static String fileArchivio(String filePath) {
+        if (filePath.regionMatches(true, filePath.length() - 4, ".csv", 0, 4)) {
+            return filePath.substring(0, filePath.length() - 4) + "-archivio.csv";
+        }
+        return filePath + "-archivio";
+    }
+
+    private void scriviAnnunci(String filePath, Iterable<? extends Annuncio> annunci) throws IOException {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
             // Intestazione generica del file
             writer.write("Bacheca Annunci Acquisto/Vendita");
             writer.newLine();
 
             // Salvo ogni annuncio con un formato CSV-like
-            for (Annuncio annuncio : bacheca) {
+            for (Annuncio annuncio : annunci) {
                 writer.write(serializeAnnuncio(annuncio));
                 writer.newLine();
             }
@@ -221,20 +303,49 @@ public class GestoreBachecaImpl implements GestoreBacheca {
     // LETTURA DA FILE
     // ---------------------------------------------------------------
     @Override
-    public Bacheca leggiDaFile(String filePath) throws IOException, GestoreBachecaException {
+    public BachecaAnnunci leggiDaFile(String filePath) throws IOException, GestoreBachecaException {
         if (filePath == null || filePath.isBlank()) {
             throw new IllegalArgumentException("Il percorso del file non può essere nullo o vuoto.");
         }
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            return leggiDaReader(reader);
+            leggiDaReader(reader);
+        }
+
+        // L'archivio salvato accanto al file sostituisce quello in memoria
+        archivio.svuota();
+        Path fileArchivio = Path.of(fileArchivio(filePath));
+        if (Files.exists(fileArchivio)) {
+            try (BufferedReader reader = Files.newBufferedReader(fileArchivio)) {
+                leggiAnnunci(reader, annuncio -> {
+                    if (annuncio instanceof AnnuncioVendita) {
+                        archivio.archivia(annuncio);
+                    }
+                });
+            }
         }
+        return this.bacheca;
     }
 
     @Override
-    public Bacheca leggiDaReader(BufferedReader reader) throws IOException, GestoreBachecaException {
+    public BachecaAnnunci leggiDaReader(BufferedReader reader) throws IOException, GestoreBachecaException {
         bacheca.svuotaBacheca();  // Svuota la bacheca prima di caricare i nuovi annunci
 
+        int maxId = leggiAnnunci(reader, bacheca::aggiungiAnnuncio);
+
+        // Reset del contatore ID solo dopo il caricamento di tutti gli annunci
+        Annuncio.resetIdCounter(maxId + 1);
+
+        return this.bacheca;
+    }
+
+    /**
+     * Legge gli annunci dopo l'intestazione e li passa alla destinazione,
+     * saltando quelli malformati.
+     * @return l'ID più alto letto
+     */
+    private int leggiAnnunci(BufferedReader reader, Consumer<Annuncio> destinazione)
+            throws IOException, GestoreBachecaException {
         int maxId = 0;  // Per tenere traccia dell'ID più alto nel file
         int errori = 0;
 
@@ -250,7 +361,7 @@ public class GestoreBachecaImpl implements GestoreBacheca {
 
                 try {
                     Annuncio annuncio = parseAnnuncio(linea);  // Tenta di parsare l'annuncio
-                    bacheca.aggiungiAnnuncio(annuncio);
+                    destinazione.accept(annuncio);
 
                     // Aggiorna l'ID massimo trovato nel file
                     if (annuncio.getId() > maxId) {
@@ -264,14 +375,11 @@ public class GestoreBachecaImpl implements GestoreBacheca {
                 }
             }
 
-            // Reset del contatore ID solo dopo il caricamento di tutti gli annunci
-            Annuncio.resetIdCounter(maxId + 1);
-
             if (errori > 0) {
                 System.out.println("Sono stati saltati " + errori + " annunci per errori nei dati.");
             }
 
-            return this.bacheca;
+            return maxId;
 
         } catch (IOException e) {
             throw new IOException("Errore durante la lettura del file: " + e.getMessage(), e);
@@ -351,13 +459,226 @@ public class GestoreBachecaImpl implements GestoreBacheca {
     }
 
     @Override
-    public Annuncio cercaAnnuncioPerId(int id) {
-        for (Annuncio annuncio : bacheca.getAnnunci()) {
-            if (annuncio.getId() == id) {
-                return annuncio;
+    public List<Annuncio> cercaPerParoleChiave(List<String> tutte, List<String> almenoUna, List<String> escluse) {
+        if ((tutte == null || tutte.isEmpty()) && (almenoUna == null || almenoUna.isEmpty())) {
+            throw new IllegalArgumentException("Indicare almeno una parola chiave da cercare");
+        }
+        // Combinazione AND/OR/NOT valutata sulle posting list della bacheca
+        return bacheca.cercaPerParoleChiave(tutte, almenoUna, escluse);
+    }
+
+    @Override
+    public List<Annuncio> cercaPerParoleChiaveSimili(List<String> paroleChiave, int distanzaMassima) {
+        if (paroleChiave == null || paroleChiave.isEmpty()) {
+            throw new IllegalArgumentException("Lista parole chiave non può essere nulla o vuota");
+        }
+        if (distanzaMassima < 0 || distanzaMassima > 2) {
+            throw new IllegalArgumentException("La distanza deve essere compresa tra 0 e 2: " + distanzaMassima);
+        }
+        return bacheca.cercaPerParoleChiaveSimili(paroleChiave, distanzaMassima);
+    }
+
+    @Override
+    public PaginaAnnunci cercaPaginaPerParoleChiave(List<String> paroleChiave, OrdinamentoAnnunci ordinamento,
+                                                    int limite, String cursore) {
+        if (paroleChiave == null || paroleChiave.isEmpty()) {
+            throw new IllegalArgumentException("Lista parole chiave non può essere nulla o vuota");
+        }
+        if (ordinamento == null) {
+            throw new IllegalArgumentException("L'ordinamento non può essere nullo");
+        }
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Il numero di annunci per pagina deve essere positivo: " + limite);
+        }
+        try {
+            return bacheca.cercaPaginaPerParoleChiave(paroleChiave, ordinamento, limite, cursore);
+        } catch (BachecaException e) {
+            // Cursore non valido o di un altro ordinamento
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized List<Abbinamento> cercaAbbinamenti(AnnuncioAcquisto acquisto) {
+        if (acquisto == null) {
+            throw new IllegalArgumentException("L'annuncio di acquisto non può essere null");
+        }
+        if (abbinamenti == null) {
+            // Una sola scansione della bacheca, poi solo aggiornamenti incrementali
+            abbinamenti = new MotoreAbbinamenti(bacheca);
+        }
+        return abbinamenti.getAbbinamenti(acquisto);
+    }
+
+    @Override
+    public Stream<AbbinamentiAcquisto> abbinaTuttiGliAcquisti(int massimoPerAcquisto) {
+        if (massimoPerAcquisto <= 0) {
+            throw new IllegalArgumentException("Il numero di abbinamenti per acquisto deve essere positivo: " + massimoPerAcquisto);
+        }
+        return new AbbinatoreInBlocco(ForkJoinPool.commonPool()).abbina(bacheca.getFotografia(), massimoPerAcquisto);
+    }
+
+    @Override
+    public RicercaSalvata salvaRicerca(Utente utente, List<String> paroleChiave, Double prezzoMassimo) {
+        if (utente == null) {
+            throw new IllegalArgumentException("L'utente non può essere null");
+        }
+        if (paroleChiave == null || paroleChiave.isEmpty()) {
+            throw new IllegalArgumentException("Lista parole chiave non può essere nulla o vuota");
+        }
+        if (prezzoMassimo != null && !(prezzoMassimo >= 0)) {
+            throw new IllegalArgumentException("Il prezzo massimo non può essere negativo: " + prezzoMassimo);
+        }
+        List<String> normalizzate = new ArrayList<>(paroleChiave.size());
+        for (String parola : paroleChiave) {
+            // Stessa regola degli annunci: una parola che nessun annuncio
+            // può avere renderebbe la ricerca muta per sempre
+            String normalizzata = parola == null ? null : Annuncio.normalizzaParolaChiave(parola);
+            if (normalizzata == null || !Annuncio.isParolaChiaveValida(normalizzata)) {
+                throw new IllegalArgumentException("Parola chiave non valida: " + parola);
             }
+            normalizzate.add(normalizzata);
+        }
+        return ricerche.aggiungi(utente, normalizzate, prezzoMassimo == null ? Double.POSITIVE_INFINITY : prezzoMassimo);
+    }
+
+    @Override
+    public boolean rimuoviRicercaSalvata(int id) {
+        return ricerche.rimuovi(id);
+    }
+
+    @Override
+    public List<RicercaSalvata> getRicercheSalvate(Utente utente) {
+        return ricerche.ricercheDi(utente);
+    }
+
+    @Override
+    public void aggiungiAscoltatoreRicerche(AscoltatoreRicerche ascoltatore) {
+        if (ascoltatore == null) {
+            throw new IllegalArgumentException("L'ascoltatore non può essere null");
+        }
+        ascoltatoriRicerche.add(ascoltatore);
+    }
+
+    @Override
+    public void rimuoviAscoltatoreRicerche(AscoltatoreRicerche ascoltatore) {
+        ascoltatoriRicerche.remove(ascoltatore);
+    }
+
+    @Override
+    public List<AnnuncioAcquisto> cercaAcquirentiPerVendita(AnnuncioVendita vendita) {
+        if (vendita == null) {
+            throw new IllegalArgumentException("L'annuncio di vendita non può essere null");
+        }
+        List<AnnuncioAcquisto> acquirenti = bacheca.cercaAcquistiConBudget(vendita);
+        // Chi vende non viene avvisato dei propri acquisti
+        acquirenti.removeIf(acquisto -> acquisto.getUtente().equals(vendita.getUtente()));
+        return acquirenti;
+    }
+
+    @Override
+    public void aggiungiAscoltatoreAvvisiPrezzo(AscoltatoreAvvisiPrezzo ascoltatore) {
+        if (ascoltatore == null) {
+            throw new IllegalArgumentException("L'ascoltatore non può essere null");
+        }
+        ascoltatoriAvvisiPrezzo.add(ascoltatore);
+    }
+
+    @Override
+    public void rimuoviAscoltatoreAvvisiPrezzo(AscoltatoreAvvisiPrezzo ascoltatore) {
+        ascoltatoriAvvisiPrezzo.remove(ascoltatore);
+    }
+
+    @Override
+    public List<Annuncio> cercaTesto(String testo, int massimo) {
+        if (testo == null || testo.isBlank()) {
+            throw new IllegalArgumentException("Il testo da cercare non può essere vuoto");
+        }
+        if (massimo <= 0) {
+            throw new IllegalArgumentException("Il numero di risultati deve essere positivo: " + massimo);
+        }
+        return bacheca.cercaTesto(testo, massimo);
+    }
+
+    @Override
+    public List<SuggerimentoParola> completaParolaChiave(String prefisso, int massimo) {
+        if (prefisso == null) {
+            throw new IllegalArgumentException("Il prefisso non può essere nullo");
+        }
+        if (massimo <= 0) {
+            throw new IllegalArgumentException("Il numero di completamenti deve essere positivo: " + massimo);
+        }
+        return bacheca.completaParolaChiave(prefisso, massimo);
+    }
+
+    @Override
+    public Annuncio cercaAnnuncioPerId(int id) {
+        // Ricerca diretta tramite l'indice degli id (null se non trovato)
+        return bacheca.cercaAnnuncioPerId(id);
+    }
+
+    @Override
+    public List<Annuncio> cercaAnnunciPerEmail(String emailUtente) {
+        // Lettura diretta dall'indice per proprietario della bacheca
+        return new ArrayList<>(bacheca.getAnnunciUtente(emailUtente).getAnnunci());
+    }
+
+    // ---------------------------------------------------------------
+    // METODI DI RICERCA PER PREZZO: delegano all'indice dei prezzi della bacheca
+    // ---------------------------------------------------------------
+    @Override
+    public List<Annuncio> cercaPerPrezzo(double min, double max) {
+        controllaIntervalloPrezzo(min, max);
+        return bacheca.cercaPerPrezzo(min, max);
+    }
+
+    @Override
+    public List<AnnuncioVendita> cercaVenditePerPrezzo(double min, double max) {
+        controllaIntervalloPrezzo(min, max);
+        return bacheca.cercaVenditePerPrezzo(min, max);
+    }
+
+    @Override
+    public List<AnnuncioVendita> cercaVenditeDisponibili(double min, double max) {
+        controllaIntervalloPrezzo(min, max);
+        return bacheca.cercaVenditeDisponibili(min, max, LocalDate.now());
+    }
+
+    @Override
+    public StatisticheVendite getStatisticheVendite() {
+        return bacheca.getStatisticheVendite(LocalDate.now());
+    }
+
+    @Override
+    public List<AnnuncioVendita> cercaVenditePiuEconomiche(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Il numero di annunci richiesti non può essere negativo");
+        }
+        return bacheca.getVenditePiuEconomiche(n);
+    }
+
+    @Override
+    public AnnuncioVendita cercaVenditaPiuEconomica() {
+        return bacheca.getVenditaPiuEconomica();
+    }
+
+    @Override
+    public AnnuncioVendita cercaVenditaPiuEconomica(String parolaChiave, double budget) {
+        if (parolaChiave == null || parolaChiave.isBlank()) {
+            throw new IllegalArgumentException("La parola chiave non può essere vuota");
+        }
+        return bacheca.getVenditaPiuEconomica(parolaChiave, budget);
+    }
+
+    @Override
+    public AnnuncioVendita cercaVenditaPiuCostosa() {
+        return bacheca.getVenditaPiuCostosa();
+    }
+
+    private void controllaIntervalloPrezzo(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new IllegalArgumentException("Intervallo di prezzo non valido: " + min + " - " + max);
         }
-        return null;  // Restituisce null se l'annuncio non è trovato
     }
 
     // Aggiunta di una nuova parola chiave ad un annuncio già esistente
@@ -369,19 +690,20 @@ public class GestoreBachecaImpl implements GestoreBacheca {
             throw new GestoreBachecaException("Annuncio con ID " + id + " non trovato.");
         }
 
-        // Crea una nuova lista con le parole esistenti
-        List<String> paroleEsistenti = new ArrayList<>(annuncio.getParoleChiave());
-        paroleEsistenti.addAll(nuoveParole);
+        // Crea una nuova lista con le parole esistenti seguite da quelle nuove
+        List<String> parole = new ArrayList<>(annuncio.getParoleChiave());
+        parole.addAll(nuoveParole);
 
-        // Rimuove eventuali duplicati
-        List<String> paroleUniche = new ArrayList<>(new HashSet<>(paroleEsistenti));
-        annuncio.setParoleChiave(paroleUniche);
+        // La modifica passa dalla bacheca per mantenere aggiornato l'indice delle
+        // parole chiave; l'annuncio normalizza le nuove parole e toglie i duplicati
+        // (anche quelli che differiscono solo per maiuscole o accenti)
+        bacheca.aggiornaParoleChiave(annuncio, parole);
     }
 
     //--GUI--
 
     @Override
-    public Bacheca getBacheca() {
+    public BachecaAnnunci getBacheca() {
     return this.bacheca;
     }
 
@@ -0,0 +1,109 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import bacheca.Annuncio;
+import bacheca.Utente;
+
+/**
+ * Indice inverso delle ricerche salvate: invece di eseguire ogni ricerca
+ * sulla bacheca, è il nuovo annuncio a essere cercato tra le ricerche.
+ *
+ * Ogni ricerca è indicizzata sotto ciascuna delle sue parole chiave e,
+ * per ogni parola, le ricerche sono ordinate per prezzo massimo. Un
+ * annuncio con k parole legge quindi k voci e, per ognuna, solo le
+ * ricerche con prezzo massimo non inferiore al suo prezzo: il costo
+ * dipende dalle ricerche soddisfatte, non dal numero di ricerche salvate.
+ *
+ * I metodi sono sincronizzati: le ricerche possono essere salvate mentre
+ * altri thread aggiungono annunci.
+ *
+ * Classe di supporto interna al package: non è pensata per l'uso esterno.
+ */
+final class IndiceRicerche {
+
+    // Parola chiave -> prezzo massimo -> ricerche con quella parola e quel prezzo massimo
+    private final Map<String, NavigableMap<Double, List<RicercaSalvata>>> perParola = new HashMap<>();
+    private final Map<Integer, RicercaSalvata> perId = new LinkedHashMap<>();
+    private int prossimoId = 1;
+
+    /**
+     * Salva una ricerca con parole chiave già normalizzate.
+     */
+    synchronized RicercaSalvata aggiungi(Utente utente, List<String> paroleChiave, double prezzoMassimo) {
+        RicercaSalvata ricerca = new RicercaSalvata(prossimoId++, utente, new ArrayList<>(new LinkedHashSet<>(paroleChiave)), prezzoMassimo);
+        perId.put(ricerca.getId(), ricerca);
+        for (String parola : ricerca.getParoleChiave()) {
+            perParola.computeIfAbsent(parola, k -> new TreeMap<>())
+                     .computeIfAbsent(prezzoMassimo, k -> new ArrayList<>())
+                     .add(ricerca);
+        }
+        return ricerca;
+    }
+
+    /**
+     * @return true se la ricerca era presente
+     */
+    synchronized boolean rimuovi(int id) {
+        RicercaSalvata ricerca = perId.remove(id);
+        if (ricerca == null) {
+            return false;
+        }
+        for (String parola : ricerca.getParoleChiave()) {
+            NavigableMap<Double, List<RicercaSalvata>> perPrezzo = perParola.get(parola);
+            List<RicercaSalvata> ricerche = perPrezzo.get(ricerca.getPrezzoMassimo());
+            ricerche.remove(ricerca);
+            // Le voci vuote vengono liberate
+            if (ricerche.isEmpty()) {
+                perPrezzo.remove(ricerca.getPrezzoMassimo());
+                if (perPrezzo.isEmpty()) {
+                    perParola.remove(parola);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce, senza ripetizioni e in ordine di id, le ricerche
+     * soddisfatte dall'annuncio.
+     */
+    synchronized List<RicercaSalvata> corrispondenti(Annuncio annuncio) {
+        if (perParola.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, RicercaSalvata> trovate = new TreeMap<>();
+        for (String parola : annuncio.getParoleChiave()) {
+            NavigableMap<Double, List<RicercaSalvata>> perPrezzo = perParola.get(parola);
+            if (perPrezzo == null) {
+                continue;
+            }
+            // Solo le ricerche con prezzo massimo >= prezzo dell'annuncio
+            for (List<RicercaSalvata> ricerche : perPrezzo.tailMap(annuncio.getPrezzo(), true).values()) {
+                for (RicercaSalvata ricerca : ricerche) {
+                    if (!ricerca.getUtente().equals(annuncio.getUtente())) {
+                        trovate.putIfAbsent(ricerca.getId(), ricerca);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(trovate.values());
+    }
+
+    synchronized List<RicercaSalvata> ricercheDi(Utente utente) {
+        List<RicercaSalvata> ricerche = new ArrayList<>();
+        for (RicercaSalvata ricerca : perId.values()) {
+            if (ricerca.getUtente().equals(utente)) {
+                ricerche.add(ricerca);
+            }
+        }
+        return ricerche;
+    }
+}
@@ -0,0 +1,303 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import bacheca.Annuncio;
+import bacheca.AnnuncioAcquisto;
+import bacheca.AnnuncioVendita;
+import bacheca.AscoltatoreBacheca;
+import bacheca.BachecaAnnunci;
+
+/**
+ * Mantiene, per ogni annuncio di acquisto in bacheca, gli annunci di
+ * vendita non venduti che hanno almeno una parola chiave in comune.
+ *
+ * Gli abbinamenti sono aggiornati in modo incrementale tramite le
+ * notifiche della Bacheca: quando un annuncio entra, esce, viene venduto
+ * o cambia parole chiave si toccano solo gli annunci del tipo opposto
+ * che condividono le sue parole (solo quelle aggiunte o tolte, se cambia
+ * parole chiave). Le parole sono confrontate tramite i codici del
+ * dizionario globale, come nella Bacheca, senza stringhe. Leggere gli
+ * abbinamenti di un acquisto non scorre quindi la bacheca: la classifica
+ * viene ordinata alla prima lettura e riusata finché i candidati o i
+ * prezzi coinvolti non cambiano.
+ *
+ * Le vendite dello stesso utente dell'acquisto non vengono proposte.
+ * I metodi sono sincronizzati: il motore può ascoltare una
+ * BachecaConcorrente, i cui segmenti notificano da thread diversi.
+ */
+public class MotoreAbbinamenti implements AscoltatoreBacheca, AutoCloseable {
+
+    private final BachecaAnnunci bacheca;
+
+    // Codice della parola chiave -> vendite non vendute / acquisti con
+    // quella parola (null se nessuno)
+    private final ArrayList<Set<AnnuncioVendita>> venditePerParola = new ArrayList<>();
+    private final ArrayList<Set<AnnuncioAcquisto>> acquistiPerParola = new ArrayList<>();
+
+    // Id dell'acquisto -> vendite candidate con il numero di parole in comune
+    private final Map<Integer, Map<AnnuncioVendita, Integer>> candidati = new HashMap<>();
+
+    // Id dell'acquisto -> classifica già ordinata (assente se da ricalcolare)
+    private final Map<Integer, List<Abbinamento>> classifiche = new HashMap<>();
+
+    // Id dell'annuncio -> codici delle parole con cui è indicizzato qui
+    // (per toglierle anche dopo che l'annuncio le ha cambiate)
+    private final Map<Integer, int[]> paroleIndicizzate = new HashMap<>();
+
+    /**
+     * Si registra sulla bacheca e indicizza gli annunci già presenti.
+     *
+     * @param bacheca la bacheca da seguire (non null)
+     */
+    public MotoreAbbinamenti(BachecaAnnunci bacheca) {
+        if (bacheca == null) {
+            throw new IllegalArgumentException("Bacheca non può essere null");
+        }
+        this.bacheca = bacheca;
+        // Prima la registrazione, poi gli annunci esistenti: un annuncio
+        // aggiunto nel frattempo viene visto due volte, ma l'inserimento
+        // è idempotente
+        bacheca.aggiungiAscoltatore(this);
+        for (Annuncio annuncio : bacheca) {
+            annuncioAggiunto(annuncio);
+        }
+    }
+
+    /**
+     * Restituisce le vendite abbinate all'acquisto, dalla più rilevante:
+     * più parole chiave in comune, poi entro il budget, poi con il prezzo
+     * più vicino al budget.
+     *
+     * @param acquisto l'annuncio di acquisto
+     * @return gli abbinamenti, non modificabili (lista vuota se l'acquisto
+     *         non è in bacheca)
+     */
+    public synchronized List<Abbinamento> getAbbinamenti(AnnuncioAcquisto acquisto) {
+        if (acquisto == null) {
+            return List.of();
+        }
+        Map<AnnuncioVendita, Integer> trovati = candidati.get(acquisto.getId());
+        if (trovati == null) {
+            return List.of();
+        }
+        return classifiche.computeIfAbsent(acquisto.getId(), id -> {
+            List<Abbinamento> abbinamenti = new ArrayList<>(trovati.size());
+            for (Map.Entry<AnnuncioVendita, Integer> voce : trovati.entrySet()) {
+                abbinamenti.add(new Abbinamento(voce.getKey(), voce.getValue(), acquisto.getPrezzo()));
+            }
+            abbinamenti.sort(Abbinamento.PER_RILEVANZA);
+            return List.copyOf(abbinamenti);
+        });
+    }
+
+    /**
+     * Smette di seguire la bacheca.
+     */
+    @Override
+    public void close() {
+        bacheca.rimuoviAscoltatore(this);
+    }
+
+    // ------------------------------------------------------------------
+    // METODI: notifiche della bacheca
+    // ------------------------------------------------------------------
+    @Override
+    public synchronized void annuncioAggiunto(Annuncio annuncio) {
+        if (!paroleIndicizzate.containsKey(annuncio.getId())) {
+            indicizza(annuncio);
+        }
+    }
+
+    @Override
+    public synchronized void annuncioRimosso(Annuncio annuncio) {
+        deindicizza(annuncio);
+    }
+
+    @Override
+    public synchronized void annuncioModificato(Annuncio annuncio) {
+        // Prezzo, testo e scadenza non cambiano i candidati: si reindicizza
+        // solo se cambiano le parole chiave o lo stato "venduto"
+        int[] prima = paroleIndicizzate.get(annuncio.getId());
+        if (!daIndicizzare(annuncio)) {
+            deindicizza(annuncio);
+            return;
+        }
+        if (prima == null) {
+            indicizza(annuncio);
+            return;
+        }
+        // Si applicano solo le parole tolte e quelle aggiunte
+        int[] dopo = annuncio.getCodiciParoleChiave();
+        boolean cambiate = false;
+        for (int codice : prima) {
+            if (!contiene(dopo, codice)) {
+                rimuoviParola(annuncio, codice);
+                cambiate = true;
+            }
+        }
+        for (int codice : dopo) {
+            if (!contiene(prima, codice)) {
+                aggiungiParola(annuncio, codice);
+                cambiate = true;
+            }
+        }
+        if (cambiate) {
+            paroleIndicizzate.put(annuncio.getId(), dopo);
+        } else {
+            // Il prezzo potrebbe essere cambiato: le classifiche che lo
+            // contengono vanno riordinate
+            invalidaClassifiche(annuncio, prima);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    // Le vendite già vendute non vengono proposte
+    private static boolean daIndicizzare(Annuncio annuncio) {
+        return !(annuncio instanceof AnnuncioVendita vendita) || !vendita.isVenduto();
+    }
+
+    private void indicizza(Annuncio annuncio) {
+        if (!daIndicizzare(annuncio)) {
+            return;
+        }
+        int[] codici = annuncio.getCodiciParoleChiave();
+        paroleIndicizzate.put(annuncio.getId(), codici);
+        if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            candidati.put(acquisto.getId(), new HashMap<>());
+        }
+        for (int codice : codici) {
+            aggiungiParola(annuncio, codice);
+        }
+    }
+
+    private void deindicizza(Annuncio annuncio) {
+        int[] codici = paroleIndicizzate.remove(annuncio.getId());
+        if (codici == null) {
+            return;
+        }
+        if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            // I candidati dell'acquisto vengono scartati tutti insieme
+            candidati.remove(acquisto.getId());
+            classifiche.remove(acquisto.getId());
+            for (int codice : codici) {
+                rimuoviDa(acquistiPerParola, codice, acquisto);
+            }
+        } else {
+            for (int codice : codici) {
+                rimuoviParola(annuncio, codice);
+            }
+        }
+    }
+
+    /**
+     * Aggiunge l'annuncio (già indicizzato) all'indice della parola e
+     * incrementa le parole in comune con gli annunci del tipo opposto che
+     * la contengono, togliendo le classifiche che cambiano.
+     */
+    private void aggiungiParola(Annuncio annuncio, int codice) {
+        if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            voce(acquistiPerParola, codice).add(acquisto);
+            Map<AnnuncioVendita, Integer> trovati = candidati.get(acquisto.getId());
+            for (AnnuncioVendita vendita : annunci(venditePerParola, codice)) {
+                if (abbinabili(acquisto, vendita)) {
+                    trovati.merge(vendita, 1, Integer::sum);
+                }
+            }
+            classifiche.remove(acquisto.getId());
+        } else if (annuncio instanceof AnnuncioVendita vendita) {
+            voce(venditePerParola, codice).add(vendita);
+            for (AnnuncioAcquisto acquisto : annunci(acquistiPerParola, codice)) {
+                if (abbinabili(acquisto, vendita)) {
+                    candidati.get(acquisto.getId()).merge(vendita, 1, Integer::sum);
+                    classifiche.remove(acquisto.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Operazione inversa di aggiungiParola: decrementa le parole in comune
+     * e toglie il candidato quando arrivano a zero.
+     */
+    private void rimuoviParola(Annuncio annuncio, int codice) {
+        if (annuncio instanceof AnnuncioAcquisto acquisto) {
+            rimuoviDa(acquistiPerParola, codice, acquisto);
+            Map<AnnuncioVendita, Integer> trovati = candidati.get(acquisto.getId());
+            for (AnnuncioVendita vendita : annunci(venditePerParola, codice)) {
+                trovati.computeIfPresent(vendita, (v, n) -> n == 1 ? null : n - 1);
+            }
+            classifiche.remove(acquisto.getId());
+        } else if (annuncio instanceof AnnuncioVendita vendita) {
+            rimuoviDa(venditePerParola, codice, vendita);
+            for (AnnuncioAcquisto acquisto : annunci(acquistiPerParola, codice)) {
+                if (abbinabili(acquisto, vendita)) {
+                    candidati.get(acquisto.getId()).computeIfPresent(vendita, (v, n) -> n == 1 ? null : n - 1);
+                    classifiche.remove(acquisto.getId());
+                }
+            }
+        }
+    }
+
+    // Toglie le classifiche in cui l'annuncio compare (o la sua, se è un acquisto)
+    private void invalidaClassifiche(Annuncio annuncio, int[] codici) {
+        if (annuncio instanceof AnnuncioAcquisto) {
+            classifiche.remove(annuncio.getId());
+            return;
+        }
+        if (classifiche.isEmpty()) {
+            return;
+        }
+        for (int codice : codici) {
+            for (AnnuncioAcquisto acquisto : annunci(acquistiPerParola, codice)) {
+                classifiche.remove(acquisto.getId());
+            }
+        }
+    }
+
+    private static boolean abbinabili(AnnuncioAcquisto acquisto, AnnuncioVendita vendita) {
+        return !acquisto.getUtente().equals(vendita.getUtente());
+    }
+
+    // Le parole di un annuncio sono poche: basta una scansione
+    private static boolean contiene(int[] codici, int codice) {
+        for (int c : codici) {
+            if (c == codice) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> Set<T> annunci(ArrayList<Set<T>> indice, int codice) {
+        Set<T> annunci = codice < indice.size() ? indice.get(codice) : null;
+        return annunci != null ? annunci : Set.of();
+    }
+
+    private static <T> Set<T> voce(ArrayList<Set<T>> indice, int codice) {
+        while (indice.size() <= codice) {
+            indice.add(null);
+        }
+        Set<T> annunci = indice.get(codice);
+        if (annunci == null) {
+            annunci = new HashSet<>();
+            indice.set(codice, annunci);
+        }
+        return annunci;
+    }
+
+    private static <T> void rimuoviDa(ArrayList<Set<T>> indice, int codice, T annuncio) {
+        Set<T> annunci = codice < indice.size() ? indice.get(codice) : null;
+        if (annunci != null && annunci.remove(annuncio) && annunci.isEmpty()) {
+            indice.set(codice, null);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package controller;
+
+import java.util.List;
+
+import bacheca.Utente;
+
+/**
+ * Ricerca per parole chiave salvata da un utente: viene avvisato quando
+ * entra in bacheca un annuncio con almeno una delle parole chiave e
+ * prezzo non superiore al prezzo massimo (se indicato).
+ */
+public final class RicercaSalvata {
+
+    private final int id;
+    private final Utente utente;
+    private final List<String> paroleChiave;
+    private final double prezzoMassimo;
+
+    RicercaSalvata(int id, Utente utente, List<String> paroleChiave, double prezzoMassimo) {
+        this.id = id;
+        this.utente = utente;
+        this.paroleChiave = List.copyOf(paroleChiave);
+        this.prezzoMassimo = prezzoMassimo;
+    }
+
+    // =================== GETTERS ===================
+
+    public int getId() {
+        return id;
+    }
+
+    public Utente getUtente() {
+        return utente;
+    }
+
+    /**
+     * @return le parole chiave in forma normalizzata, non modificabili
+     */
+    public List<String> getParoleChiave() {
+        return paroleChiave;
+    }
+
+    /**
+     * @return il prezzo massimo, oppure Double.POSITIVE_INFINITY se non indicato
+     */
+    public double getPrezzoMassimo() {
+        return prezzoMassimo;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " " + String.join(", ", paroleChiave)
+            + (prezzoMassimo == Double.POSITIVE_INFINITY ? "" : " (max " + prezzoMassimo + " EUR)");
+    }
+}
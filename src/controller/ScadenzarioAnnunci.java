@@ -0,0 +1,106 @@
+package controller;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import bacheca.AnnuncioVendita;
+
+/**
+ * Rimuove in background gli annunci di vendita scaduti.
+ *
+ * Il controllo viene eseguito all'avvio e poi a ogni mezzanotte (ora
+ * locale), cioè solo quando un annuncio può effettivamente scadere.
+ * La rimozione usa l'indice delle scadenze della Bacheca, quindi non
+ * scorre tutti gli annunci.
+ *
+ * La Bacheca non è thread-safe: la rimozione viene sempre eseguita
+ * tramite l'Executor indicato nel costruttore (ad esempio
+ * SwingUtilities::invokeLater nell'interfaccia grafica), che deve essere
+ * lo stesso thread che usa la bacheca.
+ */
+public class ScadenzarioAnnunci implements AutoCloseable {
+
+    private final GestoreBacheca gestoreBacheca;
+    private final Executor esecutore;
+    private final Consumer<List<AnnuncioVendita>> archivio;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * @param gestoreBacheca il gestore della bacheca da controllare (non null)
+     * @param esecutore      l'Executor su cui eseguire la rimozione (non null)
+     * @param archivio       riceve gli annunci rimossi, se non vuoti (può essere null)
+     */
+    public ScadenzarioAnnunci(GestoreBacheca gestoreBacheca, Executor esecutore,
+                              Consumer<List<AnnuncioVendita>> archivio) {
+        if (gestoreBacheca == null) {
+            throw new IllegalArgumentException("GestoreBacheca non può essere null");
+        }
+        if (esecutore == null) {
+            throw new IllegalArgumentException("Executor non può essere null");
+        }
+        this.gestoreBacheca = gestoreBacheca;
+        this.esecutore = esecutore;
+        this.archivio = archivio;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scadenzario-annunci");
+            t.setDaemon(true);  // non impedisce la chiusura dell'applicazione
+            return t;
+        });
+    }
+
+    /**
+     * Esegue subito un controllo e pianifica i successivi a ogni mezzanotte.
+     */
+    public void avvia() {
+        timer.execute(this::eseguiEPianifica);
+    }
+
+    /**
+     * Rimuove gli annunci scaduti e li passa all'archivio.
+     * Deve essere chiamato sul thread che usa la bacheca.
+     *
+     * @return gli annunci rimossi
+     */
+    public List<AnnuncioVendita> controllaScadenze() {
+        List<AnnuncioVendita> rimossi = gestoreBacheca.rimuoviAnnunciScaduti();
+        if (archivio != null && !rimossi.isEmpty()) {
+            archivio.accept(rimossi);
+        }
+        return rimossi;
+    }
+
+    /**
+     * Ferma i controlli pianificati.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------
+    // METODI PRIVATI
+    // ------------------------------------------------------------------
+
+    private void eseguiEPianifica() {
+        esecutore.execute(this::controllaScadenze);
+        try {
+            timer.schedule(this::eseguiEPianifica, millisecondiAMezzanotte(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Scadenzario chiuso nel frattempo: nessun altro controllo
+        }
+    }
+
+    private static long millisecondiAMezzanotte() {
+        LocalDateTime adesso = LocalDateTime.now();
+        LocalDateTime mezzanotte = adesso.toLocalDate().plusDays(1).atStartOfDay();
+        // Piccolo margine per essere sicuri di essere già nel nuovo giorno
+        return Duration.between(adesso, mezzanotte).toMillis() + 1000;
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.Arrays;
 import java.util.List;
 
+import bacheca.Annuncio;
 import bacheca.AnnuncioAcquisto;
 import bacheca.Utente;
 import eccezioni.DatiNonValidiException;
@@ -439,4 +440,67 @@ public class TestAnnuncioAcquisto {
         
         assertEquals(annuncio1.hashCode(), annuncio2.hashCode());
     }
+
+    /**
+     * Test di successo: verifica che gli ID generati da più thread siano tutti
+     * distinti e che un ID ripristinato da file non venga più assegnato.
+     * Testa: costruttore senza ID (generazione concorrente), costruttore con ID
+     */
+    @Test
+    public void testIdUniciConPiuThread() throws InterruptedException {
+        Utente utente = new Utente("buyer@email.com", "Compratore");
+        List<String> paroleChiave = Arrays.asList("laptop");
+        java.util.Set<Integer> ids = java.util.concurrent.ConcurrentHashMap.newKeySet();
+
+        List<Thread> threads = new java.util.ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    ids.add(new AnnuncioAcquisto("Cerco laptop", "Descrizione", 100.0, utente, paroleChiave).getId());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4000, ids.size());
+
+        // Un ID ripristinato (anche inferiore ai blocchi già distribuiti) non viene riassegnato
+        AnnuncioAcquisto corrente = new AnnuncioAcquisto("Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        AnnuncioAcquisto ripristinato = new AnnuncioAcquisto(corrente.getId() + 1, "Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        AnnuncioAcquisto nuovo = new AnnuncioAcquisto("Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        assertTrue(nuovo.getId() > ripristinato.getId());
+    }
+
+    // Test per verificare la normalizzazione delle parole chiave
+    @Test
+    public void testNormalizzazioneParoleChiave() {
+        Utente utente = new Utente("buyer@email.com", "Compratore");
+        AnnuncioAcquisto annuncio = new AnnuncioAcquisto("Cerco caffettiera", "Descrizione", 30.0, utente,
+            Arrays.asList("  Caffè ", "MOKA", "caffe", "Città Vecchia"));
+
+        // Spazi agli estremi, accenti e maiuscole vengono tolti; i duplicati risultanti eliminati
+        assertEquals(Arrays.asList("caffe", "moka", "citta vecchia"), annuncio.getParoleChiave());
+        assertTrue(annuncio.contieneParolaChiave("CAFFÈ"));
+        assertTrue(annuncio.contieneParolaChiave("moka"));
+        assertThrows(DatiNonValidiException.class, () -> annuncio.setParoleChiave(Arrays.asList("   ")));
+        assertThrows(DatiNonValidiException.class, () -> annuncio.setParoleChiave(Arrays.asList("moka", null)));
+    }
+
+    // Test per verificare che ripristinare un ID già assegnato (ad esempio
+    // ricaricando un file) non interrompa la sequenza degli ID del thread
+    @Test
+    public void testIdConsecutiviDopoRipristinoIdInUso() {
+        Utente utente = new Utente("buyer@email.com", "Compratore");
+        List<String> paroleChiave = Arrays.asList("laptop");
+        Annuncio.resetIdCounter(1_000_000);
+        AnnuncioAcquisto primo = new AnnuncioAcquisto("Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        AnnuncioAcquisto secondo = new AnnuncioAcquisto("Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        new AnnuncioAcquisto(primo.getId(), "Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        AnnuncioAcquisto terzo = new AnnuncioAcquisto("Cerco laptop", "Descrizione", 100.0, utente, paroleChiave);
+        assertEquals(secondo.getId() + 1, terzo.getId());
+    }
 }
\ No newline at end of file
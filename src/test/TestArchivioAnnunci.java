@@ -0,0 +1,109 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import bacheca.Annuncio;
+import bacheca.AnnuncioAcquisto;
+import bacheca.AnnuncioVendita;
+import bacheca.ArchivioAnnunci;
+import bacheca.Utente;
+import eccezioni.BachecaException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test unitari per la classe ArchivioAnnunci.
+ * Verifica la codifica fuori heap degli annunci e la loro ricostruzione.
+ */
+public class TestArchivioAnnunci {
+
+    private ArchivioAnnunci archivio;
+    private Utente utente;
+
+    @BeforeEach
+    public void setUp() {
+        archivio = new ArchivioAnnunci(256);
+        utente = new Utente("mario.rossi@email.com", "Mario Rossi");
+    }
+
+    // Test per verificare che un annuncio ricostruito abbia gli stessi campi
+    @Test
+    public void testArchiviaECerca() {
+        AnnuncioVendita vendita = new AnnuncioVendita(
+            900, "Vendo città", "Descrizione con accenti: è così", 123.5, utente,
+            Arrays.asList("bici", "sport"), true, LocalDate.now().minusDays(2), true
+        );
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(
+            901, "Cerco laptop", "Per lavoro", 800.0, utente, Arrays.asList("laptop")
+        );
+        archivio.archivia(vendita);
+        archivio.archivia(acquisto);
+
+        AnnuncioVendita letta = (AnnuncioVendita) archivio.cerca(900);
+        assertNotSame(vendita, letta);
+        assertEquals(vendita, letta);
+        assertEquals("Vendo città", letta.getTitolo());
+        assertEquals("Descrizione con accenti: è così", letta.getDescrizione());
+        assertEquals(123.5, letta.getPrezzo());
+        assertEquals(utente.getEmail(), letta.getUtente().getEmail());
+        assertEquals(Arrays.asList("bici", "sport"), letta.getParoleChiave());
+        assertEquals(vendita.getDataScadenza(), letta.getDataScadenza());
+        assertTrue(letta.isVenduto());
+
+        assertTrue(archivio.cerca(901) instanceof AnnuncioAcquisto);
+        assertNull(archivio.cerca(902));
+        assertEquals(2, archivio.size());
+        assertThrows(BachecaException.class, () -> archivio.archivia(null));
+    }
+
+    // Test per verificare sostituzione, rimozione e compattazione degli slab
+    @Test
+    public void testRimozioneECompattazione() {
+        for (int id = 1000; id < 1100; id++) {
+            archivio.archivia(new AnnuncioAcquisto(id, "Cerco laptop", "Per lavoro", id, utente, Arrays.asList("laptop")));
+        }
+        // Sostituzione di un record esistente
+        archivio.archivia(new AnnuncioAcquisto(1000, "Cerco tablet", "Per studio", 50.0, utente, Arrays.asList("tablet")));
+        assertEquals("Cerco tablet", archivio.cerca(1000).getTitolo());
+        assertEquals(100, archivio.size());
+
+        // Rimuove abbastanza record da provocare la compattazione
+        for (int id = 1001; id < 1090; id++) {
+            assertTrue(archivio.rimuovi(id));
+        }
+        assertFalse(archivio.rimuovi(1001));
+
+        List<Integer> ids = new ArrayList<>();
+        for (Annuncio annuncio : archivio) {
+            ids.add(annuncio.getId());
+        }
+        assertEquals(11, ids.size());
+        assertTrue(ids.contains(1000));
+        assertTrue(ids.contains(1099));
+        assertEquals(1095.0, archivio.cerca(1095).getPrezzo());
+
+        archivio.svuota();
+        assertEquals(0, archivio.size());
+        assertFalse(archivio.iterator().hasNext());
+    }
+
+    // Test per verificare che la ricostruzione non consumi ID
+    @Test
+    public void testRicostruzioneNonConsumaId() {
+        AnnuncioAcquisto primo = new AnnuncioAcquisto("Cerco laptop", "Per lavoro", 800.0, utente, Arrays.asList("laptop"));
+        archivio.archivia(new AnnuncioAcquisto(1, "Cerco tablet", "Per studio", 50.0, utente, Arrays.asList("tablet")));
+        AnnuncioAcquisto secondo = new AnnuncioAcquisto("Cerco laptop", "Per lavoro", 800.0, utente, Arrays.asList("laptop"));
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(archivio.cerca(1));
+        }
+        AnnuncioAcquisto terzo = new AnnuncioAcquisto("Cerco laptop", "Per lavoro", 800.0, utente, Arrays.asList("laptop"));
+        assertEquals(secondo.getId() + 1, terzo.getId());
+        assertTrue(secondo.getId() > primo.getId());
+    }
+}
\ No newline at end of file
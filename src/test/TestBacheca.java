@@ -5,9 +5,16 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
+import bacheca.AscoltatoreBacheca;
 import bacheca.Bacheca;
+import bacheca.FotografiaBacheca;
+import bacheca.OrdinamentoAnnunci;
+import bacheca.PaginaAnnunci;
+import bacheca.StatisticheVendite;
+import bacheca.SuggerimentoParola;
 import bacheca.Annuncio;
 import bacheca.AnnuncioAcquisto;
 import bacheca.AnnuncioVendita;
@@ -288,4 +295,870 @@ public class TestBacheca {
         bacheca.aggiungiAnnuncio(annuncio2);
         assertEquals(2, bacheca.getAnnunci().length);
     }
+
+    // Test per verificare che l'indice delle parole chiave segua le rimozioni
+    @Test
+    public void testCercaPerParoleChiaveDopoRimozione() {
+        AnnuncioAcquisto annuncio1 = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop", "computer")
+        );
+
+        AnnuncioAcquisto annuncio2 = new AnnuncioAcquisto(
+            "Cerco computer",
+            "Cerco computer da gaming",
+            1200.0,
+            utente2,
+            Arrays.asList("computer", "gaming")
+        );
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+
+        bacheca.rimuoviAnnuncio(annuncio1.getId(), utente1);
+        ArrayList<Annuncio> risultati = bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("computer", "laptop")));
+        assertEquals(1, risultati.size());
+        assertTrue(risultati.contains(annuncio2));
+
+        bacheca.rimuoviAnnuncio(List.of(annuncio2));
+        assertEquals(0, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("computer"))).size());
+    }
+
+    // Test per verificare che l'indice delle parole chiave segua le modifiche
+    @Test
+    public void testAggiornaParoleChiave() {
+        AnnuncioAcquisto annuncio = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        bacheca.aggiungiAnnuncio(annuncio);
+        bacheca.aggiornaParoleChiave(annuncio, Arrays.asList("notebook", "usato"));
+
+        assertEquals(0, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("laptop"))).size());
+        assertEquals(1, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("usato"))).size());
+
+        bacheca.svuotaBacheca();
+        assertEquals(0, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("usato"))).size());
+    }
+
+    // Test per verificare la ricerca per id dopo rimozioni intermedie
+    @Test
+    public void testCercaAnnuncioPerIdDopoRimozione() {
+        AnnuncioAcquisto annuncio1 = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        AnnuncioAcquisto annuncio2 = new AnnuncioAcquisto(
+            "Cerco tablet",
+            "Cerco tablet per studio",
+            400.0,
+            utente2,
+            Arrays.asList("tablet")
+        );
+
+        AnnuncioAcquisto annuncio3 = new AnnuncioAcquisto(
+            "Cerco monitor",
+            "Cerco monitor 27 pollici",
+            200.0,
+            utente2,
+            Arrays.asList("monitor")
+        );
+
+        bacheca.aggiungiAnnuncio(annuncio1);
+        bacheca.aggiungiAnnuncio(annuncio2);
+        bacheca.aggiungiAnnuncio(annuncio3);
+
+        // Il proprietario sbagliato non può rimuovere l'annuncio
+        assertFalse(bacheca.rimuoviAnnuncio(annuncio1.getId(), utente2));
+        assertTrue(bacheca.rimuoviAnnuncio(annuncio1.getId(), utente1));
+
+        assertNull(bacheca.cercaAnnuncioPerId(annuncio1.getId()));
+        assertEquals(annuncio2, bacheca.cercaAnnuncioPerId(annuncio2.getId()));
+        assertEquals(annuncio3, bacheca.cercaAnnuncioPerId(annuncio3.getId()));
+        assertEquals(2, bacheca.getAnnunci().length);
+    }
+
+    // Test per verificare che venga rifiutato un annuncio già presente
+    @Test
+    public void testAggiungiAnnuncioDuplicato() {
+        AnnuncioAcquisto annuncio = new AnnuncioAcquisto(
+            50,
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        // Stesso id ma oggetto diverso: è considerato un duplicato
+        AnnuncioAcquisto copia = new AnnuncioAcquisto(
+            50,
+            "Cerco tablet",
+            "Cerco tablet per studio",
+            400.0,
+            utente2,
+            Arrays.asList("tablet")
+        );
+
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        Exception exception = assertThrows(BachecaException.class, () -> {
+            bacheca.aggiungiAnnuncio(annuncio);
+        });
+        assertEquals("Annuncio già presente in bacheca", exception.getMessage());
+
+        assertThrows(BachecaException.class, () -> bacheca.aggiungiAnnuncio(copia));
+        assertEquals(1, bacheca.getAnnunci().length);
+        assertEquals("Cerco laptop", bacheca.cercaAnnuncioPerId(50).getTitolo());
+    }
+
+    // Test per verificare l'indice per proprietario
+    @Test
+    public void testGetAnnunciUtente() {
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        AnnuncioVendita vendita = new AnnuncioVendita(
+            "Vendo smartphone",
+            "Smartphone usato in ottime condizioni",
+            250.0,
+            utente1,
+            Arrays.asList("smartphone"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        AnnuncioAcquisto altro = new AnnuncioAcquisto(
+            "Cerco tablet",
+            "Cerco tablet per studio",
+            400.0,
+            utente2,
+            Arrays.asList("tablet")
+        );
+
+        bacheca.aggiungiAnnuncio(acquisto);
+        bacheca.aggiungiAnnuncio(vendita);
+        bacheca.aggiungiAnnuncio(altro);
+
+        assertEquals(2, bacheca.getAnnunciUtente(utente1).getNumeroAnnunci());
+        assertEquals(1, bacheca.getAnnunciUtente(utente1).getNumeroVendite());
+        assertEquals(1, bacheca.getAnnunciUtente(utente1).getNumeroAcquisti());
+        assertTrue(bacheca.getAnnunciUtente("mario.rossi@email.com").getAnnunci().contains(vendita));
+
+        bacheca.rimuoviAnnuncio(vendita.getId(), utente1);
+        assertEquals(0, bacheca.getAnnunciUtente(utente1).getNumeroVendite());
+        assertEquals(1, bacheca.getAnnunciUtente(utente1).getNumeroAcquisti());
+
+        bacheca.svuotaBacheca();
+        assertEquals(0, bacheca.getAnnunciUtente(utente2).getNumeroAnnunci());
+    }
+
+    // Test per verificare le partizioni per tipo di annuncio
+    @Test
+    public void testGetAnnunciPerTipo() {
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        AnnuncioVendita vendita = new AnnuncioVendita(
+            "Vendo smartphone",
+            "Smartphone usato in ottime condizioni",
+            250.0,
+            utente2,
+            Arrays.asList("smartphone"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        bacheca.aggiungiAnnuncio(acquisto);
+        bacheca.aggiungiAnnuncio(vendita);
+
+        assertEquals(1, bacheca.getAnnunciVendita().size());
+        assertEquals(vendita, bacheca.getAnnunciVendita().get(0));
+        assertEquals(1, bacheca.getAnnunciAcquisto().size());
+        assertEquals(acquisto, bacheca.getAnnunciAcquisto().get(0));
+        assertEquals(2, bacheca.getNumeroAnnunci());
+
+        // Le viste per tipo non sono modificabili dall'esterno
+        assertThrows(UnsupportedOperationException.class, () -> bacheca.getAnnunciVendita().clear());
+
+        bacheca.rimuoviAnnuncio(vendita.getId(), utente2);
+        assertTrue(bacheca.getAnnunciVendita().isEmpty());
+        assertEquals(1, bacheca.getNumeroAnnunci());
+    }
+
+    // Test per verificare le ricerche sull'indice dei prezzi
+    @Test
+    public void testCercaPerPrezzo() {
+        AnnuncioVendita vendita1 = new AnnuncioVendita(
+            "Vendo bici",
+            "Bici da corsa",
+            300.0,
+            utente1,
+            Arrays.asList("bici"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        AnnuncioVendita vendita2 = new AnnuncioVendita(
+            "Vendo casco",
+            "Casco taglia M",
+            50.0,
+            utente1,
+            Arrays.asList("casco"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(
+            "Cerco bici",
+            "Cerco bici usata",
+            200.0,
+            utente2,
+            Arrays.asList("bici")
+        );
+
+        bacheca.aggiungiAnnuncio(vendita1);
+        bacheca.aggiungiAnnuncio(vendita2);
+        bacheca.aggiungiAnnuncio(acquisto);
+
+        assertEquals(List.of(vendita2, vendita1), bacheca.cercaVenditePerPrezzo(0, 500));
+        assertEquals(List.of(acquisto, vendita1), bacheca.cercaPerPrezzo(100, 300));
+        assertEquals(List.of(acquisto), bacheca.cercaAcquistiPerPrezzo(100, 300));
+        assertEquals(vendita2, bacheca.getVenditaPiuEconomica());
+        assertEquals(vendita1, bacheca.getVenditaPiuCostosa());
+        assertEquals(List.of(vendita2), bacheca.getVenditePiuEconomiche(1));
+
+        assertThrows(BachecaException.class, () -> bacheca.cercaPerPrezzo(10, 5));
+    }
+
+    // Test per verificare che l'indice dei prezzi segua setPrezzo
+    @Test
+    public void testIndicePrezziDopoSetPrezzo() {
+        AnnuncioVendita vendita = new AnnuncioVendita(
+            "Vendo bici",
+            "Bici da corsa",
+            300.0,
+            utente1,
+            Arrays.asList("bici"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        bacheca.aggiungiAnnuncio(vendita);
+        vendita.setPrezzo(80.0);
+
+        assertTrue(bacheca.cercaVenditePerPrezzo(250, 350).isEmpty());
+        assertEquals(List.of(vendita), bacheca.cercaVenditePerPrezzo(50, 100));
+
+        // Dopo la rimozione la bacheca non segue più le modifiche dell'annuncio
+        bacheca.rimuoviAnnuncio(vendita.getId(), utente1);
+        vendita.setPrezzo(90.0);
+        assertTrue(bacheca.cercaVenditePerPrezzo(0, 1000).isEmpty());
+        assertNull(bacheca.getVenditaPiuEconomica());
+    }
+
+    // Test per verificare l'indice delle scadenze e la rimozione degli annunci scaduti
+    @Test
+    public void testRimuoviAnnunciScaduti() {
+        AnnuncioVendita vicina = new AnnuncioVendita(
+            "Vendo bici",
+            "Bici da corsa",
+            300.0,
+            utente1,
+            Arrays.asList("bici"),
+            false,
+            LocalDate.now().plusDays(2)
+        );
+
+        AnnuncioVendita lontana = new AnnuncioVendita(
+            "Vendo auto",
+            "Auto usata",
+            5000.0,
+            utente2,
+            Arrays.asList("auto"),
+            false,
+            LocalDate.now().plusDays(30)
+        );
+
+        bacheca.aggiungiAnnuncio(lontana);
+        bacheca.aggiungiAnnuncio(vicina);
+
+        assertEquals(vicina.getDataScadenza(), bacheca.getProssimaScadenza());
+        assertTrue(bacheca.getVenditeScadute(LocalDate.now()).isEmpty());
+
+        // Tra 10 giorni è scaduto solo il primo annuncio
+        List<AnnuncioVendita> rimossi = bacheca.rimuoviAnnunciScaduti(LocalDate.now().plusDays(10));
+        assertEquals(List.of(vicina), rimossi);
+        assertNull(bacheca.cercaAnnuncioPerId(vicina.getId()));
+        assertEquals(1, bacheca.getNumeroAnnunci());
+        assertEquals(lontana.getDataScadenza(), bacheca.getProssimaScadenza());
+
+        // Lo spostamento della scadenza aggiorna l'indice
+        lontana.setDataScadenza(LocalDate.now().plusDays(60));
+        assertTrue(bacheca.getVenditeScadute(LocalDate.now().plusDays(40)).isEmpty());
+        assertEquals(List.of(lontana), bacheca.getVenditeScadute(LocalDate.now().plusDays(61)));
+
+        assertThrows(BachecaException.class, () -> bacheca.getVenditeScadute(null));
+    }
+
+    // Test per verificare le fotografie immutabili e versionate della bacheca
+    @Test
+    public void testGetFotografia() {
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        AnnuncioVendita vendita = new AnnuncioVendita(
+            "Vendo smartphone",
+            "Smartphone usato in ottime condizioni",
+            300.0,
+            utente2,
+            Arrays.asList("smartphone"),
+            false,
+            LocalDate.now().plusDays(30)
+        );
+
+        bacheca.aggiungiAnnuncio(acquisto);
+        bacheca.aggiungiAnnuncio(vendita);
+
+        FotografiaBacheca fotografia = bacheca.getFotografia();
+        assertEquals(List.of(vendita, acquisto), fotografia.getAnnunci());
+        assertEquals(bacheca.getVersione(), fotografia.getVersione());
+
+        // Senza modifiche viene restituita la stessa istanza
+        assertSame(fotografia, bacheca.getFotografia());
+        assertThrows(UnsupportedOperationException.class, () -> fotografia.getAnnunci().remove(0));
+
+        // Dopo una rimozione la vecchia fotografia resta invariata
+        bacheca.rimuoviAnnuncio(vendita.getId(), utente2);
+        FotografiaBacheca nuova = bacheca.getFotografia();
+        assertTrue(nuova.getVersione() > fotografia.getVersione());
+        assertEquals(List.of(acquisto), nuova.getAnnunci());
+        assertEquals(2, fotografia.size());
+    }
+
+    // Test per verificare filtri e statistiche sulle colonne delle vendite
+    @Test
+    public void testVenditeDisponibiliEStatistiche() {
+        AnnuncioVendita bici = new AnnuncioVendita(
+            "Vendo bici",
+            "Bici da corsa",
+            300.0,
+            utente1,
+            Arrays.asList("bici"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        AnnuncioVendita auto = new AnnuncioVendita(
+            "Vendo auto",
+            "Auto usata",
+            5000.0,
+            utente2,
+            Arrays.asList("auto"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        // Annuncio già scaduto, caricato senza validazione della data
+        AnnuncioVendita scaduto = new AnnuncioVendita(
+            500, "Vendo moto", "Moto usata", 2000.0, utente1,
+            Arrays.asList("moto"), false, LocalDate.now().minusDays(3), true
+        );
+
+        bacheca.aggiungiAnnuncio(bici);
+        bacheca.aggiungiAnnuncio(auto);
+        bacheca.aggiungiAnnuncio(scaduto);
+
+        LocalDate oggi = LocalDate.now();
+        assertEquals(2, bacheca.cercaVenditeDisponibili(0, 10000, oggi).size());
+        assertEquals(List.of(bici), bacheca.cercaVenditeDisponibili(0, 1000, oggi));
+
+        StatisticheVendite statistiche = bacheca.getStatisticheVendite(oggi);
+        assertEquals(3, statistiche.getNumeroVendite());
+        assertEquals(1, statistiche.getNumeroScadute());
+        assertEquals(2, statistiche.getNumeroDisponibili());
+        assertEquals(2650.0, statistiche.getPrezzoMedioDisponibili(), 0.001);
+
+        // I setter aggiornano le colonne
+        bici.setVenduto(true);
+        auto.setPrezzo(800.0);
+        assertEquals(List.of(auto), bacheca.cercaVenditeDisponibili(0, 1000, oggi));
+        assertEquals(1, bacheca.getStatisticheVendite(oggi).getNumeroVendute());
+
+        // Statistiche per proprietario e dopo una rimozione
+        assertEquals(2, bacheca.getStatisticheVendite(utente1.getEmail(), oggi).getNumeroVendite());
+        bacheca.rimuoviAnnuncio(bici.getId(), utente1);
+        assertEquals(1, bacheca.getStatisticheVendite(utente1.getEmail(), oggi).getNumeroScadute());
+        assertEquals(0, bacheca.getStatisticheVendite("nessuno@email.com", oggi).getNumeroVendite());
+        assertEquals(800.0, bacheca.getStatisticheVendite(oggi).getPrezzoMassimoDisponibile(), 0.001);
+    }
+
+    // Test per verificare che le parole chiave siano condivise tra gli annunci
+    @Test
+    public void testParoleChiaveCondivise() {
+        AnnuncioAcquisto primo = new AnnuncioAcquisto(
+            "Cerco bici", "Bici da corsa", 300.0, utente1,
+            Arrays.asList(new String("bici"), "sport")
+        );
+        AnnuncioAcquisto secondo = new AnnuncioAcquisto(
+            "Cerco bici", "Bici da città", 150.0, utente2,
+            Arrays.asList(new String("bici"))
+        );
+
+        // Stringhe uguali diventano la stessa istanza del dizionario
+        assertSame(primo.getParoleChiave().get(0), secondo.getParoleChiave().get(0));
+        assertEquals(Arrays.asList("bici", "sport"), primo.getParoleChiave());
+        assertTrue(secondo.contieneParolaChiave("bici"));
+        assertFalse(secondo.contieneParolaChiave("sport"));
+        assertFalse(secondo.contieneParolaChiave("parolamaiusata"));
+        assertThrows(UnsupportedOperationException.class, () -> primo.getParoleChiave().add("altro"));
+
+        bacheca.aggiungiAnnuncio(primo);
+        bacheca.aggiungiAnnuncio(secondo);
+        assertEquals(2, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("bici"))).size());
+        assertEquals(1, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("sport", "parolamaiusata"))).size());
+    }
+
+    // Test per verificare le ricerche AND/OR/NOT sulle parole chiave
+    @Test
+    public void testCercaPerParoleChiaveCombinate() {
+        AnnuncioAcquisto a1 = new AnnuncioAcquisto("Cerco bici", "Bici rossa", 100.0, utente1, Arrays.asList("bici", "rossa"));
+        AnnuncioAcquisto a2 = new AnnuncioAcquisto("Cerco bici", "Bici blu", 120.0, utente1, Arrays.asList("bici", "blu"));
+        AnnuncioAcquisto a3 = new AnnuncioAcquisto("Cerco auto", "Auto rossa", 5000.0, utente2, Arrays.asList("auto", "rossa"));
+        bacheca.aggiungiAnnuncio(a1);
+        bacheca.aggiungiAnnuncio(a2);
+        bacheca.aggiungiAnnuncio(a3);
+
+        assertEquals(Arrays.asList(a1), bacheca.cercaPerParoleChiave(Arrays.asList("bici", "rossa"), null, null));
+        assertEquals(Arrays.asList(a2), bacheca.cercaPerParoleChiave(Arrays.asList("bici"), null, Arrays.asList("rossa")));
+        assertEquals(Arrays.asList(a1, a3), bacheca.cercaPerParoleChiave(null, Arrays.asList("rossa", "mai-vista"), null));
+        assertEquals(Arrays.asList(a3), bacheca.cercaPerParoleChiave(Arrays.asList("rossa"), Arrays.asList("auto", "blu"), null));
+        assertTrue(bacheca.cercaPerParoleChiave(Arrays.asList("bici", "mai-vista"), null, null).isEmpty());
+        assertThrows(BachecaException.class, () -> bacheca.cercaPerParoleChiave(null, null, Arrays.asList("bici")));
+
+        // L'indice segue modifiche e rimozioni
+        bacheca.aggiornaParoleChiave(a2, Arrays.asList("bici", "rossa"));
+        assertEquals(Arrays.asList(a1, a2), bacheca.cercaPerParoleChiave(Arrays.asList("rossa", "bici"), null, null));
+        bacheca.rimuoviAnnuncio(a1.getId(), utente1);
+        assertEquals(Arrays.asList(a2), bacheca.cercaPerParoleChiave(Arrays.asList("rossa", "bici"), null, null));
+    }
+
+    // Test per verificare le posting list con id distanti (più blocchi della bitmap)
+    @Test
+    public void testCercaPerParoleChiaveIdDistanti() {
+        List<Annuncio> attesi = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int id = 1_000_000 + i * 7919;
+            List<String> parole = i % 3 == 0 ? Arrays.asList("terzo", "tutti") : Arrays.asList("tutti");
+            AnnuncioAcquisto annuncio = new AnnuncioAcquisto(id, "Titolo", "Descrizione", 10.0, utente1, parole);
+            bacheca.aggiungiAnnuncio(annuncio);
+            if (i % 3 != 0) {
+                attesi.add(annuncio);
+            }
+        }
+
+        assertEquals(200, bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("tutti"))).size());
+        assertEquals(attesi, bacheca.cercaPerParoleChiave(Arrays.asList("tutti"), null, Arrays.asList("terzo")));
+        assertEquals(67, bacheca.cercaPerParoleChiave(Arrays.asList("tutti", "terzo"), null, null).size());
+    }
+
+    // Test per verificare le ricerche con parole molto frequenti e parole rare
+    @Test
+    public void testCercaPerParoleChiaveFrequenzeDiverse() {
+        List<AnnuncioAcquisto> annunci = new ArrayList<>();
+        for (int id = 1; id <= 9000; id++) {
+            List<String> parole = id % 1000 == 0 ? Arrays.asList("comune", "rara")
+                : id % 2 == 0 ? Arrays.asList("comune", "pari") : Arrays.asList("comune");
+            AnnuncioAcquisto annuncio = new AnnuncioAcquisto(id, "Titolo", "Descrizione", 10.0, utente1, parole);
+            annunci.add(annuncio);
+            bacheca.aggiungiAnnuncio(annuncio);
+        }
+
+        assertEquals(9000, bacheca.cercaPerParoleChiave(Arrays.asList("comune"), null, null).size());
+        assertEquals(4500, bacheca.cercaPerParoleChiave(Arrays.asList("comune"), null, Arrays.asList("pari", "rara")).size());
+        assertEquals(9, bacheca.cercaPerParoleChiave(Arrays.asList("comune", "rara"), null, null).size());
+
+        // Togliendo la maggior parte degli annunci le posting list si riducono
+        for (int id = 1; id <= 8990; id++) {
+            bacheca.rimuoviAnnuncio(id, utente1);
+        }
+        assertEquals(annunci.subList(8990, 9000), bacheca.cercaPerParoleChiave(Arrays.asList("comune"), null, null));
+        assertEquals(Arrays.asList(annunci.get(8999)), bacheca.cercaPerParoleChiave(null, Arrays.asList("rara"), null));
+        assertEquals(4, bacheca.cercaPerParoleChiave(Arrays.asList("pari"), null, Arrays.asList("rara")).size());
+    }
+
+    // Test per verificare che la ricerca ignori maiuscole e accenti
+    @Test
+    public void testCercaPerParoleChiaveNormalizzate() {
+        AnnuncioAcquisto annuncio = new AnnuncioAcquisto("Cerco tè", "Tè verde", 5.0, utente1, Arrays.asList("Tè", "Verde"));
+        bacheca.aggiungiAnnuncio(annuncio);
+
+        assertEquals(Arrays.asList(annuncio), bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("TE"))));
+        assertEquals(Arrays.asList(annuncio), bacheca.cercaPerParoleChiave(Arrays.asList(" verde ", "té"), null, null));
+        assertTrue(bacheca.cercaPerParoleChiave(Arrays.asList("te"), null, Arrays.asList("VERDE")).isEmpty());
+    }
+
+    // Test per verificare la ricerca full-text ordinata per rilevanza
+    @Test
+    public void testCercaTesto() {
+        AnnuncioAcquisto nelTitolo = new AnnuncioAcquisto("Cerco bicicletta da corsa", "In buono stato", 300.0, utente1, Arrays.asList("bici"));
+        AnnuncioAcquisto nellaDescrizione = new AnnuncioAcquisto("Cerco mezzo", "Una bicicletta o un motorino", 300.0, utente2, Arrays.asList("bici"));
+        AnnuncioAcquisto altro = new AnnuncioAcquisto("Cerco libri", "Libri di città e storia", 30.0, utente2, Arrays.asList("libro"));
+        bacheca.aggiungiAnnuncio(nelTitolo);
+        bacheca.aggiungiAnnuncio(nellaDescrizione);
+        bacheca.aggiungiAnnuncio(altro);
+
+        // Il titolo pesa più della descrizione; singolare e plurale coincidono
+        assertEquals(Arrays.asList(nelTitolo, nellaDescrizione), bacheca.cercaTesto("Biciclette", 10));
+        assertEquals(Arrays.asList(nelTitolo), bacheca.cercaTesto("bicicletta", 1));
+        // Accenti e parole vuote vengono ignorati
+        assertEquals(Arrays.asList(altro), bacheca.cercaTesto("della CITTA", 10));
+        assertTrue(bacheca.cercaTesto("di la", 10).isEmpty());
+
+        // L'indice segue le modifiche del testo e le rimozioni
+        altro.setTitolo("Cerco bicicletta");
+        assertEquals(3, bacheca.cercaTesto("bicicletta", 10).size());
+        bacheca.rimuoviAnnuncio(nelTitolo.getId(), utente1);
+        assertEquals(Arrays.asList(altro, nellaDescrizione), bacheca.cercaTesto("bicicletta", 10));
+
+        assertThrows(BachecaException.class, () -> bacheca.cercaTesto("  ", 10));
+        assertThrows(BachecaException.class, () -> bacheca.cercaTesto("bicicletta", 0));
+    }
+
+    // Test per verificare l'autocompletamento delle parole chiave per popolarità
+    @Test
+    public void testCompletaParolaChiave() {
+        AnnuncioAcquisto a1 = new AnnuncioAcquisto("Cerco telefono", "Telefono usato", 100.0, utente1, Arrays.asList("telefono", "tela"));
+        AnnuncioAcquisto a2 = new AnnuncioAcquisto("Cerco telefono", "Telefono nuovo", 200.0, utente2, Arrays.asList("telefono", "televisore"));
+        AnnuncioAcquisto a3 = new AnnuncioAcquisto("Cerco tv", "Televisore grande", 300.0, utente2, Arrays.asList("televisore", "casa"));
+        bacheca.aggiungiAnnuncio(a1);
+        bacheca.aggiungiAnnuncio(a2);
+        bacheca.aggiungiAnnuncio(a3);
+
+        List<SuggerimentoParola> completamenti = bacheca.completaParolaChiave("TEL", 10);
+        assertEquals(Arrays.asList("telefono", "televisore", "tela"), completamenti.stream().map(SuggerimentoParola::getParola).toList());
+        assertEquals(Arrays.asList(2, 2, 1), completamenti.stream().map(SuggerimentoParola::getNumeroAnnunci).toList());
+        assertEquals(1, bacheca.completaParolaChiave("tel", 1).size());
+        assertEquals("casa", bacheca.completaParolaChiave("", 10).get(2).getParola());
+        assertTrue(bacheca.completaParolaChiave("x", 10).isEmpty());
+
+        // I conteggi seguono rimozioni e modifiche delle parole chiave
+        bacheca.rimuoviAnnuncio(a2.getId(), utente2);
+        a1.setParoleChiave(Arrays.asList("telefono"));
+        assertEquals("[telefono (1), televisore (1)]", bacheca.completaParolaChiave("te", 10).toString());
+        bacheca.svuotaBacheca();
+        assertTrue(bacheca.completaParolaChiave("", 10).isEmpty());
+
+        assertThrows(BachecaException.class, () -> bacheca.completaParolaChiave(null, 10));
+        assertThrows(BachecaException.class, () -> bacheca.completaParolaChiave("te", 0));
+    }
+
+    // Test per verificare la ricerca che tollera errori di battitura
+    @Test
+    public void testCercaPerParoleChiaveSimili() {
+        AnnuncioAcquisto chitarra = new AnnuncioAcquisto("Cerco chitarra", "Chitarra acustica", 100.0, utente1, Arrays.asList("chitarra", "musica"));
+        AnnuncioAcquisto chitarre = new AnnuncioAcquisto("Cerco chitarre", "Chitarre usate", 200.0, utente2, Arrays.asList("chitarre"));
+        AnnuncioAcquisto auto = new AnnuncioAcquisto("Cerco auto", "Auto usata", 5000.0, utente2, Arrays.asList("auto", "moto"));
+        bacheca.aggiungiAnnuncio(chitarra);
+        bacheca.aggiungiAnnuncio(chitarre);
+        bacheca.aggiungiAnnuncio(auto);
+
+        assertTrue(bacheca.cercaPerParoleChiave(new ArrayList<>(Arrays.asList("chitara"))).isEmpty());
+        // Lettera mancante e lettere scambiate
+        assertEquals(Arrays.asList(chitarra, chitarre), bacheca.cercaPerParoleChiaveSimili(Arrays.asList("chitara"), 2));
+        assertEquals(Arrays.asList(chitarra), bacheca.cercaPerParoleChiaveSimili(Arrays.asList("MSUICA"), 1));
+        assertEquals(Arrays.asList(chitarra), bacheca.cercaPerParoleChiaveSimili(Arrays.asList("chitarra"), 0));
+        // Le parole corte tollerano al più un errore
+        assertEquals(Arrays.asList(auto), bacheca.cercaPerParoleChiaveSimili(Arrays.asList("mito"), 2));
+        assertTrue(bacheca.cercaPerParoleChiaveSimili(Arrays.asList("muta"), 2).isEmpty());
+
+        // Le parole non più usate non vengono proposte
+        bacheca.rimuoviAnnuncio(chitarre.getId(), utente2);
+        assertEquals(Arrays.asList(chitarra), bacheca.cercaPerParoleChiaveSimili(Arrays.asList("chitare"), 2));
+
+        assertThrows(BachecaException.class, () -> bacheca.cercaPerParoleChiaveSimili(Arrays.asList(), 1));
+        assertThrows(BachecaException.class, () -> bacheca.cercaPerParoleChiaveSimili(Arrays.asList("auto"), 3));
+    }
+
+    // Raccoglie tutte le pagine di una ricerca seguendo i cursori
+    private List<Annuncio> tutteLePagine(List<String> parole, OrdinamentoAnnunci ordinamento, int limite) {
+        List<Annuncio> risultati = new ArrayList<>();
+        String cursore = null;
+        do {
+            PaginaAnnunci pagina = bacheca.cercaPaginaPerParoleChiave(parole, ordinamento, limite, cursore);
+            assertTrue(pagina.getAnnunci().size() <= limite);
+            risultati.addAll(pagina.getAnnunci());
+            cursore = pagina.getCursoreSuccessivo();
+        } while (cursore != null);
+        return risultati;
+    }
+
+    // Test per verificare la ricerca paginata con cursore nei tre ordinamenti
+    @Test
+    public void testCercaPaginaPerParoleChiave() {
+        List<Annuncio> bici = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // Prezzi e scadenze ripetuti: a parità di chiave decide l'id
+            bici.add(new AnnuncioVendita("Vendo bici " + i, "Bici usata", 10.0 * (i % 7), utente1,
+                Arrays.asList("bici"), false, LocalDate.now().plusDays(i % 5 + 1)));
+        }
+        bici.add(new AnnuncioAcquisto("Cerco bici", "Bici da corsa", 35.0, utente2, Arrays.asList("bici")));
+        bici.add(new AnnuncioAcquisto("Cerco bici", "Bici da città", 5.0, utente2, Arrays.asList("bici")));
+        for (Annuncio annuncio : bici) {
+            bacheca.aggiungiAnnuncio(annuncio);
+        }
+
+        List<Annuncio> perPrezzo = new ArrayList<>(bici);
+        perPrezzo.sort(Comparator.comparingDouble(Annuncio::getPrezzo).thenComparingInt(Annuncio::getId));
+        // Le vendite per data di scadenza, poi gli acquisti (senza scadenza)
+        List<Annuncio> perScadenza = new ArrayList<>(bici.subList(0, 20));
+        perScadenza.sort(Comparator.comparing((Annuncio a) -> ((AnnuncioVendita) a).getDataScadenza())
+            .thenComparingInt(Annuncio::getId));
+        perScadenza.addAll(bici.subList(20, 22));
+
+        // Parola frequente: scorre gli indici ordinati
+        List<String> parole = Arrays.asList("bici");
+        assertEquals(bici, tutteLePagine(parole, OrdinamentoAnnunci.ID, 3));
+        assertEquals(perPrezzo, tutteLePagine(parole, OrdinamentoAnnunci.PREZZO, 3));
+        assertEquals(perScadenza, tutteLePagine(parole, OrdinamentoAnnunci.SCADENZA, 3));
+
+        // Parola rara tra molti annunci: heap limitato, stesso risultato
+        for (int i = 0; i < 200; i++) {
+            bacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco libro", "Libro", 1.0, utente1, Arrays.asList("libro")));
+        }
+        assertEquals(bici, tutteLePagine(parole, OrdinamentoAnnunci.ID, 3));
+        assertEquals(perPrezzo, tutteLePagine(parole, OrdinamentoAnnunci.PREZZO, 3));
+        assertEquals(perScadenza, tutteLePagine(parole, OrdinamentoAnnunci.SCADENZA, 3));
+        assertEquals(perPrezzo, tutteLePagine(parole, OrdinamentoAnnunci.PREZZO, 100));
+
+        PaginaAnnunci prima = bacheca.cercaPaginaPerParoleChiave(parole, OrdinamentoAnnunci.PREZZO, 5, null);
+        assertEquals(perPrezzo.subList(0, 5), prima.getAnnunci());
+        assertFalse(prima.isUltima());
+        assertTrue(bacheca.cercaPaginaPerParoleChiave(Arrays.asList("moto"), OrdinamentoAnnunci.ID, 5, null).isUltima());
+
+        // Il cursore vale solo per il suo ordinamento
+        String cursore = prima.getCursoreSuccessivo();
+        assertThrows(BachecaException.class, () -> bacheca.cercaPaginaPerParoleChiave(parole, OrdinamentoAnnunci.ID, 5, cursore));
+        assertThrows(BachecaException.class, () -> bacheca.cercaPaginaPerParoleChiave(parole, OrdinamentoAnnunci.PREZZO, 5, "xyz"));
+        assertThrows(BachecaException.class, () -> bacheca.cercaPaginaPerParoleChiave(parole, OrdinamentoAnnunci.PREZZO, 0, null));
+        assertThrows(BachecaException.class, () -> bacheca.cercaPaginaPerParoleChiave(parole, null, 5, null));
+    }
+
+    // Test per verificare le notifiche agli ascoltatori della bacheca
+    @Test
+    public void testAscoltatoriBacheca() {
+        List<String> eventi = new ArrayList<>();
+        AscoltatoreBacheca ascoltatore = new AscoltatoreBacheca() {
+            @Override
+            public void annuncioAggiunto(Annuncio annuncio) {
+                eventi.add("+" + annuncio.getTitolo());
+            }
+
+            @Override
+            public void annuncioRimosso(Annuncio annuncio) {
+                eventi.add("-" + annuncio.getTitolo());
+            }
+
+            @Override
+            public void annuncioModificato(Annuncio annuncio) {
+                eventi.add("~" + annuncio.getTitolo());
+            }
+        };
+        bacheca.aggiungiAscoltatore(ascoltatore);
+
+        AnnuncioVendita bici = new AnnuncioVendita("Bici", "Bici usata", 100.0, utente1, Arrays.asList("bici"), false, LocalDate.now().plusDays(5));
+        AnnuncioAcquisto libro = new AnnuncioAcquisto("Libro", "Cerco libro", 10.0, utente2, Arrays.asList("libro"));
+        bacheca.aggiungiAnnuncio(bici);
+        bacheca.aggiungiAnnuncio(libro);
+        bici.setPrezzo(90.0);
+        bici.setVenduto(true);
+        bacheca.aggiornaParoleChiave(libro, Arrays.asList("romanzo"));
+        bacheca.rimuoviAnnuncio(bici.getId(), utente1);
+        bici.setPrezzo(80.0);  // Non più in bacheca: nessuna notifica
+        bacheca.svuotaBacheca();
+        assertEquals(Arrays.asList("+Bici", "+Libro", "~Bici", "~Bici", "~Libro", "-Bici", "-Libro"), eventi);
+
+        bacheca.rimuoviAscoltatore(ascoltatore);
+        bacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Auto", "Cerco auto", 5000.0, utente1, Arrays.asList("auto")));
+        assertEquals(7, eventi.size());
+        assertThrows(BachecaException.class, () -> bacheca.aggiungiAscoltatore(null));
+    }
+
+    // Test per verificare la vendita più economica per parola chiave entro un budget
+    @Test
+    public void testVenditaPiuEconomicaPerParola() {
+        AnnuncioVendita cara = new AnnuncioVendita("Bici", "Da corsa", 900.0, utente1, Arrays.asList("bici", "corsa"), false, LocalDate.now().plusDays(5));
+        AnnuncioVendita media = new AnnuncioVendita("Bici", "Da città", 250.0, utente1, Arrays.asList("Bici"), false, LocalDate.now().plusDays(5));
+        AnnuncioVendita economica = new AnnuncioVendita("Bici", "Usata", 80.0, utente2, Arrays.asList("bici"), false, LocalDate.now().plusDays(5));
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto("Cerco bici", "Qualsiasi", 10.0, utente2, Arrays.asList("bici"));
+        for (Annuncio annuncio : Arrays.asList(cara, media, economica, acquisto)) {
+            bacheca.aggiungiAnnuncio(annuncio);
+        }
+
+        assertEquals(economica, bacheca.getVenditaPiuEconomica("BICI", 1000.0));
+        assertNull(bacheca.getVenditaPiuEconomica("bici", 50.0));
+        assertEquals(Arrays.asList(economica, media), bacheca.getVenditePiuEconomiche("bici", 300.0, 5));
+        assertEquals(cara, bacheca.getVenditaPiuEconomica("corsa", 1000.0));
+        assertNull(bacheca.getVenditaPiuEconomica("moto", 1000.0));
+
+        // Venduta, poi di nuovo disponibile
+        economica.setVenduto(true);
+        assertEquals(media, bacheca.getVenditaPiuEconomica("bici", 1000.0));
+        economica.setVenduto(false);
+        assertEquals(economica, bacheca.getVenditaPiuEconomica("bici", 1000.0));
+
+        // Cambio di prezzo e di parole chiave
+        media.setPrezzo(50.0);
+        assertEquals(Arrays.asList(media, economica), bacheca.getVenditePiuEconomiche("bici", 300.0, 5));
+        bacheca.aggiornaParoleChiave(media, Arrays.asList("corsa"));
+        assertEquals(Arrays.asList(economica), bacheca.getVenditePiuEconomiche("bici", 300.0, 5));
+        assertEquals(media, bacheca.getVenditaPiuEconomica("corsa", 1000.0));
+
+        bacheca.rimuoviAnnuncio(economica.getId(), utente2);
+        assertEquals(Arrays.asList(cara), bacheca.getVenditePiuEconomiche("bici", 1000.0, 5));
+        bacheca.svuotaBacheca();
+        assertNull(bacheca.getVenditaPiuEconomica("corsa", 1000.0));
+        assertThrows(BachecaException.class, () -> bacheca.getVenditaPiuEconomica(null, 10.0));
+    }
+
+    // Test per verificare gli acquisti il cui budget copre il prezzo di una vendita
+    @Test
+    public void testAcquistiConBudget() {
+        AnnuncioAcquisto ricco = new AnnuncioAcquisto("Cerco bici", "Da corsa", 1000.0, utente1, Arrays.asList("bici", "corsa"));
+        AnnuncioAcquisto medio = new AnnuncioAcquisto("Cerco bici", "Qualsiasi", 300.0, utente2, Arrays.asList("Bici"));
+        AnnuncioAcquisto povero = new AnnuncioAcquisto("Cerco bici", "Usata", 50.0, utente2, Arrays.asList("bici"));
+        AnnuncioAcquisto libro = new AnnuncioAcquisto("Cerco libro", "Giallo", 1000.0, utente2, Arrays.asList("libro"));
+        for (Annuncio annuncio : Arrays.asList(ricco, medio, povero, libro)) {
+            bacheca.aggiungiAnnuncio(annuncio);
+        }
+        // Vendita non ancora in bacheca: un solo risultato per acquisto anche con due parole in comune
+        AnnuncioVendita bici = new AnnuncioVendita("Bici", "Da corsa", 300.0, utente2, Arrays.asList("bici", "corsa"), false, LocalDate.now().plusDays(5));
+        assertEquals(Arrays.asList(ricco, medio), bacheca.cercaAcquistiConBudget(bici));
+        AnnuncioVendita moto = new AnnuncioVendita("Moto", "Usata", 10.0, utente2, Arrays.asList("moto"), false, LocalDate.now().plusDays(5));
+        assertTrue(bacheca.cercaAcquistiConBudget(moto).isEmpty());
+
+        // Cambio di budget e di parole chiave
+        povero.setPrezzo(400.0);
+        medio.setPrezzo(299.0);
+        assertEquals(Arrays.asList(ricco, povero), bacheca.cercaAcquistiConBudget(bici));
+        bacheca.aggiornaParoleChiave(ricco, Arrays.asList("moto"));
+        assertEquals(Arrays.asList(povero), bacheca.cercaAcquistiConBudget(bici));
+        assertEquals(Arrays.asList(ricco), bacheca.cercaAcquistiConBudget(moto));
+
+        bacheca.rimuoviAnnuncio(povero.getId(), utente2);
+        assertTrue(bacheca.cercaAcquistiConBudget(bici).isEmpty());
+        bacheca.svuotaBacheca();
+        assertTrue(bacheca.cercaAcquistiConBudget(moto).isEmpty());
+        assertThrows(BachecaException.class, () -> bacheca.cercaAcquistiConBudget(null));
+    }
+
+    // Test per verificare che le rimozioni non cambino l'ordine di inserimento degli annunci
+    @Test
+    public void testOrdineDopoRimozioni() {
+        List<AnnuncioVendita> attese = new ArrayList<>();
+        List<AnnuncioVendita> tutte = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            AnnuncioVendita vendita = new AnnuncioVendita("Vendo " + i, "Descrizione", i, utente1, Arrays.asList("oggetto"), false, LocalDate.now().plusDays(5));
+            bacheca.aggiungiAnnuncio(vendita);
+            tutte.add(vendita);
+        }
+        // Rimozione di una vendita in mezzo
+        bacheca.rimuoviAnnuncio(tutte.get(1).getId(), utente1);
+        assertEquals(Arrays.asList(tutte.get(0), tutte.get(2), tutte.get(3)), bacheca.getAnnunciVendita().subList(0, 3));
+
+        // Abbastanza rimozioni da compattare la partizione
+        for (int i = 0; i < tutte.size(); i++) {
+            if (i % 3 == 0) {
+                attese.add(tutte.get(i));
+            } else if (i != 1) {
+                bacheca.rimuoviAnnuncio(tutte.get(i).getId(), utente1);
+            }
+        }
+        assertEquals(attese, bacheca.getAnnunciVendita());
+        assertEquals(attese, bacheca.getFotografia().getVendite());
+        assertEquals(attese.get(200), bacheca.getAnnunciVendita().get(200));
+
+        // I nuovi annunci vanno in coda
+        AnnuncioVendita ultima = new AnnuncioVendita("Ultima", "Descrizione", 1.0, utente2, Arrays.asList("oggetto"), false, LocalDate.now().plusDays(5));
+        bacheca.aggiungiAnnuncio(ultima);
+        attese.add(ultima);
+        assertEquals(attese, bacheca.getAnnunciVendita());
+        assertEquals(attese.size(), bacheca.getStatisticheVendite(LocalDate.now()).getNumeroVendite());
+    }
+
+    // Test per verificare che le fotografie restino invariate mentre la bacheca cambia
+    @Test
+    public void testFotografieCondivise() {
+        List<AnnuncioVendita> vendite = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            AnnuncioVendita vendita = new AnnuncioVendita("Vendo " + i, "Descrizione", i, utente1, Arrays.asList("oggetto"), false, LocalDate.now().plusDays(5));
+            bacheca.aggiungiAnnuncio(vendita);
+            vendite.add(vendita);
+        }
+        FotografiaBacheca prima = bacheca.getFotografia();
+        Annuncio[] array = bacheca.getAnnunci();
+        assertSame(array, bacheca.getAnnunci());
+
+        // Rimozioni in blocchi diversi e un nuovo annuncio in coda
+        bacheca.rimuoviAnnuncio(vendite.get(10).getId(), utente1);
+        bacheca.rimuoviAnnuncio(vendite.get(300).getId(), utente1);
+        bacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco", "Descrizione", 5.0, utente2, Arrays.asList("oggetto")));
+        FotografiaBacheca dopo = bacheca.getFotografia();
+
+        assertEquals(vendite, prima.getVendite());
+        assertEquals(vendite.get(300), prima.getVendite().get(300));
+        assertEquals(600, array.length);
+        assertEquals(598, dopo.getVendite().size());
+        assertEquals(vendite.get(301), dopo.getVendite().get(299));
+        assertEquals(599, bacheca.getAnnunci().length);
+    }
+
+    // Test per verificare che la rimozione in blocco di una copia con lo
+    // stesso id tolga dagli indici i valori dell'annuncio in bacheca
+    @Test
+    public void testRimuoviCopiaConStessoId() {
+        AnnuncioVendita originale = new AnnuncioVendita(500, "Vendo bici", "Bici da corsa", 10.0,
+            utente1, Arrays.asList("bici"), false, LocalDate.now().plusDays(10), true);
+        bacheca.aggiungiAnnuncio(originale);
+        AnnuncioVendita copia = new AnnuncioVendita(500, "Vendo auto", "Auto usata", 99.0,
+            utente1, Arrays.asList("auto"), false, LocalDate.now().plusDays(10), true);
+
+        assertTrue(bacheca.rimuoviAnnuncio(List.<Annuncio>of(copia)));
+        assertEquals(0, bacheca.getNumeroAnnunci());
+        assertTrue(bacheca.cercaPerParoleChiave(new ArrayList<>(List.of("bici"))).isEmpty());
+        assertTrue(bacheca.cercaPerPrezzo(0, 20).isEmpty());
+        assertTrue(bacheca.completaParolaChiave("b", 5).isEmpty());
+
+        // La bacheca non osserva più l'annuncio rimosso
+        long versione = bacheca.getVersione();
+        originale.setPrezzo(15.0);
+        assertTrue(bacheca.cercaPerPrezzo(0, 20).isEmpty());
+        assertEquals(versione, bacheca.getVersione());
+    }
 }
\ No newline at end of file
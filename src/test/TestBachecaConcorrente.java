@@ -0,0 +1,440 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import bacheca.Annuncio;
+import bacheca.AnnuncioAcquisto;
+import bacheca.AnnuncioVendita;
+import bacheca.AscoltatoreBacheca;
+import bacheca.BachecaConcorrente;
+import bacheca.FotografiaBacheca;
+import bacheca.OrdinamentoAnnunci;
+import bacheca.PaginaAnnunci;
+import bacheca.Utente;
+import controller.AbbinamentiAcquisto;
+import controller.Abbinamento;
+import controller.GestoreBachecaImpl;
+import controller.GestoreUtentiImpl;
+import eccezioni.BachecaException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test unitari per la classe BachecaConcorrente.
+ * Verifica che i risultati coincidano con quelli della Bacheca e che
+ * l'accesso da più thread mantenga la bacheca coerente.
+ */
+public class TestBachecaConcorrente {
+
+    private BachecaConcorrente bacheca;
+    private Utente utente1;
+    private Utente utente2;
+
+    @BeforeEach
+    public void setUp() {
+        bacheca = new BachecaConcorrente(4);
+        utente1 = new Utente("mario.rossi@email.com", "Mario Rossi");
+        utente2 = new Utente("giulia.verdi@email.com", "Giulia Verdi");
+    }
+
+    private AnnuncioVendita vendita(int id, double prezzo, Utente utente, String parola) {
+        return new AnnuncioVendita(id, "Vendo " + parola, "Descrizione", prezzo, utente,
+            Arrays.asList(parola), false, LocalDate.now().plusDays(id % 30 + 1), true);
+    }
+
+    // Test per verificare che le ricerche fondano i risultati di tutti i segmenti
+    @Test
+    public void testRicercheSuTuttiISegmenti() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id * 10.0, id % 2 == 0 ? utente1 : utente2, "bici"));
+        }
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(100, "Cerco bici", "Bici usata", 55.0,
+            utente1, Arrays.asList("bici"));
+        bacheca.aggiungiAnnuncio(acquisto);
+
+        assertEquals(41, bacheca.getNumeroAnnunci());
+        assertEquals(41, bacheca.cercaPerParoleChiave(new ArrayList<>(List.of("bici"))).size());
+        assertEquals(41, bacheca.cercaPerParoleChiave(List.of("bici"), null, null).size());
+        assertTrue(bacheca.cercaPerParoleChiave(null, List.of("bici"), List.of("bici")).isEmpty());
+        assertEquals(21, bacheca.getAnnunciUtente(utente1).getNumeroAnnunci());
+        assertEquals(1, bacheca.getAnnunciUtente(utente1).getNumeroAcquisti());
+        assertSame(acquisto, bacheca.cercaAnnuncioPerId(100));
+
+        // Intervallo di prezzo ordinato, con l'acquisto tra 50 e 60
+        List<Annuncio> intervallo = bacheca.cercaPerPrezzo(45.0, 85.0);
+        assertEquals(Arrays.asList(50.0, 55.0, 60.0, 70.0, 80.0),
+            intervallo.stream().map(Annuncio::getPrezzo).toList());
+
+        List<AnnuncioVendita> economiche = bacheca.getVenditePiuEconomiche(3);
+        assertEquals(Arrays.asList(1, 2, 3), economiche.stream().map(Annuncio::getId).toList());
+        assertEquals(400.0, bacheca.getVenditaPiuCostosa().getPrezzo());
+
+        // Gli indici dei segmenti seguono i setter
+        bacheca.cercaAnnuncioPerId(40).setPrezzo(1.0);
+        assertEquals(40, bacheca.getVenditaPiuEconomica().getId());
+
+        assertTrue(bacheca.rimuoviAnnuncio(100, utente1));
+        assertEquals(40, bacheca.getAnnunciVendita().size());
+        assertTrue(bacheca.getAnnunciAcquisto().isEmpty());
+
+        bacheca.svuotaBacheca();
+        assertEquals(0, bacheca.getNumeroAnnunci());
+        assertNull(bacheca.getProssimaScadenza());
+    }
+
+    // Test per verificare che un id duplicato venga rifiutato anche tra thread
+    @Test
+    public void testAggiungiAnnuncioDuplicato() {
+        bacheca.aggiungiAnnuncio(vendita(7, 10.0, utente1, "bici"));
+        assertThrows(BachecaException.class, () -> bacheca.aggiungiAnnuncio(vendita(7, 20.0, utente2, "auto")));
+        assertThrows(BachecaException.class, () -> bacheca.aggiungiAnnuncio(null));
+    }
+
+    // Test per verificare inserimenti, rimozioni e iterazioni concorrenti
+    @Test
+    public void testAccessoConcorrente() throws InterruptedException {
+        int numeroThread = 4;
+        int perThread = 500;
+        CountDownLatch partenza = new CountDownLatch(1);
+        AtomicReference<Throwable> errore = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < numeroThread; t++) {
+            int base = 1000 + t * perThread;
+            Utente utente = t % 2 == 0 ? utente1 : utente2;
+            threads.add(new Thread(() -> {
+                try {
+                    partenza.await();
+                    for (int i = 0; i < perThread; i++) {
+                        bacheca.aggiungiAnnuncio(vendita(base + i, i, utente, "bici"));
+                        // Rimuove un annuncio su due subito dopo averlo inserito
+                        if (i % 2 == 1) {
+                            assertTrue(bacheca.rimuoviAnnuncio(base + i, utente));
+                        }
+                    }
+                } catch (Throwable e) {
+                    errore.compareAndSet(null, e);
+                }
+            }));
+        }
+        // Un lettore che scorre la bacheca mentre viene modificata
+        threads.add(new Thread(() -> {
+            try {
+                partenza.await();
+                for (int i = 0; i < 50; i++) {
+                    for (Annuncio annuncio : bacheca) {
+                        assertNotNull(annuncio);
+                    }
+                    bacheca.cercaPerPrezzo(0, 100);
+                }
+            } catch (Throwable e) {
+                errore.compareAndSet(null, e);
+            }
+        }));
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        partenza.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(errore.get());
+        assertEquals(numeroThread * perThread / 2, bacheca.getNumeroAnnunci());
+        assertEquals(numeroThread * perThread / 2, bacheca.cercaVenditePerPrezzo(0, perThread).size());
+    }
+
+    // Test per verificare che la bacheca concorrente sia usabile dal gestore
+    @Test
+    public void testUsoConGestoreBacheca() throws Exception {
+        GestoreBachecaImpl gestore = new GestoreBachecaImpl(bacheca, new GestoreUtentiImpl());
+        gestore.aggiungiAnnuncio(vendita(5, 10.0, utente1, "bici"));
+        gestore.aggiungiParoleChiave(5, Arrays.asList("sport"));
+
+        assertEquals(1, gestore.cercaPerParoleChiave(Arrays.asList("sport")).size());
+        assertEquals(1, gestore.cercaAnnunciPerEmail(utente1.getEmail()).size());
+        assertTrue(gestore.rimuoviAnnuncio(5, utente1.getEmail()));
+        assertEquals(0, bacheca.getNumeroAnnunci());
+    }
+
+    // Test per verificare che la fotografia combinata riusi quelle dei segmenti
+    @Test
+    public void testGetFotografia() {
+        for (int id = 1; id <= 20; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id, utente1, "bici"));
+        }
+        FotografiaBacheca fotografia = bacheca.getFotografia();
+        assertEquals(20, fotografia.size());
+        assertSame(fotografia, bacheca.getFotografia());
+
+        bacheca.rimuoviAnnuncio(5, utente1);
+        FotografiaBacheca nuova = bacheca.getFotografia();
+        assertNotSame(fotografia, nuova);
+        assertEquals(19, nuova.size());
+        assertEquals(20, fotografia.size());
+        assertFalse(nuova.getAnnunci().stream().anyMatch(a -> a.getId() == 5));
+    }
+
+    // Test per verificare che statistiche e filtri uniscano tutti i segmenti
+    @Test
+    public void testStatisticheVendite() {
+        for (int id = 1; id <= 20; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id * 10.0, id <= 10 ? utente1 : utente2, "bici"));
+        }
+        bacheca.cercaAnnuncioPerId(3).setPrezzo(1000.0);
+        ((AnnuncioVendita) bacheca.cercaAnnuncioPerId(4)).setVenduto(true);
+
+        LocalDate oggi = LocalDate.now();
+        assertEquals(18, bacheca.cercaVenditeDisponibili(0, 200, oggi).size());
+        assertEquals(19, bacheca.getStatisticheVendite(oggi).getNumeroDisponibili());
+        assertEquals(1000.0, bacheca.getStatisticheVendite(oggi).getPrezzoMassimoDisponibile());
+        assertEquals(10, bacheca.getStatisticheVendite(utente2.getEmail(), oggi).getNumeroDisponibili());
+    }
+
+    // Test per verificare che la ricerca full-text unisca i segmenti con statistiche globali
+    @Test
+    public void testCercaTesto() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id, utente1, id % 4 == 0 ? "chitarra" : "bici"));
+        }
+        bacheca.cercaAnnuncioPerId(7).setTitolo("Vendo chitarra chitarra");
+
+        List<Annuncio> risultati = bacheca.cercaTesto("chitarre", 5);
+        assertEquals(5, risultati.size());
+        assertEquals(7, risultati.get(0).getId());
+        assertEquals(List.of(4, 8, 12, 16), risultati.subList(1, 5).stream().map(Annuncio::getId).toList());
+        assertEquals(11, bacheca.cercaTesto("chitarra", 100).size());
+    }
+
+    // Test per verificare che i completamenti contino gli annunci di tutti i segmenti
+    @Test
+    public void testCompletaParolaChiave() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id, utente1, id % 4 == 0 ? "bicicletta" : "bici"));
+        }
+        assertEquals("[bici (30), bicicletta (10)]", bacheca.completaParolaChiave("bic", 5).toString());
+
+        bacheca.rimuoviAnnuncio(4, utente1);
+        bacheca.cercaAnnuncioPerId(8).setParoleChiave(Arrays.asList("bici"));
+        assertEquals("[bici (31), bicicletta (8)]", bacheca.completaParolaChiave("bic", 5).toString());
+        bacheca.svuotaBacheca();
+        assertTrue(bacheca.completaParolaChiave("bic", 5).isEmpty());
+    }
+
+    // Test per verificare la ricerca approssimata su tutti i segmenti
+    @Test
+    public void testCercaPerParoleChiaveSimili() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id, utente1, id % 4 == 0 ? "chitarra" : "bici"));
+        }
+        assertEquals(10, bacheca.cercaPerParoleChiaveSimili(List.of("chitara"), 2).size());
+        assertEquals(40, bacheca.cercaPerParoleChiaveSimili(List.of("chitara", "bicy"), 2).size());
+        assertTrue(bacheca.cercaPerParoleChiaveSimili(List.of("tastiera"), 2).isEmpty());
+    }
+
+    // Test per verificare che le pagine fondano i segmenti senza perdere annunci
+    @Test
+    public void testCercaPaginaPerParoleChiave() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id % 6, utente1, id % 4 == 0 ? "chitarra" : "bici"));
+        }
+        List<Annuncio> letti = new ArrayList<>();
+        String cursore = null;
+        do {
+            PaginaAnnunci pagina = bacheca.cercaPaginaPerParoleChiave(List.of("bici"), OrdinamentoAnnunci.PREZZO, 7, cursore);
+            assertTrue(pagina.getAnnunci().size() <= 7);
+            letti.addAll(pagina.getAnnunci());
+            cursore = pagina.getCursoreSuccessivo();
+        } while (cursore != null);
+
+        assertEquals(30, letti.size());
+        for (int i = 1; i < letti.size(); i++) {
+            Annuncio prima = letti.get(i - 1);
+            Annuncio dopo = letti.get(i);
+            assertTrue(prima.getPrezzo() < dopo.getPrezzo()
+                || (prima.getPrezzo() == dopo.getPrezzo() && prima.getId() < dopo.getId()));
+        }
+    }
+
+    // Test per verificare che l'ascoltatore riceva le notifiche di tutti i segmenti
+    @Test
+    public void testAscoltatoriSuTuttiISegmenti() {
+        GestoreBachecaImpl gestore = new GestoreBachecaImpl(bacheca, new GestoreUtentiImpl());
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto(1000, "Cerco bici", "Bici", 50.0, utente2, Arrays.asList("bici"));
+        bacheca.aggiungiAnnuncio(acquisto);
+        assertTrue(gestore.cercaAbbinamenti(acquisto).isEmpty());
+
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, id, utente1, id % 4 == 0 ? "chitarra" : "bici"));
+        }
+        assertEquals(30, gestore.cercaAbbinamenti(acquisto).size());
+        bacheca.rimuoviAnnuncio(1, utente1);
+        assertEquals(29, gestore.cercaAbbinamenti(acquisto).size());
+        // A parità di parole, il prezzo più vicino al budget (50) entro il budget
+        assertEquals(39, gestore.cercaAbbinamenti(acquisto).get(0).getVendita().getId());
+    }
+
+    // Test per verificare che l'abbinamento in blocco coincida con quello incrementale
+    @Test
+    public void testAbbinaTuttiGliAcquisti() {
+        GestoreBachecaImpl gestore = new GestoreBachecaImpl(bacheca, new GestoreUtentiImpl());
+        String[] parole = {"bici", "chitarra", "libro", "auto", "divano"};
+        for (int id = 1; id <= 600; id++) {
+            List<String> chiavi = Arrays.asList(parole[id % 5], parole[id * 7 % 5], parole[id * 3 % 4]);
+            Utente utente = id % 3 == 0 ? utente1 : utente2;
+            if (id % 4 == 0) {
+                bacheca.aggiungiAnnuncio(new AnnuncioAcquisto(id, "Cerco", "Descrizione", id % 97, utente, chiavi));
+            } else {
+                bacheca.aggiungiAnnuncio(new AnnuncioVendita(id, "Vendo", "Descrizione", id % 89, utente,
+                    chiavi, id % 10 == 1, LocalDate.now().plusDays(5), true));
+            }
+        }
+
+        List<AbbinamentiAcquisto> risultati = gestore.abbinaTuttiGliAcquisti(10).toList();
+        assertEquals(150, risultati.size());
+        for (AbbinamentiAcquisto risultato : risultati) {
+            List<Abbinamento> attesi = gestore.cercaAbbinamenti(risultato.getAcquisto());
+            assertEquals(attesi.subList(0, Math.min(10, attesi.size())), risultato.getAbbinamenti());
+        }
+    }
+
+    // Test per verificare le vendite più economiche per parola su tutti i segmenti
+    @Test
+    public void testVenditePiuEconomichePerParola() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(vendita(id, 100 - id, utente1, id % 4 == 0 ? "chitarra" : "bici"));
+        }
+        // Prezzi 99..60: le chitarre (id multipli di 4) più economiche entro 70 sono 40, 36, 32
+        assertEquals(List.of(40, 36, 32), bacheca.getVenditePiuEconomiche("chitarra", 70.0, 5).stream().map(Annuncio::getId).toList());
+        assertEquals(39, bacheca.getVenditaPiuEconomica("bici", 100.0).getId());
+        ((AnnuncioVendita) bacheca.cercaAnnuncioPerId(39)).setVenduto(true);
+        assertEquals(38, bacheca.getVenditaPiuEconomica("bici", 100.0).getId());
+        assertNull(bacheca.getVenditaPiuEconomica("bici", 10.0));
+    }
+
+    // Test per verificare gli acquisti entro budget su tutti i segmenti
+    @Test
+    public void testAcquistiConBudget() {
+        for (int id = 1; id <= 40; id++) {
+            bacheca.aggiungiAnnuncio(new AnnuncioAcquisto(id, "Cerco", "Descrizione", id * 10, utente1,
+                Arrays.asList(id % 4 == 0 ? "chitarra" : "bici")));
+        }
+        // Budget 10..400: le chitarre (id multipli di 4) con budget >= 330 sono 36 e 40
+        assertEquals(List.of(36, 40), bacheca.cercaAcquistiConBudget(vendita(100, 330, utente2, "chitarra"))
+            .stream().map(Annuncio::getId).toList());
+        assertEquals(List.of(37, 38, 39), bacheca.cercaAcquistiConBudget(vendita(101, 370, utente2, "bici"))
+            .stream().map(Annuncio::getId).toList());
+    }
+
+    // Test per verificare che gli ascoltatori siano notificati dopo lo
+    // sblocco del segmento (un altro thread può leggerlo e modificarlo)
+    // e nell'ordine delle modifiche
+    @Test
+    public void testAscoltatoreFuoriDalLock() throws InterruptedException {
+        BachecaConcorrente unSegmento = new BachecaConcorrente(1);
+        List<String> notifiche = new CopyOnWriteArrayList<>();
+        AtomicReference<Annuncio> letto = new AtomicReference<>();
+        unSegmento.aggiungiAscoltatore(new AscoltatoreBacheca() {
+            @Override
+            public void annuncioAggiunto(Annuncio annuncio) {
+                notifiche.add("+" + annuncio.getId());
+                if (annuncio.getId() == 1) {
+                    // Con il lock ancora acquisito questo thread resterebbe bloccato
+                    Thread altro = new Thread(() -> {
+                        letto.set(unSegmento.cercaAnnuncioPerId(1));
+                        unSegmento.aggiungiAnnuncio(vendita(2, 20.0, utente2, "bici"));
+                    });
+                    altro.start();
+                    try {
+                        altro.join(5000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    assertFalse(altro.isAlive());
+                }
+            }
+
+            @Override
+            public void annuncioRimosso(Annuncio annuncio) {
+                notifiche.add("-" + annuncio.getId());
+            }
+
+            @Override
+            public void annuncioModificato(Annuncio annuncio) {
+                notifiche.add("*" + annuncio.getId());
+            }
+        });
+
+        AnnuncioVendita prima = vendita(1, 10.0, utente1, "bici");
+        unSegmento.aggiungiAnnuncio(prima);
+        assertSame(prima, letto.get());
+        // La notifica dell'altro thread arriva dopo quella in corso
+        assertEquals(List.of("+1", "+2"), notifiche);
+
+        prima.setPrezzo(5.0);
+        unSegmento.svuotaBacheca();
+        assertEquals(List.of("+1", "+2", "*1", "-1", "-2"), notifiche);
+    }
+
+    // Test per verificare che le fotografie prese da più lettori mentre la
+    // bacheca viene modificata siano coerenti (accesso per posizione e
+    // iterazione restituiscono gli stessi annunci)
+    @Test
+    public void testFotografieConcorrenti() throws InterruptedException {
+        CountDownLatch partenza = new CountDownLatch(1);
+        AtomicReference<Throwable> errore = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            try {
+                partenza.await();
+                for (int id = 1; id <= 3000; id++) {
+                    bacheca.aggiungiAnnuncio(vendita(id, id, utente1, "bici"));
+                    if (id % 3 == 0) {
+                        bacheca.rimuoviAnnuncio(id - 1, utente1);
+                    }
+                }
+            } catch (Throwable e) {
+                errore.compareAndSet(null, e);
+            }
+        }));
+        for (int t = 0; t < 3; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    partenza.await();
+                    for (int i = 0; i < 200; i++) {
+                        FotografiaBacheca fotografia = bacheca.getFotografia();
+                        List<AnnuncioVendita> vendite = fotografia.getVendite();
+                        int posizione = 0;
+                        for (AnnuncioVendita vendita : vendite) {
+                            assertSame(vendita, vendite.get(posizione++));
+                        }
+                        assertEquals(vendite.size(), posizione);
+                    }
+                } catch (Throwable e) {
+                    errore.compareAndSet(null, e);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        partenza.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(errore.get());
+        assertEquals(2000, bacheca.getFotografia().getVendite().size());
+    }
+}
\ No newline at end of file
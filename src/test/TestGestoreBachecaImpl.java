@@ -5,15 +5,23 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.BufferedReader;
 import java.io.StringReader;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import controller.AbbinamentiAcquisto;
+import controller.Abbinamento;
 import controller.GestoreBachecaImpl;
 import controller.GestoreUtentiImpl;
+import controller.RicercaSalvata;
+import controller.ScadenzarioAnnunci;
 import bacheca.Bacheca;
+import bacheca.BachecaAnnunci;
 import bacheca.Annuncio;
 import bacheca.AnnuncioAcquisto;
 import bacheca.AnnuncioVendita;
+import bacheca.OrdinamentoAnnunci;
+import bacheca.PaginaAnnunci;
 import bacheca.Utente;
 import eccezioni.GestoreBachecaException;
 
@@ -287,7 +295,7 @@ public class TestGestoreBachecaImpl {
     // Test per verificare getBacheca()
     @Test
     public void testGetBacheca() {
-        Bacheca bachecaRitornata = gestoreBacheca.getBacheca();
+        BachecaAnnunci bachecaRitornata = gestoreBacheca.getBacheca();
         assertNotNull(bachecaRitornata);
         assertEquals(bacheca, bachecaRitornata);
     }
@@ -328,4 +336,339 @@ public class TestGestoreBachecaImpl {
 
         assertEquals("GestoreUtenti non può essere null", exception.getMessage());
     }
+
+    // Test per verificare la ricerca degli annunci di un utente tramite email
+    @Test
+    public void testCercaAnnunciPerEmail() {
+        AnnuncioAcquisto annuncio1 = new AnnuncioAcquisto(
+            "Cerco laptop",
+            "Cerco laptop per lavoro",
+            800.0,
+            utente1,
+            Arrays.asList("laptop")
+        );
+
+        AnnuncioAcquisto annuncio2 = new AnnuncioAcquisto(
+            "Cerco tablet",
+            "Cerco tablet per studio",
+            400.0,
+            utente2,
+            Arrays.asList("tablet")
+        );
+
+        assertDoesNotThrow(() -> gestoreBacheca.aggiungiAnnuncio(annuncio1));
+        assertDoesNotThrow(() -> gestoreBacheca.aggiungiAnnuncio(annuncio2));
+
+        List<Annuncio> annunciMario = gestoreBacheca.cercaAnnunciPerEmail("mario.rossi@email.com");
+        assertEquals(1, annunciMario.size());
+        assertEquals(annuncio1, annunciMario.get(0));
+
+        assertTrue(gestoreBacheca.cercaAnnunciPerEmail("nessuno@email.com").isEmpty());
+    }
+
+    // Test per verificare la ricerca per fascia di prezzo
+    @Test
+    public void testCercaVenditePerPrezzo() {
+        AnnuncioVendita economico = new AnnuncioVendita(
+            "Vendo mouse",
+            "Mouse wireless",
+            20.0,
+            utente1,
+            Arrays.asList("mouse"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        AnnuncioVendita costoso = new AnnuncioVendita(
+            "Vendo computer",
+            "Computer da gaming",
+            1200.0,
+            utente2,
+            Arrays.asList("computer"),
+            false,
+            LocalDate.now().plusDays(10)
+        );
+
+        assertDoesNotThrow(() -> gestoreBacheca.aggiungiAnnuncio(economico));
+        assertDoesNotThrow(() -> gestoreBacheca.aggiungiAnnuncio(costoso));
+
+        assertEquals(List.of(economico), gestoreBacheca.cercaVenditePerPrezzo(10, 100));
+        assertEquals(List.of(economico, costoso), gestoreBacheca.cercaVenditePiuEconomiche(5));
+        assertEquals(economico, gestoreBacheca.cercaVenditaPiuEconomica());
+        assertEquals(costoso, gestoreBacheca.cercaVenditaPiuCostosa());
+
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaPerPrezzo(100, 10));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaVenditePiuEconomiche(-1));
+    }
+
+    // Test per verificare la rimozione e l'archiviazione degli annunci scaduti
+    @Test
+    public void testScadenzarioRimuoveAnnunciScaduti() {
+        // Annuncio già scaduto (caricato da file senza validazione della data)
+        AnnuncioVendita scaduto = new AnnuncioVendita(
+            100, "Vendo bici", "Bici da corsa", 300.0, utente1,
+            Arrays.asList("bici"), false, LocalDate.now().minusDays(1), true
+        );
+        AnnuncioVendita valido = new AnnuncioVendita(
+            101, "Vendo auto", "Auto usata", 5000.0, utente1,
+            Arrays.asList("auto"), false, LocalDate.now().plusDays(5), true
+        );
+        bacheca.aggiungiAnnuncio(scaduto);
+        bacheca.aggiungiAnnuncio(valido);
+
+        List<AnnuncioVendita> archiviati = new java.util.ArrayList<>();
+        try (ScadenzarioAnnunci scadenzario = new ScadenzarioAnnunci(gestoreBacheca, Runnable::run, archiviati::addAll)) {
+            List<AnnuncioVendita> rimossi = scadenzario.controllaScadenze();
+            assertEquals(List.of(scaduto), rimossi);
+            assertEquals(List.of(scaduto), archiviati);
+        }
+
+        assertNull(gestoreBacheca.cercaAnnuncioPerId(100));
+        assertNotNull(gestoreBacheca.cercaAnnuncioPerId(101));
+        assertTrue(gestoreBacheca.rimuoviAnnunciScaduti().isEmpty());
+
+        // L'annuncio scaduto resta consultabile nell'archivio
+        assertEquals("Vendo bici", gestoreBacheca.getArchivio().cerca(100).getTitolo());
+        assertEquals(1, gestoreBacheca.getArchivio().size());
+    }
+
+    // Test per verificare la ricerca con combinazioni di parole chiave
+    @Test
+    public void testCercaPerParoleChiaveCombinate() throws GestoreBachecaException {
+        AnnuncioAcquisto a1 = new AnnuncioAcquisto("Cerco libro", "Libro di storia", 20.0, utente1, Arrays.asList("libro", "storia"));
+        AnnuncioAcquisto a2 = new AnnuncioAcquisto("Cerco libro", "Libro di fisica", 25.0, utente2, Arrays.asList("libro", "fisica"));
+        gestoreBacheca.aggiungiAnnuncio(a1);
+        gestoreBacheca.aggiungiAnnuncio(a2);
+
+        assertEquals(Arrays.asList(a2), gestoreBacheca.cercaPerParoleChiave(Arrays.asList("libro"), null, Arrays.asList("storia")));
+        assertEquals(Arrays.asList(a1, a2), gestoreBacheca.cercaPerParoleChiave(null, Arrays.asList("storia", "fisica"), null));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaPerParoleChiave(null, Arrays.asList(), Arrays.asList("libro")));
+    }
+
+    // Test per verificare la ricerca full-text e la validazione dei parametri
+    @Test
+    public void testCercaTesto() throws GestoreBachecaException {
+        AnnuncioAcquisto annuncio = new AnnuncioAcquisto("Cerco libro", "Libro di storia", 20.0, utente1, Arrays.asList("libro"));
+        gestoreBacheca.aggiungiAnnuncio(annuncio);
+
+        assertEquals(Arrays.asList(annuncio), gestoreBacheca.cercaTesto("libri storia", 10));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaTesto(" ", 10));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaTesto("libro", -1));
+    }
+
+    // Test per verificare l'autocompletamento e la validazione dei parametri
+    @Test
+    public void testCompletaParolaChiave() throws GestoreBachecaException {
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco libro", "Libro di storia", 20.0, utente1, Arrays.asList("libro", "libreria")));
+
+        assertEquals(2, gestoreBacheca.completaParolaChiave("lib", 5).size());
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.completaParolaChiave(null, 5));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.completaParolaChiave("lib", 0));
+    }
+
+    // Test per verificare la ricerca approssimata e la validazione della distanza
+    @Test
+    public void testCercaPerParoleChiaveSimili() throws GestoreBachecaException {
+        AnnuncioAcquisto annuncio = new AnnuncioAcquisto("Cerco libro", "Libro di storia", 20.0, utente1, Arrays.asList("libro", "storia"));
+        gestoreBacheca.aggiungiAnnuncio(annuncio);
+
+        assertEquals(Arrays.asList(annuncio), gestoreBacheca.cercaPerParoleChiaveSimili(Arrays.asList("stroia"), 1));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaPerParoleChiaveSimili(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaPerParoleChiaveSimili(Arrays.asList("libro"), -1));
+    }
+
+    // Test per verificare la ricerca paginata e la validazione del cursore
+    @Test
+    public void testCercaPaginaPerParoleChiave() throws GestoreBachecaException {
+        AnnuncioAcquisto caro = new AnnuncioAcquisto("Cerco libro", "Libro raro", 90.0, utente1, Arrays.asList("libro"));
+        AnnuncioAcquisto economico = new AnnuncioAcquisto("Cerco libro", "Libro usato", 10.0, utente1, Arrays.asList("libro"));
+        gestoreBacheca.aggiungiAnnuncio(caro);
+        gestoreBacheca.aggiungiAnnuncio(economico);
+
+        PaginaAnnunci prima = gestoreBacheca.cercaPaginaPerParoleChiave(Arrays.asList("libro"), OrdinamentoAnnunci.PREZZO, 1, null);
+        assertEquals(Arrays.asList(economico), prima.getAnnunci());
+        PaginaAnnunci seconda = gestoreBacheca.cercaPaginaPerParoleChiave(Arrays.asList("libro"), OrdinamentoAnnunci.PREZZO, 1, prima.getCursoreSuccessivo());
+        assertEquals(Arrays.asList(caro), seconda.getAnnunci());
+        assertTrue(seconda.isUltima());
+
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaPaginaPerParoleChiave(Arrays.asList("libro"), OrdinamentoAnnunci.ID, 1, prima.getCursoreSuccessivo()));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaPaginaPerParoleChiave(Arrays.asList("libro"), OrdinamentoAnnunci.ID, 0, null));
+    }
+
+    // Test per verificare che gli abbinamenti seguano le modifiche della bacheca
+    @Test
+    public void testCercaAbbinamenti() throws GestoreBachecaException {
+        AnnuncioAcquisto acquisto = new AnnuncioAcquisto("Cerco bici", "Bici da corsa", 300.0, utente1, Arrays.asList("bici", "corsa"));
+        AnnuncioVendita economica = new AnnuncioVendita("Vendo bici", "Bici usata", 100.0, utente2, Arrays.asList("bici"), false, LocalDate.now().plusDays(10));
+        AnnuncioVendita corsa = new AnnuncioVendita("Vendo bici da corsa", "Carbonio", 900.0, utente2, Arrays.asList("bici", "corsa"), false, LocalDate.now().plusDays(10));
+        AnnuncioVendita vicina = new AnnuncioVendita("Vendo bici", "Come nuova", 280.0, utente2, Arrays.asList("bici"), false, LocalDate.now().plusDays(10));
+        AnnuncioVendita propria = new AnnuncioVendita("Vendo bici", "Mia", 250.0, utente1, Arrays.asList("bici"), false, LocalDate.now().plusDays(10));
+        gestoreBacheca.aggiungiAnnuncio(economica);
+        gestoreBacheca.aggiungiAnnuncio(acquisto);
+        gestoreBacheca.aggiungiAnnuncio(propria);
+
+        // Il motore viene creato qui e indicizza gli annunci già presenti
+        assertEquals(Arrays.asList(economica), vendite(gestoreBacheca.cercaAbbinamenti(acquisto)));
+
+        // Più parole in comune prima, poi entro budget e vicino al budget
+        gestoreBacheca.aggiungiAnnuncio(corsa);
+        gestoreBacheca.aggiungiAnnuncio(vicina);
+        List<Abbinamento> abbinamenti = gestoreBacheca.cercaAbbinamenti(acquisto);
+        assertEquals(Arrays.asList(corsa, vicina, economica), vendite(abbinamenti));
+        assertEquals(2, abbinamenti.get(0).getParoleComuni());
+        assertFalse(abbinamenti.get(0).isEntroBudget());
+
+        // Vendite vendute, rimosse o con parole cambiate
+        vicina.setVenduto(true);
+        corsa.setParoleChiave(Arrays.asList("carbonio"));
+        assertEquals(Arrays.asList(economica), vendite(gestoreBacheca.cercaAbbinamenti(acquisto)));
+        vicina.setVenduto(false);
+        assertEquals(Arrays.asList(vicina, economica), vendite(gestoreBacheca.cercaAbbinamenti(acquisto)));
+        assertTrue(bacheca.rimuoviAnnuncio(economica.getId(), utente2));
+        assertEquals(Arrays.asList(vicina), vendite(gestoreBacheca.cercaAbbinamenti(acquisto)));
+
+        // Il budget è letto al momento della richiesta
+        acquisto.setParoleChiave(Arrays.asList("bici", "carbonio"));
+        acquisto.setPrezzo(1000.0);
+        assertEquals(Arrays.asList(corsa, vicina), vendite(gestoreBacheca.cercaAbbinamenti(acquisto)));
+
+        bacheca.svuotaBacheca();
+        assertTrue(gestoreBacheca.cercaAbbinamenti(acquisto).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaAbbinamenti(null));
+    }
+
+    private static List<AnnuncioVendita> vendite(List<Abbinamento> abbinamenti) {
+        return abbinamenti.stream().map(Abbinamento::getVendita).toList();
+    }
+
+    // Test per verificare l'abbinamento in blocco di tutti gli acquisti
+    @Test
+    public void testAbbinaTuttiGliAcquisti() throws GestoreBachecaException {
+        AnnuncioAcquisto bici = new AnnuncioAcquisto("Cerco bici", "Bici da corsa", 300.0, utente1, Arrays.asList("bici", "corsa"));
+        AnnuncioAcquisto libro = new AnnuncioAcquisto("Cerco libro", "Romanzo", 15.0, utente2, Arrays.asList("libro"));
+        AnnuncioVendita corsa = new AnnuncioVendita("Vendo bici da corsa", "Carbonio", 900.0, utente2, Arrays.asList("bici", "corsa"), false, LocalDate.now().plusDays(10));
+        AnnuncioVendita citta = new AnnuncioVendita("Vendo bici", "Da città", 250.0, utente2, Arrays.asList("bici"), false, LocalDate.now().plusDays(10));
+        AnnuncioVendita venduta = new AnnuncioVendita("Vendo bici", "Usata", 280.0, utente2, Arrays.asList("bici"), true, LocalDate.now().plusDays(10));
+        AnnuncioVendita propria = new AnnuncioVendita("Vendo libro", "Giallo", 10.0, utente2, Arrays.asList("libro"), false, LocalDate.now().plusDays(10));
+        for (Annuncio annuncio : Arrays.asList(bici, libro, corsa, citta, venduta, propria)) {
+            gestoreBacheca.aggiungiAnnuncio(annuncio);
+        }
+
+        List<AbbinamentiAcquisto> risultati = gestoreBacheca.abbinaTuttiGliAcquisti(5).toList();
+        assertEquals(Arrays.asList(bici, libro), risultati.stream().map(AbbinamentiAcquisto::getAcquisto).toList());
+        assertEquals(gestoreBacheca.cercaAbbinamenti(bici), risultati.get(0).getAbbinamenti());
+        assertEquals(Arrays.asList(corsa, citta), vendite(risultati.get(0).getAbbinamenti()));
+        assertTrue(risultati.get(1).getAbbinamenti().isEmpty());
+
+        // Solo i migliori
+        assertEquals(Arrays.asList(corsa), vendite(gestoreBacheca.abbinaTuttiGliAcquisti(1).findFirst().get().getAbbinamenti()));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.abbinaTuttiGliAcquisti(0));
+    }
+
+    // Test per verificare la vendita più economica per parola chiave
+    @Test
+    public void testCercaVenditaPiuEconomicaPerParola() throws GestoreBachecaException {
+        AnnuncioVendita libro = new AnnuncioVendita("Vendo libro", "Romanzo", 12.0, utente1, Arrays.asList("libro"), false, LocalDate.now().plusDays(5));
+        gestoreBacheca.aggiungiAnnuncio(libro);
+
+        assertEquals(libro, gestoreBacheca.cercaVenditaPiuEconomica("libro", 20.0));
+        assertNull(gestoreBacheca.cercaVenditaPiuEconomica("libro", 10.0));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaVenditaPiuEconomica(" ", 10.0));
+    }
+
+    // Test per verificare le notifiche delle ricerche salvate
+    @Test
+    public void testRicercheSalvate() throws GestoreBachecaException {
+        List<String> notifiche = new ArrayList<>();
+        gestoreBacheca.aggiungiAscoltatoreRicerche((ricerca, annuncio) ->
+            notifiche.add(ricerca.getUtente().getEmail() + " " + ricerca.getId() + " " + annuncio.getTitolo()));
+
+        RicercaSalvata bici = gestoreBacheca.salvaRicerca(utente1, Arrays.asList("Bici", "CORSA", "bici"), 300.0);
+        RicercaSalvata libri = gestoreBacheca.salvaRicerca(utente1, Arrays.asList("libro"), null);
+        assertEquals(Arrays.asList("bici", "corsa"), bici.getParoleChiave());
+        assertEquals(Arrays.asList(bici, libri), gestoreBacheca.getRicercheSalvate(utente1));
+
+        // Una sola notifica anche con due parole in comune
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioVendita("Bici da corsa", "Usata", 250.0, utente2, Arrays.asList("bici", "corsa"), false, LocalDate.now().plusDays(5)));
+        // Oltre il prezzo massimo
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioVendita("Bici in carbonio", "Nuova", 900.0, utente2, Arrays.asList("bici"), false, LocalDate.now().plusDays(5)));
+        // Annuncio dello stesso utente della ricerca
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco libro", "Giallo", 10.0, utente1, Arrays.asList("libro")));
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco libro", "Romanzo", 5000.0, utente2, Arrays.asList("libro")));
+        assertEquals(Arrays.asList(
+            "mario.rossi@email.com " + bici.getId() + " Bici da corsa",
+            "mario.rossi@email.com " + libri.getId() + " Cerco libro"), notifiche);
+
+        assertTrue(gestoreBacheca.rimuoviRicercaSalvata(bici.getId()));
+        assertFalse(gestoreBacheca.rimuoviRicercaSalvata(bici.getId()));
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioVendita("Bici", "Da città", 100.0, utente2, Arrays.asList("bici"), false, LocalDate.now().plusDays(5)));
+        assertEquals(2, notifiche.size());
+
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.salvaRicerca(null, Arrays.asList("bici"), null));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.salvaRicerca(utente1, Arrays.asList(" "), null));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.salvaRicerca(utente1, Arrays.asList("tv!"), null));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.salvaRicerca(utente1, Arrays.asList("bici"), -1.0));
+    }
+
+    // Test per verificare gli avvisi agli acquirenti quando una nuova vendita rientra nel budget
+    @Test
+    public void testAvvisiPrezzo() throws GestoreBachecaException {
+        List<String> avvisi = new ArrayList<>();
+        gestoreBacheca.aggiungiAscoltatoreAvvisiPrezzo((acquisto, vendita) ->
+            avvisi.add(acquisto.getUtente().getEmail() + " " + acquisto.getTitolo() + " " + vendita.getTitolo()));
+
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco bici", "Da corsa", 300.0, utente1, Arrays.asList("bici", "corsa")));
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco libro", "Giallo", 20.0, utente1, Arrays.asList("libro")));
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioAcquisto("Cerco bici usata", "Qualsiasi", 100.0, utente2, Arrays.asList("bici")));
+
+        // Una sola notifica per acquisto anche con due parole in comune; la
+        // vendita di utente2 non avvisa il suo stesso acquisto
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioVendita("Bici da corsa", "Usata", 80.0, utente2, Arrays.asList("bici", "corsa"), false, LocalDate.now().plusDays(5)));
+        // Oltre il budget
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioVendita("Libro raro", "Prima edizione", 500.0, utente2, Arrays.asList("libro"), false, LocalDate.now().plusDays(5)));
+        // Già venduta
+        gestoreBacheca.aggiungiAnnuncio(new AnnuncioVendita("Bici", "Da città", 50.0, utente2, Arrays.asList("bici"), true, LocalDate.now().plusDays(5)));
+        assertEquals(Arrays.asList("mario.rossi@email.com Cerco bici Bici da corsa"), avvisi);
+
+        AnnuncioVendita bici = new AnnuncioVendita("Bici", "Da città", 90.0, utente1, Arrays.asList("bici"), false, LocalDate.now().plusDays(5));
+        assertEquals(Arrays.asList("Cerco bici usata"),
+            gestoreBacheca.cercaAcquirentiPerVendita(bici).stream().map(Annuncio::getTitolo).toList());
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.cercaAcquirentiPerVendita(null));
+        assertThrows(IllegalArgumentException.class, () -> gestoreBacheca.aggiungiAscoltatoreAvvisiPrezzo(null));
+    }
+
+    // Test per verificare che gli annunci archiviati sopravvivano a salvataggio e caricamento
+    @Test
+    public void testArchivioSalvatoSuFile() throws Exception {
+        java.nio.file.Path cartella = java.nio.file.Files.createTempDirectory("bacheca");
+        String file = cartella.resolve("annunci.csv").toString();
+        java.nio.file.Path fileArchivio = cartella.resolve("annunci-archivio.csv");
+
+        bacheca.aggiungiAnnuncio(new AnnuncioVendita(100, "Vendo bici", "Bici da corsa", 300.0, utente1,
+            Arrays.asList("bici"), false, LocalDate.now().minusDays(1), true));
+        bacheca.aggiungiAnnuncio(new AnnuncioVendita(101, "Vendo auto", "Auto usata", 5000.0, utente1,
+            Arrays.asList("auto"), false, LocalDate.now().plusDays(5), true));
+        assertEquals(1, gestoreBacheca.rimuoviAnnunciScaduti().size());
+
+        gestoreBacheca.salvaSuFile(file);
+        assertTrue(java.nio.file.Files.exists(fileArchivio));
+
+        // Il caricamento ricostruisce sia la bacheca sia l'archivio
+        gestoreBacheca.leggiDaFile(file);
+        assertEquals(1, bacheca.getNumeroAnnunci());
+        assertEquals("Vendo auto", bacheca.getAnnunci()[0].getTitolo());
+        assertEquals(1, gestoreBacheca.getArchivio().size());
+        assertEquals("Vendo bici", gestoreBacheca.getArchivio().iterator().next().getTitolo());
+
+        // Un nuovo salvataggio non perde l'annuncio archiviato; con l'archivio
+        // vuoto il suo file viene eliminato
+        gestoreBacheca.salvaSuFile(file);
+        gestoreBacheca.leggiDaFile(file);
+        assertEquals(1, gestoreBacheca.getArchivio().size());
+        gestoreBacheca.getArchivio().svuota();
+        gestoreBacheca.salvaSuFile(file);
+        assertFalse(java.nio.file.Files.exists(fileArchivio));
+        java.nio.file.Files.delete(java.nio.file.Path.of(file));
+        java.nio.file.Files.delete(cartella);
+    }
 }
@@ -2,11 +2,13 @@ package view.cli;
 
 import controller.GestoreBacheca;
 import controller.GestoreUtenti;
+import controller.RicercaSalvata;
 import eccezioni.GestoreBachecaException;
 import bacheca.Annuncio;
 import bacheca.AnnuncioAcquisto;
 import bacheca.AnnuncioVendita;
-import bacheca.Bacheca;
+import bacheca.BachecaAnnunci;
+import bacheca.SuggerimentoParola;
 import bacheca.Utente;
 import jbook.util.Input;
 
@@ -27,10 +29,24 @@ public class MainCLI {
     private final GestoreBacheca gestoreBacheca;
     private final GestoreUtenti gestoreUtenti;
 
+    // Numero di parole chiave proposte per un prefisso ('pre*')
+    private static final int MAX_COMPLETAMENTI = 5;
+
     // Costruttore della classe CLI
     public MainCLI(GestoreBacheca gestoreBacheca, GestoreUtenti gestoreUtenti) {
         this.gestoreBacheca = gestoreBacheca;
         this.gestoreUtenti = gestoreUtenti;
+
+        // Notifiche delle ricerche salvate soddisfatte dai nuovi annunci
+        gestoreBacheca.aggiungiAscoltatoreRicerche((ricerca, annuncio) ->
+            System.out.println("*** Notifica per " + ricerca.getUtente().getEmail() + ": nuovo annuncio ID "
+                + annuncio.getId() + " '" + annuncio.getTitolo() + "' per la ricerca salvata " + ricerca));
+
+        // Avvisi agli acquirenti quando una nuova vendita rientra nel loro budget
+        gestoreBacheca.aggiungiAscoltatoreAvvisiPrezzo((acquisto, vendita) ->
+            System.out.println("*** Notifica per " + acquisto.getUtente().getEmail() + ": la vendita ID "
+                + vendita.getId() + " '" + vendita.getTitolo() + "' (" + vendita.getPrezzo()
+                + " EUR) rientra nel budget dell'acquisto ID " + acquisto.getId()));
     }
 
     // Metodo principale che avvia l'interfaccia CLI
@@ -63,6 +79,7 @@ public class MainCLI {
                 case 10 -> rimuoviUtente();          // Rimuove un utente dal sistema
                 case 11 -> cercaUtente();            // Cerca un utente per email
                 case 12 -> visualizzaUtenti();       // Visualizza tutti gli utenti registrati
+                case 13 -> salvaRicerca();           // Salva una ricerca per essere avvisati dei nuovi annunci
                 case 0 -> {
                     System.out.println("Uscita dal sistema.");
                     esegui = false; // Termina l'esecuzione
@@ -88,6 +105,7 @@ public class MainCLI {
                 10. Rimuovi Utente
                 11. Cerca Utente
                 12. Visualizza Tutti gli Utenti
+                13. Salva Ricerca (notifica dei nuovi annunci)
                 0. Esci
                 """);
     }
@@ -149,23 +167,20 @@ public class MainCLI {
         System.out.println("Utenti registrati: " + numUtenti);
         
         // Conta annunci
-        Annuncio[] annunci = gestoreBacheca.getBacheca().getAnnunci();
-        int numAnnunci = annunci.length;
+        int numAnnunci = gestoreBacheca.getBacheca().getNumeroAnnunci();
         System.out.println("Annunci totali: " + numAnnunci);
         
-        // Conta per tipo di annuncio
-        int annunciVendita = 0;
-        int annunciAcquisto = 0;
-        for (Annuncio a : annunci) {
-            if (a instanceof bacheca.AnnuncioVendita) {
-                annunciVendita++;
-            } else if (a instanceof bacheca.AnnuncioAcquisto) {
-                annunciAcquisto++;
-            }
-        }
+        // Conta per tipo di annuncio (dimensione delle partizioni della bacheca)
+        int annunciVendita = gestoreBacheca.getBacheca().getAnnunciVendita().size();
+        int annunciAcquisto = gestoreBacheca.getBacheca().getAnnunciAcquisto().size();
         
         System.out.println("- Annunci vendita: " + annunciVendita);
         System.out.println("- Annunci acquisto: " + annunciAcquisto);
+
+        // Stato delle vendite (aggregato sulle colonne della bacheca, senza scorrere gli annunci)
+        bacheca.StatisticheVendite statistiche = gestoreBacheca.getStatisticheVendite();
+        System.out.println("- Vendite disponibili: " + statistiche.getNumeroDisponibili()
+            + " (vendute: " + statistiche.getNumeroVendute() + ", scadute: " + statistiche.getNumeroScadute() + ")");
         
         System.out.println("------------------------------");
         System.out.println();
@@ -235,10 +250,35 @@ public class MainCLI {
     // Cerca annunci usando parole chiave inserite dall'utente
     private void cercaAnnuncio() {
         System.out.println("=== RICERCA ANNUNCI ===");
-        String inputParole = Input.readString("Inserisci parole chiave (separate da virgola): ");
-        List<String> paroleChiave = List.of(inputParole.split(","));
+        String inputParole = Input.readString("Inserisci parole chiave (separate da virgola, 'pre*' per completare un prefisso): ");
+        List<String> paroleChiave = new ArrayList<>();
+        for (String parola : inputParole.split(",")) {
+            if (parola.trim().endsWith("*")) {
+                // Prefisso: sostituito dalle parole chiave più usate che iniziano così
+                String prefisso = parola.trim().substring(0, parola.trim().length() - 1);
+                List<SuggerimentoParola> completamenti = gestoreBacheca.completaParolaChiave(prefisso, MAX_COMPLETAMENTI);
+                System.out.println("Completamenti di '" + parola.trim() + "': "
+                    + (completamenti.isEmpty() ? "nessuno" : completamenti.toString()));
+                for (SuggerimentoParola completamento : completamenti) {
+                    paroleChiave.add(completamento.getParola());
+                }
+            } else {
+                paroleChiave.add(parola);
+            }
+        }
+        if (paroleChiave.isEmpty()) {
+            System.out.println("Nessuna parola chiave da cercare.");
+            return;
+        }
 
         List<Annuncio> risultati = gestoreBacheca.cercaPerParoleChiave(new ArrayList<>(paroleChiave));
+        if (risultati.isEmpty()) {
+            // Nessun risultato esatto: riprova tollerando errori di battitura
+            risultati = gestoreBacheca.cercaPerParoleChiaveSimili(paroleChiave, 2);
+            if (!risultati.isEmpty()) {
+                System.out.println("Nessun annuncio con le parole chiave esatte, mostro quelli con parole simili.");
+            }
+        }
         if (risultati.isEmpty()) {
             System.out.println("Nessun annuncio trovato con le parole chiave: " + String.join(", ", paroleChiave));
         } else {
@@ -267,7 +307,7 @@ public class MainCLI {
     // Rimuove tutti gli annunci dalla bacheca
     private void pulisciBacheca() {
         System.out.println("=== PULIZIA BACHECA ===");
-        int annunciPrima = gestoreBacheca.getBacheca().getAnnunci().length;
+        int annunciPrima = gestoreBacheca.getBacheca().getNumeroAnnunci();
         
         if (annunciPrima == 0) {
             System.out.println("La bacheca e' gia' vuota.");
@@ -312,10 +352,10 @@ public class MainCLI {
     private void leggiBachecaDaFile() {
         String filePath = Input.readString("Inserisci il percorso del file da cui leggere: ");
         try {
-            Bacheca bachecaLetta = gestoreBacheca.leggiDaFile(filePath);
+            BachecaAnnunci bachecaLetta = gestoreBacheca.leggiDaFile(filePath);
             System.out.println("Bacheca caricata correttamente da: " + filePath);
             System.out.println("Annunci caricati:");
-            for (Annuncio a : bachecaLetta.getAnnunci()) {
+            for (Annuncio a : bachecaLetta.getFotografia()) {
                 System.out.println(a);
             }
         } catch (IOException e) {
@@ -330,23 +370,15 @@ public class MainCLI {
         System.out.println("=== TUTTI GLI ANNUNCI ===");
         System.out.println();
         
-        Annuncio[] annunci = gestoreBacheca.getBacheca().getAnnunci();
-        if (annunci.length == 0) {
+        // Fotografia coerente della bacheca: vendite e acquisti della stessa versione
+        bacheca.FotografiaBacheca fotografia = gestoreBacheca.getBacheca().getFotografia();
+        if (fotografia.isVuota()) {
             System.out.println("Nessun annuncio presente nella bacheca.");
             return;
         }
         
-        // Separa annunci di vendita e acquisto
-        List<bacheca.AnnuncioVendita> annunciVendita = new ArrayList<>();
-        List<bacheca.AnnuncioAcquisto> annunciAcquisto = new ArrayList<>();
-        
-        for (Annuncio a : annunci) {
-            if (a instanceof bacheca.AnnuncioVendita) {
-                annunciVendita.add((bacheca.AnnuncioVendita) a);
-            } else if (a instanceof bacheca.AnnuncioAcquisto) {
-                annunciAcquisto.add((bacheca.AnnuncioAcquisto) a);
-            }
-        }
+        List<bacheca.AnnuncioVendita> annunciVendita = fotografia.getVendite();
+        List<bacheca.AnnuncioAcquisto> annunciAcquisto = fotografia.getAcquisti();
         
         // Stampa annunci di vendita
         if (!annunciVendita.isEmpty()) {
@@ -422,6 +454,30 @@ public class MainCLI {
         }
     }
 
+    // Salva una ricerca per parole chiave: i nuovi annunci che la soddisfano vengono notificati
+    private void salvaRicerca() {
+        System.out.println("=== SALVA RICERCA ===");
+        String email = Input.readString("Inserisci la tua email (utente già registrato): ");
+        Utente utente = gestoreUtenti.cercaUtente(email);
+        if (utente == null) {
+            System.out.println("Utente non trovato. Registrati prima di salvare una ricerca.");
+            return;
+        }
+
+        String rawParole = Input.readString("Parole chiave (separate da virgola): ");
+        String rawPrezzo = Input.readString("Prezzo massimo (invio per nessun limite): ").trim();
+        try {
+            Double prezzoMassimo = rawPrezzo.isEmpty() ? null : Double.parseDouble(rawPrezzo);
+            RicercaSalvata ricerca = gestoreBacheca.salvaRicerca(utente, List.of(rawParole.split(",")), prezzoMassimo);
+            System.out.println("Ricerca salvata: " + ricerca);
+            System.out.println("Ricerche salvate da " + email + ": " + gestoreBacheca.getRicercheSalvate(utente).size());
+        } catch (NumberFormatException e) {
+            System.out.println("Prezzo massimo non valido: " + rawPrezzo);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Errore durante il salvataggio della ricerca: " + e.getMessage());
+        }
+    }
+
     // Metodo per rimuovere un utente dal sistema
     private void rimuoviUtente() {
         System.out.println("=== Rimozione Utente ===");
@@ -473,13 +529,8 @@ public class MainCLI {
                 System.out.println("--------------------------------------------------");
                 
                 for (Utente utente : utenti) {
-                    // Conta gli annunci dell'utente
-                    int annunciUtente = 0;
-                    for (Annuncio a : gestoreBacheca.getBacheca().getAnnunci()) {
-                        if (a.getUtente().equals(utente)) {
-                            annunciUtente++;
-                        }
-                    }
+                    // Conta gli annunci dell'utente (indice per proprietario della bacheca)
+                    int annunciUtente = gestoreBacheca.getBacheca().getAnnunciUtente(utente).getNumeroAnnunci();
                     
                     System.out.println("Nome: " + utente.getNome());
                     System.out.println("   Email: " + utente.getEmail());
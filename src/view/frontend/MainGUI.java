@@ -1,23 +1,32 @@
 package view.frontend;
 
+import controller.Abbinamento;
 import controller.GestoreBacheca;
 import controller.GestoreBachecaImpl;
 import controller.GestoreUtenti;
 import controller.GestoreUtentiImpl;
+import controller.ScadenzarioAnnunci;
 import eccezioni.GestoreBachecaException;
 import bacheca.Annuncio;
+import bacheca.AnnunciUtente;
 import bacheca.AnnuncioAcquisto;
 import bacheca.AnnuncioVendita;
 import bacheca.Bacheca;
+import bacheca.FotografiaBacheca;
+import bacheca.SuggerimentoParola;
 import bacheca.Utente;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
@@ -35,6 +44,10 @@ public class MainGUI extends JFrame {
     private JPanel tabellaPanel;
     private GestoreBacheca gestoreBacheca;
     private GestoreUtenti gestoreUtenti;
+    private ScadenzarioAnnunci scadenzario;
+
+    // Numero di parole chiave suggerite nel form di ricerca
+    private static final int MAX_SUGGERIMENTI = 8;
 
     public MainGUI(GestoreBacheca gestoreBacheca, GestoreUtenti gestoreUtenti) {
         this.gestoreBacheca = gestoreBacheca;
@@ -49,6 +62,24 @@ public class MainGUI extends JFrame {
 
         initComponents();
         caricaDatiIniziali();
+        avviaScadenzario();
+    }
+
+    // Rimuove in background gli annunci scaduti; la rimozione avviene
+    // sull'Event Dispatch Thread, come tutte le altre operazioni sulla bacheca
+    private void avviaScadenzario() {
+        scadenzario = new ScadenzarioAnnunci(gestoreBacheca, SwingUtilities::invokeLater, rimossi -> {
+            aggiungiTabelle(tabellaPanel);
+            tabellaPanel.revalidate();
+            tabellaPanel.repaint();
+        });
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                scadenzario.close();
+            }
+        });
+        scadenzario.avvia();
     }
 
     private void initComponents() {
@@ -151,21 +182,23 @@ public class MainGUI extends JFrame {
         panel.add(scrollAcquisto, gbc);
 
         // ** POPOLA LE TABELLE CON I DATI DELLA BACHECA **
-        for (Annuncio annuncio : gestoreBacheca.getBacheca().getAnnunci()) {
-            if (annuncio instanceof AnnuncioVendita vendita) {
-                modelVendita.addRow(new Object[]{
-                    vendita.getId(), vendita.getTitolo(), vendita.getDescrizione(),
-                    vendita.getPrezzo(), vendita.getUtente().getEmail(),
-                    String.join(", ", vendita.getParoleChiave()),
-                    vendita.getDataScadenza(), vendita.isVenduto()
-                });
-            } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
-                modelAcquisto.addRow(new Object[]{
-                    acquisto.getId(), acquisto.getTitolo(), acquisto.getDescrizione(),
-                    acquisto.getPrezzo(), acquisto.getUtente().getEmail(),
-                    String.join(", ", acquisto.getParoleChiave())
-                });
-            }
+        // Una sola fotografia per entrambe le tabelle: vendite e acquisti della
+        // stessa versione, già separati per tipo (nessun filtro con instanceof)
+        FotografiaBacheca fotografia = gestoreBacheca.getBacheca().getFotografia();
+        for (AnnuncioVendita vendita : fotografia.getVendite()) {
+            modelVendita.addRow(new Object[]{
+                vendita.getId(), vendita.getTitolo(), vendita.getDescrizione(),
+                vendita.getPrezzo(), vendita.getUtente().getEmail(),
+                String.join(", ", vendita.getParoleChiave()),
+                vendita.getDataScadenza(), vendita.isVenduto()
+            });
+        }
+        for (AnnuncioAcquisto acquisto : fotografia.getAcquisti()) {
+            modelAcquisto.addRow(new Object[]{
+                acquisto.getId(), acquisto.getTitolo(), acquisto.getDescrizione(),
+                acquisto.getPrezzo(), acquisto.getUtente().getEmail(),
+                String.join(", ", acquisto.getParoleChiave())
+            });
         }
 
         panel.revalidate();
@@ -366,15 +399,11 @@ public class MainGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(colonne, 0);
 
         for (Utente utente : gestoreUtenti.getUtentiRegistrati()) {
-            long annunciVendita = Arrays.stream(gestoreBacheca.getBacheca().getAnnunci())
-                .filter(a -> a instanceof AnnuncioVendita && a.getUtente().equals(utente))
-                .count();
-
-            long annunciAcquisto = Arrays.stream(gestoreBacheca.getBacheca().getAnnunci())
-                .filter(a -> a instanceof AnnuncioAcquisto && a.getUtente().equals(utente))
-                .count();
+            // Conteggi letti dall'indice per proprietario della bacheca
+            AnnunciUtente annunciUtente = gestoreBacheca.getBacheca().getAnnunciUtente(utente);
 
-            model.addRow(new Object[]{utente.getNome(), utente.getEmail(), annunciVendita, annunciAcquisto});
+            model.addRow(new Object[]{utente.getNome(), utente.getEmail(),
+                annunciUtente.getNumeroVendite(), annunciUtente.getNumeroAcquisti()});
         }
 
         JTable table = new JTable(model);
@@ -511,15 +540,11 @@ public class MainGUI extends JFrame {
         DefaultTableModel model = new DefaultTableModel(colonne, 0);
 
         for (Utente utente : gestoreUtenti.getUtentiRegistrati()) {
-            long annunciVendita = Arrays.stream(gestoreBacheca.getBacheca().getAnnunci())
-                .filter(a -> a instanceof AnnuncioVendita && a.getUtente().equals(utente))
-                .count();
+            // Conteggi letti dall'indice per proprietario della bacheca
+            AnnunciUtente annunciUtente = gestoreBacheca.getBacheca().getAnnunciUtente(utente);
 
-            long annunciAcquisto = Arrays.stream(gestoreBacheca.getBacheca().getAnnunci())
-                .filter(a -> a instanceof AnnuncioAcquisto && a.getUtente().equals(utente))
-                .count();
-
-            model.addRow(new Object[]{utente.getNome(), utente.getEmail(), annunciVendita, annunciAcquisto});
+            model.addRow(new Object[]{utente.getNome(), utente.getEmail(),
+                annunciUtente.getNumeroVendite(), annunciUtente.getNumeroAcquisti()});
         }
 
         JTable table = new JTable(model);
@@ -714,21 +739,23 @@ public class MainGUI extends JFrame {
         // ====================
         // Popolamento delle Tabelle
         // ====================
-        for (Annuncio annuncio : gestoreBacheca.getBacheca().getAnnunci()) {
-            if (annuncio instanceof AnnuncioVendita vendita) {
-                modelVendita.addRow(new Object[]{
-                    vendita.getId(), vendita.getTitolo(), vendita.getDescrizione(),
-                    vendita.getPrezzo(), vendita.getUtente().getEmail(),
-                    String.join(", ", vendita.getParoleChiave()),
-                    vendita.getDataScadenza(), vendita.isVenduto()
-                });
-            } else if (annuncio instanceof AnnuncioAcquisto acquisto) {
-                modelAcquisto.addRow(new Object[]{
-                    acquisto.getId(), acquisto.getTitolo(), acquisto.getDescrizione(),
-                    acquisto.getPrezzo(), acquisto.getUtente().getEmail(),
-                    String.join(", ", acquisto.getParoleChiave())
-                });
-            }
+        // Una sola fotografia per entrambe le tabelle: vendite e acquisti della
+        // stessa versione, già separati per tipo (nessun filtro con instanceof)
+        FotografiaBacheca fotografia = gestoreBacheca.getBacheca().getFotografia();
+        for (AnnuncioVendita vendita : fotografia.getVendite()) {
+            modelVendita.addRow(new Object[]{
+                vendita.getId(), vendita.getTitolo(), vendita.getDescrizione(),
+                vendita.getPrezzo(), vendita.getUtente().getEmail(),
+                String.join(", ", vendita.getParoleChiave()),
+                vendita.getDataScadenza(), vendita.isVenduto()
+            });
+        }
+        for (AnnuncioAcquisto acquisto : fotografia.getAcquisti()) {
+            modelAcquisto.addRow(new Object[]{
+                acquisto.getId(), acquisto.getTitolo(), acquisto.getDescrizione(),
+                acquisto.getPrezzo(), acquisto.getUtente().getEmail(),
+                String.join(", ", acquisto.getParoleChiave())
+            });
         }
 
         dialog.add(contenitoreTabelle);
@@ -736,17 +763,8 @@ public class MainGUI extends JFrame {
     }
 
     private void pulisciBacheca(ActionEvent e) {
-        // Ottieni il numero di annunci prima della pulizia
-        int annunciPrima = gestoreBacheca.getBacheca().getAnnunci().length;
-
-        // Esegui la pulizia della bacheca
-        gestoreBacheca.pulisciBacheca();
-
-        // Ottieni il numero di annunci dopo la pulizia
-        int annunciDopo = gestoreBacheca.getBacheca().getAnnunci().length;
-
-        // Calcola quanti annunci sono stati eliminati
-        int annunciEliminati = annunciPrima - annunciDopo;
+        // Rimuovi solo gli annunci scaduti (indice delle scadenze, nessuna scansione)
+        int annunciEliminati = scadenzario.controllaScadenze().size();
 
         // Aggiorna la tabella principale
         aggiungiTabelle(tabellaPanel);
@@ -768,13 +786,19 @@ public class MainGUI extends JFrame {
     }
 
     //cerca annunci di vendita che condividono parole chiave con l’annuncio di acquisto.
-    private List<AnnuncioVendita> cercaAnnunciVenditaCorrelati(List<String> paroleChiaveAcquisto) {
-        return Arrays.stream(gestoreBacheca.getBacheca().getAnnunci())
+    //Gli abbinamenti sono già calcolati dal gestore, dal più rilevante.
+    private List<AnnuncioVendita> cercaAnnunciVenditaCorrelati(AnnuncioAcquisto acquisto) {
+        return gestoreBacheca.cercaAbbinamenti(acquisto).stream()
+            .map(Abbinamento::getVendita)
+            .toList();
+    }
+
+    //cerca annunci di vendita con almeno una delle parole chiave indicate.
+    //Le parole sono confrontate in forma normalizzata tramite l'indice della bacheca.
+    private List<AnnuncioVendita> cercaVenditePerParoleChiave(List<String> paroleChiave) {
+        return gestoreBacheca.cercaPerParoleChiave(paroleChiave).stream()
             .filter(annuncio -> annuncio instanceof AnnuncioVendita)
             .map(annuncio -> (AnnuncioVendita) annuncio)
-            .filter(vendita -> vendita.getParoleChiave().stream()
-                .map(String::toLowerCase)
-                .anyMatch(paroleChiaveAcquisto::contains))
             .toList();
     }
 
@@ -864,17 +888,19 @@ public class MainGUI extends JFrame {
                     nuovoAnnuncio = new AnnuncioVendita(titolo, descrizione, prezzo, utente, paroleChiave, false, dataScadenza);
                 } else {
                     nuovoAnnuncio = new AnnuncioAcquisto(titolo, descrizione, prezzo, utente, paroleChiave);
+                }
 
+                gestoreBacheca.aggiungiAnnuncio(nuovoAnnuncio);
+
+                if (nuovoAnnuncio instanceof AnnuncioAcquisto acquisto) {
                     // Cerca annunci di vendita con parole chiave in comune
-                    List<AnnuncioVendita> annunciCorrelati = cercaAnnunciVenditaCorrelati(paroleChiave);
+                    List<AnnuncioVendita> annunciCorrelati = cercaAnnunciVenditaCorrelati(acquisto);
 
                     // Mostra gli annunci correlati in una finestra se ci sono corrispondenze
                     if (!annunciCorrelati.isEmpty()) {
                         mostraAnnunciVenditaCorrelati(annunciCorrelati);
                     }
                 }
-
-                gestoreBacheca.aggiungiAnnuncio(nuovoAnnuncio);
                 JOptionPane.showMessageDialog(dialog, "Annuncio aggiunto con successo!");
                 dialog.dispose();
             } catch (Exception ex) {
@@ -1080,26 +1106,63 @@ public class MainGUI extends JFrame {
 
     private void mostraFormCercaAnnunci(ActionEvent e) {
         JDialog dialog = new JDialog(this, "Cerca Annunci per Parole Chiave", true);
-        dialog.setSize(400, 200);
-        dialog.setMinimumSize(new Dimension(350, 200));
+        dialog.setSize(400, 320);
+        dialog.setMinimumSize(new Dimension(350, 320));
         dialog.setLocationRelativeTo(this);
 
         JPanel formPanel = new JPanel(new GridLayout(0, 1));
 
         JTextField paroleChiaveField = new JTextField();
 
+        // Suggerimenti per l'ultima parola che si sta scrivendo, dalla più usata
+        DefaultListModel<SuggerimentoParola> suggerimentiModel = new DefaultListModel<>();
+        JList<SuggerimentoParola> suggerimentiList = new JList<>(suggerimentiModel);
+        suggerimentiList.setVisibleRowCount(MAX_SUGGERIMENTI);
+        paroleChiaveField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent event) {
+                aggiornaSuggerimenti(paroleChiaveField.getText(), suggerimentiModel);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent event) {
+                aggiornaSuggerimenti(paroleChiaveField.getText(), suggerimentiModel);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent event) {
+                aggiornaSuggerimenti(paroleChiaveField.getText(), suggerimentiModel);
+            }
+        });
+        // Clic su un suggerimento: sostituisce l'ultima parola e ne prepara un'altra
+        suggerimentiList.addListSelectionListener(event -> {
+            SuggerimentoParola scelto = suggerimentiList.getSelectedValue();
+            if (!event.getValueIsAdjusting() && scelto != null) {
+                String testo = paroleChiaveField.getText();
+                String precedenti = testo.substring(0, testo.lastIndexOf(',') + 1);
+                SwingUtilities.invokeLater(() -> {
+                    paroleChiaveField.setText(precedenti + (precedenti.isEmpty() ? "" : " ") + scelto.getParola() + ", ");
+                    paroleChiaveField.requestFocusInWindow();
+                });
+            }
+        });
+
         JButton cercaButton = new JButton("Cerca");
         cercaButton.addActionListener(event -> {
             String[] paroleChiaveArray = paroleChiaveField.getText().split(",");
 
-            // Normalizzazione delle parole chiave: rimuove spazi e converte tutto in minuscolo
-            List<String> paroleChiave = Arrays.stream(paroleChiaveArray)
-                                              .map(String::trim)
-                                              .map(String::toLowerCase)
-                                              .toList();
-
-            // Cerca gli annunci di vendita correlati
-            List<AnnuncioVendita> annunciCorrelati = cercaAnnunciVenditaCorrelati(paroleChiave);
+            // Le parole chiave vengono normalizzate dalla bacheca durante la ricerca
+            List<String> paroleChiave = Arrays.asList(paroleChiaveArray);
+
+            // Cerca gli annunci di vendita correlati; se non ce ne sono
+            // riprova tollerando errori di battitura ("chitara" -> "chitarra")
+            List<AnnuncioVendita> annunciCorrelati = cercaVenditePerParoleChiave(paroleChiave);
+            if (annunciCorrelati.isEmpty()) {
+                annunciCorrelati = gestoreBacheca.cercaPerParoleChiaveSimili(paroleChiave, 2).stream()
+                    .filter(annuncio -> annuncio instanceof AnnuncioVendita)
+                    .map(annuncio -> (AnnuncioVendita) annuncio)
+                    .toList();
+            }
 
             // Se siamo nella vista compatta -> Mostra popup con i risultati
             if (getWidth() <= 900) {
@@ -1121,10 +1184,21 @@ public class MainGUI extends JFrame {
         formPanel.add(paroleChiaveField);
         formPanel.add(cercaButton);
 
-        dialog.add(formPanel);
+        dialog.setLayout(new BorderLayout());
+        dialog.add(formPanel, BorderLayout.NORTH);
+        dialog.add(new JScrollPane(suggerimentiList), BorderLayout.CENTER);
         dialog.setVisible(true);
     }
 
+    // Completa l'ultima parola (dopo l'ultima virgola) con le parole chiave in bacheca
+    private void aggiornaSuggerimenti(String testo, DefaultListModel<SuggerimentoParola> suggerimentiModel) {
+        String prefisso = testo.substring(testo.lastIndexOf(',') + 1).trim();
+        suggerimentiModel.clear();
+        if (!prefisso.isEmpty()) {
+            suggerimentiModel.addAll(gestoreBacheca.completaParolaChiave(prefisso, MAX_SUGGERIMENTI));
+        }
+    }
+
     private void caricaDatiIniziali() {
         System.out.println("=== DEBUG: Avvio caricamento dati ===");
 